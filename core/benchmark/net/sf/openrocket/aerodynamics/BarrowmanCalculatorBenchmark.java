@@ -0,0 +1,67 @@
+package net.sf.openrocket.aerodynamics;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.benchmark.BenchmarkApplication;
+import net.sf.openrocket.rocketcomponent.Configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the aerodynamic force calculation of the test rockets.  The Mach
+ * number and angle of attack cycle through a range of subsonic flight conditions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarrowmanCalculatorBenchmark {
+	
+	private static final int CONDITIONS = 64;
+	
+	@Param({ "BarrowmanCalculator", "TabulatedBarrowmanCalculator" })
+	public String calculatorClass;
+	
+	@Param({ "smallFlyable", "bigBlue", "isoHaisu" })
+	public String design;
+	
+	private AerodynamicCalculator calculator;
+	private Configuration configuration;
+	private FlightConditions conditions;
+	private final WarningSet warnings = new WarningSet();
+	private int count = 0;
+	
+	
+	@Setup
+	public void setup() throws Exception {
+		BenchmarkApplication.initialize();
+		
+		configuration = BenchmarkApplication.makeRocket(design).getDefaultConfiguration();
+		conditions = new FlightConditions(configuration);
+		conditions.setTheta(0.3);
+		conditions.setRollRate(0);
+		calculator = (AerodynamicCalculator) Class.forName("net.sf.openrocket.aerodynamics." + calculatorClass).newInstance();
+	}
+	
+	
+	@Benchmark
+	public AerodynamicForces getAerodynamicForces() {
+		int n = count++ % CONDITIONS;
+		conditions.setMach(0.05 + 0.01 * n);
+		conditions.setAOA((n % 8) * Math.PI / 180);
+		return calculator.getAerodynamicForces(configuration, conditions, warnings);
+	}
+
+}
@@ -0,0 +1,68 @@
+package net.sf.openrocket.benchmark;
+
+import java.io.File;
+import java.util.Collections;
+
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.RK4SimulationStepper;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+import com.google.inject.Guice;
+
+/**
+ * Common setup of the JMH benchmarks.
+ */
+public class BenchmarkApplication {
+	
+	private static boolean initialized = false;
+	
+	/**
+	 * Initialize the Application with the headless services.  The motor database
+	 * is loaded in the background.  This method may be called multiple times.
+	 */
+	public static synchronized void initialize() {
+		if (initialized)
+			return;
+		
+		HeadlessModule module = new HeadlessModule(Collections.<File> emptyList());
+		Application.setInjector(Guice.createInjector(module, new PluginModule()));
+		module.startLoader();
+		initialized = true;
+	}
+	
+	/**
+	 * Return a new test rocket by name, one of "smallFlyable", "bigBlue" and "isoHaisu".
+	 */
+	public static Rocket makeRocket(String design) {
+		if (design.equals("smallFlyable"))
+			return TestRockets.makeSmallFlyable();
+		if (design.equals("bigBlue"))
+			return TestRockets.makeBigBlue();
+		if (design.equals("isoHaisu"))
+			return TestRockets.makeIsoHaisu();
+		throw new IllegalArgumentException("Unknown rocket design " + design);
+	}
+	
+	/**
+	 * Return simulation options with fixed launch conditions, so that each run of
+	 * a benchmark simulates the same flight.
+	 */
+	public static SimulationOptions createOptions(Rocket rocket) {
+		SimulationOptions options = new SimulationOptions(rocket);
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setISAAtmosphere(true);
+		options.setLaunchRodLength(1);
+		options.setLaunchRodAngle(0.05);
+		options.setLaunchLatitude(28.61);
+		options.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+		options.setWindSpeedAverage(2);
+		options.setWindTurbulenceIntensity(0.1);
+		options.setRandomSeed(42);
+		return options;
+	}
+
+}
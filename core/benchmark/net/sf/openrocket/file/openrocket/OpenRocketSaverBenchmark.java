@@ -0,0 +1,88 @@
+package net.sf.openrocket.file.openrocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.benchmark.BenchmarkApplication;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.DatabaseMotorFinder;
+import net.sf.openrocket.file.DocumentLoadingContext;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.file.openrocket.importt.OpenRocketLoader;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.util.TestRockets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of saving and loading an OpenRocket document containing the small
+ * flyable test rocket and one simulation, with or without the simulated flight data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenRocketSaverBenchmark {
+	
+	@Param({ "true", "false" })
+	public boolean simulationData;
+	
+	private final OpenRocketSaver saver = new OpenRocketSaver();
+	private OpenRocketDocument document;
+	private StorageOptions options;
+	private byte[] saved;
+	
+	
+	@Setup
+	public void setup() throws Exception {
+		BenchmarkApplication.initialize();
+		
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation simulation = new Simulation(rocket);
+		simulation.getOptions().setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		simulation.getOptions().setRandomSeed(42);
+		simulation.simulate();
+		document.addSimulation(simulation);
+		
+		options = new StorageOptions();
+		options.setSimulationTimeSkip(simulationData ? StorageOptions.SIMULATION_DATA_ALL : StorageOptions.SIMULATION_DATA_NONE);
+		saved = save();
+	}
+	
+	
+	@Benchmark
+	public byte[] save() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		saver.save(output, document, options);
+		return output.toByteArray();
+	}
+	
+	
+	@Benchmark
+	public OpenRocketDocument load() throws RocketLoadException {
+		DocumentLoadingContext context = new DocumentLoadingContext();
+		context.setOpenRocketDocument(OpenRocketDocumentFactory.createEmptyRocket());
+		context.setMotorFinder(new DatabaseMotorFinder());
+		new OpenRocketLoader().load(context, new ByteArrayInputStream(saved));
+		return context.getOpenRocketDocument();
+	}
+
+}
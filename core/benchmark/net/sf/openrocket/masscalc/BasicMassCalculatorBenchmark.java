@@ -0,0 +1,56 @@
+package net.sf.openrocket.masscalc;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.benchmark.BenchmarkApplication;
+import net.sf.openrocket.masscalc.MassCalculator.MassCalcType;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.util.Coordinate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the CG calculation of the test rockets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasicMassCalculatorBenchmark {
+	
+	@Param({ "smallFlyable", "bigBlue", "isoHaisu" })
+	public String design;
+	
+	@Param({ "NO_MOTORS", "LAUNCH_MASS", "BURNOUT_MASS" })
+	public MassCalcType type;
+	
+	private final MassCalculator calculator = new BasicMassCalculator();
+	private Configuration configuration;
+	
+	
+	@Setup
+	public void setup() {
+		BenchmarkApplication.initialize();
+		
+		configuration = BenchmarkApplication.makeRocket(design).getDefaultConfiguration();
+	}
+	
+	
+	@Benchmark
+	public Coordinate getCG() {
+		return calculator.getCG(configuration, type);
+	}
+
+}
@@ -0,0 +1,77 @@
+package net.sf.openrocket.motor;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
+import net.sf.openrocket.util.Coordinate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of stepping a thrust curve motor instance through its burn.  Each
+ * invocation creates a new motor instance and steps it past burnout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThrustCurveMotorInstanceBenchmark {
+	
+	private static final int STEPS = 100;
+	private static final double BURN_TIME = 2.0;
+	
+	/** Number of points in the thrust curve. */
+	@Param({ "8", "64" })
+	public int points;
+	
+	/** Time step relative to the spacing of the thrust curve points. */
+	@Param({ "0.1", "1.0" })
+	public double relativeStep;
+	
+	private ThrustCurveMotor motor;
+	private final AtmosphericConditions atmosphere = new AtmosphericConditions();
+	private double timeStep;
+	
+	
+	@Setup
+	public void setup() {
+		double[] time = new double[points];
+		double[] thrust = new double[points];
+		Coordinate[] cg = new Coordinate[points];
+		for (int i = 0; i < points; i++) {
+			time[i] = BURN_TIME * i / (points - 1);
+			thrust[i] = (i == 0 || i == points - 1) ? 0 : 20 + 10 * Math.sin(i);
+			cg[i] = new Coordinate(0.035, 0, 0, 0.04 - 0.02 * i / (points - 1));
+		}
+		motor = new ThrustCurveMotor(Manufacturer.getManufacturer("A"), "F30", "Benchmark motor",
+				Motor.Type.SINGLE, new double[] { 5 }, 0.018, 0.07, time, thrust, cg, "benchmark");
+		timeStep = relativeStep * BURN_TIME / (points - 1);
+	}
+	
+	
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public double step() {
+		MotorInstance instance = motor.getInstance();
+		double total = 0;
+		for (int i = 1; i <= STEPS; i++) {
+			instance.step(i * timeStep, 0, atmosphere);
+			total += instance.getThrust();
+		}
+		return total;
+	}
+
+}
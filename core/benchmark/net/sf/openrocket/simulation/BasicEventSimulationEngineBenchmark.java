@@ -0,0 +1,65 @@
+package net.sf.openrocket.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
+import net.sf.openrocket.benchmark.BenchmarkApplication;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.util.TestRockets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a complete simulation from launch to ground hit.
+ * <p>
+ * Only the small flyable test rocket is simulated, as the other test rocket
+ * designs do not have motors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BasicEventSimulationEngineBenchmark {
+	
+	@Param({ "RK4SimulationStepper", "DormandPrinceSimulationStepper" })
+	public String stepperClass;
+	
+	@Param({ "BarrowmanCalculator", "TabulatedBarrowmanCalculator" })
+	public String calculatorClass;
+	
+	private SimulationOptions options;
+	private Class<? extends SimulationStepper> stepper;
+	private Class<? extends AerodynamicCalculator> calculator;
+	
+	
+	@Setup
+	public void setup() throws Exception {
+		BenchmarkApplication.initialize();
+		
+		options = BenchmarkApplication.createOptions(TestRockets.makeSmallFlyable());
+		stepper = Class.forName("net.sf.openrocket.simulation." + stepperClass).asSubclass(SimulationStepper.class);
+		calculator = Class.forName("net.sf.openrocket.aerodynamics." + calculatorClass).asSubclass(AerodynamicCalculator.class);
+	}
+	
+	
+	@Benchmark
+	public FlightData simulate() throws SimulationException, ReflectiveOperationException {
+		SimulationConditions conditions = options.toSimulationConditions();
+		conditions.setSimulationStepperClass(stepper);
+		conditions.setAerodynamicCalculator(calculator.newInstance());
+		return new BasicEventSimulationEngine().simulate(conditions);
+	}
+
+}
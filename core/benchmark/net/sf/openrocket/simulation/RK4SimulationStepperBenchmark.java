@@ -0,0 +1,88 @@
+package net.sf.openrocket.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+import net.sf.openrocket.benchmark.BenchmarkApplication;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.TestRockets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a single simulation step during powered and coasting flight.
+ * <p>
+ * The flight state is captured from a simulation of the small flyable test rocket.
+ * Each invocation steps a copy of the captured state with its own motor instances,
+ * storing the flight data to a new branch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RK4SimulationStepperBenchmark {
+	
+	private static final int STEPS = 20;
+	
+	@Param({ "RK4SimulationStepper", "DormandPrinceSimulationStepper" })
+	public String stepperClass;
+	
+	@Param({ "0.5", "2.0" })
+	public double startTime;
+	
+	private RK4SimulationStepper stepper;
+	private RK4SimulationStatus snapshot;
+	
+	
+	@Setup
+	public void setup() throws Exception {
+		BenchmarkApplication.initialize();
+		
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		SimulationConditions conditions = BenchmarkApplication.createOptions(rocket).toSimulationConditions();
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus status) {
+				if (snapshot == null && status.getSimulationTime() >= startTime) {
+					snapshot = new RK4SimulationStatus(status);
+				}
+			}
+		});
+		new BasicEventSimulationEngine().simulate(conditions);
+		if (snapshot == null) {
+			throw new IllegalStateException("Flight ended before " + startTime + " s");
+		}
+		
+		stepper = (RK4SimulationStepper) Class.forName("net.sf.openrocket.simulation." + stepperClass).newInstance();
+		// Initializes the random number generator of the stepper
+		stepper.initialize(snapshot);
+	}
+	
+	
+	@Benchmark
+	@OperationsPerInvocation(STEPS)
+	public double step() throws SimulationException {
+		RK4SimulationStatus status = snapshot.clone();
+		status.setMotorConfiguration(snapshot.getMotorConfiguration().clone());
+		status.setFlightData(new FlightDataBranch("Benchmark", FlightDataType.TYPE_TIME));
+		for (int i = 0; i < STEPS; i++) {
+			stepper.step(status, RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+		}
+		return status.getRocketPosition().z;
+	}
+
+}
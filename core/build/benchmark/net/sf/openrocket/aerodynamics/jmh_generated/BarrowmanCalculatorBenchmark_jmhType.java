@@ -0,0 +1,4 @@
+package net.sf.openrocket.aerodynamics.jmh_generated;
+public class BarrowmanCalculatorBenchmark_jmhType extends BarrowmanCalculatorBenchmark_jmhType_B3 {
+}
+
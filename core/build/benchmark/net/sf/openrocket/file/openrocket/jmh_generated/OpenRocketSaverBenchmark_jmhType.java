@@ -0,0 +1,4 @@
+package net.sf.openrocket.file.openrocket.jmh_generated;
+public class OpenRocketSaverBenchmark_jmhType extends OpenRocketSaverBenchmark_jmhType_B3 {
+}
+
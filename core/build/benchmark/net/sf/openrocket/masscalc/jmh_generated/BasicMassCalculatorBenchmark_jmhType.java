@@ -0,0 +1,4 @@
+package net.sf.openrocket.masscalc.jmh_generated;
+public class BasicMassCalculatorBenchmark_jmhType extends BasicMassCalculatorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.sf.openrocket.motor.jmh_generated;
+public class ThrustCurveMotorInstanceBenchmark_jmhType extends ThrustCurveMotorInstanceBenchmark_jmhType_B3 {
+}
+
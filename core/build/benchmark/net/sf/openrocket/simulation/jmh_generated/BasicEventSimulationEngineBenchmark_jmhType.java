@@ -0,0 +1,4 @@
+package net.sf.openrocket.simulation.jmh_generated;
+public class BasicEventSimulationEngineBenchmark_jmhType extends BasicEventSimulationEngineBenchmark_jmhType_B3 {
+}
+
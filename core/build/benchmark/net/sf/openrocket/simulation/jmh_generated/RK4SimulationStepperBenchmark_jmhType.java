@@ -0,0 +1,4 @@
+package net.sf.openrocket.simulation.jmh_generated;
+public class RK4SimulationStepperBenchmark_jmhType extends RK4SimulationStepperBenchmark_jmhType_B3 {
+}
+
@@ -1,10 +1,13 @@
 package net.sf.openrocket.aerodynamics;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.MathUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +26,15 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 	/** Number of divisions used when calculating worst CP. */
 	public static final int DIVISIONS = 360;
 	
+	/** Number of coarse search divisions per full revolution when calculating worst CP. */
+	private static final int COARSE_DIVISIONS = 72;
+	
+	/** Resolution of the worst CP search. */
+	private static final double THETA_RESOLUTION = 2 * Math.PI / DIVISIONS / 4;
+	
+	/** Number of worst CP results cached. */
+	private static final int WORST_CP_CACHE_SIZE = 8;
+	
 	/**
 	 * A <code>WarningSet</code> that can be used if <code>null</code> is passed
 	 * to a calculation method.
@@ -33,6 +45,9 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 	private int rocketAeroModID = -1;
 	private int rocketTreeModID = -1;
 	
+	/** Cached worst CP results, voided with the aerodynamic cache */
+	private final Map<WorstCPKey, WorstCP> worstCPCache = new LRUCache<WorstCPKey, WorstCP>(WORST_CP_CACHE_SIZE);
+	
 	
 
 
@@ -54,27 +69,88 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 
 	/*
 	 * The worst theta angle is stored in conditions.
+	 * 
+	 * The CP is searched for over one symmetry period of the rocket, first at coarse
+	 * intervals and then refined around the foremost coarse result.  The results are
+	 * cached until the aerodynamics of the rocket change.
 	 */
 	@Override
 	public Coordinate getWorstCP(Configuration configuration, FlightConditions conditions,
 			WarningSet warnings) {
+		checkCache(configuration);
+		
 		FlightConditions cond = conditions.clone();
+		cond.setTheta(0);
+		WorstCPKey key = new WorstCPKey(configuration.getActiveStages(), cond);
+		
+		WorstCP worst = worstCPCache.get(key);
+		if (worst == null) {
+			worst = searchWorstCP(configuration, cond.clone());
+			worstCPCache.put(key, worst);
+		}
+		
+		if (warnings != null) {
+			warnings.addAll(worst.warnings);
+		}
+		conditions.setTheta(worst.theta);
+		
+		return worst.cp;
+	}
+	
+	
+	private WorstCP searchWorstCP(Configuration configuration, FlightConditions cond) {
+		WarningSet warnings = new WarningSet();
+		double period = getWorstCPPeriod(configuration);
+		
+		if (period <= 0) {
+			cond.setTheta(0);
+			return new WorstCP(getCP(configuration, cond, warnings), 0, warnings);
+		}
+		
+		// Coarse search over one period
+		int divisions = Math.max(4, (int) Math.ceil(COARSE_DIVISIONS * period / (2 * Math.PI)));
+		double step = period / divisions;
 		Coordinate worst = new Coordinate(Double.MAX_VALUE);
-		Coordinate cp;
 		double theta = 0;
-		
-		for (int i = 0; i < DIVISIONS; i++) {
-			cond.setTheta(2 * Math.PI * i / DIVISIONS);
-			cp = getCP(configuration, cond, warnings);
+		for (int i = 0; i < divisions; i++) {
+			cond.setTheta(i * step);
+			Coordinate cp = getCP(configuration, cond, warnings);
 			if (cp.x < worst.x) {
 				worst = cp;
 				theta = cond.getTheta();
 			}
 		}
 		
-		conditions.setTheta(theta);
+		// Refine around the foremost point
+		while (step > THETA_RESOLUTION) {
+			step /= 2;
+			double center = theta;
+			for (int sign = -1; sign <= 1; sign += 2) {
+				cond.setTheta(center + sign * step);
+				Coordinate cp = getCP(configuration, cond, warnings);
+				if (cp.x < worst.x) {
+					worst = cp;
+					theta = cond.getTheta();
+				}
+			}
+		}
 		
-		return worst;
+		theta = MathUtil.reduce360(theta);
+		return new WorstCP(worst, theta, warnings);
+	}
+	
+	
+	/**
+	 * Return the period in theta at which the CP of the configuration repeats, or
+	 * zero if the CP does not depend on theta.  This is used to limit the range of
+	 * the worst CP search.  The default implementation makes no assumptions and
+	 * returns a full revolution.
+	 * 
+	 * @param configuration		the rocket configuration.
+	 * @return					the period of the CP as a function of theta, in radians.
+	 */
+	protected double getWorstCPPeriod(Configuration configuration) {
+		return 2 * Math.PI;
 	}
 	
 	
@@ -110,7 +186,43 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 	 * its execution.
 	 */
 	protected void voidAerodynamicCache() {
-		// No-op
+		worstCPCache.clear();
+	}
+	
+	
+	private static class WorstCPKey {
+		private final int[] stages;
+		private final FlightConditions conditions;
+		
+		public WorstCPKey(int[] stages, FlightConditions conditions) {
+			this.stages = stages;
+			this.conditions = conditions;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof WorstCPKey))
+				return false;
+			WorstCPKey other = (WorstCPKey) obj;
+			return Arrays.equals(stages, other.stages) && conditions.equals(other.conditions);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(stages) + 31 * conditions.hashCode();
+		}
+	}
+	
+	private static class WorstCP {
+		private final Coordinate cp;
+		private final double theta;
+		private final WarningSet warnings;
+		
+		public WorstCP(Coordinate cp, double theta, WarningSet warnings) {
+			this.cp = cp;
+			this.theta = theta;
+			this.warnings = warnings;
+		}
 	}
 	
 
@@ -3,40 +3,36 @@ package net.sf.openrocket.aerodynamics;
 import static net.sf.openrocket.util.MathUtil.pow2;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import net.sf.openrocket.aerodynamics.barrowman.FinSetCalc;
-import net.sf.openrocket.aerodynamics.barrowman.RocketComponentCalc;
 import net.sf.openrocket.rocketcomponent.Configuration;
-import net.sf.openrocket.rocketcomponent.ExternalComponent;
 import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
 import net.sf.openrocket.rocketcomponent.FinSet;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.rocketcomponent.TubeFinSet;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.PolyInterpolator;
-import net.sf.openrocket.util.Reflection;
 
 /**
  * An aerodynamic calculator that uses the extended Barrowman method to 
  * calculate the CP of a rocket.
+ * <p>
+ * The component calculation objects are obtained from a {@link BarrowmanModel}
+ * shared by all calculator instances, so creating new instances is cheap.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	
-	private static final String BARROWMAN_PACKAGE = "net.sf.openrocket.aerodynamics.barrowman";
-	private static final String BARROWMAN_SUFFIX = "Calc";
+	private BarrowmanModel model = null;
+	private RocketComponent[] components = null;
 	
-	
-	private Map<RocketComponent, RocketComponentCalc> calcMap = null;
-	
-	private double cacheDiameter = -1;
-	private double cacheLength = -1;
+	/** The configuration and its modification ID the calculation map was built for */
+	private Configuration calcMapConfiguration = null;
+	private int calcMapModID = -1;
 	
 	
 	
@@ -62,6 +58,30 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		return forces.getCP();
 	}
 	
+	/**
+	 * The CP depends on theta only through fin sets of one or two fins, whose normal
+	 * force coefficient varies with sin^2 of the angle to each fin and thus repeats
+	 * every half revolution.  Fin sets with three or more fins are modeled as independent
+	 * of theta.
+	 */
+	@Override
+	protected double getWorstCPPeriod(Configuration configuration) {
+		for (RocketComponent c : configuration) {
+			int finCount;
+			if (c instanceof FinSet) {
+				finCount = ((FinSet) c).getFinCount();
+			} else if (c instanceof TubeFinSet) {
+				finCount = ((TubeFinSet) c).getFinCount();
+			} else {
+				continue;
+			}
+			if (finCount == 1 || finCount == 2) {
+				return Math.PI;
+			}
+		}
+		return 0;
+	}
+	
 	@Override
 	public Map<RocketComponent, AerodynamicForces> getForceAnalysis(Configuration configuration,
 			FlightConditions conditions, WarningSet warnings) {
@@ -159,7 +179,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param force			the Aerodynamic forces to be applied with friction
 	 * @param conditions	the flight conditions in consideration
 	 */
-	private void applyFriction(AerodynamicForces force, FlightConditions conditions) {
+	void applyFriction(AerodynamicForces force, FlightConditions conditions) {
 		force.setCD(force.getFrictionCD() + force.getPressureCD() + force.getBaseCD());
 		force.setCaxial(calculateAxialDrag(conditions, force.getCD()));
 	}
@@ -169,7 +189,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * 
 	 * @param total 	the AerodynamicForces object to be applied with the damping
 	 */
-	private void applyDampingMoments(AerodynamicForces total) {
+	void applyDampingMoments(AerodynamicForces total) {
 		total.setCm(total.getCm() - total.getPitchDampingMoment());
 		total.setCyaw(total.getCyaw() - total.getYawDampingMoment());
 	}
@@ -193,15 +213,13 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	/**
 	 * Perform the actual CP calculation.
 	 */
-	private AerodynamicForces calculateNonAxialForces(Configuration configuration, FlightConditions conditions,
+	AerodynamicForces calculateNonAxialForces(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
 		
 		checkCache(configuration);
 		
 		AerodynamicForces total = new AerodynamicForces(true);
 		
-		double radius = 0; // aft radius of previous component
-		double componentX = 0; // aft coordinate of previous component
 		AerodynamicForces forces = new AerodynamicForces();
 		
 		if (warnings == null)
@@ -213,43 +231,24 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		
 		checkCalcMap(configuration);
 		
-		for (RocketComponent component : configuration) {
-			
-			// Skip non-aerodynamic components
-			if (!component.isAerodynamic())
-				continue;
-			
-			// Check for discontinuities
-			if (component instanceof SymmetricComponent) {
-				SymmetricComponent sym = (SymmetricComponent) component;
-				// TODO:LOW: Ignores other cluster components (not clusterable)
-				double x = component.toAbsolute(Coordinate.NUL)[0].x;
-				
-				// Check for lengthwise discontinuity
-				if (x > componentX + 0.0001) {
-					if (!MathUtil.equals(radius, 0)) {
-						warnings.add(Warning.DISCONTINUITY);
-						radius = 0;
-					}
-				}
-				componentX = component.toAbsolute(new Coordinate(component.getLength()))[0].x;
-				
-				// Check for radius discontinuity
-				if (!MathUtil.equals(sym.getForeRadius(), radius)) {
-					warnings.add(Warning.DISCONTINUITY);
-					// TODO: MEDIUM: Apply correction to values to cp and to map
-				}
-				radius = sym.getAftRadius();
-			}
+		// Check for discontinuities
+		// TODO:LOW: Ignores other cluster components (not clusterable)
+		// TODO: MEDIUM: Apply correction to values to cp and to map
+		if (model.isDiscontinuous()) {
+			warnings.add(Warning.DISCONTINUITY);
+		}
+		
+		for (int i = 0; i < model.getComponentCount(); i++) {
 			
 			// Call calculation method
 			forces.zero();
-			calcMap.get(component).calculateNonaxialForces(conditions, forces, warnings);
-			forces.setCP(component.toAbsolute(forces.getCP())[0]);
+			model.getCalc(i).calculateNonaxialForces(conditions, forces, warnings);
+			forces.setCP(model.toAbsolute(i, forces.getCP()));
 			forces.setCm(forces.getCN() * forces.getCP().x / conditions.getRefLength());
 			
 			//TODO: LOW: Why is it here? was this the todo from above? Vicilu
 			if (map != null) {
+				RocketComponent component = components[i];
 				AerodynamicForces f = map.get(component);
 				
 				f.setCP(forces.getCP());
@@ -292,7 +291,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param set				Set to handle 
 	 * @return
 	 */
-	private double calculateFrictionDrag(Configuration configuration, FlightConditions conditions,
+	double calculateFrictionDrag(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet set) {
 		double c1 = 1.0, c2 = 1.0;
 		
@@ -406,20 +405,18 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		
 		double finFriction = 0;
 		double bodyFriction = 0;
-		double maxR = 0, len = 0;
 		
 		double[] roughnessLimited = new double[Finish.values().length];
 		Arrays.fill(roughnessLimited, Double.NaN);
 		
-		for (RocketComponent c : configuration) {
+		for (int i = 0; i < model.getComponentCount(); i++) {
 			
 			// Consider only SymmetricComponents and FinSets:
-			if (!(c instanceof SymmetricComponent) &&
-					!(c instanceof FinSet))
+			if (!model.isSymmetric(i) && !model.isFin(i))
 				continue;
 			
 			// Calculate the roughness-limited friction coefficient
-			Finish finish = ((ExternalComponent) c).getFinish();
+			Finish finish = model.getFinish(i);
 			if (Double.isNaN(roughnessLimited[finish.ordinal()])) {
 				roughnessLimited[finish.ordinal()] = 0.032 * Math.pow(finish.getRoughnessSize() / configuration.getLength(), 0.2) *
 						roughnessCorrection;
@@ -449,41 +446,28 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			
 			
 			// Calculate the friction drag:
-			if (c instanceof SymmetricComponent) {
-				
-				SymmetricComponent s = (SymmetricComponent) c;
+			double cd = componentCf * model.getFrictionArea(i);
+			if (model.isSymmetric(i)) {
 				
-				bodyFriction += componentCf * s.getComponentWetArea();
+				bodyFriction += cd;
 				
 				if (map != null) {
 					// Corrected later
-					map.get(c).setFrictionCD(componentCf * s.getComponentWetArea()
-							/ conditions.getRefArea());
+					map.get(components[i]).setFrictionCD(cd / conditions.getRefArea());
 				}
 				
-				double r = Math.max(s.getForeRadius(), s.getAftRadius());
-				if (r > maxR)
-					maxR = r;
-				len += c.getLength();
-				
-			} else if (c instanceof FinSet) {
+			} else {
 				
-				FinSet f = (FinSet) c;
-				double mac = ((FinSetCalc) calcMap.get(c)).getMACLength();
-				double cd = componentCf * (1 + 2 * f.getThickness() / mac) *
-						2 * f.getFinCount() * f.getFinArea();
 				finFriction += cd;
 				
 				if (map != null) {
-					map.get(c).setFrictionCD(cd / conditions.getRefArea());
+					map.get(components[i]).setFrictionCD(cd / conditions.getRefArea());
 				}
 				
 			}
 			
 		}
-		// fB may be POSITIVE_INFINITY, but that's ok for us
-		double fB = (len + 0.0001) / maxR;
-		double correction = (1 + 1.0 / (2 * fB));
+		double correction = model.getFrictionCorrection();
 		
 		// Correct body data in map
 		if (map != null) {
@@ -498,12 +482,15 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	}
 	
 	/**
-	 * method to avoid repetition, create the calcMap if null
+	 * method to avoid repetition, create the calcMap if null or if the
+	 * configuration has changed
 	 * @param configuration the rocket configuration
 	 */
 	private void checkCalcMap(Configuration configuration) {
-		if (calcMap == null)
+		if (model == null || calcMapConfiguration != configuration ||
+				calcMapModID != configuration.getModID()) {
 			buildCalcMap(configuration);
+		}
 	}
 	
 	//TODO: LOW: clarify what map is doing here, or use it
@@ -516,7 +503,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param set				Set to handle 
 	 * @return
 	 */
-	private double calculatePressureDrag(Configuration configuration, FlightConditions conditions,
+	double calculatePressureDrag(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
 		
 		double stagnation, base, total;
@@ -528,34 +515,33 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		base = calculateBaseCD(conditions.getMach());
 		
 		total = 0;
-		for (RocketComponent c : configuration) {
-			if (!c.isAerodynamic())
-				continue;
+		for (int i = 0; i < model.getComponentCount(); i++) {
 			
 			// Pressure fore drag
-			double cd = calcMap.get(c).calculatePressureDragForce(conditions, stagnation, base,
+			double cd = model.getCalc(i).calculatePressureDragForce(conditions, stagnation, base,
 					warnings);
 			total += cd;
 			
 			if (map != null) {
-				map.get(c).setPressureCD(cd);
+				map.get(components[i]).setPressureCD(cd);
 			}
 			
 			
 			// Stagnation drag
-			if (c instanceof SymmetricComponent) {
-				SymmetricComponent s = (SymmetricComponent) c;
+			if (model.isSymmetric(i)) {
+				double foreRadius = model.getForeRadius(i);
 				
-				if (radius < s.getForeRadius()) {
-					double area = Math.PI * (pow2(s.getForeRadius()) - pow2(radius));
+				if (radius < foreRadius) {
+					double area = Math.PI * (pow2(foreRadius) - pow2(radius));
 					cd = stagnation * area / conditions.getRefArea();
 					total += cd;
 					if (map != null) {
-						map.get(c).setPressureCD(map.get(c).getPressureCD() + cd);
+						AerodynamicForces f = map.get(components[i]);
+						f.setPressureCD(f.getPressureCD() + cd);
 					}
 				}
 				
-				radius = s.getAftRadius();
+				radius = model.getAftRadius(i);
 			}
 		}
 		
@@ -572,35 +558,35 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param set				Set to handle 
 	 * @return
 	 */
-	private double calculateBaseDrag(Configuration configuration, FlightConditions conditions,
+	double calculateBaseDrag(Configuration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> map, WarningSet warnings) {
 		
 		double base, total;
 		double radius = 0;
-		RocketComponent prevComponent = null;
+		int prevComponent = -1;
 		
 		checkCalcMap(configuration);
 		
 		base = calculateBaseCD(conditions.getMach());
 		total = 0;
 		
-		for (RocketComponent c : configuration) {
-			if (!(c instanceof SymmetricComponent))
+		for (int i = 0; i < model.getComponentCount(); i++) {
+			if (!model.isSymmetric(i))
 				continue;
 			
-			SymmetricComponent s = (SymmetricComponent) c;
+			double foreRadius = model.getForeRadius(i);
 			
-			if (radius > s.getForeRadius()) {
-				double area = Math.PI * (pow2(radius) - pow2(s.getForeRadius()));
+			if (radius > foreRadius) {
+				double area = Math.PI * (pow2(radius) - pow2(foreRadius));
 				double cd = base * area / conditions.getRefArea();
 				total += cd;
 				if (map != null) {
-					map.get(prevComponent).setBaseCD(cd);
+					map.get(components[prevComponent]).setBaseCD(cd);
 				}
 			}
 			
-			radius = s.getAftRadius();
-			prevComponent = c;
+			radius = model.getAftRadius(i);
+			prevComponent = i;
 		}
 		
 		if (radius > 0) {
@@ -608,7 +594,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			double cd = base * area / conditions.getRefArea();
 			total += cd;
 			if (map != null) {
-				map.get(prevComponent).setBaseCD(cd);
+				map.get(components[prevComponent]).setBaseCD(cd);
 			}
 		}
 		
@@ -696,7 +682,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param conditions		flight conditions in consideration
 	 * @param total				acting aerodynamic forces
 	 */
-	private void calculateDampingMoments(Configuration configuration, FlightConditions conditions,
+	void calculateDampingMoments(Configuration configuration, FlightConditions conditions,
 			AerodynamicForces total) {
 		
 		// Calculate pitch and yaw damping moments
@@ -719,37 +705,22 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	
 	private double getDampingMultiplier(Configuration configuration, FlightConditions conditions,
 			double cgx) {
-		if (cacheDiameter < 0) {
-			double area = 0;
-			cacheLength = 0;
-			cacheDiameter = 0;
-			
-			for (RocketComponent c : configuration) {
-				if (c instanceof SymmetricComponent) {
-					SymmetricComponent s = (SymmetricComponent) c;
-					area += s.getComponentPlanformArea();
-					cacheLength += s.getLength();
-				}
-			}
-			if (cacheLength > 0)
-				cacheDiameter = area / cacheLength;
-		}
+		checkCalcMap(configuration);
+		
+		double diameter = model.getBodyDiameter();
+		double length = model.getBodyLength();
 		
 		double mul;
 		
 		// Body
-		mul = 0.275 * cacheDiameter / (conditions.getRefArea() * conditions.getRefLength());
-		mul *= (MathUtil.pow4(cgx) + MathUtil.pow4(cacheLength - cgx));
+		mul = 0.275 * diameter / (conditions.getRefArea() * conditions.getRefLength());
+		mul *= (MathUtil.pow4(cgx) + MathUtil.pow4(length - cgx));
 		
 		// Fins
-		// TODO: LOW: This could be optimized a lot...
-		for (RocketComponent c : configuration) {
-			if (c instanceof FinSet) {
-				FinSet f = (FinSet) c;
-				mul += 0.6 * Math.min(f.getFinCount(), 4) * f.getFinArea() *
-						MathUtil.pow3(Math.abs(f.toAbsolute(new Coordinate(
-								((FinSetCalc) calcMap.get(f)).getMidchordPos()))[0].x
-								- cgx))
+		for (int i = 0; i < model.getComponentCount(); i++) {
+			if (model.isFin(i)) {
+				mul += model.getFinDampingArea(i) *
+						MathUtil.pow3(Math.abs(model.getFinMidchordX(i) - cgx))
 						/
 						(conditions.getRefArea() * conditions.getRefLength());
 			}
@@ -765,30 +736,29 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	protected void voidAerodynamicCache() {
 		super.voidAerodynamicCache();
 		
-		calcMap = null;
-		cacheDiameter = -1;
-		cacheLength = -1;
+		model = null;
+		components = null;
+		calcMapConfiguration = null;
 	}
 	
 	/**
-	 * caches the map for aerodynamics calculations
+	 * caches the components for aerodynamics calculations from the shared model
 	 * @param configuration		the rocket configuration
 	 */
 	private void buildCalcMap(Configuration configuration) {
-		Iterator<RocketComponent> iterator;
-		
-		calcMap = new HashMap<RocketComponent, RocketComponentCalc>();
-		
-		iterator = configuration.getRocket().iterator();
-		while (iterator.hasNext()) {
-			RocketComponent c = iterator.next();
-			
-			if (!c.isAerodynamic())
-				continue;
-			
-			calcMap.put(c, (RocketComponentCalc) Reflection.construct(BARROWMAN_PACKAGE,
-					c, BARROWMAN_SUFFIX, c));
-		}
+		model = BarrowmanModel.get(configuration);
+		components = model.getComponents(configuration);
+		calcMapConfiguration = configuration;
+		calcMapModID = configuration.getModID();
+	}
+	
+	/**
+	 * Return the model currently used by this calculator.  Used for testing.
+	 */
+	BarrowmanModel getModel(Configuration configuration) {
+		checkCache(configuration);
+		checkCalcMap(configuration);
+		return model;
 	}
 	
 	
@@ -0,0 +1,372 @@
+package net.sf.openrocket.aerodynamics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.openrocket.aerodynamics.barrowman.FinSetCalc;
+import net.sf.openrocket.aerodynamics.barrowman.RocketComponentCalc;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.Reflection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The compiled geometry of a rocket configuration used by the {@link BarrowmanCalculator}.
+ * <p>
+ * The model contains the component calculation objects of the aerodynamic components
+ * in the order the configuration iterates them, together with flat arrays of the
+ * component parameters used on every calculation:  absolute positions, radii, finishes,
+ * friction areas and fin damping data.  The calculator loops over these arrays by index
+ * instead of iterating the configuration and looking up the components.
+ * <p>
+ * The model depends only on the aerodynamic and tree modification IDs of the
+ * rocket and on the active stages.  Since copies of a rocket retain the modification IDs,
+ * the same model is valid for all unmodified copies, such as the copies made for each
+ * simulation run.
+ * <p>
+ * Models are immutable and are shared between calculators and threads through
+ * {@link #get(Configuration)}.
+ */
+final class BarrowmanModel {
+	
+	private static final Logger log = LoggerFactory.getLogger(BarrowmanModel.class);
+	
+	private static final String BARROWMAN_PACKAGE = "net.sf.openrocket.aerodynamics.barrowman";
+	private static final String BARROWMAN_SUFFIX = "Calc";
+	
+	/** Number of models retained */
+	private static final int CACHE_SIZE = 32;
+	
+	private static final Map<Key, BarrowmanModel> cache = new LRUCache<Key, BarrowmanModel>(CACHE_SIZE);
+	
+	
+	private final RocketComponentCalc[] calcs;
+	
+	// Per-component data, indexed as calcs
+	private final boolean[] symmetric;
+	private final boolean[] fin;
+	private final double[] foreRadius;
+	private final double[] aftRadius;
+	private final double[] positionX;
+	private final double[] positionY;
+	private final double[] positionZ;
+	private final Finish[] finish;
+	private final double[] frictionArea;
+	private final double[] finDampingArea;
+	private final double[] finMidchordX;
+	
+	private final boolean discontinuous;
+	private final double frictionCorrection;
+	private final double bodyDiameter;
+	private final double bodyLength;
+	
+	
+	private BarrowmanModel(Configuration configuration) {
+		List<RocketComponent> components = new ArrayList<RocketComponent>();
+		double area = 0;
+		double length = 0;
+		
+		for (RocketComponent c : configuration) {
+			if (c instanceof SymmetricComponent) {
+				SymmetricComponent s = (SymmetricComponent) c;
+				area += s.getComponentPlanformArea();
+				length += s.getLength();
+			}
+			
+			if (!c.isAerodynamic())
+				continue;
+			
+			components.add(c);
+		}
+		
+		int n = components.size();
+		calcs = new RocketComponentCalc[n];
+		symmetric = new boolean[n];
+		fin = new boolean[n];
+		foreRadius = new double[n];
+		aftRadius = new double[n];
+		positionX = new double[n];
+		positionY = new double[n];
+		positionZ = new double[n];
+		finish = new Finish[n];
+		frictionArea = new double[n];
+		finDampingArea = new double[n];
+		finMidchordX = new double[n];
+		
+		boolean discontinuity = false;
+		double radius = 0; // aft radius of previous component
+		double componentX = 0; // aft coordinate of previous component
+		double maxR = 0, len = 0;
+		
+		for (int i = 0; i < n; i++) {
+			RocketComponent c = components.get(i);
+			calcs[i] = (RocketComponentCalc) Reflection.construct(BARROWMAN_PACKAGE,
+					c, BARROWMAN_SUFFIX, c);
+			
+			Coordinate position = c.toAbsolute(Coordinate.NUL)[0];
+			positionX[i] = position.x;
+			positionY[i] = position.y;
+			positionZ[i] = position.z;
+			
+			if (c instanceof SymmetricComponent) {
+				SymmetricComponent s = (SymmetricComponent) c;
+				symmetric[i] = true;
+				foreRadius[i] = s.getForeRadius();
+				aftRadius[i] = s.getAftRadius();
+				finish[i] = s.getFinish();
+				frictionArea[i] = s.getComponentWetArea();
+				
+				// Check for lengthwise discontinuity
+				if (position.x > componentX + 0.0001) {
+					if (!MathUtil.equals(radius, 0)) {
+						discontinuity = true;
+						radius = 0;
+					}
+				}
+				componentX = c.toAbsolute(new Coordinate(c.getLength()))[0].x;
+				
+				// Check for radius discontinuity
+				if (!MathUtil.equals(foreRadius[i], radius)) {
+					discontinuity = true;
+				}
+				radius = aftRadius[i];
+				
+				double r = Math.max(foreRadius[i], aftRadius[i]);
+				if (r > maxR)
+					maxR = r;
+				len += c.getLength();
+				
+			} else if (c instanceof FinSet) {
+				FinSet f = (FinSet) c;
+				FinSetCalc calc = (FinSetCalc) calcs[i];
+				fin[i] = true;
+				finish[i] = f.getFinish();
+				frictionArea[i] = (1 + 2 * f.getThickness() / calc.getMACLength()) *
+						2 * f.getFinCount() * f.getFinArea();
+				finDampingArea[i] = 0.6 * Math.min(f.getFinCount(), 4) * f.getFinArea();
+				finMidchordX[i] = f.toAbsolute(new Coordinate(calc.getMidchordPos()))[0].x;
+			}
+		}
+		
+		// fB may be POSITIVE_INFINITY, but that's ok for us
+		double fB = (len + 0.0001) / maxR;
+		
+		this.discontinuous = discontinuity;
+		this.frictionCorrection = (1 + 1.0 / (2 * fB));
+		this.bodyLength = length;
+		this.bodyDiameter = (length > 0) ? area / length : 0;
+	}
+	
+	
+	/**
+	 * Return the model of a configuration.  The model is built when it is first
+	 * requested and then shared until it is evicted from the cache.
+	 *
+	 * @param configuration		the rocket configuration.
+	 * @return					the model for the current state of the configuration.
+	 */
+	static BarrowmanModel get(Configuration configuration) {
+		Rocket rocket = configuration.getRocket();
+		Key key = new Key(rocket.getAerodynamicModID(), rocket.getTreeModID(),
+				configuration.getActiveStages());
+		
+		BarrowmanModel model;
+		synchronized (cache) {
+			model = cache.get(key);
+		}
+		if (model != null) {
+			return model;
+		}
+		
+		// Build outside the lock, if two threads race the first model is kept
+		log.debug("Building aerodynamic model for " + key);
+		model = new BarrowmanModel(configuration);
+		synchronized (cache) {
+			BarrowmanModel existing = cache.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			cache.put(key, model);
+		}
+		return model;
+	}
+	
+	
+	/**
+	 * Return the aerodynamic components of the configuration in the order of the model
+	 * indices.  The configuration must be the one the model was obtained for, or a copy
+	 * of it.
+	 *
+	 * @param configuration		the rocket configuration.
+	 * @return					a new array of the aerodynamic components.
+	 */
+	RocketComponent[] getComponents(Configuration configuration) {
+		RocketComponent[] components = new RocketComponent[calcs.length];
+		int index = 0;
+		for (RocketComponent c : configuration) {
+			if (!c.isAerodynamic())
+				continue;
+			if (index >= calcs.length) {
+				throw new BugException("Configuration does not match the aerodynamic model");
+			}
+			components[index++] = c;
+		}
+		if (index != calcs.length) {
+			throw new BugException("Configuration does not match the aerodynamic model");
+		}
+		return components;
+	}
+	
+	/**
+	 * Return the number of aerodynamic components.
+	 */
+	int getComponentCount() {
+		return calcs.length;
+	}
+	
+	/**
+	 * Return the calculation object of a component.
+	 */
+	RocketComponentCalc getCalc(int index) {
+		return calcs[index];
+	}
+	
+	/**
+	 * Return whether a component is a symmetric body component.
+	 */
+	boolean isSymmetric(int index) {
+		return symmetric[index];
+	}
+	
+	/**
+	 * Return whether a component is a fin set whose friction and damping are computed.
+	 */
+	boolean isFin(int index) {
+		return fin[index];
+	}
+	
+	/**
+	 * Return the fore radius of a symmetric component.
+	 */
+	double getForeRadius(int index) {
+		return foreRadius[index];
+	}
+	
+	/**
+	 * Return the aft radius of a symmetric component.
+	 */
+	double getAftRadius(int index) {
+		return aftRadius[index];
+	}
+	
+	/**
+	 * Return the absolute position of a component, applied to the component CP.
+	 */
+	Coordinate toAbsolute(int index, Coordinate c) {
+		return c.add(positionX[index], positionY[index], positionZ[index]);
+	}
+	
+	/**
+	 * Return the finish of a symmetric component or fin set, or <code>null</code>
+	 * for other components.
+	 */
+	Finish getFinish(int index) {
+		return finish[index];
+	}
+	
+	/**
+	 * Return the area the friction coefficient of a component is multiplied by:  the
+	 * wetted area of a symmetric component, or the thickness-corrected area of all
+	 * fins of a fin set.
+	 */
+	double getFrictionArea(int index) {
+		return frictionArea[index];
+	}
+	
+	/**
+	 * Return the fin area factor of the damping moment of a fin set.
+	 */
+	double getFinDampingArea(int index) {
+		return finDampingArea[index];
+	}
+	
+	/**
+	 * Return the absolute position of the midchord of a fin set.
+	 */
+	double getFinMidchordX(int index) {
+		return finMidchordX[index];
+	}
+	
+	/**
+	 * Return whether the body has a lengthwise or radius discontinuity.
+	 */
+	boolean isDiscontinuous() {
+		return discontinuous;
+	}
+	
+	/**
+	 * Return the fineness ratio correction of the body friction drag.
+	 */
+	double getFrictionCorrection() {
+		return frictionCorrection;
+	}
+	
+	/**
+	 * Return the average diameter of the body components, used for the damping moments.
+	 */
+	double getBodyDiameter() {
+		return bodyDiameter;
+	}
+	
+	/**
+	 * Return the total length of the body components, used for the damping moments.
+	 */
+	double getBodyLength() {
+		return bodyLength;
+	}
+	
+	
+	
+	private static class Key {
+		private final int aeroModID;
+		private final int treeModID;
+		private final int[] stages;
+		
+		public Key(int aeroModID, int treeModID, int[] stages) {
+			this.aeroModID = aeroModID;
+			this.treeModID = treeModID;
+			this.stages = stages;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return aeroModID == other.aeroModID && treeModID == other.treeModID &&
+					Arrays.equals(stages, other.stages);
+		}
+		
+		@Override
+		public int hashCode() {
+			return aeroModID + 31 * treeModID + 961 * Arrays.hashCode(stages);
+		}
+		
+		@Override
+		public String toString() {
+			return "aeroModID=" + aeroModID + " treeModID=" + treeModID + " stages=" + Arrays.toString(stages);
+		}
+	}
+}
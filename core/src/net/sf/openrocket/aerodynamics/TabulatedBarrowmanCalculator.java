@@ -0,0 +1,304 @@
+package net.sf.openrocket.aerodynamics;
+
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.rocketcomponent.TubeFinSet;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * An aerodynamic calculator that samples the extended Barrowman method over a grid
+ * of Mach number and angle of attack, and interpolates the aerodynamic forces from
+ * the grid during simulation.
+ * <p>
+ * The grid is specific to a rocket configuration and it is filled lazily one cell
+ * at a time.  When a cell is first used, the interpolated values at its center are
+ * compared to the direct calculation.  If the difference exceeds
+ * {@link #ABSOLUTE_TOLERANCE} plus {@link #RELATIVE_TOLERANCE} times the value, the
+ * cell is always calculated directly.  The direct calculation is also used above
+ * {@link #MAX_MACH}, when the rocket is rolling and when the forces depend on the
+ * lateral wind direction (fin sets with one or two fins).
+ * <p>
+ * The friction drag, which depends on the Reynolds number, and the pitch and yaw
+ * damping moments are always calculated directly.
+ */
+public class TabulatedBarrowmanCalculator extends BarrowmanCalculator {
+	
+	/** Mach number spacing of the grid. */
+	public static final double MACH_STEP = 0.025;
+	
+	/** Largest Mach number covered by the grid. */
+	public static final double MAX_MACH = 2.0;
+	
+	/** Angle of attack spacing of the grid. */
+	public static final double AOA_STEP = Math.PI / 180;
+	
+	/** Allowed interpolation error relative to the value. */
+	public static final double RELATIVE_TOLERANCE = 0.01;
+	
+	/** Allowed absolute interpolation error. */
+	public static final double ABSOLUTE_TOLERANCE = 0.001;
+	
+	
+	/** Roll rate below which the fin roll damping is zero. */
+	private static final double MIN_ROLL_RATE = 0.1;
+	
+	private static final double LARGE_AOA = 17.5 * Math.PI / 180;
+	private static final double SUPERSONIC_MACH = 1.1;
+	
+	private static final int MACH_NODES = (int) Math.round(MAX_MACH / MACH_STEP) + 1;
+	private static final int AOA_NODES = (int) Math.round(Math.PI / AOA_STEP) + 1;
+	
+	// Indices of the tabulated values
+	private static final int CNA = 0;
+	private static final int CN = 1;
+	private static final int CP_X = 2;
+	private static final int CP_WEIGHT = 3;
+	private static final int CM = 4;
+	private static final int CSIDE = 5;
+	private static final int CYAW = 6;
+	private static final int CROLL_FORCE = 7;
+	private static final int PRESSURE_CD = 8;
+	private static final int BASE_CD = 9;
+	private static final int VALUE_COUNT = 10;
+	
+	private static final byte CELL_UNKNOWN = 0;
+	private static final byte CELL_VALID = 1;
+	private static final byte CELL_INVALID = 2;
+	
+	
+	private Table table = null;
+	
+	
+	@Override
+	public TabulatedBarrowmanCalculator newInstance() {
+		return new TabulatedBarrowmanCalculator();
+	}
+	
+	
+	@Override
+	public AerodynamicForces getAerodynamicForces(Configuration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		checkCache(configuration);
+		
+		if (warnings == null)
+			warnings = ignoreWarningSet;
+		
+		AerodynamicForces total = null;
+		if (Math.abs(conditions.getRollRate()) < MIN_ROLL_RATE && conditions.getMach() <= MAX_MACH) {
+			if (table == null || !table.matches(configuration, conditions)) {
+				table = new Table(configuration, conditions);
+			}
+			total = table.interpolate(conditions, warnings);
+		}
+		if (total == null) {
+			return super.getAerodynamicForces(configuration, conditions, warnings);
+		}
+		
+		// Calculate friction data
+		total.setFrictionCD(calculateFrictionDrag(configuration, conditions, null, warnings));
+		applyFriction(total, conditions);
+		
+		// Calculate pitch and yaw damping moments
+		calculateDampingMoments(configuration, conditions, total);
+		applyDampingMoments(total);
+		return total;
+	}
+	
+	
+	@Override
+	protected void voidAerodynamicCache() {
+		super.voidAerodynamicCache();
+		
+		table = null;
+	}
+	
+	
+	
+	/**
+	 * The Mach number / angle of attack grid of a single configuration.
+	 */
+	private class Table {
+		
+		private final Configuration configuration;
+		private final int configurationModID;
+		private final double refLength;
+		private final double refArea;
+		
+		/** Whether the forces are independent of the lateral wind direction. */
+		private final boolean axisymmetric;
+		private final boolean hasBody;
+		
+		/** Geometry warnings, which do not depend on the flight conditions. */
+		private final WarningSet staticWarnings = new WarningSet();
+		
+		private final FlightConditions sample;
+		private final double[] center = new double[VALUE_COUNT];
+		private final double[] values = new double[VALUE_COUNT];
+		
+		// Rows of the grid by Mach number, allocated on demand
+		private final double[][] nodes = new double[MACH_NODES][];
+		private final boolean[][] computed = new boolean[MACH_NODES][];
+		private final byte[][] cells = new byte[MACH_NODES - 1][];
+		
+		
+		public Table(Configuration configuration, FlightConditions conditions) {
+			this.configuration = configuration;
+			this.configurationModID = configuration.getModID();
+			this.refLength = conditions.getRefLength();
+			this.refArea = conditions.getRefArea();
+			
+			boolean axisymmetric = true;
+			boolean hasBody = false;
+			for (RocketComponent c : configuration) {
+				if (c instanceof FinSet && ((FinSet) c).getFinCount() <= 2) {
+					axisymmetric = false;
+				}
+				if (c instanceof TubeFinSet && ((TubeFinSet) c).getFinCount() <= 2) {
+					axisymmetric = false;
+				}
+				if (c instanceof SymmetricComponent && c.isAerodynamic()) {
+					hasBody = true;
+				}
+			}
+			this.axisymmetric = axisymmetric;
+			this.hasBody = hasBody;
+			
+			sample = conditions.clone();
+			sample.setTheta(0);
+			sample.setRollRate(0);
+			evaluate(0, 0, center, 0, staticWarnings);
+		}
+		
+		
+		public boolean matches(Configuration config, FlightConditions conditions) {
+			return config == configuration && config.getModID() == configurationModID &&
+					conditions.getRefLength() == refLength && conditions.getRefArea() == refArea;
+		}
+		
+		
+		/**
+		 * Interpolate the non-axial forces and the pressure and base drag from the grid.
+		 *
+		 * @return	the forces, or <code>null</code> if they must be calculated directly.
+		 */
+		public AerodynamicForces interpolate(FlightConditions conditions, WarningSet warnings) {
+			if (!axisymmetric)
+				return null;
+			
+			double mach = conditions.getMach();
+			double aoa = conditions.getAOA();
+			
+			double m = mach / MACH_STEP;
+			int i = Math.min((int) m, MACH_NODES - 2);
+			double u = m - i;
+			double a = aoa / AOA_STEP;
+			int j = Math.min((int) a, AOA_NODES - 2);
+			double v = a - j;
+			
+			if (!isValid(i, j))
+				return null;
+			
+			double[] row0 = nodes[i];
+			double[] row1 = nodes[i + 1];
+			int n0 = j * VALUE_COUNT;
+			int n1 = n0 + VALUE_COUNT;
+			double w00 = (1 - u) * (1 - v);
+			double w01 = (1 - u) * v;
+			double w10 = u * (1 - v);
+			double w11 = u * v;
+			
+			for (int k = 0; k < VALUE_COUNT; k++) {
+				values[k] = w00 * row0[n0 + k] + w01 * row0[n1 + k] + w10 * row1[n0 + k] + w11 * row1[n1 + k];
+			}
+			
+			AerodynamicForces total = new AerodynamicForces(true);
+			total.setCNa(values[CNA]);
+			total.setCN(values[CN]);
+			total.setCP(new Coordinate(values[CP_X], 0, 0, values[CP_WEIGHT]));
+			total.setCm(values[CM]);
+			total.setCside(values[CSIDE]);
+			total.setCyaw(values[CYAW]);
+			total.setCrollForce(values[CROLL_FORCE]);
+			total.setCrollDamp(0);
+			total.setCroll(values[CROLL_FORCE]);
+			total.setPressureCD(values[PRESSURE_CD]);
+			total.setBaseCD(values[BASE_CD]);
+			
+			warnings.addAll(staticWarnings);
+			if (aoa > LARGE_AOA)
+				warnings.add(new Warning.LargeAOA(aoa));
+			if (mach > SUPERSONIC_MACH && hasBody)
+				warnings.add(Warning.SUPERSONIC);
+			
+			return total;
+		}
+		
+		
+		/**
+		 * Return whether the cell may be interpolated, checking the cell on first use.
+		 */
+		private boolean isValid(int i, int j) {
+			if (cells[i] == null) {
+				cells[i] = new byte[AOA_NODES - 1];
+			}
+			if (cells[i][j] == CELL_UNKNOWN) {
+				cells[i][j] = checkCell(i, j) ? CELL_VALID : CELL_INVALID;
+			}
+			return cells[i][j] == CELL_VALID;
+		}
+		
+		
+		private boolean checkCell(int i, int j) {
+			computeNode(i, j);
+			computeNode(i, j + 1);
+			computeNode(i + 1, j);
+			computeNode(i + 1, j + 1);
+			evaluate((i + 0.5) * MACH_STEP, (j + 0.5) * AOA_STEP, center, 0, ignoreWarningSet);
+			
+			int n0 = j * VALUE_COUNT;
+			int n1 = n0 + VALUE_COUNT;
+			for (int k = 0; k < VALUE_COUNT; k++) {
+				double interpolated = 0.25 * (nodes[i][n0 + k] + nodes[i][n1 + k] +
+						nodes[i + 1][n0 + k] + nodes[i + 1][n1 + k]);
+				double error = Math.abs(interpolated - center[k]);
+				// Comparison also rejects NaN values
+				if (!(error <= ABSOLUTE_TOLERANCE + RELATIVE_TOLERANCE * Math.abs(center[k])))
+					return false;
+			}
+			return true;
+		}
+		
+		
+		private void computeNode(int i, int j) {
+			if (nodes[i] == null) {
+				nodes[i] = new double[AOA_NODES * VALUE_COUNT];
+				computed[i] = new boolean[AOA_NODES];
+			}
+			if (!computed[i][j]) {
+				evaluate(i * MACH_STEP, j * AOA_STEP, nodes[i], j * VALUE_COUNT, ignoreWarningSet);
+				computed[i][j] = true;
+			}
+		}
+		
+		
+		private void evaluate(double mach, double aoa, double[] values, int offset, WarningSet warnings) {
+			sample.setMach(mach);
+			sample.setAOA(aoa);
+			
+			AerodynamicForces forces = calculateNonAxialForces(configuration, sample, null, warnings);
+			values[offset + CNA] = forces.getCNa();
+			values[offset + CN] = forces.getCN();
+			values[offset + CP_X] = forces.getCP().x;
+			values[offset + CP_WEIGHT] = forces.getCP().weight;
+			values[offset + CM] = forces.getCm();
+			values[offset + CSIDE] = forces.getCside();
+			values[offset + CYAW] = forces.getCyaw();
+			values[offset + CROLL_FORCE] = forces.getCrollForce();
+			values[offset + PRESSURE_CD] = calculatePressureDrag(configuration, sample, null, warnings);
+			values[offset + BASE_CD] = calculateBaseDrag(configuration, sample, null, warnings);
+		}
+	}
+
+}
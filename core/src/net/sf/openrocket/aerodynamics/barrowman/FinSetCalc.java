@@ -50,7 +50,7 @@ public class FinSetCalc extends RocketComponentCalc {
 	
 	protected final WarningSet geometryWarnings = new WarningSet();
 	
-	private double[] poly = new double[6];
+	private final double[] poly = new double[6];
 	
 	private final double thickness;
 	private final double bodyRadius;
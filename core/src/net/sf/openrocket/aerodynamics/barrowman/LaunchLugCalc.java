@@ -9,8 +9,8 @@ import net.sf.openrocket.util.MathUtil;
 
 public class LaunchLugCalc extends RocketComponentCalc {
 
-	private double CDmul;
-	private double refArea;
+	private final double CDmul;
+	private final double refArea;
 	
 	public LaunchLugCalc(RocketComponent component) {
 		super(component);
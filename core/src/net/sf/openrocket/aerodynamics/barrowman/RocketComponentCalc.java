@@ -5,6 +5,15 @@ import net.sf.openrocket.aerodynamics.FlightConditions;
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 
+/**
+ * Aerodynamic calculations of a single component according to the extended Barrowman
+ * method.
+ * <p>
+ * All geometry is read from the component in the constructor, and the calculation
+ * objects must not modify their state afterwards nor keep references to the component.
+ * The same object is shared by all calculators and threads that use a copy of the rocket
+ * with the same modification IDs.
+ */
 public abstract class RocketComponentCalc {
 
 	public RocketComponentCalc(RocketComponent component) {
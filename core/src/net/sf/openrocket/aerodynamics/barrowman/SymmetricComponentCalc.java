@@ -43,6 +43,13 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 	private final double planformArea, planformCenter;
 	private final double sinphi;
 	
+	// Pre-calculated normal force data
+	private final boolean isTube;
+	private final double cnaCache;
+	private final double cpCache;
+	
+	private final LinearInterpolator interpolator;
+	
 	public SymmetricComponentCalc(RocketComponent c) {
 		super(c);
 		if (!(c instanceof SymmetricComponent)) {
@@ -76,13 +83,30 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 			throw new UnsupportedOperationException("Unknown component type " +
 					component.getComponentName());
 		}
+		
+		if (MathUtil.equals(foreRadius, aftRadius)) {
+			isTube = true;
+			cnaCache = 0;
+			cpCache = Double.NaN;
+		} else {
+			isTube = false;
+			
+			final double A0 = Math.PI * pow2(foreRadius);
+			final double A1 = Math.PI * pow2(aftRadius);
+			
+			cnaCache = 2 * (A1 - A0);
+			cpCache = (length * A1 - fullVolume) / (A1 - A0);
+		}
+		
+		// Nose cones and shoulders use the interpolated pressure drag
+		if (!isTube && length >= 0.001 && aftRadius > foreRadius) {
+			interpolator = calculateNoseInterpolator();
+		} else {
+			interpolator = null;
+		}
 	}
 	
 	
-	private boolean isTube = false;
-	private double cnaCache = Double.NaN;
-	private double cpCache = Double.NaN;
-	
 	
 	/**
 	 * Calculates the non-axial forces produced by the fins (normal and side forces,
@@ -98,26 +122,6 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 	public void calculateNonaxialForces(FlightConditions conditions,
 			AerodynamicForces forces, WarningSet warnings) {
 		
-		// Pre-calculate and store the results
-		if (Double.isNaN(cnaCache)) {
-			final double r0 = foreRadius;
-			final double r1 = aftRadius;
-			
-			if (MathUtil.equals(r0, r1)) {
-				isTube = true;
-				cnaCache = 0;
-			} else {
-				isTube = false;
-				
-				final double A0 = Math.PI * pow2(r0);
-				final double A1 = Math.PI * pow2(r1);
-				
-				cnaCache = 2 * (A1 - A0);
-				//				System.out.println("cnaCache = " + cnaCache);
-				cpCache = (length * A1 - fullVolume) / (A1 - A0);
-			}
-		}
-		
 		Coordinate cp;
 		
 		// If fore == aft, only body lift is encountered
@@ -172,8 +176,6 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 	
 	
 
-	private LinearInterpolator interpolator = null;
-	
 	@Override
 	public double calculatePressureDragForce(FlightConditions conditions,
 			double stagnationCD, double baseCD, WarningSet warnings) {
@@ -203,10 +205,6 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 		
 
 		// All nose cones and shoulders from pre-calculated and interpolating 
-		if (interpolator == null) {
-			calculateNoseInterpolator();
-		}
-		
 		return interpolator.getValue(conditions.getMach()) * frontalArea / conditions.getRefArea();
 	}
 	
@@ -277,11 +275,11 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 	 * region is interpolated in the form   Cd = a*M^b + Cd(M=0).
 	 */
 	@SuppressWarnings("null")
-	private void calculateNoseInterpolator() {
+	private LinearInterpolator calculateNoseInterpolator() {
 		LinearInterpolator int1 = null, int2 = null;
 		double p = 0;
 		
-		interpolator = new LinearInterpolator();
+		LinearInterpolator interpolator = new LinearInterpolator();
 		
 
 		/*
@@ -385,7 +383,7 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 		double minValue = interpolator.getValue(min);
 		if (minValue < 0.001) {
 			// No interpolation necessary
-			return;
+			return interpolator;
 		}
 		
 		double cdMach0 = 0.8 * pow2(sinphi);
@@ -393,7 +391,7 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 		
 		// These should not occur, but might cause havoc for the interpolation
 		if ((cdMach0 >= minValue - 0.01) || (minDeriv <= 0.01)) {
-			return;
+			return interpolator;
 		}
 		
 		// Cd = a*M^b + cdMach0
@@ -403,6 +401,7 @@ public class SymmetricComponentCalc extends RocketComponentCalc {
 		for (double m = 0; m < minValue; m += 0.05) {
 			interpolator.addPoint(m, a * Math.pow(m, b) + cdMach0);
 		}
+		return interpolator;
 	}
 	
 	
@@ -1,8 +1,14 @@
 package net.sf.openrocket.database;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -11,36 +17,100 @@ import org.slf4j.LoggerFactory;
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.startup.Application;
 
+/**
+ * The database of component presets.
+ * <p>
+ * The presets are indexed by type and by part number, and the favorites of each type
+ * are cached from the preferences.  Presets added with {@link #insert(ComponentPreset)}
+ * are appended to the indexes, while adding or removing presets through the
+ * <code>Set</code> methods causes the indexes to be rebuilt on the next query.  All
+ * queries return the presets in the order of {@link #listAll()}.
+ * <p>
+ * The queries and the insertion of presets are synchronized on the database.  Listeners
+ * are notified after the lock has been released.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
 	
+	/** The positions of the presets of each type in the list, guarded by this */
+	private final Map<ComponentPreset.Type, Positions> typeIndex =
+			new EnumMap<ComponentPreset.Type, Positions>(ComponentPreset.Type.class);
+
+	/** The presets by part number, guarded by this */
+	private final Map<String, List<ComponentPreset>> partNoIndex = new HashMap<String, List<ComponentPreset>>();
+
+	/** Whether the indexes correspond to the list, guarded by this */
+	private boolean indexValid = true;
+
+	/** The preference keys of the favorites of each type, guarded by this */
+	private final Map<ComponentPreset.Type, Set<String>> favorites =
+			new EnumMap<ComponentPreset.Type, Set<String>>(ComponentPreset.Type.class);
+
 	public ComponentPresetDatabase() {
 		super();
 	}
 	
+	/**
+	 * Return the list of all presets.  The returned list is the live backing list of the
+	 * database, which must not be modified, and which must be accessed while synchronized
+	 * on the database if presets may be added concurrently.
+	 */
 	@Override
 	public List<ComponentPreset> listAll() {
 		return list;
 	}
 
 	@Override
-	public void insert( ComponentPreset preset ) {
+	public synchronized void insert( ComponentPreset preset ) {
 		list.add(preset);
+		if ( indexValid ) {
+			addToIndex(preset, list.size() - 1);
+		}
+	}
+
+	@Override
+	public boolean add( ComponentPreset preset ) {
+		synchronized (this) {
+			int index = Collections.binarySearch(list, preset);
+			if ( index >= 0 ) {
+				if ( list.contains(preset) ) {
+					return false;
+				}
+			} else {
+				index = -(index + 1);
+			}
+			// The preset is inserted in sorted order, which moves the positions of later presets
+			list.add(index, preset);
+			indexValid = false;
+		}
+		this.fireAddEvent(preset);
+		return true;
 	}
 
 	@Override
-	public List<ComponentPreset> listForType( ComponentPreset.Type type ) {
+	protected void fireRemoveEvent( ComponentPreset preset ) {
+		synchronized (this) {
+			indexValid = false;
+		}
+		super.fireRemoveEvent(preset);
+	}
+
+	@Override
+	public synchronized List<ComponentPreset> listForType( ComponentPreset.Type type ) {
 		if ( type == null ) {
 			return Collections.<ComponentPreset>emptyList();
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
+		validateIndex();
+		Positions positions = typeIndex.get(type);
+		if ( positions == null ) {
+			return new ArrayList<ComponentPreset>();
+		}
 
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) ) {
-				result.add(preset);
-			}
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>(positions.size);
+		for( int i=0; i<positions.size; i++ ) {
+			result.add(list.get(positions.data[i]));
 		}
 		return result;
 
@@ -55,17 +125,26 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	 * @return
 	 */
 	@Override
-	public List<ComponentPreset> listForType( ComponentPreset.Type type, boolean favorite ) {
+	public synchronized List<ComponentPreset> listForType( ComponentPreset.Type type, boolean favorite ) {
 		if ( !favorite ) {
 			return listForType(type);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
+		validateIndex();
+		Positions positions = typeIndex.get(type);
+		if ( positions == null ) {
+			return new ArrayList<ComponentPreset>();
+		}
 
-		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
+		Set<String> favoriteKeys = getFavorites(type);
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>();
+		if ( favoriteKeys.isEmpty() ) {
+			return result;
+		}
 
-		for( ComponentPreset preset : list ) {
-			if ( preset.get(ComponentPreset.TYPE).equals(type) && favorites.contains(preset.preferenceKey())) {
+		for( int i=0; i<positions.size; i++ ) {
+			ComponentPreset preset = list.get(positions.data[i]);
+			if ( favoriteKeys.contains(preset.preferenceKey()) ) {
 				result.add(preset);
 			}
 		}
@@ -73,7 +152,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> listForTypes( ComponentPreset.Type ... type ) {
+	public synchronized List<ComponentPreset> listForTypes( ComponentPreset.Type ... type ) {
 		if( type == null || type.length == 0 ) {
 			return Collections.<ComponentPreset>emptyList();
 		}
@@ -82,32 +161,58 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type[0]);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
+		validateIndex();
+		EnumSet<ComponentPreset.Type> types = EnumSet.noneOf(ComponentPreset.Type.class);
+		types.addAll(Arrays.asList(type));
 
-		for( ComponentPreset preset : list ) {
-			ComponentPreset.Type presetType = preset.get(ComponentPreset.TYPE);
-			typeLoop: for( int i=0; i<type.length; i++ ) {
-				if ( presetType.equals(type[i]) ) {
-					result.add(preset);
-					break typeLoop; // from inner loop.
-				}
+		// Merge the positions of the types to retain the order of the list
+		List<Positions> sources = new ArrayList<Positions>();
+		int total = 0;
+		for( ComponentPreset.Type t : types ) {
+			Positions positions = typeIndex.get(t);
+			if ( positions != null ) {
+				sources.add(positions);
+				total += positions.size;
 			}
+		}
 
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>(total);
+		int[] next = new int[sources.size()];
+		for( int n=0; n<total; n++ ) {
+			int source = -1;
+			int position = Integer.MAX_VALUE;
+			for( int i=0; i<next.length; i++ ) {
+				Positions positions = sources.get(i);
+				if ( next[i] < positions.size && positions.data[next[i]] < position ) {
+					source = i;
+					position = positions.data[next[i]];
+				}
+			}
+			next[source]++;
+			result.add(list.get(position));
 		}
 		return result;
 	}
 
 	@Override
 	public List<ComponentPreset> listForTypes( List<ComponentPreset.Type> types ) {
-		return listForTypes( (ComponentPreset.Type[]) types.toArray() );
+		return listForTypes( types.toArray(new ComponentPreset.Type[types.size()]) );
 	}
 
 	@Override
-	public List<ComponentPreset> find(String manufacturer, String partNo) {
+	public synchronized List<ComponentPreset> find(String manufacturer, String partNo) {
 		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
-		for( ComponentPreset preset : list ) {
-			if ( preset.getManufacturer().getSimpleName().equals(manufacturer) && preset.getPartNo().equals(partNo) ) {
-				presets.add(preset);
+		if ( partNo == null ) {
+			return presets;
+		}
+
+		validateIndex();
+		List<ComponentPreset> candidates = partNoIndex.get(partNo);
+		if ( candidates != null ) {
+			for( ComponentPreset preset : candidates ) {
+				if ( preset.getManufacturer().getSimpleName().equals(manufacturer) ) {
+					presets.add(preset);
+				}
 			}
 		}
 		return presets;
@@ -115,8 +220,74 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 
 	@Override
 	public void setFavorite( ComponentPreset preset, ComponentPreset.Type type, boolean favorite ) {
-		Application.getPreferences().setComponentFavorite( preset, type, favorite );
+		synchronized (this) {
+			Application.getPreferences().setComponentFavorite( preset, type, favorite );
+			Set<String> favoriteKeys = getFavorites(type);
+			if ( favorite ) {
+				favoriteKeys.add(preset.preferenceKey());
+			} else {
+				favoriteKeys.remove(preset.preferenceKey());
+			}
+		}
 		this.fireAddEvent(preset);
 	}
 
+	/**
+	 * Return the favorites of a type, read from the preferences on first use.
+	 */
+	private Set<String> getFavorites( ComponentPreset.Type type ) {
+		Set<String> favoriteKeys = favorites.get(type);
+		if ( favoriteKeys == null ) {
+			favoriteKeys = new HashSet<String>(Application.getPreferences().getComponentFavorites(type));
+			favorites.put(type, favoriteKeys);
+		}
+		return favoriteKeys;
+	}
+
+	private void validateIndex() {
+		if ( indexValid ) {
+			return;
+		}
+		typeIndex.clear();
+		partNoIndex.clear();
+		for( int i=0; i<list.size(); i++ ) {
+			addToIndex(list.get(i), i);
+		}
+		indexValid = true;
+		logger.debug("Indexed " + list.size() + " component presets");
+	}
+
+	private void addToIndex( ComponentPreset preset, int position ) {
+		ComponentPreset.Type type = preset.get(ComponentPreset.TYPE);
+		Positions positions = typeIndex.get(type);
+		if ( positions == null ) {
+			positions = new Positions();
+			typeIndex.put(type, positions);
+		}
+		positions.add(position);
+
+		String partNo = preset.getPartNo();
+		List<ComponentPreset> presets = partNoIndex.get(partNo);
+		if ( presets == null ) {
+			presets = new ArrayList<ComponentPreset>(1);
+			partNoIndex.put(partNo, presets);
+		}
+		presets.add(preset);
+	}
+
+	/**
+	 * An ascending list of positions in the preset list.
+	 */
+	private static class Positions {
+		private int[] data = new int[16];
+		private int size = 0;
+
+		public void add( int position ) {
+			if ( size == data.length ) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = position;
+		}
+	}
+
 }
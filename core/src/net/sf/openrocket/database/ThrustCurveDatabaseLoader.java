@@ -0,0 +1,113 @@
+package net.sf.openrocket.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.file.motor.MotorCatalog;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.BugException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An asynchronous database loader that loads the internal thrust curve catalog
+ * and a given list of thrust curve files and directories to a ThrustCurveMotorSetDatabase.
+ * <p>
+ * Unlike the loader of the Swing application, this loader does not use the user
+ * preferences to locate the thrust curve files, and it can be used without any
+ * Swing classes.
+ */
+public class ThrustCurveDatabaseLoader extends AsynchronousDatabaseLoader {
+	
+	private final static Logger log = LoggerFactory.getLogger(ThrustCurveDatabaseLoader.class);
+	
+	private static final String MOTOR_CATALOG = "datafiles/thrustcurves/thrustcurves.catalog";
+	private static final long STARTUP_DELAY = 0;
+	
+	private final ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+	private final List<File> userFiles;
+	private final File cacheFile;
+	private int motorCount = 0;
+	
+	
+	/**
+	 * Construct a loader that parses all the given thrust curve files.
+	 *
+	 * @param userFiles		additional thrust curve files and directories to load.
+	 */
+	public ThrustCurveDatabaseLoader(List<File> userFiles) {
+		this(userFiles, null);
+	}
+	
+	/**
+	 * Construct a loader that caches the motors of the given thrust curve files.
+	 *
+	 * @param userFiles		additional thrust curve files and directories to load.
+	 * @param cacheFile		the cache of parsed thrust curve files, or <code>null</code>.
+	 * @see ThrustCurveFileLoader
+	 */
+	public ThrustCurveDatabaseLoader(List<File> userFiles, File cacheFile) {
+		super(STARTUP_DELAY);
+		this.userFiles = new ArrayList<File>(userFiles);
+		this.cacheFile = cacheFile;
+	}
+	
+	
+	@Override
+	protected void loadDatabase() {
+		
+		log.info("Starting reading motor catalog");
+		loadCatalog();
+		log.info("Ending reading motor catalog, motorCount=" + motorCount);
+		
+		
+		log.info("Starting reading user-defined motors");
+		addMotors(new ThrustCurveFileLoader(cacheFile).load(userFiles));
+		log.info("Ending reading user-defined motors, motorCount=" + motorCount);
+	
+	}
+	
+	
+	private void loadCatalog() {
+		List<ThrustCurveMotor> motors;
+		try {
+			motors = MotorCatalog.openResource(MOTOR_CATALOG);
+		} catch (IOException e) {
+			throw new BugException("Unable to read motor catalog " + MOTOR_CATALOG, e);
+		}
+		if (motors == null) {
+			log.warn("Motor catalog " + MOTOR_CATALOG + " not found");
+			return;
+		}
+		synchronized (this) {
+			for (ThrustCurveMotor m : motors) {
+				motorCount++;
+				database.addMotor(m);
+			}
+		}
+	}
+	
+	
+	private synchronized void addMotors(List<ThrustCurveMotor> motors) {
+		for (ThrustCurveMotor m : motors) {
+			motorCount++;
+			database.addMotor(m);
+		}
+	}
+	
+	
+	/**
+	 * Returns the loaded database.  If the database has not fully loaded,
+	 * this blocks until it is.
+	 *
+	 * @return	the motor database
+	 */
+	public ThrustCurveMotorSetDatabase getDatabase() {
+		blockUntilLoaded();
+		return database;
+	}
+}
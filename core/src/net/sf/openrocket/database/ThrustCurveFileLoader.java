@@ -0,0 +1,361 @@
+package net.sf.openrocket.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.file.motor.MotorCatalog;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A loader of user-supplied thrust curve files and directories.
+ * <p>
+ * The files are parsed concurrently by a bounded number of threads.  The motors are
+ * returned in the order the files are found, so the result does not depend on which
+ * file is parsed first.
+ * <p>
+ * The parsed motors are optionally stored in a cache file, together with the absolute
+ * path, size and modification time of each thrust curve file.  A file whose size and
+ * modification time match the cache is not read again.  The cached motors are stored
+ * as a {@link MotorCatalog}, so they retain their digests and their thrust curves are
+ * decoded only when needed.
+ */
+public class ThrustCurveFileLoader {
+	
+	private static final Logger log = LoggerFactory.getLogger(ThrustCurveFileLoader.class);
+	
+	/** The magic number at the start of a cache file, "ORFC" */
+	private static final int CACHE_MAGIC = 0x4F524643;
+	private static final int CACHE_VERSION = 1;
+	
+	/** Maximum number of files parsed concurrently */
+	private static final int MAX_THREADS = 8;
+	
+	private final File cacheFile;
+	private final String[] extensions;
+	
+	
+	/**
+	 * Sole constructor.
+	 *
+	 * @param cacheFile		the cache file to use, or <code>null</code> to parse all files.
+	 */
+	public ThrustCurveFileLoader(File cacheFile) {
+		this.cacheFile = cacheFile;
+		this.extensions = new GeneralMotorLoader().getSupportedExtensions();
+	}
+	
+	
+	/**
+	 * Load the motors of the given files and directories.  Directories are searched
+	 * recursively for thrust curve files.  Files that cannot be read are logged and
+	 * skipped.  The cache file is updated if the loaded files differ from those cached.
+	 *
+	 * @param files		the thrust curve files and directories to load.
+	 * @return			the loaded motors.
+	 */
+	public List<ThrustCurveMotor> load(List<File> files) {
+		List<File> motorFiles = new ArrayList<File>();
+		for (File file : files) {
+			if (file.isFile()) {
+				motorFiles.add(file);
+			} else if (file.isDirectory()) {
+				listDirectory(file, motorFiles);
+			} else {
+				log.warn("User-defined motor file " + file + " is neither file nor directory");
+			}
+		}
+		
+		Map<String, CacheEntry> cache = readCache();
+		int n = motorFiles.size();
+		CacheEntry[] entries = new CacheEntry[n];
+		List<Future<CacheEntry>> futures = new ArrayList<Future<CacheEntry>>(n);
+		
+		Set<String> paths = new HashSet<String>();
+		ExecutorService executor = null;
+		int parseCount = 0;
+		for (int i = 0; i < n; i++) {
+			File file = motorFiles.get(i);
+			String path = file.getAbsolutePath();
+			paths.add(path);
+			CacheEntry cached = cache.get(path);
+			if (cached != null && cached.length == file.length() &&
+					cached.lastModified == file.lastModified()) {
+				entries[i] = cached;
+				futures.add(null);
+			} else {
+				if (executor == null) {
+					executor = Executors.newFixedThreadPool(MAX_THREADS, new LoaderThreadFactory());
+				}
+				futures.add(executor.submit(new ParseTask(file)));
+				parseCount++;
+			}
+		}
+		log.info("Parsing " + parseCount + " of " + n + " thrust curve files");
+		
+		// Rewrite the cache if it contains files no longer present
+		boolean changed = !paths.containsAll(cache.keySet());
+		try {
+			for (int i = 0; i < n; i++) {
+				Future<CacheEntry> future = futures.get(i);
+				if (future == null) {
+					continue;
+				}
+				try {
+					entries[i] = future.get();
+					changed = true;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					log.warn("Error while reading " + motorFiles.get(i) + ": " + cause, cause);
+				}
+			}
+		} catch (InterruptedException e) {
+			log.warn("Interrupted while loading thrust curves");
+			Thread.currentThread().interrupt();
+			changed = false;
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+		
+		List<CacheEntry> loaded = new ArrayList<CacheEntry>(n);
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		for (CacheEntry entry : entries) {
+			if (entry != null) {
+				loaded.add(entry);
+				motors.addAll(entry.motors);
+			}
+		}
+		
+		if (changed) {
+			writeCache(loaded, motors);
+		}
+		return motors;
+	}
+	
+	
+	private void listDirectory(File directory, List<File> result) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			log.warn("Unable to read directory " + directory);
+			return;
+		}
+		for (File file : files) {
+			if (file.getName().startsWith(".")) {
+				continue;
+			}
+			if (file.isDirectory()) {
+				listDirectory(file, result);
+			} else if (isMotorFile(file)) {
+				result.add(file);
+			}
+		}
+	}
+	
+	private boolean isMotorFile(File file) {
+		String name = file.getName().toLowerCase(Locale.ENGLISH);
+		for (String ext : extensions) {
+			if (name.endsWith("." + ext)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Read the cache file.  An unreadable cache is logged and ignored.
+	 *
+	 * @return	the cache entries by absolute path.
+	 */
+	private Map<String, CacheEntry> readCache() {
+		Map<String, CacheEntry> cache = new HashMap<String, CacheEntry>();
+		if (cacheFile == null || !cacheFile.isFile()) {
+			return cache;
+		}
+		
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+			try {
+				if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) {
+					log.info("Ignoring thrust curve cache " + cacheFile + " of unknown format");
+					return cache;
+				}
+				int count = in.readInt();
+				if (count < 0) {
+					throw new IOException("Invalid entry count " + count);
+				}
+				String[] paths = new String[count];
+				long[] lengths = new long[count];
+				long[] lastModified = new long[count];
+				int[] motorCounts = new int[count];
+				int total = 0;
+				for (int i = 0; i < count; i++) {
+					paths[i] = in.readUTF();
+					lengths[i] = in.readLong();
+					lastModified[i] = in.readLong();
+					motorCounts[i] = in.readInt();
+					if (motorCounts[i] < 0) {
+						throw new IOException("Invalid motor count " + motorCounts[i]);
+					}
+					total += motorCounts[i];
+				}
+				
+				List<ThrustCurveMotor> motors = MotorCatalog.read(in);
+				if (motors.size() != total) {
+					throw new IOException("Motor count " + motors.size() + " does not match index " + total);
+				}
+				int position = 0;
+				for (int i = 0; i < count; i++) {
+					List<ThrustCurveMotor> list = motors.subList(position, position + motorCounts[i]);
+					position += motorCounts[i];
+					cache.put(paths[i], new CacheEntry(paths[i], lengths[i], lastModified[i], list));
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			log.warn("Unable to read thrust curve cache " + cacheFile + ": " + e, e);
+			cache.clear();
+		}
+		log.debug("Read " + cache.size() + " entries from thrust curve cache " + cacheFile);
+		return cache;
+	}
+	
+	
+	/**
+	 * Write the cache file.  The file is written in full to a temporary file, which then
+	 * replaces the cache.  A failure is logged and ignored.
+	 */
+	private void writeCache(List<CacheEntry> entries, List<ThrustCurveMotor> motors) {
+		if (cacheFile == null) {
+			return;
+		}
+		
+		File dir = cacheFile.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.isDirectory()) {
+			dir.mkdirs();
+		}
+		File tmp = new File(dir, cacheFile.getName() + ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				out.writeInt(CACHE_MAGIC);
+				out.writeInt(CACHE_VERSION);
+				out.writeInt(entries.size());
+				for (CacheEntry entry : entries) {
+					out.writeUTF(entry.path);
+					out.writeLong(entry.length);
+					out.writeLong(entry.lastModified);
+					out.writeInt(entry.motors.size());
+				}
+				MotorCatalog.write(motors, out);
+			} finally {
+				out.close();
+			}
+			
+			// File.renameTo does not replace an existing file on all platforms
+			cacheFile.delete();
+			if (!tmp.renameTo(cacheFile)) {
+				throw new IOException("Unable to rename " + tmp + " to " + cacheFile);
+			}
+			log.debug("Wrote " + entries.size() + " entries to thrust curve cache " + cacheFile);
+		} catch (IOException e) {
+			log.warn("Unable to write thrust curve cache " + cacheFile + ": " + e, e);
+			tmp.delete();
+		}
+	}
+	
+	
+	/**
+	 * The motors of a thrust curve file, along with the size and modification time
+	 * of the file when it was read.
+	 */
+	private static class CacheEntry {
+		private final String path;
+		private final long length;
+		private final long lastModified;
+		private final List<ThrustCurveMotor> motors;
+		
+		public CacheEntry(String path, long length, long lastModified, List<ThrustCurveMotor> motors) {
+			this.path = path;
+			this.length = length;
+			this.lastModified = lastModified;
+			this.motors = motors;
+		}
+	}
+	
+	
+	/**
+	 * A task parsing a single thrust curve file.
+	 */
+	private static class ParseTask implements Callable<CacheEntry> {
+		private final File file;
+		
+		public ParseTask(File file) {
+			this.file = file;
+		}
+		
+		@Override
+		public CacheEntry call() throws IOException {
+			// Read the attributes first, a file modified while reading is parsed again next time
+			long length = file.length();
+			long lastModified = file.lastModified();
+			
+			log.debug("Loading motors from file " + file);
+			List<Motor> loaded;
+			InputStream is = new BufferedInputStream(new FileInputStream(file));
+			try {
+				loaded = new GeneralMotorLoader().load(is, file.getName());
+			} finally {
+				is.close();
+			}
+			
+			List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>(loaded.size());
+			for (Motor m : loaded) {
+				motors.add((ThrustCurveMotor) m);
+			}
+			return new CacheEntry(file.getAbsolutePath(), length, lastModified,
+					Collections.unmodifiableList(motors));
+		}
+	}
+	
+	
+	private static class LoaderThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "ThrustCurveLoader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
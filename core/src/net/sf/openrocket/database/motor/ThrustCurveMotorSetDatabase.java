@@ -1,50 +1,142 @@
 package net.sf.openrocket.database.motor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 
 /**
  * A database containing ThrustCurveMotorSet objects and allowing adding a motor
  * to the database.
- * 
+ * <p>
+ * The motor sets are indexed by manufacturer and simplified designation, so that adding
+ * a motor only compares it to the sets of the same motor type.  Queries are answered from
+ * an index of the motors by designation and sorted indexes of the diameter, length and
+ * total impulse.  The query index is built on the first query after the database has been
+ * modified.
+ *
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	
+	/** Tolerance of the diameter and length in {@link #findMotors} */
+	private static final double DIMENSION_TOLERANCE = 0.0015;
+	
 	private final List<ThrustCurveMotorSet> motorSets = new ArrayList<ThrustCurveMotorSet>();
 	
+	private final Map<SetKey, List<ThrustCurveMotorSet>> setIndex = new HashMap<SetKey, List<ThrustCurveMotorSet>>();
+	
+	/** The query index, or null if the database has been modified since it was built */
+	private volatile MotorIndex motorIndex = null;
+	
 	
 	@Override
 	public List<ThrustCurveMotor> findMotors(Motor.Type type, String manufacturer, String designation,
 			double diameter, double length) {
+		MotorIndex index = getMotorIndex();
+		
+		// Select the candidates using the most selective criteria available.  The ranges
+		// are widened so that rounding cannot exclude a motor, the exact check follows.
+		int[] candidates;
+		if (designation != null) {
+			candidates = index.getByDesignation(designation);
+		} else if (!Double.isNaN(diameter)) {
+			candidates = index.diameter.find(diameter - 2 * DIMENSION_TOLERANCE, diameter + 2 * DIMENSION_TOLERANCE);
+		} else if (!Double.isNaN(length)) {
+			candidates = index.length.find(length - 2 * DIMENSION_TOLERANCE, length + 2 * DIMENSION_TOLERANCE);
+		} else {
+			candidates = null;
+		}
+		
 		ArrayList<ThrustCurveMotor> results = new ArrayList<ThrustCurveMotor>();
+		int count = (candidates != null) ? candidates.length : index.motors.length;
+		for (int i = 0; i < count; i++) {
+			int n = (candidates != null) ? candidates[i] : i;
+			ThrustCurveMotor m = index.motors[n];
+			
+			boolean match = true;
+			if (type != null && type != index.types[n])
+				match = false;
+			else if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
+				match = false;
+			else if (designation != null && !designation.equalsIgnoreCase(m.getDesignation()))
+				match = false;
+			else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > DIMENSION_TOLERANCE))
+				match = false;
+			else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > DIMENSION_TOLERANCE))
+				match = false;
+			
+			if (match)
+				results.add(m);
+		}
 		
-		for (ThrustCurveMotorSet set : motorSets) {
-			for (ThrustCurveMotor m : set.getMotors()) {
-				boolean match = true;
-				if (type != null && type != set.getType())
-					match = false;
-				else if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
-					match = false;
-				else if (designation != null && !designation.equalsIgnoreCase(m.getDesignation()))
-					match = false;
-				else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.0015))
-					match = false;
-				else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.0015))
-					match = false;
-				
-				if (match)
-					results.add(m);
+		return results;
+	}
+	
+	
+	/**
+	 * Return all motors whose diameter, length and total impulse are within the given
+	 * ranges.  The limits are inclusive, and a NaN limit is ignored.  The motors are
+	 * returned in the same order as by {@link #findMotors}.
+	 *
+	 * @param minDiameter	the minimum diameter, or NaN.
+	 * @param maxDiameter	the maximum diameter, or NaN.
+	 * @param minLength		the minimum length, or NaN.
+	 * @param maxLength		the maximum length, or NaN.
+	 * @param minImpulse	the minimum total impulse, or NaN.
+	 * @param maxImpulse	the maximum total impulse, or NaN.
+	 * @return				a list of all the matching motors.
+	 */
+	public List<ThrustCurveMotor> findMotors(double minDiameter, double maxDiameter,
+			double minLength, double maxLength, double minImpulse, double maxImpulse) {
+		MotorIndex index = getMotorIndex();
+		
+		// Take the candidates from the narrowest of the ranges
+		SortedIndex[] indexes = { index.diameter, index.length, index.totalImpulse };
+		double[] min = { lower(minDiameter), lower(minLength), lower(minImpulse) };
+		double[] max = { upper(maxDiameter), upper(maxLength), upper(maxImpulse) };
+		
+		int best = 0;
+		int bestCount = Integer.MAX_VALUE;
+		for (int i = 0; i < indexes.length; i++) {
+			int c = indexes[i].count(min[i], max[i]);
+			if (c < bestCount) {
+				best = i;
+				bestCount = c;
 			}
 		}
 		
+		ArrayList<ThrustCurveMotor> results = new ArrayList<ThrustCurveMotor>();
+		for (int n : indexes[best].find(min[best], max[best])) {
+			boolean match = true;
+			for (int i = 0; i < indexes.length; i++) {
+				double value = indexes[i].values[n];
+				if (value < min[i] || value > max[i]) {
+					match = false;
+					break;
+				}
+			}
+			if (match)
+				results.add(index.motors[n]);
+		}
 		return results;
 	}
 	
+	private static double lower(double limit) {
+		return Double.isNaN(limit) ? Double.NEGATIVE_INFINITY : limit;
+	}
+	
+	private static double upper(double limit) {
+		return Double.isNaN(limit) ? Double.POSITIVE_INFINITY : limit;
+	}
+	
 	
 	/**
 	 * Return a list of all ThrustCurveMotorSets.
@@ -55,16 +147,25 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	
 	
 	/**
-	 * Add a motor to the database.  If a matching ThrustCurveMototSet is found, 
+	 * Add a motor to the database.  If a matching ThrustCurveMototSet is found,
 	 * the motor is added to that set, otherwise a new set is created and added to the
 	 * database.
-	 * 
+	 *
 	 * @param motor		the motor to add
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
+		motorIndex = null;
+		
+		SetKey key = new SetKey(motor.getManufacturer(), motor.getDesignation());
+		List<ThrustCurveMotorSet> sets = setIndex.get(key);
+		if (sets == null) {
+			sets = new ArrayList<ThrustCurveMotorSet>(1);
+			setIndex.put(key, sets);
+		}
+		
 		// Iterate from last to first, as this is most likely to hit early when loading files
-		for (int i = motorSets.size() - 1; i >= 0; i--) {
-			ThrustCurveMotorSet set = motorSets.get(i);
+		for (int i = sets.size() - 1; i >= 0; i--) {
+			ThrustCurveMotorSet set = sets.get(i);
 			if (set.matches(motor)) {
 				set.addMotor(motor);
 				return;
@@ -74,6 +175,212 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		ThrustCurveMotorSet newSet = new ThrustCurveMotorSet();
 		newSet.addMotor(motor);
 		motorSets.add(newSet);
+		sets.add(newSet);
 	}
 	
+	
+	private MotorIndex getMotorIndex() {
+		MotorIndex index = motorIndex;
+		if (index == null) {
+			index = new MotorIndex(motorSets);
+			motorIndex = index;
+		}
+		return index;
+	}
+	
+	
+	/**
+	 * Normalize a designation so that designations equal ignoring case are equal.  This
+	 * folds the case of each character the same way as {@link String#equalsIgnoreCase}.
+	 */
+	private static String normalize(String designation) {
+		char[] chars = designation.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		}
+		return new String(chars);
+	}
+	
+	
+	/**
+	 * The key of the motor sets a motor may belong to.  A motor can only match a set of
+	 * the same manufacturer and simplified designation.
+	 */
+	private static final class SetKey {
+		private final Manufacturer manufacturer;
+		private final String designation;
+		
+		public SetKey(Manufacturer manufacturer, String designation) {
+			this.manufacturer = manufacturer;
+			this.designation = normalize(ThrustCurveMotorSet.simplifyDesignation(designation));
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SetKey))
+				return false;
+			SetKey other = (SetKey) obj;
+			return manufacturer == other.manufacturer && designation.equals(other.designation);
+		}
+		
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(manufacturer) * 31 + designation.hashCode();
+		}
+	}
+	
+	
+	/**
+	 * An immutable index of the motors of the database, in the order of the motor sets
+	 * and the motors within each set.
+	 */
+	private static final class MotorIndex {
+		private static final int[] EMPTY = new int[0];
+		
+		private final ThrustCurveMotor[] motors;
+		/** The type of the motor set of each motor */
+		private final Motor.Type[] types;
+		private final Map<String, int[]> designations;
+		private final SortedIndex diameter;
+		private final SortedIndex length;
+		private final SortedIndex totalImpulse;
+		
+		public MotorIndex(List<ThrustCurveMotorSet> sets) {
+			List<ThrustCurveMotor> list = new ArrayList<ThrustCurveMotor>();
+			List<Motor.Type> typeList = new ArrayList<Motor.Type>();
+			for (ThrustCurveMotorSet set : sets) {
+				for (ThrustCurveMotor m : set.getMotors()) {
+					list.add(m);
+					typeList.add(set.getType());
+				}
+			}
+			motors = list.toArray(new ThrustCurveMotor[list.size()]);
+			types = typeList.toArray(new Motor.Type[typeList.size()]);
+			
+			Map<String, List<Integer>> byDesignation = new HashMap<String, List<Integer>>();
+			double[] d = new double[motors.length];
+			double[] l = new double[motors.length];
+			double[] t = new double[motors.length];
+			for (int i = 0; i < motors.length; i++) {
+				String key = normalize(motors[i].getDesignation());
+				List<Integer> indices = byDesignation.get(key);
+				if (indices == null) {
+					indices = new ArrayList<Integer>(2);
+					byDesignation.put(key, indices);
+				}
+				indices.add(i);
+				d[i] = motors[i].getDiameter();
+				l[i] = motors[i].getLength();
+				t[i] = motors[i].getTotalImpulseEstimate();
+			}
+			
+			designations = new HashMap<String, int[]>(byDesignation.size() * 2);
+			for (Map.Entry<String, List<Integer>> e : byDesignation.entrySet()) {
+				List<Integer> indices = e.getValue();
+				int[] array = new int[indices.size()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = indices.get(i);
+				}
+				designations.put(e.getKey(), array);
+			}
+			
+			diameter = new SortedIndex(d);
+			length = new SortedIndex(l);
+			totalImpulse = new SortedIndex(t);
+		}
+		
+		/**
+		 * Return the indices of the motors with the designation, ignoring case, in
+		 * ascending order.
+		 */
+		public int[] getByDesignation(String designation) {
+			int[] indices = designations.get(normalize(designation));
+			return (indices != null) ? indices : EMPTY;
+		}
+	}
+	
+	
+	/**
+	 * The motor indices sorted by the value of an attribute.
+	 */
+	private static final class SortedIndex {
+		/** The values in motor order */
+		private final double[] values;
+		/** The values in ascending order */
+		private final double[] sorted;
+		/** The motor indices in the order of the sorted values */
+		private final int[] order;
+		
+		public SortedIndex(final double[] values) {
+			this.values = values;
+			Integer[] indices = new Integer[values.length];
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = i;
+			}
+			Arrays.sort(indices, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Double.compare(values[a], values[b]);
+				}
+			});
+			
+			sorted = new double[values.length];
+			order = new int[values.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = indices[i];
+				sorted[i] = values[order[i]];
+			}
+		}
+		
+		/**
+		 * Return the number of motors with values between min and max, inclusive.
+		 */
+		public int count(double min, double max) {
+			return Math.max(upperBound(max) - lowerBound(min), 0);
+		}
+		
+		/**
+		 * Return the indices of the motors with values between min and max, inclusive,
+		 * in ascending order.
+		 */
+		public int[] find(double min, double max) {
+			int from = lowerBound(min);
+			int to = upperBound(max);
+			if (to <= from) {
+				return MotorIndex.EMPTY;
+			}
+			int[] result = Arrays.copyOfRange(order, from, to);
+			Arrays.sort(result);
+			return result;
+		}
+		
+		/** Return the first position whose value is >= x */
+		private int lowerBound(double x) {
+			int lo = 0;
+			int hi = sorted.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (sorted[mid] < x)
+					lo = mid + 1;
+				else
+					hi = mid;
+			}
+			return lo;
+		}
+		
+		/** Return the first position whose value is > x */
+		private int upperBound(double x) {
+			int lo = 0;
+			int hi = sorted.length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (sorted[mid] <= x)
+					lo = mid + 1;
+				else
+					hi = mid;
+			}
+			return lo;
+		}
+	}
+
 }
@@ -21,6 +21,7 @@ import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.RocketSnapshot;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
@@ -72,9 +73,10 @@ public class OpenRocketDocument implements ComponentChangeListener {
 	
 	/** 
 	 * The undo history of the rocket.   Whenever a new undo position is created while the
-	 * rocket is in "dirty" state, the rocket is copied here.
+	 * rocket is in "dirty" state, a snapshot of the rocket is stored here.  The snapshots
+	 * share the components that have not changed between them.
 	 */
-	private LinkedList<Rocket> undoHistory = new LinkedList<Rocket>();
+	private LinkedList<RocketSnapshot> undoHistory = new LinkedList<RocketSnapshot>();
 	private LinkedList<String> undoDescription = new LinkedList<String>();
 	
 	/**
@@ -356,7 +358,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		
 		
 		// Add the current state to the undo history
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.of(rocket));
 		undoDescription.add(null);
 		nextDescription = description;
 		undoPosition++;
@@ -415,7 +417,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		undoHistory.clear();
 		undoDescription.clear();
 		
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.of(rocket));
 		undoDescription.add(null);
 		undoPosition = 0;
 		
@@ -518,14 +520,14 @@ public class OpenRocketDocument implements ComponentChangeListener {
 				logUndoError("undo position inconsistency");
 			}
 			// Modifications have been made, save the state and restore previous state
-			undoHistory.add(rocket.copyWithOriginalID());
+			undoHistory.add(RocketSnapshot.of(rocket));
 			undoDescription.add(null);
 		}
 		
 		rocket.checkComponentStructure();
-		undoHistory.get(undoPosition).checkComponentStructure();
-		undoHistory.get(undoPosition).copyWithOriginalID().checkComponentStructure();
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		Rocket restored = undoHistory.get(undoPosition).restore();
+		restored.checkComponentStructure();
+		rocket.loadFrom(restored);
 		rocket.checkComponentStructure();
 	}
 	
@@ -547,7 +549,7 @@ public class OpenRocketDocument implements ComponentChangeListener {
 		
 		undoPosition++;
 		
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		rocket.loadFrom(undoHistory.get(undoPosition).restore());
 	}
 	
 	
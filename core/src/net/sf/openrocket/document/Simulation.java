@@ -4,6 +4,7 @@ import java.util.EventListener;
 import java.util.EventObject;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.BarrowmanCalculator;
@@ -26,6 +27,7 @@ import net.sf.openrocket.simulation.RK4SimulationStepper;
 import net.sf.openrocket.simulation.SimulationConditions;
 import net.sf.openrocket.simulation.SimulationEngine;
 import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationProfile;
 import net.sf.openrocket.simulation.SimulationStepper;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
@@ -95,6 +97,12 @@ public class Simulation implements ChangeSource, Cloneable {
 	@SuppressWarnings("unused")
 	private Class<? extends MassCalculator> massCalculatorClass = BasicMassCalculator.class;
 	
+	/** Whether to record a SimulationProfile when simulating */
+	private boolean profiling = false;
+	
+	/** Executor for simulating booster branches concurrently, or null */
+	private Executor branchExecutor = null;
+	
 	/** Listeners for this object */
 	private List<EventListener> listeners = new ArrayList<EventListener>();
 	
@@ -252,6 +260,119 @@ public class Simulation implements ChangeSource, Cloneable {
 	}
 	
 	
+	/**
+	 * Return the class of the simulation stepper used for the free flight phase.
+	 *
+	 * @return	the flight stepper class.
+	 */
+	public Class<? extends SimulationStepper> getSimulationStepperClass() {
+		mutex.verify();
+		return simulationStepperClass;
+	}
+	
+	/**
+	 * Set the class of the simulation stepper used for the free flight phase, for example
+	 * {@link RK4SimulationStepper} or
+	 * {@link net.sf.openrocket.simulation.DormandPrinceSimulationStepper}.  The class
+	 * must have a public no-argument constructor.
+	 *
+	 * @param simulationStepperClass	the flight stepper class.
+	 */
+	public void setSimulationStepperClass(Class<? extends SimulationStepper> simulationStepperClass) {
+		mutex.lock("setSimulationStepperClass");
+		try {
+			if (this.simulationStepperClass == simulationStepperClass)
+				return;
+			
+			this.simulationStepperClass = simulationStepperClass;
+			fireChangeEvent();
+		} finally {
+			mutex.unlock("setSimulationStepperClass");
+		}
+	}
+	
+	
+	/**
+	 * Return whether the execution of the simulation is profiled.
+	 *
+	 * @return	whether to record a simulation profile when simulating.
+	 */
+	public boolean isProfiling() {
+		mutex.verify();
+		return profiling;
+	}
+	
+	/**
+	 * Set whether to record the execution statistics of the simulation.  When enabled,
+	 * the profile of the latest run is available from
+	 * {@link FlightData#getProfile()} of the simulated data.  Profiling does not affect
+	 * the simulation results and is not stored in the document.
+	 *
+	 * @param profiling		whether to record a simulation profile when simulating.
+	 */
+	public void setProfiling(boolean profiling) {
+		mutex.verify();
+		this.profiling = profiling;
+	}
+	
+	
+	/**
+	 * Return the executor on which the branches of separated boosters are simulated.
+	 *
+	 * @return	the executor, or <code>null</code> if the branches are simulated in sequence.
+	 */
+	public Executor getBranchExecutor() {
+		mutex.verify();
+		return branchExecutor;
+	}
+	
+	/**
+	 * Set the executor on which the branches of separated boosters are simulated
+	 * concurrently with the rest of the flight, see
+	 * {@link SimulationConditions#setBranchExecutor(Executor)}.  The simulated data is
+	 * the same as when simulating the branches in sequence.  The executor is not stored
+	 * in the document.
+	 *
+	 * @param branchExecutor	the executor, or <code>null</code> to simulate the branches in sequence.
+	 */
+	public void setBranchExecutor(Executor branchExecutor) {
+		mutex.verify();
+		this.branchExecutor = branchExecutor;
+	}
+	
+	
+	/**
+	 * Return the class of the aerodynamic calculator used in the simulation.
+	 *
+	 * @return	the aerodynamic calculator class.
+	 */
+	public Class<? extends AerodynamicCalculator> getAerodynamicCalculatorClass() {
+		mutex.verify();
+		return aerodynamicCalculatorClass;
+	}
+	
+	/**
+	 * Set the class of the aerodynamic calculator used in the simulation, for example
+	 * {@link BarrowmanCalculator} or
+	 * {@link net.sf.openrocket.aerodynamics.TabulatedBarrowmanCalculator}.  The class
+	 * must have a public no-argument constructor.
+	 *
+	 * @param aerodynamicCalculatorClass	the aerodynamic calculator class.
+	 */
+	public void setAerodynamicCalculatorClass(Class<? extends AerodynamicCalculator> aerodynamicCalculatorClass) {
+		mutex.lock("setAerodynamicCalculatorClass");
+		try {
+			if (this.aerodynamicCalculatorClass == aerodynamicCalculatorClass)
+				return;
+			
+			this.aerodynamicCalculatorClass = aerodynamicCalculatorClass;
+			fireChangeEvent();
+		} finally {
+			mutex.unlock("setAerodynamicCalculatorClass");
+		}
+	}
+	
+	
 	/**
 	 * Returns the status of this simulation.  This method examines whether the
 	 * simulation has been outdated and returns {@link Status#OUTDATED} accordingly.
@@ -322,6 +443,18 @@ public class Simulation implements ChangeSource, Cloneable {
 			
 			SimulationConditions simulationConditions = options.toSimulationConditions();
 			simulationConditions.setSimulation(this);
+			try {
+				simulationConditions.setAerodynamicCalculator(aerodynamicCalculatorClass.newInstance());
+			} catch (InstantiationException e) {
+				throw new IllegalStateException("Cannot instantiate aerodynamic calculator.", e);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Cannot access aerodynamic calculator instance?! BUG!", e);
+			}
+			simulationConditions.setSimulationStepperClass(simulationStepperClass);
+			if (profiling) {
+				simulationConditions.setProfile(new SimulationProfile());
+			}
+			simulationConditions.setBranchExecutor(branchExecutor);
 			for (SimulationListener l : additionalListeners) {
 				simulationConditions.getSimulationListenerList().add(l);
 			}
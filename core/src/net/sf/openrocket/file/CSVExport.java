@@ -14,6 +14,7 @@ import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationProfile;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.util.TextUtil;
 
@@ -85,6 +86,42 @@ public class CSVExport {
 		}
 	}
 	
+	/**
+	 * Exports the execution profile of a simulation into a CSV file.  The file contains
+	 * one row per simulation phase with the number of calls, the time spent in the phase
+	 * in nanoseconds and the estimated allocated bytes, followed by a row with the total time.
+	 * 
+	 * @param stream				the stream to write to.
+	 * @param simulation			the simulation being exported.
+	 * @param profile				the profile to export.
+	 * @param fieldSeparator		the field separator string.
+	 * @param commentStarter		the comment starting character(s).
+	 * @throws IOException 			if an I/O exception occurs.
+	 */
+	public static void exportProfile(OutputStream stream, Simulation simulation,
+			SimulationProfile profile, String fieldSeparator, String commentStarter) throws IOException {
+		
+		PrintWriter writer = new PrintWriter(stream);
+		
+		writer.println(commentStarter + " Execution profile of " + simulation.getName());
+		if (!SimulationProfile.isAllocationSupported()) {
+			writer.println(commentStarter + " Allocation measurement is not supported by the JVM.");
+		}
+		writer.println(commentStarter + " Phase" + fieldSeparator + "Calls" + fieldSeparator + "Time (ns)" +
+				fieldSeparator + "Allocated (bytes)");
+		
+		for (SimulationProfile.Phase phase : SimulationProfile.Phase.values()) {
+			writer.println(phase + fieldSeparator + profile.getCount(phase) + fieldSeparator +
+					profile.getTime(phase) + fieldSeparator + profile.getAllocatedBytes(phase));
+		}
+		writer.println("Total" + fieldSeparator + fieldSeparator + profile.getTotalTime() + fieldSeparator);
+		
+		writer.flush();
+		if (writer.checkError()) {
+			throw new IOException("Error writing profile of " + simulation.getName());
+		}
+	}
+	
 	private static void writeData(PrintWriter writer, FlightDataBranch branch,
 			FlightDataType[] fields, Unit[] units, String fieldSeparator, boolean eventComments,
 			String commentStarter) {
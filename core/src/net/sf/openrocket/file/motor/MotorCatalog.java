@@ -0,0 +1,312 @@
+package net.sf.openrocket.file.motor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.JarUtil;
+
+/**
+ * Reader and writer of the binary motor catalog, the preprocessed form of the internal
+ * thrust curve database.
+ * <p>
+ * The catalog begins with a header index of the motors, holding the descriptive data
+ * and curve statistics of each motor together with the offset of its thrust curve.
+ * The thrust curves follow as packed arrays of doubles.  Reading a catalog decodes only
+ * the index, and the curve of a motor is decoded when it is first needed.  A catalog
+ * file is memory-mapped.
+ * <p>
+ * All values are big-endian.  The format is:
+ * <pre>
+ * int     magic, "ORMC"
+ * int     format version
+ * int     number of motors
+ * int     length of the index in bytes
+ * index   for each motor:
+ *           string  manufacturer, designation, description, digest, motor type name
+ *           int     number of delays, followed by the delays as doubles
+ *           double  diameter, length, max thrust, burn time, average thrust, total impulse
+ *           int     number of data points n
+ *           int     offset of the curve from the end of the index
+ * curves  for each motor n time, thrust, CG x, CG y, CG z and mass values as doubles
+ * </pre>
+ * Strings are stored as the length of the UTF-8 encoding followed by the bytes, a null
+ * string as length -1.
+ */
+public class MotorCatalog {
+	
+	/** The magic number at the start of a catalog */
+	private static final int MAGIC = 0x4F524D43;
+	
+	/** The current format version */
+	public static final int VERSION = 1;
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	
+	private MotorCatalog() {
+	}
+	
+	
+	/**
+	 * Write motors into a catalog.
+	 *
+	 * @param motors	the motors to write.
+	 * @param out		the stream to write to, not closed.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(List<ThrustCurveMotor> motors, OutputStream out) throws IOException {
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		DataOutputStream index = new DataOutputStream(indexBytes);
+		ByteArrayOutputStream curveBytes = new ByteArrayOutputStream();
+		DataOutputStream curves = new DataOutputStream(curveBytes);
+		
+		for (ThrustCurveMotor m : motors) {
+			writeString(index, m.getManufacturer().getDisplayName());
+			writeString(index, m.getDesignation());
+			writeString(index, m.getDescription());
+			writeString(index, m.getDigest());
+			writeString(index, m.getMotorType().name());
+			double[] delays = m.getStandardDelays();
+			index.writeInt(delays.length);
+			for (double d : delays) {
+				index.writeDouble(d);
+			}
+			index.writeDouble(m.getDiameter());
+			index.writeDouble(m.getLength());
+			index.writeDouble(m.getMaxThrustEstimate());
+			index.writeDouble(m.getBurnTimeEstimate());
+			index.writeDouble(m.getAverageThrustEstimate());
+			index.writeDouble(m.getTotalImpulseEstimate());
+			
+			double[] time = m.getTimePoints();
+			double[] thrust = m.getThrustPoints();
+			Coordinate[] cg = m.getCGPoints();
+			index.writeInt(time.length);
+			index.writeInt(curves.size());
+			
+			for (double t : time) {
+				curves.writeDouble(t);
+			}
+			for (double f : thrust) {
+				curves.writeDouble(f);
+			}
+			for (Coordinate c : cg) {
+				curves.writeDouble(c.x);
+			}
+			for (Coordinate c : cg) {
+				curves.writeDouble(c.y);
+			}
+			for (Coordinate c : cg) {
+				curves.writeDouble(c.z);
+			}
+			for (Coordinate c : cg) {
+				curves.writeDouble(c.weight);
+			}
+		}
+		index.flush();
+		curves.flush();
+		
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeInt(motors.size());
+		header.writeInt(indexBytes.size());
+		header.flush();
+		indexBytes.writeTo(out);
+		curveBytes.writeTo(out);
+		out.flush();
+	}
+	
+	
+	/**
+	 * Open a catalog file.  The file is memory-mapped and the thrust curves are decoded
+	 * from the mapping when first needed.
+	 *
+	 * @param file	the catalog file.
+	 * @return		the motors of the catalog.
+	 * @throws IOException	if an I/O error occurs or the file is not a valid catalog.
+	 */
+	public static List<ThrustCurveMotor> open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			// The mapping remains valid after the channel is closed
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return read(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Open a catalog from the class path, or as a file relative to the working directory.
+	 * A catalog residing in a file is memory-mapped, otherwise it is read into memory.
+	 * 
+	 * @param name	the resource name of the catalog.
+	 * @return		the motors of the catalog, or <code>null</code> if the catalog was not found.
+	 * @throws IOException	if an I/O error occurs or the catalog is invalid.
+	 */
+	public static List<ThrustCurveMotor> openResource(String name) throws IOException {
+		URL url = MotorCatalog.class.getClassLoader().getResource(name);
+		if (url == null) {
+			File file = new File(name);
+			return file.isFile() ? open(file) : null;
+		}
+		if ("file".equals(url.getProtocol())) {
+			return open(JarUtil.urlToFile(url));
+		}
+		InputStream is = url.openStream();
+		try {
+			return read(is);
+		} finally {
+			is.close();
+		}
+	}
+	
+	/**
+	 * Read a catalog from a stream.  The stream is read fully into memory and the thrust
+	 * curves are decoded from it when first needed.
+	 *
+	 * @param stream	the stream to read, not closed.
+	 * @return			the motors of the catalog.
+	 * @throws IOException	if an I/O error occurs or the data is not a valid catalog.
+	 */
+	public static List<ThrustCurveMotor> read(InputStream stream) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+		byte[] buf = new byte[1 << 16];
+		int n;
+		while ((n = stream.read(buf)) >= 0) {
+			bytes.write(buf, 0, n);
+		}
+		return read(ByteBuffer.wrap(bytes.toByteArray()));
+	}
+	
+	
+	private static List<ThrustCurveMotor> read(ByteBuffer buffer) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a motor catalog");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported motor catalog version " + version);
+			}
+			int count = buffer.getInt();
+			int indexLength = buffer.getInt();
+			int curveStart = buffer.position() + indexLength;
+			
+			List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>(count);
+			for (int i = 0; i < count; i++) {
+				Manufacturer manufacturer = Manufacturer.getManufacturer(readString(buffer));
+				String designation = readString(buffer);
+				String description = readString(buffer);
+				String digest = readString(buffer);
+				Motor.Type type = Motor.Type.valueOf(readString(buffer));
+				int delayCount = buffer.getInt();
+				if (delayCount < 0) {
+					throw new IOException("Invalid delays of motor " + designation);
+				}
+				double[] delays = new double[delayCount];
+				for (int j = 0; j < delays.length; j++) {
+					delays[j] = buffer.getDouble();
+				}
+				double diameter = buffer.getDouble();
+				double length = buffer.getDouble();
+				double maxThrust = buffer.getDouble();
+				double burnTime = buffer.getDouble();
+				double averageThrust = buffer.getDouble();
+				double totalImpulse = buffer.getDouble();
+				int points = buffer.getInt();
+				int offset = curveStart + buffer.getInt();
+				if (points < 2 || offset < curveStart ||
+						(long) offset + 6L * 8 * points > buffer.limit()) {
+					throw new IOException("Invalid curve of motor " + designation);
+				}
+				
+				motors.add(new ThrustCurveMotor(manufacturer, designation, description, type,
+						delays, diameter, length, digest, points, maxThrust, burnTime,
+						averageThrust, totalImpulse, new CatalogCurve(buffer, offset)));
+			}
+			return motors;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated motor catalog", e);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid motor catalog: " + e.getMessage(), e);
+		}
+	}
+	
+	
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+	
+	
+	/**
+	 * The thrust curve of a motor in the catalog buffer.
+	 */
+	private static class CatalogCurve implements ThrustCurveMotor.CurveSource {
+		private final ByteBuffer buffer;
+		private final int offset;
+		
+		public CatalogCurve(ByteBuffer buffer, int offset) {
+			this.buffer = buffer;
+			this.offset = offset;
+		}
+		
+		@Override
+		public void read(double[] time, double[] thrust, Coordinate[] cg) {
+			int n = time.length;
+			
+			// Use a private view, the buffer is shared by all motors of the catalog
+			ByteBuffer b = buffer.duplicate();
+			b.position(offset);
+			DoubleBuffer values = b.asDoubleBuffer();
+			values.get(time);
+			values.get(thrust);
+			double[] x = new double[n];
+			double[] y = new double[n];
+			double[] z = new double[n];
+			double[] mass = new double[n];
+			values.get(x);
+			values.get(y);
+			values.get(z);
+			values.get(mass);
+			for (int i = 0; i < n; i++) {
+				cg[i] = new Coordinate(x[i], y[i], z[i], mass[i]);
+			}
+		}
+	}
+}
@@ -15,6 +15,8 @@ import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
 import net.sf.openrocket.file.RocketSaver;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
+import net.sf.openrocket.models.wind.WindProfile;
 import net.sf.openrocket.rocketcomponent.DeploymentConfiguration.DeployEvent;
 import net.sf.openrocket.rocketcomponent.FinSet;
 import net.sf.openrocket.rocketcomponent.FlightConfigurableComponent;
@@ -222,6 +224,10 @@ public class OpenRocketSaver extends RocketSaver {
 		/*
 		 * NOTE:  Remember to update the supported versions in DocumentConfig as well!
 		 * 
+		 * File version 1.8 is required for:
+		 *  - measured sounding atmospheres
+		 *  - wind profiles
+		 * 
 		 * File version 1.7 is required for:
 		 *  - simulation extensions
 		 *  - saving tube fins.
@@ -245,6 +251,16 @@ public class OpenRocketSaver extends RocketSaver {
 		 * Otherwise use version 1.0.
 		 */
 		
+		/////////////////
+		// Version 1.8 // 
+		/////////////////
+		for (Simulation sim : document.getSimulations()) {
+			SimulationOptions options = sim.getOptions();
+			if (options.getSoundingAtmosphere() != null || options.getWindProfile() != null) {
+				return FILE_VERSION_DIVISOR + 8;
+			}
+		}
+		
 		/////////////////
 		// Version 1.7 // 
 		/////////////////
@@ -460,12 +476,35 @@ public class OpenRocketSaver extends RocketSaver {
 		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
 		writeElement("windaverage", cond.getWindSpeedAverage());
 		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
+		WindProfile windProfile = cond.getWindProfile();
+		if (windProfile != null) {
+			writeln("<windprofile>");
+			indent++;
+			for (int i = 0; i < windProfile.getLayerCount(); i++) {
+				writeln("<layer altitude=\"" + windProfile.getAltitude(i) +
+						"\" speed=\"" + windProfile.getSpeed(i) +
+						"\" direction=\"" + (windProfile.getDirection(i) * 180.0 / Math.PI) + "\"/>");
+			}
+			indent--;
+			writeln("</windprofile>");
+		}
 		writeElement("launchaltitude", cond.getLaunchAltitude());
 		writeElement("launchlatitude", cond.getLaunchLatitude());
 		writeElement("launchlongitude", cond.getLaunchLongitude());
 		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
 		
-		if (cond.isISAAtmosphere()) {
+		SoundingAtmosphericModel sounding = cond.getSoundingAtmosphere();
+		if (sounding != null) {
+			writeln("<atmosphere model=\"sounding\">");
+			indent++;
+			for (int i = 0; i < sounding.getMeasurementCount(); i++) {
+				writeln("<measurement altitude=\"" + sounding.getMeasurementAltitude(i) +
+						"\" pressure=\"" + sounding.getMeasurementPressure(i) +
+						"\" temperature=\"" + sounding.getMeasurementTemperature(i) + "\"/>");
+			}
+			indent--;
+			writeln("</atmosphere>");
+		} else if (cond.isISAAtmosphere()) {
 			writeln("<atmosphere model=\"isa\"/>");
 		} else {
 			writeln("<atmosphere model=\"extendedisa\">");
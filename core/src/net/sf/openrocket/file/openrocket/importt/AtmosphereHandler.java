@@ -1,12 +1,15 @@
 package net.sf.openrocket.file.openrocket.importt;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
 import net.sf.openrocket.simulation.SimulationOptions;
 
 import org.xml.sax.SAXException;
@@ -17,6 +20,7 @@ class AtmosphereHandler extends AbstractElementHandler {
 	private final String model;
 	private double temperature = Double.NaN;
 	private double pressure = Double.NaN;
+	private final List<double[]> measurements = new ArrayList<double[]>();
 	
 	public AtmosphereHandler(String model, DocumentLoadingContext context) {
 		this.model = model;
@@ -49,6 +53,16 @@ class AtmosphereHandler extends AbstractElementHandler {
 				warnings.add("Illegal base pressure specified, ignoring.");
 			}
 			pressure = d;
+		} else if (element.equals("measurement")) {
+			double[] measurement = {
+					parseDouble(attributes.get("altitude")),
+					parseDouble(attributes.get("temperature")),
+					parseDouble(attributes.get("pressure")) };
+			if (Double.isNaN(measurement[0]) || Double.isNaN(measurement[1]) || Double.isNaN(measurement[2])) {
+				warnings.add("Illegal sounding measurement specified, ignoring.");
+			} else {
+				measurements.add(measurement);
+			}
 		} else {
 			super.closeElement(element, attributes, content, warnings);
 		}
@@ -63,7 +77,9 @@ class AtmosphereHandler extends AbstractElementHandler {
 			cond.setLaunchTemperature(temperature);
 		}
 		
-		if ("isa".equals(model)) {
+		if ("sounding".equals(model)) {
+			cond.setSoundingAtmosphere(createSounding(warnings));
+		} else if ("isa".equals(model)) {
 			cond.setISAAtmosphere(true);
 		} else if ("extendedisa".equals(model)) {
 			cond.setISAAtmosphere(false);
@@ -73,4 +89,33 @@ class AtmosphereHandler extends AbstractElementHandler {
 		}
 	}
 	
+	private static double parseDouble(String value) {
+		if (value == null) {
+			return Double.NaN;
+		}
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+	
+	private SoundingAtmosphericModel createSounding(WarningSet warnings) {
+		int n = measurements.size();
+		double[] altitude = new double[n];
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
+		for (int i = 0; i < n; i++) {
+			altitude[i] = measurements.get(i)[0];
+			temperature[i] = measurements.get(i)[1];
+			pressure[i] = measurements.get(i)[2];
+		}
+		try {
+			return new SoundingAtmosphericModel(altitude, temperature, pressure);
+		} catch (IllegalArgumentException e) {
+			warnings.add("Invalid sounding atmosphere, using ISA: " + e.getMessage());
+			return null;
+		}
+	}
+	
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package net.sf.openrocket.file.openrocket.importt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.file.simplesax.AbstractElementHandler;
+import net.sf.openrocket.file.simplesax.ElementHandler;
+import net.sf.openrocket.file.simplesax.PlainTextHandler;
+import net.sf.openrocket.models.wind.WindProfile;
+import net.sf.openrocket.simulation.SimulationOptions;
+
+import org.xml.sax.SAXException;
+
+/**
+ * A handler for the layers of a wind profile.  The directions are stored in degrees.
+ */
+class WindProfileHandler extends AbstractElementHandler {
+	private final List<double[]> layers = new ArrayList<double[]>();
+	
+	@Override
+	public ElementHandler openElement(String element, HashMap<String, String> attributes,
+			WarningSet warnings) {
+		return PlainTextHandler.INSTANCE;
+	}
+	
+	@Override
+	public void closeElement(String element, HashMap<String, String> attributes,
+			String content, WarningSet warnings) throws SAXException {
+		
+		if (element.equals("layer")) {
+			double[] layer = {
+					parseDouble(attributes.get("altitude")),
+					parseDouble(attributes.get("speed")),
+					parseDouble(attributes.get("direction")) };
+			if (Double.isNaN(layer[0]) || Double.isNaN(layer[1]) || Double.isNaN(layer[2])) {
+				warnings.add("Illegal wind profile layer specified, ignoring.");
+			} else {
+				layers.add(layer);
+			}
+		} else {
+			super.closeElement(element, attributes, content, warnings);
+		}
+	}
+	
+	
+	public void storeSettings(SimulationOptions cond, WarningSet warnings) {
+		int n = layers.size();
+		double[] altitude = new double[n];
+		double[] speed = new double[n];
+		double[] direction = new double[n];
+		for (int i = 0; i < n; i++) {
+			altitude[i] = layers.get(i)[0];
+			speed[i] = layers.get(i)[1];
+			direction[i] = layers.get(i)[2] * Math.PI / 180;
+		}
+		try {
+			cond.setWindProfile(new WindProfile(altitude, speed, direction));
+		} catch (IllegalArgumentException e) {
+			warnings.add("Invalid wind profile, using the average wind: " + e.getMessage());
+		}
+	}
+	
+	private static double parseDouble(String value) {
+		if (value == null) {
+			return Double.NaN;
+		}
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+	
+}
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.util.BugException;
 
 /**
  * Abstract base for mass calculators.  Provides functionality for cacheing mass data.
@@ -17,6 +18,43 @@ public abstract class AbstractMassCalculator implements MassCalculator {
 	private int rocketTreeModID = -1;
 	
 	
+	/**
+	 * Return a new instance of this mass calculator type.  The default implementation
+	 * uses the public no-argument constructor of the class.
+	 * 
+	 * @return	a new, independent instance of this mass calculator type
+	 */
+	public MassCalculator newInstance() {
+		return newInstance(getClass());
+	}
+	
+	
+	/**
+	 * Return a new instance of the type of a mass calculator, for use concurrently with
+	 * the original.  Calculators that do not extend this class are created using their
+	 * public no-argument constructor.
+	 * 
+	 * @param calculator	the mass calculator.
+	 * @return				a new, independent instance of the type of the calculator.
+	 */
+	public static MassCalculator newInstance(MassCalculator calculator) {
+		if (calculator instanceof AbstractMassCalculator) {
+			return ((AbstractMassCalculator) calculator).newInstance();
+		}
+		return newInstance(calculator.getClass());
+	}
+	
+	private static MassCalculator newInstance(Class<? extends MassCalculator> type) {
+		try {
+			return type.newInstance();
+		} catch (InstantiationException e) {
+			throw new BugException("Cannot instantiate mass calculator " + type, e);
+		} catch (IllegalAccessException e) {
+			throw new BugException("Cannot access mass calculator " + type, e);
+		}
+	}
+	
+	
 	/**
 	 * Check the current cache consistency.  This method must be called by all
 	 * methods that may use any cached data before any other operations are
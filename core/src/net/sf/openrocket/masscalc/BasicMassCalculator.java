@@ -29,6 +29,26 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 	private double longitudinalInertiaCache[] = null;
 	private double rotationalInertiaCache[] = null;
 	
+	/*
+	 * Cached structural data of the active stages without motors.  The CG is in
+	 * absolute coordinates and the moments of inertia are relative to the CG.
+	 */
+	private Configuration structureConfiguration = null;
+	private int structureModID = -1;
+	private boolean[] structureStages = null;
+	private Coordinate structureCG = null;
+	private double structureLongitudinalInertia = 0;
+	private double structureRotationalInertia = 0;
+	
+	private long structureCacheHits = 0;
+	private long structureCacheMisses = 0;
+	
+	
+	@Override
+	public BasicMassCalculator newInstance() {
+		return new BasicMassCalculator();
+	}
+	
 	
 
 	//////////////////  Mass property calculations  ///////////////////
@@ -41,17 +61,10 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 	@Override
 	public Coordinate getCG(Configuration configuration, MassCalcType type) {
 		checkCache(configuration);
-		calculateStageCache(configuration);
-		
-		Coordinate totalCG = null;
+		calculateStructureCache(configuration);
 		
 		// Stage contribution
-		for (int stage : configuration.getActiveStages()) {
-			totalCG = cgCache[stage].average(totalCG);
-		}
-		
-		if (totalCG == null)
-			totalCG = Coordinate.NUL;
+		Coordinate totalCG = structureCG;
 		
 		// Add motor CGs
 		String motorId = configuration.getFlightConfigurationID();
@@ -84,9 +97,9 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 	@Override
 	public Coordinate getCG(Configuration configuration, MotorInstanceConfiguration motors) {
 		checkCache(configuration);
-		calculateStageCache(configuration);
+		calculateStructureCache(configuration);
 		
-		Coordinate totalCG = getCG(configuration, MassCalcType.NO_MOTORS);
+		Coordinate totalCG = structureCG;
 		
 		// Add motor CGs
 		if (motors != null) {
@@ -115,18 +128,13 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 	@Override
 	public double getLongitudinalInertia(Configuration configuration, MotorInstanceConfiguration motors) {
 		checkCache(configuration);
-		calculateStageCache(configuration);
+		calculateStructureCache(configuration);
 		
 		final Coordinate totalCG = getCG(configuration, motors);
-		double totalInertia = 0;
 		
 		// Stages
-		for (int stage : configuration.getActiveStages()) {
-			Coordinate stageCG = cgCache[stage];
-			
-			totalInertia += (longitudinalInertiaCache[stage] +
-					stageCG.weight * MathUtil.pow2(stageCG.x - totalCG.x));
-		}
+		double totalInertia = structureLongitudinalInertia +
+				structureCG.weight * MathUtil.pow2(structureCG.x - totalCG.x);
 		
 
 		// Motors
@@ -159,19 +167,14 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 	@Override
 	public double getRotationalInertia(Configuration configuration, MotorInstanceConfiguration motors) {
 		checkCache(configuration);
-		calculateStageCache(configuration);
+		calculateStructureCache(configuration);
 		
 		final Coordinate totalCG = getCG(configuration, motors);
-		double totalInertia = 0;
 		
 		// Stages
-		for (int stage : configuration.getActiveStages()) {
-			Coordinate stageCG = cgCache[stage];
-			
-			totalInertia += (rotationalInertiaCache[stage] +
-					stageCG.weight * (MathUtil.pow2(stageCG.y - totalCG.y) +
-							MathUtil.pow2(stageCG.z - totalCG.z)));
-		}
+		double totalInertia = structureRotationalInertia +
+				structureCG.weight * (MathUtil.pow2(structureCG.y - totalCG.y) +
+						MathUtil.pow2(structureCG.z - totalCG.z));
 		
 
 		// Motors
@@ -234,8 +237,84 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 		return map;
 	}
 	
+	/**
+	 * Return the number of mass calculations that have used the cached structural
+	 * mass data of the active stages.
+	 * 
+	 * @return	the number of structural cache hits.
+	 */
+	public long getStructureCacheHits() {
+		return structureCacheHits;
+	}
+	
+	/**
+	 * Return the number of mass calculations that have recomputed the structural
+	 * mass data of the active stages.
+	 * 
+	 * @return	the number of structural cache misses.
+	 */
+	public long getStructureCacheMisses() {
+		return structureCacheMisses;
+	}
+	
+	
 	////////  Cache computations  ////////
 	
+	/**
+	 * Compute the combined CG and inertia of the active stages, unless they have been
+	 * computed for the same configuration modification and active stages.
+	 */
+	private void calculateStructureCache(Configuration config) {
+		calculateStageCache(config);
+		
+		int stageCount = config.getStageCount();
+		if (structureConfiguration == config && structureModID == config.getModID() &&
+				structureStages.length == stageCount) {
+			boolean valid = true;
+			for (int stage = 0; stage < stageCount; stage++) {
+				if (structureStages[stage] != config.isStageActive(stage)) {
+					valid = false;
+					break;
+				}
+			}
+			if (valid) {
+				structureCacheHits++;
+				return;
+			}
+		}
+		structureCacheMisses++;
+		
+		boolean[] stages = new boolean[stageCount];
+		Coordinate cg = null;
+		for (int stage = 0; stage < stageCount; stage++) {
+			stages[stage] = config.isStageActive(stage);
+			if (stages[stage]) {
+				cg = cgCache[stage].average(cg);
+			}
+		}
+		if (cg == null)
+			cg = Coordinate.NUL;
+		
+		double longitudinalInertia = 0;
+		double rotationalInertia = 0;
+		for (int stage = 0; stage < stageCount; stage++) {
+			if (stages[stage]) {
+				Coordinate stageCG = cgCache[stage];
+				longitudinalInertia += longitudinalInertiaCache[stage] +
+						stageCG.weight * pow2(stageCG.x - cg.x);
+				rotationalInertia += rotationalInertiaCache[stage] +
+						stageCG.weight * (pow2(stageCG.y - cg.y) + pow2(stageCG.z - cg.z));
+			}
+		}
+		
+		structureConfiguration = config;
+		structureModID = config.getModID();
+		structureStages = stages;
+		structureCG = cg;
+		structureLongitudinalInertia = longitudinalInertia;
+		structureRotationalInertia = rotationalInertia;
+	}
+	
 	private void calculateStageCache(Configuration config) {
 		if (cgCache == null) {
 			
@@ -356,6 +435,9 @@ public class BasicMassCalculator extends AbstractMassCalculator {
 		this.cgCache = null;
 		this.longitudinalInertiaCache = null;
 		this.rotationalInertiaCache = null;
+		this.structureConfiguration = null;
+		this.structureStages = null;
+		this.structureCG = null;
 	}
 	
 	
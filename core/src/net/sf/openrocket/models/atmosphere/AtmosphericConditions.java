@@ -75,7 +75,18 @@ public class AtmosphericConditions implements Cloneable, Monitorable {
 	 * @return   the current density of air.
 	 */
 	public double getDensity() {
-		return getPressure() / (R*getTemperature());
+		return getDensity(getTemperature(), getPressure());
+	}
+	
+	/**
+	 * Return the density of dry air at the given temperature and pressure.
+	 * 
+	 * @param temperature	the temperature in Kelvins.
+	 * @param pressure		the pressure in Pascals.
+	 * @return				the density of air.
+	 */
+	public static double getDensity(double temperature, double pressure) {
+		return pressure / (R * temperature);
 	}
 	
 	
@@ -90,7 +101,18 @@ public class AtmosphericConditions implements Cloneable, Monitorable {
 	 * @return   the current speed of sound.
 	 */
 	public double getMachSpeed() {
-		return 165.77 + 0.606 * getTemperature();
+		return getMachSpeed(getTemperature());
+	}
+	
+	/**
+	 * Return the speed of sound for dry air at the given temperature, calculated as
+	 * in {@link #getMachSpeed()}.
+	 * 
+	 * @param temperature	the temperature in Kelvins.
+	 * @return				the speed of sound.
+	 */
+	public static double getMachSpeed(double temperature) {
+		return 165.77 + 0.606 * temperature;
 	}
 	
 	
@@ -2,8 +2,43 @@ package net.sf.openrocket.models.atmosphere;
 
 import net.sf.openrocket.util.Monitorable;
 
+/**
+ * A model of the atmospheric conditions as a function of altitude.  Besides returning
+ * a new {@link AtmosphericConditions} object, the model provides the values as
+ * primitives and can store them into a conditions object owned by the caller.
+ */
 public interface AtmosphericModel extends Monitorable {
 
 	public AtmosphericConditions getConditions(double altitude);
 	
+	/**
+	 * Store the conditions at the given altitude into an existing conditions object.
+	 * 
+	 * @param altitude		the altitude.
+	 * @param conditions	the object to store the temperature and pressure into.
+	 */
+	public void getConditions(double altitude, AtmosphericConditions conditions);
+	
+	/**
+	 * Return the air temperature at the given altitude, in Kelvins.
+	 */
+	public double getTemperature(double altitude);
+	
+	/**
+	 * Return the air pressure at the given altitude, in Pascals.
+	 */
+	public double getPressure(double altitude);
+	
+	/**
+	 * Return the density of dry air at the given altitude.  This is equal to
+	 * {@link AtmosphericConditions#getDensity()} of the conditions at the altitude.
+	 */
+	public double getDensity(double altitude);
+	
+	/**
+	 * Return the speed of sound at the given altitude.  This is equal to
+	 * {@link AtmosphericConditions#getMachSpeed()} of the conditions at the altitude.
+	 */
+	public double getMachSpeed(double altitude);
+	
 }
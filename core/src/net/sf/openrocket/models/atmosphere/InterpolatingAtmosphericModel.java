@@ -3,47 +3,152 @@ package net.sf.openrocket.models.atmosphere;
 /**
  * An abstract atmospheric model that pre-computes the conditions on a number of layers
  * and later linearly interpolates the values from between these layers.
- * 
+ * <p>
+ * The layers are stored in primitive arrays at a uniform spacing, so a lookup is a
+ * constant-time index computation.  The primitive accessors and the caller-owned
+ * variant of {@link #getConditions(double, AtmosphericConditions)} do not allocate.
+ *
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public abstract class InterpolatingAtmosphericModel implements AtmosphericModel {
+	/** Default layer thickness of interpolated altitude. */
+	private static final double DEFAULT_DELTA = 500;
+	
 	/** Layer thickness of interpolated altitude. */
-	private static final double DELTA = 500;
+	private final double delta;
+	
+	private volatile Layers layers = null;
+	
+	
+	/**
+	 * Construct a model with the default layer thickness of 500 m.
+	 */
+	protected InterpolatingAtmosphericModel() {
+		this(DEFAULT_DELTA);
+	}
 	
-	private AtmosphericConditions[] levels = null;
+	/**
+	 * Construct a model with the given layer thickness.
+	 *
+	 * @param delta		the thickness of the interpolated layers, in meters.
+	 * @throws IllegalArgumentException	if the thickness is not positive.
+	 */
+	protected InterpolatingAtmosphericModel(double delta) {
+		if (!(delta > 0)) {
+			throw new IllegalArgumentException("Invalid layer thickness: " + delta);
+		}
+		this.delta = delta;
+	}
+	
+	/**
+	 * Return the thickness of the interpolated layers, in meters.
+	 */
+	public double getLayerThickness() {
+		return delta;
+	}
 	
 	
 	@Override
 	public AtmosphericConditions getConditions(double altitude) {
-		if (levels == null)
-			computeLayers();
-		
-		if (altitude <= 0)
-			return levels[0];
-		if (altitude >= DELTA * (levels.length - 1))
-			return levels[levels.length - 1];
-		
-		int n = (int) (altitude / DELTA);
-		double d = (altitude - n * DELTA) / DELTA;
-		AtmosphericConditions c = new AtmosphericConditions();
-		c.setTemperature(levels[n].getTemperature() * (1 - d) + levels[n + 1].getTemperature() * d);
-		c.setPressure(levels[n].getPressure() * (1 - d) + levels[n + 1].getPressure() * d);
-		
-		return c;
+		return new AtmosphericConditions(getTemperature(altitude), getPressure(altitude));
+	}
+	
+	@Override
+	public void getConditions(double altitude, AtmosphericConditions conditions) {
+		conditions.setTemperature(getTemperature(altitude));
+		conditions.setPressure(getPressure(altitude));
+	}
+	
+	@Override
+	public double getTemperature(double altitude) {
+		Layers layers = getLayers();
+		return layers.interpolate(layers.temperature, altitude);
+	}
+	
+	@Override
+	public double getPressure(double altitude) {
+		Layers layers = getLayers();
+		return layers.interpolate(layers.pressure, altitude);
+	}
+	
+	@Override
+	public double getDensity(double altitude) {
+		return AtmosphericConditions.getDensity(getTemperature(altitude), getPressure(altitude));
 	}
 	
+	@Override
+	public double getMachSpeed(double altitude) {
+		return AtmosphericConditions.getMachSpeed(getTemperature(altitude));
+	}
+	
+	
+	private Layers getLayers() {
+		Layers layers = this.layers;
+		if (layers == null)
+			layers = computeLayers();
+		return layers;
+	}
 	
-	private void computeLayers() {
+	/*
+	 * The layers are published only once fully computed, so that the model may be
+	 * shared between concurrently running simulations.
+	 */
+	private Layers computeLayers() {
+		double min = getMinAltitude();
 		double max = getMaxAltitude();
-		int n = (int) (max / DELTA) + 1;
-		levels = new AtmosphericConditions[n];
+		int n = (int) ((max - min) / delta) + 1;
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
 		for (int i = 0; i < n; i++) {
-			levels[i] = getExactConditions(i * DELTA);
+			AtmosphericConditions c = getExactConditions(min + i * delta);
+			temperature[i] = c.getTemperature();
+			pressure[i] = c.getPressure();
 		}
+		Layers array = new Layers(min, delta, temperature, pressure);
+		layers = array;
+		return array;
 	}
 	
 	
+	/**
+	 * Return the altitude of the lowest layer.  Conditions below it are those of the
+	 * lowest layer.  The default implementation returns zero.
+	 */
+	protected double getMinAltitude() {
+		return 0;
+	}
+	
 	protected abstract double getMaxAltitude();
 	
 	protected abstract AtmosphericConditions getExactConditions(double altitude);
+	
+	
+	/**
+	 * The uniformly spaced layer values.
+	 */
+	private static final class Layers {
+		private final double min;
+		private final double delta;
+		private final double[] temperature;
+		private final double[] pressure;
+		
+		private Layers(double min, double delta, double[] temperature, double[] pressure) {
+			this.min = min;
+			this.delta = delta;
+			this.temperature = temperature;
+			this.pressure = pressure;
+		}
+		
+		private double interpolate(double[] values, double altitude) {
+			double x = (altitude - min) / delta;
+			if (x <= 0)
+				return values[0];
+			if (x >= values.length - 1)
+				return values[values.length - 1];
+			
+			int n = (int) x;
+			double d = x - n;
+			return values[n] * (1 - d) + values[n + 1] * d;
+		}
+	}
 }
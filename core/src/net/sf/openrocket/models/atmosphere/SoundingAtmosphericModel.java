@@ -0,0 +1,254 @@
+package net.sf.openrocket.models.atmosphere;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.openrocket.util.UniqueID;
+
+/**
+ * An atmospheric model based on a measured sounding, for example from a radiosonde
+ * launched near the launch site.  The measurements are resampled into uniformly spaced
+ * layers when the model is first used.
+ * <p>
+ * Between the measurements the temperature is interpolated linearly and the pressure
+ * exponentially.  Below the lowest and above the highest measurement the conditions of
+ * the nearest measurement are used.
+ */
+public class SoundingAtmosphericModel extends InterpolatingAtmosphericModel {
+	
+	/** Default layer thickness of the resampled sounding. */
+	public static final double DEFAULT_DELTA = 50;
+	
+	private final double[] altitude;
+	private final double[] temperature;
+	private final double[] pressure;
+	private final double[] logPressure;
+	private final int modID;
+	
+	
+	/**
+	 * Construct a model from measurements, resampled at the default layer thickness.
+	 *
+	 * @param altitude		the altitudes of the measurements, in meters.
+	 * @param temperature	the temperatures, in Kelvins.
+	 * @param pressure		the pressures, in Pascals.
+	 * @throws IllegalArgumentException	if the arrays are of different length, have less
+	 * 									than two measurements, the altitudes are not
+	 * 									strictly increasing or a value is invalid.
+	 */
+	public SoundingAtmosphericModel(double[] altitude, double[] temperature, double[] pressure) {
+		this(altitude, temperature, pressure, DEFAULT_DELTA);
+	}
+	
+	/**
+	 * Construct a model from measurements.
+	 *
+	 * @param altitude		the altitudes of the measurements, in meters.
+	 * @param temperature	the temperatures, in Kelvins.
+	 * @param pressure		the pressures, in Pascals.
+	 * @param delta			the thickness of the resampled layers, in meters.
+	 * @throws IllegalArgumentException	if the arrays are of different length, have less
+	 * 									than two measurements, the altitudes are not
+	 * 									strictly increasing or a value is invalid.
+	 */
+	public SoundingAtmosphericModel(double[] altitude, double[] temperature, double[] pressure,
+			double delta) {
+		super(delta);
+		int n = altitude.length;
+		if (temperature.length != n || pressure.length != n) {
+			throw new IllegalArgumentException("Array lengths differ: altitude=" + n +
+					" temperature=" + temperature.length + " pressure=" + pressure.length);
+		}
+		if (n < 2) {
+			throw new IllegalArgumentException("At least two measurements required, n=" + n);
+		}
+		
+		this.altitude = altitude.clone();
+		this.temperature = temperature.clone();
+		this.pressure = pressure.clone();
+		this.logPressure = new double[n];
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && !(altitude[i] > altitude[i - 1])) {
+				throw new IllegalArgumentException("Altitudes not strictly increasing: " +
+						altitude[i - 1] + ", " + altitude[i]);
+			}
+			if (!(temperature[i] > 0) || !(pressure[i] > 0) || Double.isInfinite(altitude[i])) {
+				throw new IllegalArgumentException("Invalid measurement: altitude=" + altitude[i] +
+						" temperature=" + temperature[i] + " pressure=" + pressure[i]);
+			}
+			logPressure[i] = Math.log(pressure[i]);
+		}
+		this.modID = UniqueID.next();
+	}
+	
+	
+	/**
+	 * Load a sounding from a stream.  The stream is read as UTF-8 text and is not closed.
+	 * See {@link #load(Reader)} for the format.
+	 *
+	 * @param stream	the stream to read.
+	 * @return			the atmospheric model of the sounding.
+	 * @throws IOException	if an I/O error occurs or the data is invalid.
+	 */
+	public static SoundingAtmosphericModel load(InputStream stream) throws IOException {
+		return load(new InputStreamReader(stream, "UTF-8"));
+	}
+	
+	/**
+	 * Load a sounding from a text file.  Each line contains the altitude in meters,
+	 * pressure in Pascals and temperature in Kelvins of one measurement, separated by
+	 * white space, commas or semicolons.  Empty lines and lines starting with '#' are
+	 * ignored.  The measurements may be in any order.  The reader is not closed.
+	 *
+	 * @param reader	the reader to read.
+	 * @return			the atmospheric model of the sounding.
+	 * @throws IOException	if an I/O error occurs or the data is invalid.
+	 */
+	public static SoundingAtmosphericModel load(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		List<double[]> rows = new ArrayList<double[]>();
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#"))
+				continue;
+			
+			String[] fields = line.split("[\\s,;]+");
+			if (fields.length != 3) {
+				throw new IOException("Expected 3 values on line " + lineNumber + ": " + line);
+			}
+			double[] row = new double[3];
+			try {
+				for (int i = 0; i < 3; i++) {
+					row[i] = Double.parseDouble(fields[i]);
+				}
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid number on line " + lineNumber + ": " + line);
+			}
+			rows.add(row);
+		}
+		
+		double[][] sorted = rows.toArray(new double[0][]);
+		Arrays.sort(sorted, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] a, double[] b) {
+				return Double.compare(a[0], b[0]);
+			}
+		});
+		
+		int n = sorted.length;
+		double[] altitude = new double[n];
+		double[] pressure = new double[n];
+		double[] temperature = new double[n];
+		for (int i = 0; i < n; i++) {
+			altitude[i] = sorted[i][0];
+			pressure[i] = sorted[i][1];
+			temperature[i] = sorted[i][2];
+		}
+		
+		try {
+			return new SoundingAtmosphericModel(altitude, temperature, pressure);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid sounding: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Return the number of measurements in the sounding.
+	 */
+	public int getMeasurementCount() {
+		return altitude.length;
+	}
+	
+	/**
+	 * Return the altitude of a measurement, in meters.  The measurements are in
+	 * increasing order of altitude.
+	 */
+	public double getMeasurementAltitude(int index) {
+		return altitude[index];
+	}
+	
+	/**
+	 * Return the temperature of a measurement, in Kelvins.
+	 */
+	public double getMeasurementTemperature(int index) {
+		return temperature[index];
+	}
+	
+	/**
+	 * Return the pressure of a measurement, in Pascals.
+	 */
+	public double getMeasurementPressure(int index) {
+		return pressure[index];
+	}
+	
+	
+	@Override
+	protected AtmosphericConditions getExactConditions(double alt) {
+		int n = Arrays.binarySearch(altitude, alt);
+		if (n >= 0) {
+			return new AtmosphericConditions(temperature[n], Math.exp(logPressure[n]));
+		}
+		
+		// Index of the measurement above the altitude
+		n = -n - 1;
+		if (n == 0) {
+			return new AtmosphericConditions(temperature[0], Math.exp(logPressure[0]));
+		}
+		if (n == altitude.length) {
+			n = altitude.length - 1;
+			return new AtmosphericConditions(temperature[n], Math.exp(logPressure[n]));
+		}
+		
+		double d = (alt - altitude[n - 1]) / (altitude[n] - altitude[n - 1]);
+		double t = temperature[n - 1] * (1 - d) + temperature[n] * d;
+		double p = Math.exp(logPressure[n - 1] * (1 - d) + logPressure[n] * d);
+		return new AtmosphericConditions(t, p);
+	}
+	
+	@Override
+	protected double getMinAltitude() {
+		return altitude[0];
+	}
+	
+	@Override
+	protected double getMaxAltitude() {
+		return altitude[altitude.length - 1];
+	}
+	
+	@Override
+	public int getModID() {
+		return modID;
+	}
+	
+	
+	/**
+	 * Two soundings are equal if they have the same measurements and layer thickness.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof SoundingAtmosphericModel))
+			return false;
+		SoundingAtmosphericModel o = (SoundingAtmosphericModel) other;
+		return getLayerThickness() == o.getLayerThickness() && Arrays.equals(altitude, o.altitude) &&
+				Arrays.equals(temperature, o.temperature) && Arrays.equals(pressure, o.pressure);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(altitude) ^ Arrays.hashCode(temperature) ^ Arrays.hashCode(pressure);
+	}
+
+}
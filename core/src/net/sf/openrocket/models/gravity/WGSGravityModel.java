@@ -10,21 +10,22 @@ import net.sf.openrocket.util.WorldCoordinate;
  */
 public class WGSGravityModel implements GravityModel {
 	
-	// Cache the previously computed value
-	private WorldCoordinate lastWorldCoordinate;
-	private double lastg;
+	// Cache the previously computed value.  The coordinate and value are held in a single
+	// immutable object so that the model can be shared between threads.
+	private Cache last = new Cache(null, Double.NaN);
 	
 	
 	@Override
 	public double getGravity(WorldCoordinate wc) {
 		
 		// This is a proxy method to calcGravity, to avoid repeated calculation
-		if (wc != this.lastWorldCoordinate) {
-			this.lastg = calcGravity(wc);
-			this.lastWorldCoordinate = wc;
+		Cache cache = this.last;
+		if (wc != cache.worldCoordinate) {
+			cache = new Cache(wc, calcGravity(wc));
+			this.last = cache;
 		}
 		
-		return this.lastg;
+		return cache.g;
 		
 	}
 	
@@ -49,4 +50,15 @@ public class WGSGravityModel implements GravityModel {
 		return g_alt;
 	}
 	
+	
+	private static class Cache {
+		private final WorldCoordinate worldCoordinate;
+		private final double g;
+		
+		public Cache(WorldCoordinate worldCoordinate, double g) {
+			this.worldCoordinate = worldCoordinate;
+			this.g = g;
+		}
+	}
+	
 }
@@ -7,4 +7,12 @@ public interface WindModel extends Monitorable {
 
 	public Coordinate getWindVelocity(double time, double altitude);
 	
+	/**
+	 * Return a new wind model with the same parameters as this model and an
+	 * independent state, producing the same wind velocities.
+	 * 
+	 * @return	a new, independent instance of this wind model
+	 */
+	public WindModel newInstance();
+	
 }
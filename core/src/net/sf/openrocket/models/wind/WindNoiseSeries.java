@@ -0,0 +1,111 @@
+package net.sf.openrocket.models.wind;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.PinkNoise;
+
+/**
+ * A seeded pink noise time series of the wind turbulence, stored in a primitive array.
+ * <p>
+ * The series of a seed is generated once and shared by all wind models using the seed,
+ * so repeated and concurrent simulations sample the same stored values instead of
+ * regenerating the noise.  The series is extended as later times are requested.  The
+ * samples are published only once computed, so sampling is thread-safe and needs no
+ * locking.
+ */
+final class WindNoiseSeries {
+	
+	/** Pink noise alpha parameter. */
+	private static final double ALPHA = 5.0 / 3.0;
+	
+	/** Number of poles to use in the pink noise IIR filter. */
+	private static final int POLES = 2;
+	
+	/** The standard deviation of the generated pink noise with the specified number of poles. */
+	static final double STDDEV = 2.252;
+	
+	/** Time difference between random samples. */
+	static final double DELTA_T = 0.05;
+	
+	/** Number of samples generated initially, covering 51.2 seconds */
+	private static final int INITIAL_LENGTH = 1024;
+	
+	/** Number of series retained */
+	private static final int CACHE_SIZE = 64;
+	
+	private static final Map<Integer, WindNoiseSeries> cache = new LRUCache<Integer, WindNoiseSeries>(CACHE_SIZE);
+	
+	
+	/** The generator, guarded by this */
+	private final PinkNoise randomSource;
+	
+	private volatile double[] samples;
+	
+	
+	private WindNoiseSeries(int seed) {
+		randomSource = new PinkNoise(ALPHA, POLES, new Random(seed));
+		double[] array = new double[INITIAL_LENGTH];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = randomSource.nextValue();
+		}
+		samples = array;
+	}
+	
+	
+	/**
+	 * Return the series of a seed.
+	 *
+	 * @param seed	the seed of the random source.
+	 * @return		the shared series of the seed.
+	 */
+	static WindNoiseSeries get(int seed) {
+		synchronized (cache) {
+			WindNoiseSeries series = cache.get(seed);
+			if (series == null) {
+				series = new WindNoiseSeries(seed);
+				cache.put(seed, series);
+			}
+			return series;
+		}
+	}
+	
+	
+	/**
+	 * Return the noise at the given time, linearly interpolated between the samples.
+	 * The noise has zero mean and a standard deviation of {@link #STDDEV}.
+	 *
+	 * @param time	the time, which must be non-negative.
+	 * @return		the noise value.
+	 */
+	double getValue(double time) {
+		double x = time / DELTA_T;
+		int n = (int) x;
+		double a = x - n;
+		
+		double[] array = samples;
+		if (n + 1 >= array.length) {
+			array = extend(n + 2);
+		}
+		return array[n] * (1 - a) + array[n + 1] * a;
+	}
+	
+	
+	private synchronized double[] extend(int length) {
+		double[] array = samples;
+		if (array.length >= length) {
+			return array;
+		}
+		
+		int previous = array.length;
+		array = Arrays.copyOf(array, Math.max(length, 2 * previous));
+		for (int i = previous; i < array.length; i++) {
+			array[i] = randomSource.nextValue();
+		}
+		samples = array;
+		return array;
+	}
+
+}
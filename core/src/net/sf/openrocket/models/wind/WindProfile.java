@@ -0,0 +1,254 @@
+package net.sf.openrocket.models.wind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.UniqueID;
+
+/**
+ * An immutable altitude profile of the average wind, defined by the wind speed and
+ * direction on a number of layers.  Between the layers the speed is interpolated linearly
+ * and the direction along the shorter arc.  Below the lowest and above the highest layer
+ * the values of the nearest layer are used.
+ */
+public final class WindProfile {
+	
+	private final double[] altitude;
+	private final double[] speed;
+	/** Directions unwrapped so that consecutive layers differ by at most PI */
+	private final double[] direction;
+	private final int modID;
+	
+	
+	/**
+	 * Construct a wind profile.
+	 *
+	 * @param altitude		the altitudes of the layers, strictly increasing.
+	 * @param speed			the average wind speeds of the layers.
+	 * @param direction		the wind directions of the layers, in radians.
+	 * @throws IllegalArgumentException	if the arrays are empty or of different length,
+	 * 									the altitudes are not strictly increasing or
+	 * 									a value is invalid.
+	 */
+	public WindProfile(double[] altitude, double[] speed, double[] direction) {
+		int n = altitude.length;
+		if (n == 0 || speed.length != n || direction.length != n) {
+			throw new IllegalArgumentException("Invalid array lengths: altitude=" + n +
+					" speed=" + speed.length + " direction=" + direction.length);
+		}
+		
+		this.altitude = altitude.clone();
+		this.speed = new double[n];
+		this.direction = new double[n];
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && !(altitude[i] > altitude[i - 1])) {
+				throw new IllegalArgumentException("Altitudes not strictly increasing: " +
+						altitude[i - 1] + ", " + altitude[i]);
+			}
+			if (Double.isNaN(altitude[i]) || !(speed[i] >= 0) || Double.isNaN(direction[i])) {
+				throw new IllegalArgumentException("Invalid layer: altitude=" + altitude[i] +
+						" speed=" + speed[i] + " direction=" + direction[i]);
+			}
+			this.speed[i] = speed[i];
+			if (i == 0) {
+				this.direction[i] = MathUtil.reduce360(direction[i]);
+			} else {
+				this.direction[i] = this.direction[i - 1] +
+						MathUtil.reduce180(direction[i] - this.direction[i - 1]);
+			}
+		}
+		this.modID = UniqueID.next();
+	}
+	
+	
+	/**
+	 * Load a wind profile from a stream.  The stream is read as UTF-8 text and is not
+	 * closed.  See {@link #load(Reader)} for the format.
+	 *
+	 * @param stream	the stream to read.
+	 * @return			the wind profile.
+	 * @throws IOException	if an I/O error occurs or the data is invalid.
+	 */
+	public static WindProfile load(InputStream stream) throws IOException {
+		return load(new InputStreamReader(stream, "UTF-8"));
+	}
+	
+	/**
+	 * Load a wind profile from a text file.  Each line contains the altitude in meters,
+	 * the average wind speed in m/s and the wind direction in degrees of one layer,
+	 * separated by white space, commas or semicolons.  The direction uses the same
+	 * convention as the wind direction of the simulation options.  Empty lines and lines
+	 * starting with '#' are ignored.  The layers may be in any order.  The reader is
+	 * not closed.
+	 *
+	 * @param reader	the reader to read.
+	 * @return			the wind profile.
+	 * @throws IOException	if an I/O error occurs or the data is invalid.
+	 */
+	public static WindProfile load(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		List<double[]> rows = new ArrayList<double[]>();
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#"))
+				continue;
+			
+			String[] fields = line.split("[\\s,;]+");
+			if (fields.length != 3) {
+				throw new IOException("Expected 3 values on line " + lineNumber + ": " + line);
+			}
+			double[] row = new double[3];
+			try {
+				for (int i = 0; i < 3; i++) {
+					row[i] = Double.parseDouble(fields[i]);
+				}
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid number on line " + lineNumber + ": " + line);
+			}
+			rows.add(row);
+		}
+		
+		double[][] sorted = rows.toArray(new double[0][]);
+		Arrays.sort(sorted, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] a, double[] b) {
+				return Double.compare(a[0], b[0]);
+			}
+		});
+		
+		int n = sorted.length;
+		double[] altitude = new double[n];
+		double[] speed = new double[n];
+		double[] direction = new double[n];
+		for (int i = 0; i < n; i++) {
+			altitude[i] = sorted[i][0];
+			speed[i] = sorted[i][1];
+			direction[i] = Math.toRadians(sorted[i][2]);
+		}
+		
+		try {
+			return new WindProfile(altitude, speed, direction);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid wind profile: " + e.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Return a profile with the speed and direction of every layer offset by the given
+	 * amounts.  Negative speeds are clamped to zero.
+	 *
+	 * @param speedOffset		the speed to add to each layer.
+	 * @param directionOffset	the direction to add to each layer.
+	 * @return					the offset profile.
+	 */
+	public WindProfile offset(double speedOffset, double directionOffset) {
+		int n = altitude.length;
+		double[] s = new double[n];
+		double[] d = new double[n];
+		for (int i = 0; i < n; i++) {
+			s[i] = Math.max(speed[i] + speedOffset, 0);
+			d[i] = direction[i] + directionOffset;
+		}
+		return new WindProfile(altitude, s, d);
+	}
+	
+	
+	/**
+	 * Return the number of layers.
+	 */
+	public int getLayerCount() {
+		return altitude.length;
+	}
+	
+	public double getAltitude(int layer) {
+		return altitude[layer];
+	}
+	
+	public double getSpeed(int layer) {
+		return speed[layer];
+	}
+	
+	/**
+	 * Return the direction of a layer, in the range 0 ... 2*PI.
+	 */
+	public double getDirection(int layer) {
+		return MathUtil.reduce360(direction[layer]);
+	}
+	
+	
+	/**
+	 * Return the average wind speed at the given altitude.
+	 */
+	public double getSpeedAt(double alt) {
+		return interpolate(speed, alt);
+	}
+	
+	/**
+	 * Return the wind direction at the given altitude.  The value is not reduced to
+	 * any specific range.
+	 */
+	public double getDirectionAt(double alt) {
+		return interpolate(direction, alt);
+	}
+	
+	
+	private double interpolate(double[] values, double alt) {
+		int n = Arrays.binarySearch(altitude, alt);
+		if (n >= 0) {
+			return values[n];
+		}
+		
+		// Index of the layer above the altitude
+		n = -n - 1;
+		if (n == 0) {
+			return values[0];
+		}
+		if (n == altitude.length) {
+			return values[n - 1];
+		}
+		
+		double a = (alt - altitude[n - 1]) / (altitude[n] - altitude[n - 1]);
+		return values[n - 1] * (1 - a) + values[n] * a;
+	}
+	
+	
+	/**
+	 * Return a unique modification ID of this profile.
+	 */
+	public int getModID() {
+		return modID;
+	}
+	
+	
+	/**
+	 * Two profiles are equal if their layers are equal.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof WindProfile))
+			return false;
+		WindProfile o = (WindProfile) other;
+		return Arrays.equals(altitude, o.altitude) && Arrays.equals(speed, o.speed) &&
+				Arrays.equals(direction, o.direction);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(altitude) ^ Arrays.hashCode(speed) ^ Arrays.hashCode(direction);
+	}
+
+}
@@ -81,6 +81,15 @@ public final class MotorInstanceConfiguration implements Monitorable, Cloneable
 		return mounts.get(indexOf(id));
 	}
 	
+	/**
+	 * Replace the motor mount of a motor instance, for example with the corresponding
+	 * component of a copy of the rocket.
+	 */
+	public void setMotorMount(MotorId id, MotorMount mount) {
+		mounts.set(indexOf(id), mount);
+		modID++;
+	}
+	
 	public Coordinate getMotorPosition(MotorId id) {
 		return positions.get(indexOf(id));
 	}
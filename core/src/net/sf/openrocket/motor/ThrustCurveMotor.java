@@ -1,5 +1,7 @@
 package net.sf.openrocket.motor;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.text.Collator;
 import java.util.Arrays;
@@ -42,21 +44,30 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	private final double[] delays;
 	private final double diameter;
 	private final double length;
-	private final double[] time;
-	private final double[] thrust;
-	private final Coordinate[] cg;
+	// Not final, as the curve of a lazily loaded motor is read when first needed
+	private double[] time;
+	private double[] thrust;
+	private Coordinate[] cg;
+	
+	/** The source of a curve not yet loaded, null once loaded */
+	private transient volatile CurveSource source;
+	private transient int pointCount;
 	
 	private double maxThrust;
 	private double burnTime;
 	private double averageThrust;
 	private double totalImpulse;
 	
+	/** The integrated curve, computed when first needed and shared by all instances */
+	private transient volatile Curve curve;
+	
 	/**
 	 * Deep copy constructor.
 	 * Constructs a new ThrustCurveMotor from an existing ThrustCurveMotor.
 	 * @param m
 	 */
 	protected ThrustCurveMotor(ThrustCurveMotor m) {
+		m.loadCurve();
 		this.digest = m.digest;
 		this.manufacturer = m.manufacturer;
 		this.designation = m.designation;
@@ -75,6 +86,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		this.burnTime = m.burnTime;
 		this.averageThrust = m.averageThrust;
 		this.totalImpulse = m.totalImpulse;
+		this.curve = m.curve;
 	}
 	
 	/**
@@ -165,6 +177,96 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		computeStatistics();
 	}
 	
+	/**
+	 * Construct a motor whose thrust curve is read from a source when it is first needed.
+	 * The statistics of the curve are given, as computed for the curve by the other
+	 * constructor.  The curve is not validated.
+	 * 
+	 * @param manufacturer  the manufacturer of the motor.
+	 * @param designation   the designation of the motor.
+	 * @param description   extra description of the motor.
+	 * @param type			the motor type
+	 * @param delays		the delays defined for this thrust curve
+	 * @param diameter      diameter of the motor.
+	 * @param length        length of the motor.
+	 * @param digest		the digest of the motor.
+	 * @param pointCount	the number of data points in the thrust curve.
+	 * @param maxThrust		the maximum thrust of the curve.
+	 * @param burnTime		the burn time of the curve.
+	 * @param averageThrust	the average thrust of the curve.
+	 * @param totalImpulse	the total impulse of the curve.
+	 * @param source		the source of the thrust curve.
+	 */
+	public ThrustCurveMotor(Manufacturer manufacturer, String designation, String description,
+			Motor.Type type, double[] delays, double diameter, double length, String digest,
+			int pointCount, double maxThrust, double burnTime, double averageThrust,
+			double totalImpulse, CurveSource source) {
+		if (pointCount < 2) {
+			throw new IllegalArgumentException("Too short thrust-curve, length=" + pointCount);
+		}
+		this.digest = digest;
+		this.manufacturer = manufacturer;
+		this.designation = designation;
+		this.description = description;
+		this.type = type;
+		this.delays = delays.clone();
+		this.diameter = diameter;
+		this.length = length;
+		this.pointCount = pointCount;
+		this.maxThrust = maxThrust;
+		this.burnTime = burnTime;
+		this.averageThrust = averageThrust;
+		this.totalImpulse = totalImpulse;
+		this.source = source;
+	}
+	
+	
+	/**
+	 * A source of the data points of a lazily loaded thrust curve.
+	 */
+	public interface CurveSource {
+		
+		/**
+		 * Read the thrust curve into the given arrays, whose length is the number of
+		 * data points.
+		 * 
+		 * @param time		the array to store the time points into.
+		 * @param thrust	the array to store the thrust values into.
+		 * @param cg		the array to store the CG values into.
+		 */
+		public void read(double[] time, double[] thrust, Coordinate[] cg);
+	}
+	
+	
+	/**
+	 * Load the curve of a lazily loaded motor.  The curve is published by clearing
+	 * the volatile source.
+	 */
+	private void loadCurve() {
+		if (source == null) {
+			return;
+		}
+		synchronized (this) {
+			CurveSource s = source;
+			if (s == null) {
+				return;
+			}
+			double[] t = new double[pointCount];
+			double[] f = new double[pointCount];
+			Coordinate[] c = new Coordinate[pointCount];
+			s.read(t, f, c);
+			time = t;
+			thrust = f;
+			cg = c;
+			source = null;
+		}
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		loadCurve();
+		out.defaultWriteObject();
+	}
+	
 	
 	
 	/**
@@ -182,6 +284,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return	an array of time points where the thrust is sampled
 	 */
 	public double[] getTimePoints() {
+		loadCurve();
 		return time.clone();
 	}
 	
@@ -190,6 +293,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return	an array of thrust samples
 	 */
 	public double[] getThrustPoints() {
+		loadCurve();
 		return thrust.clone();
 	}
 	
@@ -198,9 +302,22 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return	an array of CG samples
 	 */
 	public Coordinate[] getCGPoints() {
+		loadCurve();
 		return cg.clone();
 	}
 	
+	/**
+	 * Return the number of data points in this thrust curve.  This does not load
+	 * the curve of a lazily loaded motor.
+	 * @return	the number of data points
+	 */
+	public int getDataPointCount() {
+		if (source != null) {
+			return pointCount;
+		}
+		return time.length;
+	}
+	
 	/**
 	 * Return a list of standard delays defined for this motor.
 	 * @return	a list of standard delays
@@ -251,17 +368,20 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	
 	@Override
 	public MotorInstance getInstance() {
+		loadCurve();
 		return new ThrustCurveMotorInstance();
 	}
 	
 	
 	@Override
 	public Coordinate getLaunchCG() {
+		loadCurve();
 		return cg[0];
 	}
 	
 	@Override
 	public Coordinate getEmptyCG() {
+		loadCurve();
 		return cg[cg.length - 1];
 	}
 	
@@ -294,6 +414,91 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	
+	/**
+	 * Return the instantaneous thrust at the given time.
+	 * 
+	 * @param t		the time from ignition.
+	 * @return		the linearly interpolated thrust, zero outside the curve.
+	 */
+	public double getThrust(double t) {
+		loadCurve();
+		int n = indexOf(t);
+		if (t <= time[0] || n >= time.length - 1) {
+			return 0;
+		}
+		return MathUtil.map(t, time[n], time[n + 1], thrust[n], thrust[n + 1]);
+	}
+	
+	/**
+	 * Return the total impulse of the thrust curve from ignition to the given time.
+	 * 
+	 * @param t		the time from ignition.
+	 * @return		the impulse delivered by the time.
+	 */
+	public double getImpulse(double t) {
+		loadCurve();
+		double[] impulse = getCurve().impulse;
+		int n = indexOf(t);
+		if (t <= time[0]) {
+			return 0;
+		}
+		if (n >= time.length - 1) {
+			return impulse[impulse.length - 1];
+		}
+		double f = MathUtil.map(t, time[n], time[n + 1], thrust[n], thrust[n + 1]);
+		return impulse[n] + (thrust[n] + f) / 2 * (t - time[n]);
+	}
+	
+	/**
+	 * Return the average thrust of the curve over a time interval.  If the interval
+	 * is empty, the instantaneous thrust is returned.
+	 * 
+	 * @param t0	the start of the interval.
+	 * @param t1	the end of the interval.
+	 * @return		the average thrust over the interval.
+	 */
+	public double getAverageThrust(double t0, double t1) {
+		if (MathUtil.equals(t0, t1)) {
+			return getThrust(t1);
+		}
+		return (getImpulse(t1) - getImpulse(t0)) / (t1 - t0);
+	}
+	
+	
+	/**
+	 * Return the index of the last time point at or before the given time, or zero if
+	 * the time precedes the curve.  If the index is not the last one, the time is before
+	 * the next time point.
+	 */
+	private int indexOf(double t) {
+		int low = 0;
+		int high = time.length - 1;
+		if (t >= time[high]) {
+			return high;
+		}
+		while (high - low > 1) {
+			int mid = (low + high) >>> 1;
+			if (time[mid] <= t) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	
+	private Curve getCurve() {
+		loadCurve();
+		Curve c = curve;
+		if (c == null) {
+			c = new Curve(time, thrust, cg);
+			curve = c;
+		}
+		return c;
+	}
+	
+	
 	/**
 	 * Compute the general statistics of this motor.
 	 */
@@ -417,20 +622,20 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	////////  Motor instance implementation  ////////
 	private class ThrustCurveMotorInstance implements MotorInstance {
 		
-		private int position;
+		private final Curve curve;
 		
 		// Previous time step value
 		private double prevTime;
 		
 		// Average thrust during previous step
 		private double stepThrust;
-		// Instantaneous thrust at current time point
-		private double instThrust;
 		
 		// Average CG during previous step
-		private Coordinate stepCG;
+		private double stepX, stepY, stepZ, stepMass;
 		// Instantaneous CG at current time point
-		private Coordinate instCG;
+		private double instX, instY, instZ, instMass;
+		// Average CG during previous step, created when requested
+		private Coordinate stepCG;
 		
 		private final double unitRotationalInertia;
 		private final double unitLongitudinalInertia;
@@ -440,12 +645,14 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		
 		public ThrustCurveMotorInstance() {
 			log.debug("ThrustCurveMotor:  Creating motor instance of " + ThrustCurveMotor.this);
-			position = 0;
+			curve = getCurve();
 			prevTime = 0;
-			instThrust = 0;
 			stepThrust = 0;
-			instCG = cg[0];
 			stepCG = cg[0];
+			stepX = instX = stepCG.x;
+			stepY = instY = stepCG.y;
+			stepZ = instZ = stepCG.z;
+			stepMass = instMass = stepCG.weight;
 			unitRotationalInertia = Inertia.filledCylinderRotational(getDiameter() / 2);
 			unitLongitudinalInertia = Inertia.filledCylinderLongitudinal(getDiameter() / 2, getLength());
 			parentMotor = ThrustCurveMotor.this;
@@ -463,17 +670,20 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		
 		@Override
 		public Coordinate getCG() {
+			if (stepCG == null) {
+				stepCG = new Coordinate(stepX, stepY, stepZ, stepMass);
+			}
 			return stepCG;
 		}
 		
 		@Override
 		public double getLongitudinalInertia() {
-			return unitLongitudinalInertia * stepCG.weight;
+			return unitLongitudinalInertia * stepMass;
 		}
 		
 		@Override
 		public double getRotationalInertia() {
-			return unitRotationalInertia * stepCG.weight;
+			return unitRotationalInertia * stepMass;
 		}
 		
 		@Override
@@ -500,63 +710,33 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			
 			modID++;
 			
-			if (position >= time.length - 1) {
-				// Thrust has ended
-				prevTime = nextTime;
-				stepThrust = 0;
-				instThrust = 0;
-				stepCG = cg[cg.length - 1];
-				return;
-			}
-			
-			
-			// Compute average & instantaneous thrust
-			if (nextTime < time[position + 1]) {
-				
-				// Time step between time points
-				double nextF = MathUtil.map(nextTime, time[position], time[position + 1],
-						thrust[position], thrust[position + 1]);
-				stepThrust = (instThrust + nextF) / 2;
-				instThrust = nextF;
-				
-			} else {
-				
-				// Portion of previous step
-				stepThrust = (instThrust + thrust[position + 1]) / 2 * (time[position + 1] - prevTime);
-				
-				// Whole steps
-				position++;
-				while ((position < time.length - 1) && (nextTime >= time[position + 1])) {
-					stepThrust += (thrust[position] + thrust[position + 1]) / 2 *
-							(time[position + 1] - time[position]);
-					position++;
-				}
-				
-				// End step
-				if (position < time.length - 1) {
-					instThrust = MathUtil.map(nextTime, time[position], time[position + 1],
-							thrust[position], thrust[position + 1]);
-					stepThrust += (thrust[position] + instThrust) / 2 *
-							(nextTime - time[position]);
-				} else {
-					// Thrust ended during this step
-					instThrust = 0;
-				}
-				
-				stepThrust /= (nextTime - prevTime);
-				
-			}
+			// Average thrust from the integrated curve
+			stepThrust = (getImpulse(nextTime) - getImpulse(prevTime)) / (nextTime - prevTime);
 			
 			// Compute average and instantaneous CG (simple average between points)
-			Coordinate nextCG;
-			if (position < time.length - 1) {
-				nextCG = MathUtil.map(nextTime, time[position], time[position + 1],
-						cg[position], cg[position + 1]);
+			double nextX, nextY, nextZ, nextMass;
+			int n = indexOf(nextTime);
+			if (n < time.length - 1) {
+				double a = (nextTime - time[n]) / (time[n + 1] - time[n]);
+				nextX = curve.interpolate(curve.cgX, n, a);
+				nextY = curve.interpolate(curve.cgY, n, a);
+				nextZ = curve.interpolate(curve.cgZ, n, a);
+				nextMass = curve.interpolate(curve.mass, n, a);
 			} else {
-				nextCG = cg[cg.length - 1];
+				nextX = curve.cgX[n];
+				nextY = curve.cgY[n];
+				nextZ = curve.cgZ[n];
+				nextMass = curve.mass[n];
 			}
-			stepCG = instCG.add(nextCG).multiply(0.5);
-			instCG = nextCG;
+			stepX = (instX + nextX) * 0.5;
+			stepY = (instY + nextY) * 0.5;
+			stepZ = (instZ + nextZ) * 0.5;
+			stepMass = (instMass + nextMass) * 0.5;
+			stepCG = null;
+			instX = nextX;
+			instY = nextY;
+			instZ = nextZ;
+			instMass = nextMass;
 			
 			// Update time
 			prevTime = nextTime;
@@ -578,6 +758,41 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 	
 	
+	/**
+	 * The cumulative impulse and the CG components of the thrust curve at the time
+	 * points, stored in primitive arrays.  Immutable once constructed.
+	 */
+	private static final class Curve {
+		private final double[] impulse;
+		private final double[] cgX;
+		private final double[] cgY;
+		private final double[] cgZ;
+		private final double[] mass;
+		
+		private Curve(double[] time, double[] thrust, Coordinate[] cg) {
+			int n = time.length;
+			impulse = new double[n];
+			cgX = new double[n];
+			cgY = new double[n];
+			cgZ = new double[n];
+			mass = new double[n];
+			for (int i = 0; i < n; i++) {
+				if (i > 0) {
+					impulse[i] = impulse[i - 1] + (thrust[i - 1] + thrust[i]) / 2 * (time[i] - time[i - 1]);
+				}
+				cgX[i] = cg[i].x;
+				cgY[i] = cg[i].y;
+				cgZ[i] = cg[i].z;
+				mass[i] = cg[i].weight;
+			}
+		}
+		
+		private double interpolate(double[] values, int n, double a) {
+			return values[n] + (values[n + 1] - values[n]) * a;
+		}
+	}
+	
+	
 	
 	@Override
 	public int compareTo(ThrustCurveMotor other) {
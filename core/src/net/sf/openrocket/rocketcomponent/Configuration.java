@@ -200,12 +200,45 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 		listenerList.add(listener);
 	}
 	
+	/**
+	 * Add a listener that is notified of the changes of this configuration, and of the
+	 * changes of the rocket whose type contains any of the bits of the mask.  The
+	 * listener is removed with {@link #removeChangeListener(StateChangeListener)}.
+	 * 
+	 * @param listener	the listener to add.
+	 * @param mask		the rocket change event types the listener is notified of.
+	 */
+	public void addChangeListener(StateChangeListener listener, int mask) {
+		listenerList.add(new MaskedListener(listener, mask));
+	}
+	
 	@Override
 	public void removeChangeListener(StateChangeListener listener) {
-		listenerList.remove(listener);
+		Iterator<EventListener> iterator = listenerList.iterator();
+		while (iterator.hasNext()) {
+			EventListener l = iterator.next();
+			if (l instanceof MaskedListener) {
+				l = ((MaskedListener) l).listener;
+			}
+			if (listener.equals(l)) {
+				iterator.remove();
+				break;
+			}
+		}
 	}
 	
 	protected void fireChangeEvent() {
+		fireChangeEvent(ComponentChangeEvent.ALL_CHANGE);
+	}
+	
+	/**
+	 * Notify the listeners of a change.  Masked listeners are notified only if the type
+	 * of the change matches their mask.
+	 * 
+	 * @param type	the type of the rocket change, or <code>ALL_CHANGE</code> for a
+	 * 				change of this configuration.
+	 */
+	private void fireChangeEvent(int type) {
 		EventObject e = new EventObject(this);
 		
 		this.modID++;
@@ -215,7 +248,12 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 		// Copy the list before iterating to prevent concurrent modification exceptions.
 		EventListener[] listeners = listenerList.toArray(new EventListener[0]);
 		for (EventListener l : listeners) {
-			if (l instanceof StateChangeListener) {
+			if (l instanceof MaskedListener) {
+				MaskedListener masked = (MaskedListener) l;
+				if ((type & masked.mask) != 0) {
+					masked.listener.stateChanged(e);
+				}
+			} else if (l instanceof StateChangeListener) {
 				((StateChangeListener) l).stateChanged(e);
 			}
 		}
@@ -224,7 +262,7 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	
 	@Override
 	public void componentChanged(ComponentChangeEvent e) {
-		fireChangeEvent();
+		fireChangeEvent(e.getType());
 	}
 	
 	
@@ -351,6 +389,22 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 	}
 	
 	
+	/**
+	 * Return a copy of this configuration for a copy of the rocket, for example one
+	 * returned by {@link Rocket#copyWithOriginalID()}.  The active stages and the flight
+	 * configuration are retained, and the copy listens to changes of the given rocket.
+	 * 
+	 * @param copy	a copy of the rocket of this configuration.
+	 * @return		a new configuration of the rocket copy.
+	 */
+	public Configuration copyFor(Rocket copy) {
+		Configuration config = new Configuration(copy);
+		config.stages = (BitSet) this.stages.clone();
+		config.flightConfigurationId = this.flightConfigurationId;
+		return config;
+	}
+	
+	
 	@Override
 	public int getModID() {
 		return modID + rocket.getModID();
@@ -465,4 +519,23 @@ public class Configuration implements Cloneable, ChangeSource, ComponentChangeLi
 		}
 	}
 	
+	
+	/**
+	 * A listener that is notified only of rocket changes whose type matches the mask.
+	 */
+	private static class MaskedListener implements EventListener {
+		private final StateChangeListener listener;
+		private final int mask;
+		
+		public MaskedListener(StateChangeListener listener, int mask) {
+			this.listener = listener;
+			this.mask = mask;
+		}
+		
+		@Override
+		public String toString() {
+			return listener + " mask=" + mask;
+		}
+	}
+	
 }
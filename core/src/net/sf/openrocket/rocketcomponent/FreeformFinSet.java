@@ -316,8 +316,8 @@ public class FreeformFinSet extends FinSet {
 	
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		RocketComponent c = super.copyWithOriginalID();
+	protected RocketComponent copyComponent() {
+		RocketComponent c = super.copyComponent();
 		((FreeformFinSet) c).points = this.points.clone();
 		return c;
 	}
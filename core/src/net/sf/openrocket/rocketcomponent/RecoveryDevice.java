@@ -119,8 +119,8 @@ public abstract class RecoveryDevice extends MassObject implements FlightConfigu
 	}
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		RecoveryDevice copy = (RecoveryDevice) super.copyWithOriginalID();
+	protected RocketComponent copyComponent() {
+		RecoveryDevice copy = (RecoveryDevice) super.copyComponent();
 		copy.deploymentConfigurations = new FlightConfigurationImpl<DeploymentConfiguration>(deploymentConfigurations,
 				copy, ComponentChangeEvent.EVENT_CHANGE);
 		return copy;
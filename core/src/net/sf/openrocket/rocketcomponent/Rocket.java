@@ -49,6 +49,13 @@ public class Rocket extends RocketComponent {
 	 * When the structure is thawed, a single combined event will be fired.
 	 */
 	private List<ComponentChangeEvent> freezeList = null;
+	private int freezeDepth = 0;
+	
+	/**
+	 * When pendingList != null, an event is being dispatched.  Events fired during the
+	 * dispatch are stored in the list and fired as a single combined event afterwards.
+	 */
+	private List<ComponentChangeEvent> pendingList = null;
 	
 	
 	private int modID;
@@ -263,14 +270,22 @@ public class Rocket extends RocketComponent {
 	 * Make a deep copy of the Rocket structure.  This method is exposed as public to allow
 	 * for undo/redo system functionality.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public Rocket copyWithOriginalID() {
-		Rocket copy = (Rocket) super.copyWithOriginalID();
+		return (Rocket) super.copyWithOriginalID();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	protected RocketComponent copyComponent() {
+		Rocket copy = (Rocket) super.copyComponent();
 		copy.flightConfigurationIDs = this.flightConfigurationIDs.clone();
 		copy.flightConfigurationNames =
 				(HashMap<String, String>) this.flightConfigurationNames.clone();
 		copy.resetListeners();
+		copy.freezeList = null;
+		copy.freezeDepth = 0;
+		copy.pendingList = null;
 		
 		return copy;
 	}
@@ -358,9 +373,27 @@ public class Rocket extends RocketComponent {
 				listenerList.size());
 	}
 	
+	@Override
+	public void addComponentChangeListener(ComponentChangeListener l, int mask) {
+		checkState();
+		listenerList.add(new MaskedListener(l, mask));
+		log.trace("Added ComponentChangeListener " + l + " with mask " + mask +
+				", current number of listeners is " + listenerList.size());
+	}
+	
 	@Override
 	public void removeComponentChangeListener(ComponentChangeListener l) {
-		listenerList.remove(l);
+		Iterator<EventListener> iterator = listenerList.iterator();
+		while (iterator.hasNext()) {
+			EventListener listener = iterator.next();
+			if (listener instanceof MaskedListener) {
+				listener = ((MaskedListener) listener).listener;
+			}
+			if (l.equals(listener)) {
+				iterator.remove();
+				break;
+			}
+		}
 		log.trace("Removed ComponentChangeListener " + l + ", current number of listeners is " +
 				listenerList.size());
 	}
@@ -371,6 +404,10 @@ public class Rocket extends RocketComponent {
 		try {
 			checkState();
 			
+			// The source and the modification ID's of the rocket change
+			e.getSource().setSnapshot(null);
+			setSnapshot(null);
+			
 			// Update modification ID's only for normal (not undo/redo) events
 			if (!e.isUndoChange()) {
 				modID = UniqueID.next();
@@ -391,23 +428,23 @@ public class Rocket extends RocketComponent {
 				return;
 			}
 			
-			log.debug("Firing rocket change event " + e);
-			
-			// Notify all components first
-			Iterator<RocketComponent> iterator = this.iterator(true);
-			while (iterator.hasNext()) {
-				iterator.next().componentChanged(e);
+			// Check whether an event is being dispatched
+			if (pendingList != null) {
+				log.debug("Rocket is dispatching an event, adding event " + e + " into pending list");
+				pendingList.add(e);
+				return;
 			}
 			
-			// Notify all listeners
-			// Copy the list before iterating to prevent concurrent modification exceptions.
-			EventListener[] list = listenerList.toArray(new EventListener[0]);
-			for (EventListener l : list) {
-				if (l instanceof ComponentChangeListener) {
-					((ComponentChangeListener) l).componentChanged(e);
-				} else if (l instanceof StateChangeListener) {
-					((StateChangeListener) l).stateChanged(e);
+			pendingList = new LinkedList<ComponentChangeEvent>();
+			try {
+				dispatchComponentChangeEvent(e);
+				while (!pendingList.isEmpty()) {
+					ComponentChangeEvent combined = combine(pendingList);
+					pendingList.clear();
+					dispatchComponentChangeEvent(combined);
 				}
+			} finally {
+				pendingList = null;
 			}
 		} finally {
 			mutex.unlock("fireComponentChangeEvent");
@@ -415,10 +452,55 @@ public class Rocket extends RocketComponent {
 	}
 	
 	
+	/**
+	 * Notify the components and the listeners of an event.
+	 */
+	private void dispatchComponentChangeEvent(ComponentChangeEvent e) {
+		log.debug("Firing rocket change event " + e);
+		
+		// Notify all components first
+		Iterator<RocketComponent> iterator = this.iterator(true);
+		while (iterator.hasNext()) {
+			iterator.next().componentChanged(e);
+		}
+		
+		// Notify all listeners
+		// Copy the list before iterating to prevent concurrent modification exceptions.
+		EventListener[] list = listenerList.toArray(new EventListener[0]);
+		for (EventListener l : list) {
+			if (l instanceof ComponentChangeListener) {
+				((ComponentChangeListener) l).componentChanged(e);
+			} else if (l instanceof StateChangeListener) {
+				((StateChangeListener) l).stateChanged(e);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Combine events into a single event.  The event type is a combination of the
+	 * types of the events and the source is the last component to have been an
+	 * event source.
+	 */
+	private static ComponentChangeEvent combine(List<ComponentChangeEvent> events) {
+		int type = 0;
+		RocketComponent c = null;
+		for (ComponentChangeEvent e : events) {
+			type = type | e.getType();
+			c = e.getSource();
+		}
+		return new ComponentChangeEvent(c, type);
+	}
+	
+	
 	/**
 	 * Freezes the rocket structure from firing any events.  This may be performed to
 	 * combine several actions on the structure into a single large action.
-	 * <code>thaw()</code> must always be called afterwards.
+	 * <code>thaw()</code> must always be called afterwards.  Freezing may be nested,
+	 * in which case the events are fired when the outermost freeze is thawed.
+	 * <p>
+	 * Events fired by listeners while an event is being dispatched are combined
+	 * automatically and fired after the dispatch without freezing.
 	 *
 	 * NOTE:  Always use a try/finally to ensure <code>thaw()</code> is called:
 	 * <pre>
@@ -438,16 +520,15 @@ public class Rocket extends RocketComponent {
 		if (freezeList == null) {
 			freezeList = new LinkedList<ComponentChangeEvent>();
 			log.debug("Freezing Rocket");
-		} else {
-			Application.getExceptionHandler().handleErrorCondition("Attempting to freeze Rocket when it is already frozen, " +
-					"freezeList=" + freezeList);
 		}
+		freezeDepth++;
 	}
 	
 	/**
 	 * Thaws a frozen rocket structure and fires a combination of the events fired during
 	 * the freeze.  The event type is a combination of those fired and the source is the
-	 * last component to have been an event source.
+	 * last component to have been an event source.  A nested thaw only decrements the
+	 * freeze depth.
 	 *
 	 * @see #freeze()
 	 */
@@ -457,23 +538,22 @@ public class Rocket extends RocketComponent {
 			Application.getExceptionHandler().handleErrorCondition("Attempting to thaw Rocket when it is not frozen");
 			return;
 		}
+		freezeDepth--;
+		if (freezeDepth > 0) {
+			return;
+		}
 		if (freezeList.size() == 0) {
-			log.warn("Thawing rocket with no changes made");
+			log.debug("Thawing rocket with no changes made");
 			freezeList = null;
 			return;
 		}
 		
 		log.debug("Thawing rocket, freezeList=" + freezeList);
 		
-		int type = 0;
-		Object c = null;
-		for (ComponentChangeEvent e : freezeList) {
-			type = type | e.getType();
-			c = e.getSource();
-		}
+		ComponentChangeEvent e = combine(freezeList);
 		freezeList = null;
 		
-		fireComponentChangeEvent(new ComponentChangeEvent((RocketComponent) c, type));
+		fireComponentChangeEvent(e);
 	}
 	
 	
@@ -692,4 +772,29 @@ public class Rocket extends RocketComponent {
 		return (Stage.class.isAssignableFrom(type));
 	}
 	
+	
+	/**
+	 * A listener that is notified only of events whose type matches the mask.
+	 */
+	private static class MaskedListener implements ComponentChangeListener {
+		private final ComponentChangeListener listener;
+		private final int mask;
+		
+		public MaskedListener(ComponentChangeListener listener, int mask) {
+			this.listener = listener;
+			this.mask = mask;
+		}
+		
+		@Override
+		public void componentChanged(ComponentChangeEvent e) {
+			if ((e.getType() & mask) != 0) {
+				listener.componentChanged(e);
+			}
+		}
+		
+		@Override
+		public String toString() {
+			return listener + " mask=" + mask;
+		}
+	}
 }
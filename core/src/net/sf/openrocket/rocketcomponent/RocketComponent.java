@@ -144,6 +144,13 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 */
 	private Invalidator invalidator = new Invalidator(this);
 	
+	/**
+	 * The undo history node describing the current state of this component, or
+	 * <code>null</code> if the component has changed since the node was taken.
+	 * See {@link RocketSnapshot}.
+	 */
+	private RocketSnapshot.Node snapshot = null;
+	
 	
 	////  NOTE !!!  All fields must be copied in the method copyFrom()!  ////
 	
@@ -365,10 +372,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 * undo/redo mechanism.  This method should not be used for other purposes,
 	 * such as copy/paste.  This method does not fire any events.
 	 * <p>
-	 * This method must be overridden by any component that refers to mutable objects,
-	 * or if some fields should not be copied.  This should be performed by
-	 * <code>RocketComponent c = super.copyWithOriginalID();</code> and then cloning/modifying
-	 * the appropriate fields.
+	 * The components are copied using {@link #copyComponent()}.
 	 * <p>
 	 * This is not performed as serializing/deserializing for performance reasons.
 	 *
@@ -378,26 +382,12 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		mutex.lock("copyWithOriginalID");
 		try {
 			checkState();
-			RocketComponent clone;
-			try {
-				clone = (RocketComponent) this.clone();
-			} catch (CloneNotSupportedException e) {
-				throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
-			}
-			
-			// Reset the mutex
-			clone.mutex = SafetyMutex.newInstance();
-			
-			// Reset all parent/child information
-			clone.parent = null;
-			clone.children = new ArrayList<RocketComponent>();
+			RocketComponent clone = copyComponent();
 			
 			// Add copied children to the structure without firing events.
 			for (RocketComponent child : this.children) {
-				RocketComponent childCopy = child.copyWithOriginalID();
 				// Don't use add method since it fires events
-				clone.children.add(childCopy);
-				childCopy.parent = clone;
+				clone.addCopiedChild(child.copyWithOriginalID());
 			}
 			
 			this.checkComponentStructure();
@@ -410,6 +400,64 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 	
 	
+	/**
+	 * Make a copy of this component without its children while maintaining the
+	 * component ID.  The copy has no parent and no children.  This method does not
+	 * fire any events.
+	 * <p>
+	 * This method must be overridden by any component that refers to mutable objects,
+	 * or if some fields should not be copied.  This should be performed by
+	 * <code>RocketComponent c = super.copyComponent();</code> and then cloning/modifying
+	 * the appropriate fields.
+	 * 
+	 * @return	a copy of this component.
+	 */
+	protected RocketComponent copyComponent() {
+		checkState();
+		RocketComponent clone;
+		try {
+			clone = (RocketComponent) this.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
+		}
+		
+		// Reset the mutex and the invalidator
+		clone.mutex = SafetyMutex.newInstance();
+		clone.invalidator = new Invalidator(clone);
+		
+		// Reset all parent/child information
+		clone.parent = null;
+		clone.children = new ArrayList<RocketComponent>();
+		
+		return clone;
+	}
+	
+	
+	/**
+	 * Return the undo history node of the current state of this component, or
+	 * <code>null</code> if the component has changed since the node was taken.
+	 * Copies with the original ID share the node of the component they were copied from.
+	 */
+	RocketSnapshot.Node getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Set the undo history node of the current state of this component.
+	 */
+	void setSnapshot(RocketSnapshot.Node snapshot) {
+		this.snapshot = snapshot;
+	}
+	
+	/**
+	 * Add a child to a copied structure without firing events.
+	 */
+	final void addCopiedChild(RocketComponent child) {
+		this.children.add(child);
+		child.parent = this;
+	}
+	
+	
 	//////////////  Methods that may not be overridden  ////////////
 	
 	
@@ -826,6 +874,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	private final void newID() {
 		mutex.verify();
 		this.id = UniqueID.uuid();
+		this.snapshot = null;
 	}
 	
 	
@@ -1527,6 +1576,21 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		getRocket().addComponentChangeListener(l);
 	}
 	
+	/**
+	 * Adds a ComponentChangeListener to the rocket tree that is notified only of events
+	 * whose type contains any of the bits of the mask, for example
+	 * <code>ComponentChangeEvent.MASS_CHANGE | ComponentChangeEvent.TREE_CHANGE</code>.
+	 * The listener is removed with {@link #removeComponentChangeListener(ComponentChangeListener)}.
+	 *
+	 * @param l		the listener to add.
+	 * @param mask	the event types the listener is notified of.
+	 * @throws IllegalStateException - if the root component is not a Rocket
+	 */
+	public void addComponentChangeListener(ComponentChangeListener l, int mask) {
+		checkState();
+		getRocket().addComponentChangeListener(l, mask);
+	}
+	
 	/**
 	 * Removes a ComponentChangeListener from the rocket tree.  The listener is removed from
 	 * the root component, which must be of type Rocket (which overrides this method).
@@ -1583,6 +1647,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 */
 	protected void fireComponentChangeEvent(ComponentChangeEvent e) {
 		checkState();
+		e.getSource().snapshot = null;
 		if (parent == null) {
 			/* Ignore if root invalid. */
 			return;
@@ -0,0 +1,119 @@
+package net.sf.openrocket.rocketcomponent;
+
+import java.util.Iterator;
+
+/**
+ * An immutable snapshot of the state of a rocket, used for the undo history.
+ * <p>
+ * The snapshot is a tree of nodes, each holding a copy of a single component without
+ * its children.  Each live component remembers the node of its current state until it
+ * fires a change event, so a new snapshot copies only the components that have changed
+ * since the previous one and the path from them to the root.  All other nodes are shared
+ * with the previous snapshots.
+ * <p>
+ * The component copies in the nodes are never modified or handed out.  The rocket is
+ * rebuilt from the nodes when it is restored, which copies every component eagerly.
+ * The live rocket takes over the restored components, so they cannot share state with
+ * the nodes.  This costs the same as the full copy made by each undo and redo before
+ * the snapshots were shared, and undo and redo are rare compared to taking snapshots.
+ * The restored components remember their nodes, so the snapshot following an undo
+ * shares all unchanged nodes again.
+ */
+public final class RocketSnapshot {
+	
+	private final Node root;
+	private final int modID;
+	
+	
+	private RocketSnapshot(Node root, int modID) {
+		this.root = root;
+		this.modID = modID;
+	}
+	
+	
+	/**
+	 * Take a snapshot of the current state of a rocket.  The nodes of the components
+	 * that have not changed since the previous snapshot are shared.  This method does
+	 * not fire any events.
+	 *
+	 * @param rocket	the rocket.
+	 * @return			a snapshot of the current state of the rocket.
+	 */
+	public static RocketSnapshot of(Rocket rocket) {
+		return new RocketSnapshot(capture(rocket), rocket.getModID());
+	}
+	
+	
+	/**
+	 * Return the modification ID of the rocket when the snapshot was taken.
+	 */
+	public int getModID() {
+		return modID;
+	}
+	
+	
+	/**
+	 * Build a new rocket with the state of this snapshot.  The rocket is a full copy with
+	 * the original component ID's, and may be loaded into the live rocket with
+	 * {@link Rocket#loadFrom(Rocket)}.
+	 *
+	 * @return	a new rocket with the state of this snapshot.
+	 */
+	public Rocket restore() {
+		Rocket rocket = (Rocket) root.restore();
+		
+		// Unchanged nodes may have been taken with different neighboring components,
+		// have the components recompute their cached data
+		ComponentChangeEvent e = new ComponentChangeEvent(rocket,
+				ComponentChangeEvent.BOTH_CHANGE | ComponentChangeEvent.TREE_CHANGE);
+		Iterator<RocketComponent> iterator = rocket.iterator(true);
+		while (iterator.hasNext()) {
+			iterator.next().componentChanged(e);
+		}
+		return rocket;
+	}
+	
+	
+	private static Node capture(RocketComponent component) {
+		Node previous = component.getSnapshot();
+		int count = component.getChildCount();
+		Node[] children = new Node[count];
+		boolean unchanged = (previous != null && previous.children.length == count);
+		for (int i = 0; i < count; i++) {
+			children[i] = capture(component.getChild(i));
+			unchanged = unchanged && (children[i] == previous.children[i]);
+		}
+		if (unchanged) {
+			return previous;
+		}
+		
+		// Only the children changed if the previous node is still valid
+		RocketComponent copy = (previous != null) ? previous.component : component.copyComponent();
+		Node node = new Node(copy, children);
+		component.setSnapshot(node);
+		return node;
+	}
+	
+	
+	/**
+	 * A node of the snapshot tree.
+	 */
+	static final class Node {
+		private final RocketComponent component;
+		private final Node[] children;
+		
+		private Node(RocketComponent component, Node[] children) {
+			this.component = component;
+			this.children = children;
+		}
+		
+		private RocketComponent restore() {
+			RocketComponent copy = component.copyComponent();
+			copy.setSnapshot(this);
+			for (Node child : children) {
+				copy.addCopiedChild(child.restore());
+			}
+			return copy;
+		}
+	}
+}
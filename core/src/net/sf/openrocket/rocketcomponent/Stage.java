@@ -54,8 +54,8 @@ public class Stage extends ComponentAssembly implements FlightConfigurableCompon
 	}
 	
 	@Override
-	protected RocketComponent copyWithOriginalID() {
-		Stage copy = (Stage) super.copyWithOriginalID();
+	protected RocketComponent copyComponent() {
+		Stage copy = (Stage) super.copyComponent();
 		copy.separationConfigurations = new FlightConfigurationImpl<StageSeparationConfiguration>(separationConfigurations,
 				copy, ComponentChangeEvent.EVENT_CHANGE);
 		return copy;
@@ -0,0 +1,391 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static net.sf.openrocket.util.MathUtil.pow2;
+
+import java.util.Map;
+
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * The integrated geometry of a {@link SymmetricComponent}: the volumes, areas, volume
+ * centroid and unit inertias of the shape obtained by rotating its radius function around
+ * the x-axis.  The properties do not include shoulders or other additions made by the
+ * subclasses, or anything depending on the material.
+ * <p>
+ * The shape is divided into frusta at {@link #DIVISIONS} + 1 positions along the length.
+ * The positions are spaced as <code>(1 - cos(u)) / 2</code> for uniformly spaced
+ * <code>u</code>, which concentrates them at the ends where nose cone tips have an
+ * unbounded slope.  Each integral is summed over the frusta at both the full and half
+ * resolution, and the two sums are combined by Richardson extrapolation.  This cancels the
+ * second order error of the frustum approximation, so that about half the radius
+ * evaluations of a uniform division into 100 frusta give an error one to two orders of
+ * magnitude smaller.
+ * <p>
+ * The geometry depends only on the shape parameters of the component, given by
+ * {@link SymmetricComponent#getGeometryKey()}.  Geometries are immutable and shared between
+ * all components with equal keys through {@link #get(SymmetricComponent)}, so copies of a
+ * rocket and components that return to an earlier shape are not integrated again.
+ */
+final class SymmetricGeometry {
+	
+	/** Number of divisions when integrating, must be even */
+	static final int DIVISIONS = 48;
+	
+	/** Number of geometries retained */
+	private static final int CACHE_SIZE = 256;
+	
+	private static final Map<Key, SymmetricGeometry> cache = new LRUCache<Key, SymmetricGeometry>(CACHE_SIZE);
+	
+	
+	private final double volume;
+	private final double fullVolume;
+	private final double wetArea;
+	private final double planArea;
+	private final double planCenter;
+	private final double cgx;
+	
+	// Unit inertias about the fore end, NaN if undefined
+	private final double volumeLongitudinalInertia;
+	private final double volumeRotationalInertia;
+	private final double surfaceLongitudinalInertia;
+	private final double surfaceRotationalInertia;
+	
+	
+	private SymmetricGeometry(SymmetricComponent component) {
+		final double length = component.getLength();
+		
+		if (length <= 0) {
+			volume = 0;
+			fullVolume = 0;
+			wetArea = 0;
+			planArea = 0;
+			planCenter = 0;
+			cgx = 0;
+			volumeLongitudinalInertia = Double.NaN;
+			volumeRotationalInertia = Double.NaN;
+			surfaceLongitudinalInertia = Double.NaN;
+			surfaceRotationalInertia = Double.NaN;
+			return;
+		}
+		
+		final double[] positions = new double[DIVISIONS + 1];
+		final double[] radii = new double[DIVISIONS + 1];
+		for (int n = 0; n < DIVISIONS; n++) {
+			positions[n] = length * (1 - Math.cos(Math.PI * n / DIVISIONS)) / 2;
+			radii[n] = component.getRadius(positions[n]);
+		}
+		// Avoid round-off error in the last position
+		positions[DIVISIONS] = length;
+		radii[DIVISIONS] = component.getRadius(length);
+		
+		Sums fine = new Sums(positions, radii, 1, component.getThickness(), component.isFilled());
+		Sums coarse = new Sums(positions, radii, 2, component.getThickness(), component.isFilled());
+		
+		double v = extrapolate(fine.volume, coarse.volume);
+		fullVolume = Math.max(extrapolate(fine.fullVolume, coarse.fullVolume), 0);
+		wetArea = Math.max(extrapolate(fine.wetArea, coarse.wetArea), 0) * Math.PI;
+		
+		double area = Math.max(extrapolate(fine.planArea, coarse.planArea), 0);
+		double center = extrapolate(fine.planMoment, coarse.planMoment);
+		if (area > 0) {
+			center /= area;
+		}
+		planArea = area;
+		planCenter = center;
+		
+		if (v < 0.0000000001) { // 0.1 mm^3
+			volume = 0;
+			cgx = length / 2;
+		} else {
+			volume = v;
+			cgx = extrapolate(fine.volumeMoment, coarse.volumeMoment) / v;
+		}
+		
+		double inertiaVolume = extrapolate(fine.inertiaVolume, coarse.inertiaVolume);
+		if (MathUtil.equals(inertiaVolume, 0)) {
+			volumeLongitudinalInertia = Double.NaN;
+			volumeRotationalInertia = Double.NaN;
+		} else {
+			volumeLongitudinalInertia = extrapolate(fine.volumeLongitudinal, coarse.volumeLongitudinal) / inertiaVolume;
+			volumeRotationalInertia = extrapolate(fine.volumeRotational, coarse.volumeRotational) / inertiaVolume;
+		}
+		
+		double surface = extrapolate(fine.surface, coarse.surface);
+		if (MathUtil.equals(surface, 0)) {
+			surfaceLongitudinalInertia = Double.NaN;
+			surfaceRotationalInertia = Double.NaN;
+		} else {
+			surfaceLongitudinalInertia = extrapolate(fine.surfaceLongitudinal, coarse.surfaceLongitudinal) / surface;
+			surfaceRotationalInertia = extrapolate(fine.surfaceRotational, coarse.surfaceRotational) / surface;
+		}
+	}
+	
+	
+	/**
+	 * Return the geometry of a component.  If the component has a geometry key, the
+	 * geometry is integrated when it is first requested and then shared until it is
+	 * evicted from the cache.
+	 *
+	 * @param component		the component.
+	 * @return				the geometry for the current shape of the component.
+	 */
+	static SymmetricGeometry get(SymmetricComponent component) {
+		Key key = component.getGeometryKey();
+		if (key == null) {
+			return new SymmetricGeometry(component);
+		}
+		
+		SymmetricGeometry geometry;
+		synchronized (cache) {
+			geometry = cache.get(key);
+		}
+		if (geometry != null) {
+			return geometry;
+		}
+		
+		// Integrate outside the lock, if two threads race the first geometry is kept
+		geometry = new SymmetricGeometry(component);
+		synchronized (cache) {
+			SymmetricGeometry existing = cache.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			cache.put(key, geometry);
+		}
+		return geometry;
+	}
+	
+	
+	private static double extrapolate(double fine, double coarse) {
+		return fine + (fine - coarse) / 3;
+	}
+	
+	
+	double getVolume() {
+		return volume;
+	}
+	
+	double getFullVolume() {
+		return fullVolume;
+	}
+	
+	double getWetArea() {
+		return wetArea;
+	}
+	
+	double getPlanformArea() {
+		return planArea;
+	}
+	
+	double getPlanformCenter() {
+		return planCenter;
+	}
+	
+	/**
+	 * Return the x-coordinate of the volume centroid, or half of the length if the
+	 * shape has no volume.
+	 */
+	double getCGX() {
+		return cgx;
+	}
+	
+	/**
+	 * Return the longitudinal unit inertia about the fore end based on the volume,
+	 * or NaN if the shape has no volume.
+	 */
+	double getVolumeLongitudinalInertia() {
+		return volumeLongitudinalInertia;
+	}
+	
+	/**
+	 * Return the rotational unit inertia based on the volume, or NaN if the shape
+	 * has no volume.
+	 */
+	double getVolumeRotationalInertia() {
+		return volumeRotationalInertia;
+	}
+	
+	/**
+	 * Return the longitudinal unit inertia about the fore end based on the surface,
+	 * or NaN if the shape has no surface.
+	 */
+	double getSurfaceLongitudinalInertia() {
+		return surfaceLongitudinalInertia;
+	}
+	
+	/**
+	 * Return the rotational unit inertia based on the surface, or NaN if the shape
+	 * has no surface.
+	 */
+	double getSurfaceRotationalInertia() {
+		return surfaceRotationalInertia;
+	}
+	
+	
+	
+	/**
+	 * The integrals summed over the frusta between every <code>stride</code>th position.
+	 */
+	private static class Sums {
+		private double volume = 0;
+		private double fullVolume = 0;
+		private double volumeMoment = 0;
+		private double wetArea = 0;
+		private double planArea = 0;
+		private double planMoment = 0;
+		
+		private double inertiaVolume = 0;
+		private double volumeLongitudinal = 0;
+		private double volumeRotational = 0;
+		
+		private double surface = 0;
+		private double surfaceLongitudinal = 0;
+		private double surfaceRotational = 0;
+		
+		public Sums(double[] positions, double[] radii, int stride, double thickness, boolean filled) {
+			final double pi3 = Math.PI / 3.0;
+			
+			for (int n = stride; n <= DIVISIONS; n += stride) {
+				/*
+				 * r1 and r2 are the two radii, outer is their average
+				 * x is the position of r1 and l the length of the frustum
+				 * hyp is the length of the hypotenuse from r1 to r2
+				 * height is the y-axis height of the wall if not filled
+				 */
+				final double x = positions[n - stride];
+				final double l = positions[n] - x;
+				if (l <= 0) {
+					continue;
+				}
+				final double r1 = radii[n - stride];
+				final double r2 = radii[n];
+				final double mid = x + l / 2;
+				final double hyp = MathUtil.hypot(r2 - r1, l);
+				final double outer = (r1 + r2) / 2;
+				// Thickness is normal to the surface of the component, project it
+				// to the y dimension (radius)
+				final double height = thickness * hyp / l;
+				
+				// Volume, CG, wetted area and planform area
+				final double dFullV = pi3 * l * (r1 * r1 + r1 * r2 + r2 * r2);
+				final double dV;
+				if (filled || r1 < height || r2 < height) {
+					dV = dFullV;
+				} else {
+					dV = MathUtil.max(Math.PI * l * height * (r1 + r2 - height), 0);
+				}
+				
+				volume += dV;
+				fullVolume += dFullV;
+				volumeMoment += mid * dV;
+				
+				// Wetted area ( * PI at the end)
+				wetArea += hyp * (r1 + r2);
+				
+				final double p = l * (r1 + r2);
+				planArea += p;
+				planMoment += mid * p;
+				
+				
+				// Inertia based on volume
+				final double inner;
+				final double dIV;
+				if (filled || r1 < thickness || r2 < thickness) {
+					inner = 0;
+					dIV = dFullV;
+				} else {
+					inner = Math.max(outer - height, 0);
+					dIV = Math.PI * l * height * (r1 + r2 - height);
+				}
+				inertiaVolume += dIV;
+				volumeRotational += dIV * (pow2(outer) + pow2(inner)) / 2;
+				volumeLongitudinal += dIV * ((3 * (pow2(outer) + pow2(inner)) + pow2(l)) / 12 + pow2(mid));
+				
+				
+				// Inertia based on surface
+				final double dS = hyp * (r1 + r2) * Math.PI;
+				surface += dS;
+				surfaceRotational += dS * pow2(outer);
+				surfaceLongitudinal += dS * ((6 * pow2(outer) + pow2(l)) / 12 + pow2(mid));
+			}
+		}
+	}
+	
+	
+	
+	/**
+	 * The parameters that determine the radius function of a component.  Components of
+	 * the same class with equal keys have the same geometry.
+	 */
+	static final class Key {
+		private final Class<?> componentClass;
+		private final Object shape;
+		private final double shapeParameter;
+		private final boolean clipped;
+		private final double foreRadius;
+		private final double aftRadius;
+		private final double length;
+		private final double thickness;
+		private final boolean filled;
+		
+		/**
+		 * Sole constructor.
+		 *
+		 * @param component			the component, which defines the class and the length,
+		 * 							thickness and filled status.
+		 * @param shape				the shape type, or <code>null</code> for a constant radius.
+		 * @param shapeParameter	the parameter of the shape type.
+		 * @param clipped			whether the shape is clipped.
+		 * @param foreRadius		the fore radius.
+		 * @param aftRadius			the aft radius.
+		 */
+		public Key(SymmetricComponent component, Object shape, double shapeParameter, boolean clipped,
+				double foreRadius, double aftRadius) {
+			this.componentClass = component.getClass();
+			this.shape = shape;
+			this.shapeParameter = shapeParameter;
+			this.clipped = clipped;
+			this.foreRadius = foreRadius;
+			this.aftRadius = aftRadius;
+			this.length = component.getLength();
+			this.thickness = component.getThickness();
+			this.filled = component.isFilled();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return componentClass == other.componentClass &&
+					(shape == null ? other.shape == null : shape.equals(other.shape)) &&
+					Double.compare(shapeParameter, other.shapeParameter) == 0 &&
+					clipped == other.clipped &&
+					Double.compare(foreRadius, other.foreRadius) == 0 &&
+					Double.compare(aftRadius, other.aftRadius) == 0 &&
+					Double.compare(length, other.length) == 0 &&
+					Double.compare(thickness, other.thickness) == 0 &&
+					filled == other.filled;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = componentClass.hashCode();
+			hash = 31 * hash + (shape == null ? 0 : shape.hashCode());
+			hash = 31 * hash + hash(shapeParameter);
+			hash = 31 * hash + (clipped ? 1 : 0);
+			hash = 31 * hash + hash(foreRadius);
+			hash = 31 * hash + hash(aftRadius);
+			hash = 31 * hash + hash(length);
+			hash = 31 * hash + hash(thickness);
+			hash = 31 * hash + (filled ? 1 : 0);
+			return hash;
+		}
+		
+		private static int hash(double value) {
+			long bits = Double.doubleToLongBits(value);
+			return (int) (bits ^ (bits >>> 32));
+		}
+	}
+}
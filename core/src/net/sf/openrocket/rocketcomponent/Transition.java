@@ -431,6 +431,12 @@ public class Transition extends SymmetricComponent {
 		return Math.max(getRadius(x) - thickness, 0);
 	}
 
+	@Override
+	SymmetricGeometry.Key getGeometryKey() {
+		return new SymmetricGeometry.Key(this, type, shapeParameter, isClipped(),
+				getForeRadius(), getAftRadius());
+	}
+
 
 
 	@Override
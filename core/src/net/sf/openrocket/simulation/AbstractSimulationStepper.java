@@ -2,6 +2,7 @@ package net.sf.openrocket.simulation;
 
 import net.sf.openrocket.masscalc.MassCalculator;
 import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
+import net.sf.openrocket.models.atmosphere.AtmosphericModel;
 import net.sf.openrocket.motor.MotorId;
 import net.sf.openrocket.motor.MotorInstance;
 import net.sf.openrocket.motor.MotorInstanceConfiguration;
@@ -23,6 +24,22 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 	 * @throws SimulationException	if a listener throws SimulationException
 	 */
 	protected AtmosphericConditions modelAtmosphericConditions(SimulationStatus status) throws SimulationException {
+		return modelAtmosphericConditions(status, null);
+	}
+	
+	/**
+	 * Compute the atmospheric conditions into an object owned by the caller, allowing
+	 * listeners to override.  The returned object is <code>result</code> unless a
+	 * listener overrides the conditions, so it must not be kept past the next call.
+	 * 
+	 * @param status	the simulation status
+	 * @param result	the object to store the conditions into, or <code>null</code>
+	 * 					to allocate a new one
+	 * @return			the atmospheric conditions to use
+	 * @throws SimulationException	if a listener throws SimulationException
+	 */
+	protected AtmosphericConditions modelAtmosphericConditions(SimulationStatus status, AtmosphericConditions result)
+			throws SimulationException {
 		AtmosphericConditions conditions;
 		
 		// Call pre-listener
@@ -32,8 +49,16 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.ATMOSPHERE);
 		double altitude = status.getRocketPosition().z + status.getSimulationConditions().getLaunchSite().getAltitude();
-		conditions = status.getSimulationConditions().getAtmosphericModel().getConditions(altitude);
+		AtmosphericModel model = status.getSimulationConditions().getAtmosphericModel();
+		if (result != null) {
+			model.getConditions(altitude, result);
+			conditions = result;
+		} else {
+			conditions = model.getConditions(altitude);
+		}
+		SimulationProfile.exit(profile);
 		
 		// Call post-listener
 		conditions = SimulationListenerHelper.firePostAtmosphericModel(status, conditions);
@@ -63,8 +88,10 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.WIND);
 		double altitude = status.getRocketPosition().z + status.getSimulationConditions().getLaunchSite().getAltitude();
 		wind = status.getSimulationConditions().getWindModel().getWindVelocity(status.getSimulationTime(), altitude);
+		SimulationProfile.exit(profile);
 		
 		// Call post-listener
 		wind = SimulationListenerHelper.firePostWindModel(status, wind);
@@ -93,7 +120,9 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 		}
 		
 		// Compute conditions
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.GRAVITY);
 		gravity = status.getSimulationConditions().getGravityModel().getGravity(status.getRocketWorldPosition());
+		SimulationProfile.exit(profile);
 		
 		// Call post-listener
 		gravity = SimulationListenerHelper.firePostGravityModel(status, gravity);
@@ -123,12 +152,14 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			return mass;
 		}
 		
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.MASS);
 		MassCalculator calc = status.getSimulationConditions().getMassCalculator();
 		cg = calc.getCG(status.getConfiguration(), status.getMotorConfiguration());
 		longitudinalInertia = calc.getLongitudinalInertia(status.getConfiguration(), status.getMotorConfiguration());
 		rotationalInertia = calc.getRotationalInertia(status.getConfiguration(), status.getMotorConfiguration());
 		propellantMass = calc.getPropellantMass(status.getConfiguration(), status.getMotorConfiguration());
 		mass = new MassData(cg, longitudinalInertia, rotationalInertia, propellantMass);
+		SimulationProfile.exit(profile);
 		
 		// Call post-listener
 		mass = SimulationListenerHelper.firePostMassCalculation(status, mass);
@@ -170,6 +201,7 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 			return thrust;
 		}
 		
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.THRUST);
 		Configuration configuration = status.getConfiguration();
 		
 		// Iterate over the motors and calculate combined thrust
@@ -185,6 +217,7 @@ public abstract class AbstractSimulationStepper implements SimulationStepper {
 				thrust += motor.getThrust();
 			}
 		}
+		SimulationProfile.exit(profile);
 		
 		// Post-listeners
 		thrust = SimulationListenerHelper.firePostThrustCalculation(status, thrust);
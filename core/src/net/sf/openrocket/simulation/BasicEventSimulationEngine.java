@@ -1,6 +1,12 @@
 package net.sf.openrocket.simulation;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.l10n.Translator;
@@ -18,11 +24,14 @@ import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.rocketcomponent.Stage;
 import net.sf.openrocket.rocketcomponent.StageSeparationConfiguration;
 import net.sf.openrocket.simulation.exception.MotorIgnitionException;
+import net.sf.openrocket.simulation.exception.SimulationCancelledException;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.exception.SimulationLaunchException;
+import net.sf.openrocket.simulation.listeners.SimulationListener;
 import net.sf.openrocket.simulation.listeners.SimulationListenerHelper;
 import net.sf.openrocket.simulation.listeners.system.OptimumCoastListener;
 import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.Pair;
@@ -58,10 +67,19 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	
 	private SimpleStack<SimulationStatus> stages = new SimpleStack<SimulationStatus>();
 	
+	/** Boosters separated from the simulated branch that are simulated concurrently, in order of separation */
+	private final List<FutureTask<Branch>> branches = new ArrayList<FutureTask<Branch>>();
+	
+	/** Launch position and velocity of the branch being simulated */
+	private Coordinate origin;
+	private Coordinate originVelocity;
+	
 	
 	@Override
 	public FlightData simulate(SimulationConditions simulationConditions) throws SimulationException {
 		
+		flightStepper = createFlightStepper(simulationConditions);
+		
 		// Set up flight data
 		FlightData flightData = new FlightData();
 		
@@ -82,6 +100,11 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		}
 		stages.add(status);
 		
+		SimulationProfile profile = simulationConditions.getProfile();
+		if (profile != null) {
+			profile.start();
+		}
+		
 		SimulationListenerHelper.fireStartSimulation(status);
 		
 		while (true) {
@@ -98,8 +121,15 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 			flightData.getWarningSet().addAll(status.getWarnings());
 		}
 		
+		status = mergeBranches(branches, flightData, status);
+		
 		SimulationListenerHelper.fireEndSimulation(status, null);
 		
+		if (profile != null) {
+			profile.stop();
+			flightData.setProfile(profile);
+		}
+		
 		configuration.release();
 		
 		if (!flightData.getWarningSet().isEmpty()) {
@@ -109,6 +139,112 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		return flightData;
 	}
 	
+	/**
+	 * Create the stepper for the free flight phase as defined by the simulation conditions.
+	 */
+	private SimulationStepper createFlightStepper(SimulationConditions simulationConditions) {
+		Class<? extends SimulationStepper> stepperClass = simulationConditions.getSimulationStepperClass();
+		if (stepperClass == RK4SimulationStepper.class) {
+			return new RK4SimulationStepper(simulationConditions.isReuseIntegrationBuffers());
+		}
+		try {
+			return stepperClass.newInstance();
+		} catch (InstantiationException e) {
+			throw new BugException("Cannot instantiate simulation stepper " + stepperClass, e);
+		} catch (IllegalAccessException e) {
+			throw new BugException("Cannot access simulation stepper " + stepperClass, e);
+		}
+	}
+	
+	/**
+	 * Continue a simulation from a status forked from a running simulation, see
+	 * {@link SimulationStatus#fork()}.  The fork is simulated from its current state
+	 * until the end of the simulation using the stepper appropriate for its flight phase.
+	 * Only the branch of the fork is simulated, stages separating from it are not.
+	 * <p>
+	 * The simulation listeners of the fork are notified of the flight events and steps,
+	 * but not of the start or the end of the simulation, unless the simulation is
+	 * aborted by an exception.  The fork is not profiled, its work is charged to the
+	 * phase of the original simulation that continued it.  The launch guide is assumed to
+	 * start from the launch position of the simulation conditions.
+	 * 
+	 * @param fork	the forked status, which is modified during the simulation.
+	 * @return		the status at the end of the simulation.
+	 */
+	public SimulationStatus simulateFork(SimulationStatus fork) {
+		SimulationConditions conditions = fork.getSimulationConditions();
+		return simulateFork(fork, conditions.getLaunchPosition(), conditions.getLaunchVelocity());
+	}
+	
+	private SimulationStatus simulateFork(SimulationStatus fork, Coordinate forkOrigin, Coordinate forkOriginVelocity) {
+		fork.getSimulationConditions().setProfile(null);
+		flightStepper = createFlightStepper(fork.getSimulationConditions());
+		flightConfigurationId = fork.getConfiguration().getFlightConfigurationID();
+		
+		// Continue in the flight phase of the fork
+		if (fork.isTumbling()) {
+			currentStepper = tumbleStepper;
+		} else if (!fork.getDeployedRecoveryDevices().isEmpty()) {
+			currentStepper = landingStepper;
+		} else {
+			currentStepper = flightStepper;
+		}
+		status = currentStepper.initialize(fork);
+		origin = forkOrigin;
+		originVelocity = forkOriginVelocity;
+		
+		stepLoop();
+		return status;
+	}
+	
+	/**
+	 * Add the concurrently simulated booster branches to the flight data, waiting for them
+	 * to complete.  The branches are added in the order in which they are simulated in
+	 * sequence, the last separated booster first, each followed by the boosters separated
+	 * from it.  Branches that have not been started by the executor are simulated in the
+	 * calling thread.
+	 * 
+	 * @param tasks			the booster branches in order of separation.
+	 * @param flightData	the flight data to add the branches to.
+	 * @param last			the status of the branch the boosters separated from.
+	 * @return				the status at the end of the last added branch, or <code>last</code>
+	 * 						if there are no branches.
+	 */
+	private static SimulationStatus mergeBranches(List<FutureTask<Branch>> tasks, FlightData flightData,
+			SimulationStatus last) throws SimulationException {
+		for (int i = tasks.size() - 1; i >= 0; i--) {
+			FutureTask<Branch> task = tasks.get(i);
+			
+			// Does nothing if the task has already been started
+			task.run();
+			
+			Branch branch;
+			try {
+				branch = task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SimulationCancelledException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				if (cause instanceof SimulationException) {
+					throw (SimulationException) cause;
+				}
+				throw new BugException("Booster branch failed", cause);
+			}
+			
+			flightData.addBranch(branch.status.getFlightData());
+			flightData.getWarningSet().addAll(branch.status.getWarnings());
+			last = mergeBranches(branch.branches, flightData, branch.status);
+		}
+		return last;
+	}
+	
 	private FlightDataBranch simulateLoop() {
 		
 		// Initialize the simulation
@@ -116,9 +252,16 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		status = currentStepper.initialize(status);
 		
 		// Get originating position (in case listener has modified launch position)
-		Coordinate origin = status.getRocketPosition();
-		Coordinate originVelocity = status.getRocketVelocity();
+		origin = status.getRocketPosition();
+		originVelocity = status.getRocketVelocity();
 		
+		return stepLoop();
+	}
+	
+	/**
+	 * Step the current status until the simulation ends.
+	 */
+	private FlightDataBranch stepLoop() {
 		try {
 			// Start the simulation
 			while (handleEvents()) {
@@ -236,6 +379,10 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 			}
 			
 		} catch (SimulationException e) {
+			// Close the phases interrupted by the exception
+			if (status.getSimulationConditions().getProfile() != null) {
+				status.getSimulationConditions().getProfile().unwind();
+			}
 			SimulationListenerHelper.fireEndSimulation(status, e);
 			// Add FlightEvent for Abort.
 			status.getFlightData().addEvent(new FlightEvent(FlightEvent.Type.EXCEPTION, status.getSimulationTime(), status.getConfiguration().getRocket(), e.getLocalizedMessage()));
@@ -301,6 +448,8 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		boolean ret = true;
 		FlightEvent event;
 		
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.EVENTS);
+		
 		log.trace("HandleEvents: current branch = " + status.getFlightData().getBranchName());
 		log.trace("EventQueue = " + status.getEventQueue().toString());
 		for (event = nextEvent(); event != null; event = nextEvent()) {
@@ -447,13 +596,22 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 				SimulationStatus boosterStatus = new SimulationStatus(status);
 				boosterStatus.setFlightData(new FlightDataBranch(stage.getName(), FlightDataType.TYPE_TIME));
 				
-				stages.add(boosterStatus);
-				
 				// Mark the status as having dropped the booster
 				status.getConfiguration().setToStage(n - 1);
 				
 				// Mark the booster status as only having the booster.
 				boosterStatus.getConfiguration().setOnlyStage(n);
+				
+				Executor executor = status.getSimulationConditions().getBranchExecutor();
+				if (executor == null || !isBranchSafe(boosterStatus.getSimulationConditions())) {
+					stages.add(boosterStatus);
+				} else {
+					// Simulate the booster concurrently on its own copy of the rocket
+					boosterStatus.detachRocket();
+					FutureTask<Branch> task = new FutureTask<Branch>(new BranchTask(boosterStatus));
+					branches.add(task);
+					executor.execute(task);
+				}
 				break;
 			}
 			
@@ -502,9 +660,11 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 					// If we haven't already reached apogee, then we need to compute the actual coast time
 					// to determine the optimum altitude.
 					if (status.getSimulationConditions().isCalculateExtras() && !status.isApogeeReached()) {
-						FlightData coastStatus = computeCoastTime();
-						status.getFlightData().setOptimumAltitude(coastStatus.getMaxAltitude());
-						status.getFlightData().setTimeToOptimumAltitude(coastStatus.getTimeToApogee());
+						FlightData coastStatus = computeCoastTime((RecoveryDevice) c);
+						if (coastStatus != null) {
+							status.getFlightData().setOptimumAltitude(coastStatus.getMaxAltitude());
+							status.getFlightData().setTimeToOptimumAltitude(coastStatus.getTimeToApogee());
+						}
 					}
 					
 					this.currentStepper = this.landingStepper;
@@ -541,6 +701,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 			throw new MotorIgnitionException(trans.get("BasicEventSimulationEngine.error.noIgnition"));
 		}
 		
+		SimulationProfile.exit(profile);
 		return ret;
 	}
 	
@@ -607,14 +768,79 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		}
 	}
 	
-	private FlightData computeCoastTime() {
+	/**
+	 * A booster branch at the end of its simulation.
+	 */
+	private static class Branch {
+		private final SimulationStatus status;
+		private final List<FutureTask<Branch>> branches;
+		
+		public Branch(SimulationStatus status, List<FutureTask<Branch>> branches) {
+			this.status = status;
+			this.branches = branches;
+		}
+	}
+	
+	/**
+	 * Return whether a booster branch with the given conditions may be simulated concurrently.
+	 * Only the system listeners of OpenRocket are known not to share state between their
+	 * clones, a branch with any other listener is simulated in sequence.
+	 */
+	private static boolean isBranchSafe(SimulationConditions conditions) {
+		for (SimulationListener l : conditions.getSimulationListenerList()) {
+			if (!l.isSystemListener()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Simulates a booster branch with a new engine.  The listeners of the branch are
+	 * started before the branch is simulated, so that they do not continue from state
+	 * copied from the branch they were cloned from.  Boosters separating from the branch
+	 * are returned with the branch for merging.
+	 */
+	private static class BranchTask implements Callable<Branch> {
+		private final SimulationStatus boosterStatus;
+		
+		public BranchTask(SimulationStatus boosterStatus) {
+			this.boosterStatus = boosterStatus;
+		}
+		
+		@Override
+		public Branch call() throws SimulationException {
+			BasicEventSimulationEngine engine = new BasicEventSimulationEngine();
+			SimulationConditions conditions = boosterStatus.getSimulationConditions();
+			engine.flightStepper = engine.createFlightStepper(conditions);
+			engine.flightConfigurationId = boosterStatus.getConfiguration().getFlightConfigurationID();
+			engine.status = boosterStatus;
+			SimulationListenerHelper.fireStartSimulation(boosterStatus);
+			engine.simulateLoop();
+			return new Branch(engine.status, engine.branches);
+		}
+	}
+	
+	/**
+	 * Compute the flight of the current branch without recovery device deployment
+	 * until apogee.  The simulation is continued from a fork of the current status,
+	 * from which the device being deployed is removed.
+	 * 
+	 * @param device	the recovery device being deployed.
+	 * @return			the flight data of the coast, or <code>null</code> on failure.
+	 */
+	private FlightData computeCoastTime(RecoveryDevice device) {
 		try {
-			SimulationConditions conds = status.getSimulationConditions().clone();
-			conds.getSimulationListenerList().add(OptimumCoastListener.INSTANCE);
+			SimulationStatus fork = status.fork();
+			fork.getDeployedRecoveryDevices().remove(device);
+			fork.getSimulationConditions().getSimulationListenerList().add(OptimumCoastListener.INSTANCE);
+			
+			// The coast simulation is charged to the event handling of this simulation
 			BasicEventSimulationEngine e = new BasicEventSimulationEngine();
+			SimulationStatus end = e.simulateFork(fork, origin, originVelocity);
+			end.getConfiguration().release();
 			
-			FlightData d = e.simulate(conds);
-			return d;
+			return new FlightData(end.getFlightData());
 		} catch (Exception e) {
 			log.warn("Exception computing coast time: ", e);
 			return null;
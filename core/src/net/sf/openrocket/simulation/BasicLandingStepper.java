@@ -12,6 +12,9 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 	
 	private static final double RECOVERY_TIME_STEP = 0.5;
 	
+	/** The atmospheric conditions, reused on every step */
+	private final AtmosphericConditions atmosphericConditions = new AtmosphericConditions();
+	
 	@Override
 	public SimulationStatus initialize(SimulationStatus status) {
 		return status;
@@ -23,7 +26,7 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 		double refArea = status.getConfiguration().getReferenceArea();
 		
 		// Get the atmospheric conditions
-		AtmosphericConditions atmosphere = modelAtmosphericConditions(status);
+		AtmosphericConditions atmosphere = modelAtmosphericConditions(status, atmosphericConditions);
 		
 		//// Local wind speed and direction
 		Coordinate windSpeed = modelWindVelocity(status);
@@ -79,6 +82,7 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 		
 
 		// Store data
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.DATA_STORAGE);
 		FlightDataBranch data = status.getFlightData();
 		boolean extra = status.getSimulationConditions().isCalculateExtras();
 		data.addPoint();
@@ -136,6 +140,7 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 		data.setValue(FlightDataType.TYPE_TIME_STEP, timeStep);
 		data.setValue(FlightDataType.TYPE_COMPUTATION_TIME,
 				(System.nanoTime() - status.getSimulationStartWallTime()) / 1000000000.0);
+		SimulationProfile.exit(profile);
 	}
 	
 }
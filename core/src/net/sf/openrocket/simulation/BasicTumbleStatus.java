@@ -36,6 +36,13 @@ public class BasicTumbleStatus extends SimulationStatus {
 		}
 	}
 	
+	@Override
+	public BasicTumbleStatus fork() {
+		BasicTumbleStatus fork = new BasicTumbleStatus(this);
+		fork.initFork(this);
+		return fork;
+	}
+	
 	public double getTumbleDrag() {
 		return drag;
 	}
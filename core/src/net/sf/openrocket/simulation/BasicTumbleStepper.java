@@ -11,6 +11,9 @@ public class BasicTumbleStepper extends AbstractSimulationStepper {
 	
 	private static final double RECOVERY_TIME_STEP = 0.5;
 	
+	/** The atmospheric conditions, reused on every step */
+	private final AtmosphericConditions atmosphericConditions = new AtmosphericConditions();
+	
 	@Override
 	public SimulationStatus initialize(SimulationStatus status) {
 		return new BasicTumbleStatus(status);
@@ -20,7 +23,7 @@ public class BasicTumbleStepper extends AbstractSimulationStepper {
 	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
 		
 		// Get the atmospheric conditions
-		AtmosphericConditions atmosphere = modelAtmosphericConditions(status);
+		AtmosphericConditions atmosphere = modelAtmosphericConditions(status, atmosphericConditions);
 		
 		//// Local wind speed and direction
 		Coordinate windSpeed = modelWindVelocity(status);
@@ -75,6 +78,7 @@ public class BasicTumbleStepper extends AbstractSimulationStepper {
 		
 
 		// Store data
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.DATA_STORAGE);
 		FlightDataBranch data = status.getFlightData();
 		boolean extra = status.getSimulationConditions().isCalculateExtras();
 		data.addPoint();
@@ -132,6 +136,7 @@ public class BasicTumbleStepper extends AbstractSimulationStepper {
 		data.setValue(FlightDataType.TYPE_TIME_STEP, timeStep);
 		data.setValue(FlightDataType.TYPE_COMPUTATION_TIME,
 				(System.nanoTime() - status.getSimulationStartWallTime()) / 1000000000.0);
+		SimulationProfile.exit(profile);
 	}
 	
 }
@@ -0,0 +1,325 @@
+package net.sf.openrocket.simulation;
+
+import net.sf.openrocket.motor.MotorInstanceConfiguration;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.Quaternion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A simulation stepper that integrates the flight using the embedded Dormand-Prince 5(4)
+ * Runge-Kutta pair with local error control.  The time step is selected based on the
+ * difference of the fifth and fourth order solutions, so that long steps are taken
+ * where the flight is smooth, for example during coast.
+ * <p>
+ * The last stage of an accepted step is evaluated at the new state and is reused as the
+ * first stage of the following step (first same as last), unless the thrust or the
+ * status has been changed in between.
+ * <p>
+ * As in {@link RK4SimulationStepper} the thrust is taken as the average thrust during the
+ * time step.  The time step is limited to the user-specified time step while the motors
+ * are burning or the rocket is on the launch rod, and it is reduced when approaching
+ * apogee so that the apogee is resolved as accurately as with the RK4 stepper.
+ */
+public class DormandPrinceSimulationStepper extends RK4SimulationStepper {
+	
+	private static final Logger log = LoggerFactory.getLogger(DormandPrinceSimulationStepper.class);
+	
+	/*
+	 * The Dormand-Prince coefficients.  C contains the stage times, A the stage weights,
+	 * B the fifth order solution weights (equal to the last row of A) and E the
+	 * difference between the fifth and fourth order solution weights.
+	 */
+	private static final double[] C = { 0, 1.0 / 5, 3.0 / 10, 4.0 / 5, 8.0 / 9, 1, 1 };
+	private static final double[][] A = {
+			{},
+			{ 1.0 / 5 },
+			{ 3.0 / 40, 9.0 / 40 },
+			{ 44.0 / 45, -56.0 / 15, 32.0 / 9 },
+			{ 19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729 },
+			{ 9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656 },
+			{ 35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84 }
+	};
+	private static final double[] E = {
+			71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920, -17253.0 / 339200, 22.0 / 525, -1.0 / 40
+	};
+	private static final int STAGES = 7;
+	
+	/*
+	 * Error tolerances.  The local error of each state component may be at most the
+	 * absolute tolerance plus the relative tolerance times the magnitude of the value.
+	 */
+	private static final double RELATIVE_TOLERANCE = 1e-6;
+	private static final double POSITION_TOLERANCE = 1e-4;
+	private static final double VELOCITY_TOLERANCE = 1e-4;
+	private static final double ANGLE_TOLERANCE = 1e-3;
+	private static final double ROTATION_VELOCITY_TOLERANCE = 1e-2;
+	
+	/** Safety factor and limits for changing the time step between steps. */
+	private static final double SAFETY = 0.9;
+	private static final double MIN_STEP_FACTOR = 0.2;
+	private static final double MAX_STEP_FACTOR = 5;
+	
+	/** The maximum time step, as a multiple of the user-specified time step. */
+	private static final double MAX_TIME_STEP_MULTIPLIER = 20;
+	
+	/** The fraction of the estimated time to apogee that a step may take. */
+	private static final double APOGEE_STEP_FRACTION = 0.5;
+	
+	
+	private final double[][] k = new double[STAGES][DERIVATIVE_SIZE];
+	private final double[] sum = new double[DERIVATIVE_SIZE];
+	
+	private DataStore firstStore = new DataStore();
+	private DataStore lastStore = new DataStore();
+	private final DataStore stageStore = new DataStore();
+	private RK4SimulationStatus lastStageStatus;
+	
+	/** The time step proposed by the error control, NaN if none. */
+	private double proposedTimeStep = Double.NaN;
+	
+	/*
+	 * The state at the end of the previous step.  The last stage of the previous step is
+	 * reused as the first stage if the status has not been modified since.
+	 */
+	private RK4SimulationStatus fsalStatus = null;
+	private double fsalTime;
+	private double fsalThrust;
+	private Coordinate fsalPosition;
+	private Coordinate fsalVelocity;
+	private Quaternion fsalOrientation;
+	private Coordinate fsalRotationVelocity;
+	private boolean fsalLaunchRodCleared;
+	private int fsalConfigurationModID;
+	
+	
+	public DormandPrinceSimulationStepper() {
+		super(true);
+	}
+	
+	
+	@Override
+	public RK4SimulationStatus initialize(SimulationStatus original) {
+		proposedTimeStep = Double.NaN;
+		fsalStatus = null;
+		return super.initialize(original);
+	}
+	
+	
+	@Override
+	public void step(SimulationStatus simulationStatus, double maxTimeStep) throws SimulationException {
+		RK4SimulationStatus status = (RK4SimulationStatus) simulationStatus;
+		SimulationConditions conditions = status.getSimulationConditions();
+		
+		final double userTimeStep = MathUtil.max(conditions.getTimeStep(), MIN_TIME_STEP);
+		final double t = status.getSimulationTime();
+		
+		loadState(status);
+		
+		/*
+		 * Select the initial time step.  The error control proposes the time step, which is
+		 * limited by the next event, the launch rod and the maximum time step.
+		 */
+		double h = proposedTimeStep;
+		if (Double.isNaN(h) || status != fsalStatus) {
+			h = userTimeStep;
+		}
+		h = MathUtil.min(h, maxTimeStep, MAX_TIME_STEP_MULTIPLIER * userTimeStep);
+		if (!status.isLaunchRodCleared()) {
+			h = MathUtil.min(h, userTimeStep / 5,
+					conditions.getLaunchRodLength() / status.getRocketVelocity().length() / 10);
+		}
+		h = MathUtil.max(h, MIN_TIME_STEP);
+		checkNaN(h);
+		
+		double thrust = calculateThrust(status, h, status.getPreviousAcceleration(),
+				status.getPreviousAtmosphericConditions(), false);
+		if (thrust > 0 && h > userTimeStep) {
+			// Resolve the motor burn using the user-specified time step
+			h = userTimeStep;
+			thrust = calculateThrust(status, h, status.getPreviousAcceleration(),
+					status.getPreviousAtmosphericConditions(), false);
+		}
+		
+		//// First stage, reused from the last stage of the previous step if possible
+		
+		if (isFsalValid(status, thrust)) {
+			DataStore tmp = firstStore;
+			firstStore = lastStore;
+			lastStore = tmp;
+			System.arraycopy(k[STAGES - 1], 0, k[0], 0, DERIVATIVE_SIZE);
+		} else {
+			firstStore.reset();
+			firstStore.thrustForce = thrust;
+			computeParameters(status, firstStore, k[0]);
+		}
+		
+		// Reduce the time step when approaching apogee during coast, down to the user-specified
+		// time step.  The limit only ever shortens the step chosen by the error control.
+		double vz = status.getRocketVelocity().z;
+		double az = k[0][D_ACCELERATION + 2];
+		if (thrust == 0 && status.isLaunchRodCleared() && vz > 0 && az < 0) {
+			double apogeeStep = MathUtil.max(APOGEE_STEP_FRACTION * vz / -az,
+					MathUtil.min(userTimeStep, maxTimeStep), MIN_TIME_STEP);
+			h = MathUtil.min(h, apogeeStep);
+		}
+		
+		//// Remaining stages with error control
+		
+		double error;
+		while (true) {
+			error = computeStages(status, thrust, t, h);
+			if (error <= 1 || h <= MIN_TIME_STEP) {
+				break;
+			}
+			
+			double factor = MathUtil.max(SAFETY * Math.pow(error, -0.2), MIN_STEP_FACTOR);
+			double hNew = MathUtil.max(h * factor, MIN_TIME_STEP);
+			log.trace("Rejected time step " + h + " with error " + error + ", retrying with " + hNew);
+			h = hNew;
+			
+			// A shorter step may cover a different portion of the thrust curve
+			double newThrust = calculateThrust(status, h, status.getPreviousAcceleration(),
+					status.getPreviousAtmosphericConditions(), false);
+			if (newThrust != thrust) {
+				thrust = newThrust;
+				firstStore.reset();
+				firstStore.thrustForce = thrust;
+				computeParameters(status, firstStore, k[0]);
+			}
+		}
+		
+		//// Accept the step
+		
+		// Step the motors forward
+		calculateThrust(status, h, status.getPreviousAcceleration(),
+				status.getPreviousAtmosphericConditions(), true);
+		
+		firstStore.timestep = h;
+		firstStore.thrustForce = thrust;
+		storeData(status, firstStore);
+		
+		for (int i = 0; i < DERIVATIVE_SIZE; i++) {
+			double s = 0;
+			for (int j = 0; j < STAGES - 1; j++) {
+				s += A[STAGES - 1][j] * k[j][i];
+			}
+			sum[i] = s;
+		}
+		advanceState(status, sum, h, h);
+		
+		// Keep the warning state computed by the last stage at the new state
+		status.setMaxZVelocity(lastStageStatus.getMaxZVelocity());
+		status.setStartWarningTime(lastStageStatus.getStartWarningTime());
+		
+		if (error > 0) {
+			proposedTimeStep = h * MathUtil.min(SAFETY * Math.pow(error, -0.2), MAX_STEP_FACTOR);
+		} else {
+			proposedTimeStep = h * MAX_STEP_FACTOR;
+		}
+		log.trace("Accepted time step " + h + " with error " + error + ", proposing " + proposedTimeStep);
+		
+		// The last stage was evaluated at exactly the new state
+		fsalStatus = status;
+		fsalTime = status.getSimulationTime();
+		fsalThrust = thrust;
+		fsalPosition = status.getRocketPosition();
+		fsalVelocity = status.getRocketVelocity();
+		fsalOrientation = status.getRocketOrientationQuaternion();
+		fsalRotationVelocity = status.getRocketRotationVelocity();
+		fsalLaunchRodCleared = status.isLaunchRodCleared();
+		fsalConfigurationModID = status.getConfiguration().getModID();
+	}
+	
+	
+	/**
+	 * Compute the stages 2-7 of the step into the derivative buffers, and the data of the
+	 * last stage into <code>lastStore</code>.
+	 *
+	 * @return	the estimated local error relative to the tolerances, a value of one or
+	 * 			less is acceptable.
+	 */
+	private double computeStages(RK4SimulationStatus status, double thrust, double t, double h)
+			throws SimulationException {
+		
+		/*
+		 * As in the RK4 stepper, the later stages use the motor state stepped to the end of
+		 * the time step.  This is also the motor state of the last stage when it is reused.
+		 */
+		MotorInstanceConfiguration motors = null;
+		if (thrust > 0) {
+			motors = status.getMotorConfiguration().clone();
+			motors.step(t + h, status.getPreviousAcceleration(), status.getPreviousAtmosphericConditions());
+		}
+		
+		for (int stage = 1; stage < STAGES; stage++) {
+			double[] a = A[stage];
+			for (int i = 0; i < DERIVATIVE_SIZE; i++) {
+				double s = 0;
+				for (int j = 0; j < stage; j++) {
+					s += a[j] * k[j][i];
+				}
+				sum[i] = s;
+			}
+			
+			RK4SimulationStatus status2 = prepareSubStep(status, sum, t + C[stage] * h, h);
+			if (motors != null) {
+				status2.setMotorConfiguration(motors);
+			}
+			DataStore store = (stage == STAGES - 1) ? lastStore : stageStore;
+			store.reset();
+			store.thrustForce = thrust;
+			computeParameters(status2, store, k[stage]);
+			lastStageStatus = status2;
+		}
+		
+		// Estimate the error of each state component
+		double position = status.getRocketPosition().length();
+		double velocity = status.getRocketVelocity().length();
+		double rotationVelocity = status.getRocketRotationVelocity().length();
+		
+		double error = 0;
+		for (int i = 0; i < DERIVATIVE_SIZE; i++) {
+			double e = 0;
+			for (int j = 0; j < STAGES; j++) {
+				e += E[j] * k[j][i];
+			}
+			e = Math.abs(e * h);
+			
+			double tolerance;
+			if (i < D_VELOCITY) {
+				tolerance = VELOCITY_TOLERANCE + RELATIVE_TOLERANCE * velocity;
+			} else if (i < D_ROTATION_ACCELERATION) {
+				tolerance = POSITION_TOLERANCE + RELATIVE_TOLERANCE * position;
+			} else if (i < D_ROTATION_VELOCITY) {
+				tolerance = ROTATION_VELOCITY_TOLERANCE + RELATIVE_TOLERANCE * rotationVelocity;
+			} else {
+				tolerance = ANGLE_TOLERANCE;
+			}
+			error = MathUtil.max(error, e / tolerance);
+		}
+		checkNaN(error);
+		return error;
+	}
+	
+	
+	/**
+	 * Return whether the last stage of the previous step can be used as the first stage
+	 * of the current step.
+	 */
+	private boolean isFsalValid(RK4SimulationStatus status, double thrust) {
+		return status == fsalStatus &&
+				thrust == fsalThrust &&
+				status.getSimulationTime() == fsalTime &&
+				status.getRocketPosition() == fsalPosition &&
+				status.getRocketVelocity() == fsalVelocity &&
+				status.getRocketOrientationQuaternion() == fsalOrientation &&
+				status.getRocketRotationVelocity() == fsalRotationVelocity &&
+				status.isLaunchRodCleared() == fsalLaunchRodCleared &&
+				status.getConfiguration().getModID() == fsalConfigurationModID;
+	}
+	
+}
@@ -42,6 +42,8 @@ public class FlightData {
 	
 	private final WarningSet warnings = new WarningSet();
 	
+	private SimulationProfile profile = null;
+	
 	private double maxAltitude = Double.NaN;
 	private double maxVelocity = Double.NaN;
 	private double maxAcceleration = Double.NaN;
@@ -119,6 +121,22 @@ public class FlightData {
 	}
 	
 	
+	/**
+	 * Returns the execution profile of the simulation that produced this data,
+	 * or <code>null</code> if the simulation was not profiled.
+	 * 
+	 * @return	the simulation profile, or <code>null</code>.
+	 */
+	public SimulationProfile getProfile() {
+		return profile;
+	}
+	
+	public void setProfile(SimulationProfile profile) {
+		mutable.check();
+		this.profile = profile;
+	}
+	
+	
 	public void addBranch(FlightDataBranch branch) {
 		mutable.check();
 		
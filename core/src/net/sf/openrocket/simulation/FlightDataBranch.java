@@ -1,10 +1,9 @@
 package net.sf.openrocket.simulation;
 
+import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.RandomAccess;
 
 import net.sf.openrocket.util.ArrayList;
 import net.sf.openrocket.util.Monitorable;
@@ -21,20 +20,38 @@ import net.sf.openrocket.util.Mutable;
  * not defined in the constructor can be added using {@link #setValue(FlightDataType, double)}, they
  * will be created and all previous values will be set to NaN.
  * <p>
+ * The values are stored in growable primitive <code>double[]</code> columns, which are located
+ * using the ordinal of the data type.  The values can be accessed without boxing using
+ * {@link #getDouble(FlightDataType, int)} and {@link #column(FlightDataType)}.
+ * <p>
  * After populating a FlightDataBranch object it can be made immutable by calling {@link #immute()}.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class FlightDataBranch implements Monitorable {
 	
+	private static final int INITIAL_CAPACITY = 64;
+	
 	/** The name of this flight data branch. */
 	private final String branchName;
 	
-	private final Map<FlightDataType, ArrayList<Double>> values =
-			new LinkedHashMap<FlightDataType, ArrayList<Double>>();
+	/** The data types of the columns, in the order they were added. */
+	private FlightDataType[] types = new FlightDataType[0];
+	
+	/** The data columns, all of length capacity.  Values after the current length are NaN. */
+	private double[][] columns = new double[0][];
+	
+	private double[] minValues = new double[0];
+	private double[] maxValues = new double[0];
+	
+	/** Maps the ordinal of a data type to its column index plus one, zero if not present. */
+	private int[] columnIndex = new int[0];
+	
+	/** Number of data points. */
+	private int length = 0;
 	
-	private final Map<FlightDataType, Double> maxValues = new HashMap<FlightDataType, Double>();
-	private final Map<FlightDataType, Double> minValues = new HashMap<FlightDataType, Double>();
+	/** Allocated length of the columns. */
+	private int capacity = INITIAL_CAPACITY;
 	
 	/**
 	 * time for the rocket to reach apogee if the flight had been no recovery deployment
@@ -65,15 +82,34 @@ public class FlightDataBranch implements Monitorable {
 		this.branchName = name;
 		
 		for (FlightDataType t : types) {
-			if (values.containsKey(t)) {
+			if (findColumn(t) >= 0) {
 				throw new IllegalArgumentException("Value type " + t + " specified multiple " +
 						"times in constructor.");
 			}
 			
-			values.put(t, new ArrayList<Double>());
-			minValues.put(t, Double.NaN);
-			maxValues.put(t, Double.NaN);
+			addColumn(t);
+		}
+	}
+	
+	/**
+	 * Copy constructor, see {@link #copy()}.
+	 */
+	private FlightDataBranch(FlightDataBranch orig) {
+		this.branchName = orig.branchName;
+		this.types = orig.types.clone();
+		this.columns = new double[orig.columns.length][];
+		for (int c = 0; c < columns.length; c++) {
+			this.columns[c] = orig.columns[c].clone();
 		}
+		this.minValues = orig.minValues.clone();
+		this.maxValues = orig.maxValues.clone();
+		this.columnIndex = orig.columnIndex.clone();
+		this.length = orig.length;
+		this.capacity = orig.capacity;
+		this.timeToOptimumAltitude = orig.timeToOptimumAltitude;
+		this.optimumAltitude = orig.optimumAltitude;
+		this.events.addAll(orig.events);
+		this.modID = orig.modID;
 	}
 	
 	/**
@@ -87,6 +123,17 @@ public class FlightDataBranch implements Monitorable {
 		this.immute();
 	}
 	
+	/**
+	 * Return a mutable copy of this branch with the same name, data and events.
+	 * The copy can be extended independently of this branch.
+	 * 
+	 * @return	a copy of this branch.
+	 */
+	public FlightDataBranch copy() {
+		return new FlightDataBranch(this);
+	}
+	
+	
 	/**
 	 * Adds a new point into the data branch.  The value for all types is set to NaN by default.
 	 * 
@@ -95,9 +142,13 @@ public class FlightDataBranch implements Monitorable {
 	public void addPoint() {
 		mutable.check();
 		
-		for (FlightDataType t : values.keySet()) {
-			values.get(t).add(Double.NaN);
+		if (length == capacity) {
+			capacity *= 2;
+			for (int c = 0; c < columns.length; c++) {
+				columns[c] = newColumn(columns[c]);
+			}
 		}
+		length++;
 		modID++;
 	}
 	
@@ -113,31 +164,20 @@ public class FlightDataBranch implements Monitorable {
 	public void setValue(FlightDataType type, double value) {
 		mutable.check();
 		
-		ArrayList<Double> list = values.get(type);
-		
-		if (list == null) {
-			list = new ArrayList<Double>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				list.add(Double.NaN);
-			}
-			values.put(type, list);
-			minValues.put(type, value);
-			maxValues.put(type, value);
+		int c = findColumn(type);
+		if (c < 0) {
+			c = addColumn(type);
 		}
 		
-		if (list.size() > 0) {
-			list.set(list.size() - 1, value);
+		if (length > 0) {
+			columns[c][length - 1] = value;
 		}
 		
-		double min = minValues.get(type);
-		double max = maxValues.get(type);
-		
-		if (Double.isNaN(min) || (value < min)) {
-			minValues.put(type, value);
+		if (Double.isNaN(minValues[c]) || (value < minValues[c])) {
+			minValues[c] = value;
 		}
-		if (Double.isNaN(max) || (value > max)) {
-			maxValues.put(type, value);
+		if (Double.isNaN(maxValues[c]) || (value > maxValues[c])) {
+			maxValues[c] = value;
 		}
 		modID++;
 	}
@@ -155,7 +195,7 @@ public class FlightDataBranch implements Monitorable {
 	 * natural order.
 	 */
 	public FlightDataType[] getTypes() {
-		FlightDataType[] array = values.keySet().toArray(new FlightDataType[0]);
+		FlightDataType[] array = types.clone();
 		Arrays.sort(array);
 		return array;
 	}
@@ -164,24 +204,88 @@ public class FlightDataBranch implements Monitorable {
 	 * Return the number of data points in this branch.
 	 */
 	public int getLength() {
-		for (FlightDataType t : values.keySet()) {
-			return values.get(t).size();
+		if (types.length == 0) {
+			return 0;
 		}
-		return 0;
+		return length;
 	}
 	
 	/**
-	 * Return an array of values for the specified variable type.
+	 * Return a list of values for the specified variable type.  The returned list is
+	 * an unmodifiable view of the column, not a copy.  Its size is the number of data
+	 * points at the time of the call, but values changed later, for example by setting
+	 * the values of the last point, may or may not be visible through it.  Copy the list
+	 * if the values are needed while the branch is still being modified.
 	 * 
 	 * @param type	the variable type.
 	 * @return		a list of the variable values, or <code>null</code> if
 	 * 				the variable type hasn't been added to this branch.
 	 */
 	public List<Double> get(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null)
+		int c = findColumn(type);
+		if (c < 0)
 			return null;
-		return list.clone();
+		return new ColumnView(columns[c], length);
+	}
+	
+	/**
+	 * Return a copy of the values for the specified variable type as a primitive array.
+	 * 
+	 * @param type	the variable type.
+	 * @return		an array of the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 */
+	public double[] column(FlightDataType type) {
+		int c = findColumn(type);
+		if (c < 0)
+			return null;
+		return Arrays.copyOf(columns[c], length);
+	}
+	
+	/**
+	 * Return the value of the specified type at the specified data point.
+	 * 
+	 * @param type	the variable type.
+	 * @param index	the index of the data point.
+	 * @return		the value, or NaN if the variable type hasn't been added to this branch.
+	 * @throws IndexOutOfBoundsException	if the index is not a valid data point index.
+	 */
+	public double getDouble(FlightDataType type, int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+		}
+		int c = findColumn(type);
+		if (c < 0)
+			return Double.NaN;
+		return columns[c][index];
+	}
+	
+	/**
+	 * Return the index of the column holding the values of the specified type, or -1 if
+	 * the type hasn't been added to this branch.  Column indexes do not change when points
+	 * or new types are added, so they can be used with {@link #getDouble(int, int)} to
+	 * access values repeatedly without looking up the type.
+	 * 
+	 * @param type	the variable type.
+	 * @return		the column index, or -1.
+	 */
+	public int getColumnIndex(FlightDataType type) {
+		return findColumn(type);
+	}
+	
+	/**
+	 * Return the value in the specified column at the specified data point.
+	 * 
+	 * @param column	the column index, as returned by {@link #getColumnIndex(FlightDataType)}.
+	 * @param index		the index of the data point.
+	 * @return			the value.
+	 * @throws IndexOutOfBoundsException	if the column or data point index is not valid.
+	 */
+	public double getDouble(int column, int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+		}
+		return columns[column][index];
 	}
 	
 	/**
@@ -192,10 +296,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the last value in this branch, or NaN.
 	 */
 	public double getLast(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null || list.isEmpty())
+		int c = findColumn(type);
+		if (c < 0 || length == 0)
 			return Double.NaN;
-		return list.get(list.size() - 1);
+		return columns[c][length - 1];
 	}
 	
 	/**
@@ -206,10 +310,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the minimum value in this branch, or NaN.
 	 */
 	public double getMinimum(FlightDataType type) {
-		Double v = minValues.get(type);
-		if (v == null)
+		int c = findColumn(type);
+		if (c < 0)
 			return Double.NaN;
-		return v;
+		return minValues[c];
 	}
 	
 	/**
@@ -220,10 +324,71 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the maximum value in this branch, or NaN.
 	 */
 	public double getMaximum(FlightDataType type) {
-		Double v = maxValues.get(type);
-		if (v == null)
+		int c = findColumn(type);
+		if (c < 0)
 			return Double.NaN;
-		return v;
+		return maxValues[c];
+	}
+	
+	
+	/**
+	 * Return the column index of the given type, or -1 if the type is not present.
+	 * Types are equal by name, so a type instance not seen before is matched against
+	 * the existing columns and its ordinal is mapped to the matching column.
+	 */
+	private int findColumn(FlightDataType type) {
+		int ordinal = type.getOrdinal();
+		if (ordinal < columnIndex.length && columnIndex[ordinal] > 0) {
+			return columnIndex[ordinal] - 1;
+		}
+		for (int c = 0; c < types.length; c++) {
+			if (types[c].equals(type)) {
+				mapOrdinal(ordinal, c);
+				return c;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Add a new column for the given type with all existing values set to NaN.
+	 * 
+	 * @return	the index of the new column.
+	 */
+	private int addColumn(FlightDataType type) {
+		int c = types.length;
+		types = Arrays.copyOf(types, c + 1);
+		types[c] = type;
+		columns = Arrays.copyOf(columns, c + 1);
+		columns[c] = newColumn(null);
+		minValues = Arrays.copyOf(minValues, c + 1);
+		minValues[c] = Double.NaN;
+		maxValues = Arrays.copyOf(maxValues, c + 1);
+		maxValues[c] = Double.NaN;
+		mapOrdinal(type.getOrdinal(), c);
+		return c;
+	}
+	
+	private void mapOrdinal(int ordinal, int column) {
+		if (ordinal >= columnIndex.length) {
+			columnIndex = Arrays.copyOf(columnIndex, Math.max(ordinal + 1, 2 * columnIndex.length));
+		}
+		columnIndex[ordinal] = column + 1;
+	}
+	
+	/**
+	 * Return a column array of the current capacity containing the values of the
+	 * given column, with the remaining values set to NaN.
+	 */
+	private double[] newColumn(double[] old) {
+		double[] array = new double[capacity];
+		int n = 0;
+		if (old != null) {
+			n = Math.min(old.length, capacity);
+			System.arraycopy(old, 0, array, 0, n);
+		}
+		Arrays.fill(array, n, capacity, Double.NaN);
+		return array;
 	}
 	
 	
@@ -344,4 +509,31 @@ public class FlightDataBranch implements Monitorable {
 		return modID;
 	}
 	
+	
+	/**
+	 * An unmodifiable list view of the first values of a column.
+	 */
+	private static class ColumnView extends AbstractList<Double> implements RandomAccess {
+		private final double[] values;
+		private final int size;
+		
+		public ColumnView(double[] values, int size) {
+			this.values = values;
+			this.size = size;
+		}
+		
+		@Override
+		public Double get(int index) {
+			if (index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return values[index];
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+	
 }
@@ -36,6 +36,9 @@ public class FlightDataType implements Comparable<FlightDataType> {
 	/** NOTE: The String key here is now the symbol */
 	private static final Map<String, FlightDataType> EXISTING_TYPES = new HashMap<String, FlightDataType>();
 	
+	/** Ordinal of the next created type.  MUST BE DEFINED BEFORE ANY TYPES!! */
+	private static int nextOrdinal = 0;
+	
 	
 	//// Time
 	public static final FlightDataType TYPE_TIME = newType(trans.get("FlightDataType.TYPE_TIME"), "t", UnitGroup.UNITS_FLIGHT_TIME, 1);
@@ -340,6 +343,7 @@ public class FlightDataType implements Comparable<FlightDataType> {
 	private final UnitGroup units;
 	private final int priority;
 	private final int hashCode;
+	private final int ordinal;
 	
 	
 	private FlightDataType(String typeName, String symbol, UnitGroup units, int priority) {
@@ -352,6 +356,7 @@ public class FlightDataType implements Comparable<FlightDataType> {
 		this.units = units;
 		this.priority = priority;
 		this.hashCode = this.name.toLowerCase(Locale.ENGLISH).hashCode();
+		this.ordinal = nextOrdinal++;
 	}
 	
 	/*
@@ -372,6 +377,18 @@ public class FlightDataType implements Comparable<FlightDataType> {
 		return units;
 	}
 	
+	/**
+	 * Return the ordinal of this type.  Each created type instance is assigned a
+	 * unique, dense ordinal starting from zero in creation order, which can be used
+	 * for indexing arrays by type.  Note that types are equal by name, so two equal
+	 * types may have different ordinals if a type has been redefined.
+	 * 
+	 * @return	the ordinal of this type instance.
+	 */
+	public int getOrdinal() {
+		return ordinal;
+	}
+	
 	@Override
 	public String toString() {
 		return name; //+" ("+symbol+") "+units.getDefaultUnit().toString();
@@ -82,9 +82,32 @@ public class RK4SimulationStatus extends SimulationStatus implements Cloneable {
 		this.startWarningTime = startWarningTime;
 	}
 	
+	@Override
+	public RK4SimulationStatus fork() {
+		RK4SimulationStatus fork = new RK4SimulationStatus(this);
+		fork.initFork(this);
+		return fork;
+	}
+	
 	@Override
 	public RK4SimulationStatus clone() {
 		return (RK4SimulationStatus) super.clone();
 	}
+
+	/**
+	 * Copy the state of another RK4 status into this object without allocating.
+	 * This object must be a clone of <code>other</code>.
+	 *
+	 * @param other		the status from which to copy the state.
+	 * @see SimulationStatus#copyFrom(SimulationStatus)
+	 */
+	public void copyFrom(RK4SimulationStatus other) {
+		super.copyFrom(other);
+		this.launchRodDirection = other.launchRodDirection;
+		this.previousAcceleration = other.previousAcceleration;
+		this.previousAtmosphericConditions = other.previousAtmosphericConditions;
+		this.maxZVelocity = other.maxZVelocity;
+		this.startWarningTime = other.startWarningTime;
+	}
 	
 }
@@ -57,12 +57,87 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	private static final double MAX_ROLL_RATE_CHANGE = 2 * Math.PI / 180;
 	private static final double MAX_PITCH_CHANGE = 4 * Math.PI / 180;
 	
-	private static final double MIN_TIME_STEP = 0.001;
+	static final double MIN_TIME_STEP = 0.001;
+	
+	
+	/*
+	 * Layout of the primitive state vector used by the buffer-reusing integration:
+	 * position, velocity, orientation quaternion (w, x, y, z) and rotation velocity.
+	 */
+	private static final int POSITION = 0;
+	private static final int VELOCITY = 3;
+	private static final int ORIENTATION = 6;
+	private static final int ROTATION_VELOCITY = 10;
+	private static final int STATE_SIZE = 13;
+	
+	/*
+	 * Layout of the derivative buffers:  linear acceleration, velocity, rotational
+	 * acceleration and rotation velocity.
+	 */
+	static final int D_ACCELERATION = 0;
+	static final int D_VELOCITY = 3;
+	static final int D_ROTATION_ACCELERATION = 6;
+	static final int D_ROTATION_VELOCITY = 9;
+	static final int DERIVATIVE_SIZE = 12;
 	
 	
 	private Random random;
 	
+	/** Whether to integrate using the reusable state vector and scratch buffers. */
+	private final boolean reuseBuffers;
 	
+	// Scratch buffers owned by the stepper, used only when reuseBuffers is set
+	private final double[] state;
+	private final double[][] k;
+	private final double[] quaternion;
+	private final double[] dt = new double[8];
+	private final DataStore scratchStore;
+	private final AtmosphericConditions scratchAtmosphere;
+	private RK4SimulationStatus scratchStatus;
+	private RK4SimulationStatus scratchOwner;
+	
+	
+	/**
+	 * Construct a stepper that allocates new intermediate objects on every step.
+	 */
+	public RK4SimulationStepper() {
+		this(false);
+	}
+	
+	/**
+	 * Construct a stepper, optionally using the buffer-reusing integration mode.
+	 * <p>
+	 * In the buffer-reusing mode the rigid-body state is kept in a primitive state
+	 * vector, and the RK4 sub-steps are evaluated using a single intermediate status
+	 * and data store owned by the stepper instead of cloning the status for each
+	 * sub-step.  The orientation is rotated in the primitive buffers without the
+	 * intermediate quaternions of the default mode.  The position, velocity,
+	 * orientation and rotation velocity stored in the statuses are immutable
+	 * {@link Coordinate} and {@link Quaternion} objects, so one of each is still
+	 * allocated per sub-step.  The computation is the same as in the default mode,
+	 * so the resulting flight data is identical.  The atmospheric conditions are
+	 * computed into a single object owned by the stepper.  Simulation listeners must
+	 * not keep references to the intermediate status objects passed to them during
+	 * sub-steps, nor to the atmospheric conditions of the flight conditions.
+	 * 
+	 * @param reuseBuffers	whether to integrate using reusable buffers.
+	 */
+	public RK4SimulationStepper(boolean reuseBuffers) {
+		this.reuseBuffers = reuseBuffers;
+		if (reuseBuffers) {
+			state = new double[STATE_SIZE];
+			k = new double[4][DERIVATIVE_SIZE];
+			quaternion = new double[4];
+			scratchStore = new DataStore();
+			scratchAtmosphere = new AtmosphericConditions();
+		} else {
+			state = null;
+			k = null;
+			quaternion = null;
+			scratchStore = null;
+			scratchAtmosphere = null;
+		}
+	}
 	
 	
 	@Override
@@ -92,6 +167,16 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	public void step(SimulationStatus simulationStatus, double maxTimeStep) throws SimulationException {
 		
 		RK4SimulationStatus status = (RK4SimulationStatus) simulationStatus;
+		if (reuseBuffers) {
+			stepReusingBuffers(status, maxTimeStep);
+		} else {
+			stepAllocating(status, maxTimeStep);
+		}
+	}
+	
+	
+	private void stepAllocating(RK4SimulationStatus status, double maxTimeStep) throws SimulationException {
+		
 		DataStore store = new DataStore();
 		
 		////////  Perform RK4 integration:  ////////
@@ -122,84 +207,8 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 		k1 = computeParameters(status, store);
 		
-		/*
-		 * Select the actual time step to use.  It is the minimum of the following:
-		 *  dt[0]:  the user-specified time step (or 1/5th of it if still on the launch rod)
-		 *  dt[1]:  the value of maxTimeStep
-		 *  dt[2]:  the maximum pitch step angle limit
-		 *  dt[3]:  the maximum roll step angle limit
-		 *  dt[4]:  the maximum roll rate change limit
-		 *  dt[5]:  the maximum pitch change limit
-		 *  dt[6]:  1/10th of the launch rod length if still on the launch rod
-		 *  dt[7]:  1.50 times the previous time step
-		 * 
-		 * The limits #5 and #6 are required since near the steady-state roll rate the roll rate
-		 * may oscillate significantly even between the sub-steps of the RK4 integration.
-		 * 
-		 * The step is still at least 1/20th of the user-selected time step.
-		 */
-		double[] dt = new double[8];
-		Arrays.fill(dt, Double.MAX_VALUE);
-
-		// If the user selected a really small timestep, use MIN_TIME_STEP instead.
-		dt[0] = MathUtil.max(status.getSimulationConditions().getTimeStep(),MIN_TIME_STEP);
-		dt[1] = maxTimeStep;
-		dt[2] = status.getSimulationConditions().getMaximumAngleStep() / store.lateralPitchRate;
-		dt[3] = Math.abs(MAX_ROLL_STEP_ANGLE / store.flightConditions.getRollRate());
-		dt[4] = Math.abs(MAX_ROLL_RATE_CHANGE / store.rollAcceleration);
-		dt[5] = Math.abs(MAX_PITCH_CHANGE / store.lateralPitchAcceleration);
-		if (!status.isLaunchRodCleared()) {
-			dt[0] /= 5.0;
-			dt[6] = status.getSimulationConditions().getLaunchRodLength() / k1.v.length() / 10;
-		}
-		dt[7] = 1.5 * status.getPreviousTimeStep();
-		
-		store.timestep = Double.MAX_VALUE;
-		int limitingValue = -1;
-		for (int i = 0; i < dt.length; i++) {
-			if (dt[i] < store.timestep) {
-				store.timestep = dt[i];
-				limitingValue = i;
-			}
-		}
-
-		double minTimeStep = status.getSimulationConditions().getTimeStep() / 20;
-		if (store.timestep < minTimeStep) {
-			log.trace("Too small time step " + store.timestep + " (limiting factor " + limitingValue + "), using " +
-					minTimeStep + " instead.");
-			store.timestep = minTimeStep;
-		} else {
-			log.trace("Selected time step " + store.timestep + " (limiting factor " + limitingValue + ")");
-		}
-		checkNaN(store.timestep);
-		
-		/*
-		 * Compute the correct thrust for this time step.  If the original thrust estimate differs more
-		 * than 10% from the true value then recompute the RK4 step 1.  The 10% error in step 1 is
-		 * diminished by it affecting only 1/6th of the total, so it's an acceptable error.
-		 */
-		double thrustEstimate = store.thrustForce;
-		store.thrustForce = calculateThrust(status, store.timestep, store.longitudinalAcceleration,
-				store.atmosphericConditions, true);
-		double thrustDiff = Math.abs(store.thrustForce - thrustEstimate);
-		// Log if difference over 1%, recompute if over 10%
-		if (thrustDiff > 0.01 * thrustEstimate) {
-			if (thrustDiff > 0.1 * thrustEstimate + 0.001) {
-				log.debug("Thrust estimate differs from correct value by " +
-						(Math.rint(1000 * (thrustDiff + 0.000001) / thrustEstimate) / 10.0) + "%," +
-						" estimate=" + thrustEstimate +
-						" correct=" + store.thrustForce +
-						" timestep=" + store.timestep +
-						", recomputing k1 parameters");
-				k1 = computeParameters(status, store);
-			} else {
-				log.trace("Thrust estimate differs from correct value by " +
-						(Math.rint(1000 * (thrustDiff + 0.000001) / thrustEstimate) / 10.0) + "%," +
-						" estimate=" + thrustEstimate +
-						" correct=" + store.thrustForce +
-						" timestep=" + store.timestep +
-						", error acceptable");
-			}
+		if (selectTimeStep(status, store, new double[8], maxTimeStep)) {
+			k1 = computeParameters(status, store);
 		}
 		
 		// Store data
@@ -280,6 +289,327 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 
 
 
+	/**
+	 * Perform the same RK4 integration as {@link #stepAllocating(RK4SimulationStatus, double)},
+	 * keeping the rigid-body state and the RK4 derivatives in the primitive buffers owned
+	 * by this stepper and evaluating the sub-steps using a single reused intermediate status.
+	 * The state values set on the statuses are still allocated for each sub-step.
+	 */
+	private void stepReusingBuffers(RK4SimulationStatus status, double maxTimeStep) throws SimulationException {
+		
+		DataStore store = scratchStore;
+		store.reset();
+		
+		store.timestep = status.getPreviousTimeStep();
+		store.timestep = MathUtil.max(MathUtil.min(store.timestep, maxTimeStep), MIN_TIME_STEP);
+		checkNaN(store.timestep);
+		
+		store.thrustForce = calculateThrust(status, store.timestep, status.getPreviousAcceleration(),
+				status.getPreviousAtmosphericConditions(), false);
+		
+		loadState(status);
+		
+		//// First position, k1 = f(t, y)
+		
+		computeParameters(status, store, k[0]);
+		
+		if (selectTimeStep(status, store, dt, maxTimeStep)) {
+			computeParameters(status, store, k[0]);
+		}
+		
+		storeData(status, store);
+		
+		final double h = store.timestep;
+		final double t = status.getSimulationTime();
+		
+		//// Second position, k2 = f(t + h/2, y + k1*h/2)
+		
+		RK4SimulationStatus status2 = prepareSubStep(status, k[0], t + h / 2, h / 2);
+		computeParameters(status2, store, k[1]);
+		
+		//// Third position, k3 = f(t + h/2, y + k2*h/2)
+		
+		status2 = prepareSubStep(status, k[1], t + h / 2, h / 2);
+		computeParameters(status2, store, k[2]);
+		
+		//// Fourth position, k4 = f(t + h, y + k3*h)
+		
+		status2 = prepareSubStep(status, k[2], t + h, h);
+		computeParameters(status2, store, k[3]);
+		
+		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
+		
+		final double h6 = h / 6;
+		final double[] k1 = k[0], k2 = k[1], k3 = k[2], k4 = k[3];
+		for (int i = 0; i < DERIVATIVE_SIZE; i++) {
+			k1[i] = ((k2[i] + k3[i]) * 2 + k1[i] + k4[i]) * h6;
+		}
+		
+		advanceState(status, k1, 1.0, h);
+	}
+	
+	
+	/**
+	 * Advance the status by the state change <code>d*scale</code> and the simulation time
+	 * by <code>timeStep</code>.  The primitive state vector must contain the state of the
+	 * status, as loaded by {@link #loadState(SimulationStatus)}.
+	 * 
+	 * @param status	the status to advance.
+	 * @param d			the state change, in the layout of the derivative buffers.
+	 * @param scale		the factor by which to multiply the state change.
+	 * @param timeStep	the length of the time step taken.
+	 * @throws SimulationException	if the values run out of range.
+	 */
+	void advanceState(RK4SimulationStatus status, double[] d, double scale, double timeStep)
+			throws SimulationException {
+		
+		status.setRocketVelocity(status.getRocketVelocity().add(
+				d[D_ACCELERATION] * scale, d[D_ACCELERATION + 1] * scale, d[D_ACCELERATION + 2] * scale));
+		status.setRocketPosition(status.getRocketPosition().add(
+				d[D_VELOCITY] * scale, d[D_VELOCITY + 1] * scale, d[D_VELOCITY + 2] * scale));
+		status.setRocketRotationVelocity(status.getRocketRotationVelocity().add(
+				d[D_ROTATION_ACCELERATION] * scale, d[D_ROTATION_ACCELERATION + 1] * scale,
+				d[D_ROTATION_ACCELERATION + 2] * scale));
+		rotate(state, ORIENTATION, d, D_ROTATION_VELOCITY, scale, quaternion);
+		status.setRocketOrientationQuaternion(new Quaternion(quaternion[0], quaternion[1], quaternion[2], quaternion[3])
+				.normalizeIfNecessary());
+		
+		WorldCoordinate w = status.getSimulationConditions().getLaunchSite();
+		w = status.getSimulationConditions().getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
+		status.setRocketWorldPosition(w);
+		
+		status.setSimulationTime(status.getSimulationTime() + timeStep);
+		
+		status.setPreviousTimeStep(timeStep);
+		
+		// Verify that values don't run out of range
+		if (status.getRocketVelocity().length2() > 1e18 ||
+				status.getRocketPosition().length2() > 1e18 ||
+				status.getRocketRotationVelocity().length2() > 1e18) {
+			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"));
+		}
+	}
+	
+	
+	/**
+	 * Load the rigid-body state of the status into the primitive state vector.
+	 */
+	void loadState(SimulationStatus status) {
+		Coordinate c = status.getRocketPosition();
+		state[POSITION] = c.x;
+		state[POSITION + 1] = c.y;
+		state[POSITION + 2] = c.z;
+		c = status.getRocketVelocity();
+		state[VELOCITY] = c.x;
+		state[VELOCITY + 1] = c.y;
+		state[VELOCITY + 2] = c.z;
+		Quaternion q = status.getRocketOrientationQuaternion();
+		state[ORIENTATION] = q.getW();
+		state[ORIENTATION + 1] = q.getX();
+		state[ORIENTATION + 2] = q.getY();
+		state[ORIENTATION + 3] = q.getZ();
+		c = status.getRocketRotationVelocity();
+		state[ROTATION_VELOCITY] = c.x;
+		state[ROTATION_VELOCITY + 1] = c.y;
+		state[ROTATION_VELOCITY + 2] = c.z;
+	}
+	
+	
+	/**
+	 * Set up the reused intermediate status for an RK4 sub-step at state y + d*h.
+	 * 
+	 * @param status	the status at the beginning of the step.
+	 * @param d			the derivatives with which to advance the state.
+	 * @param time		the simulation time of the sub-step.
+	 * @param h			the length of the sub-step.
+	 * @return			the intermediate status.
+	 */
+	RK4SimulationStatus prepareSubStep(RK4SimulationStatus status, double[] d, double time, double h) {
+		if (scratchOwner != status) {
+			scratchStatus = status.clone();
+			scratchOwner = status;
+		} else {
+			scratchStatus.copyFrom(status);
+		}
+		
+		RK4SimulationStatus status2 = scratchStatus;
+		status2.setSimulationTime(time);
+		status2.setRocketPosition(status.getRocketPosition().add(
+				d[D_VELOCITY] * h, d[D_VELOCITY + 1] * h, d[D_VELOCITY + 2] * h));
+		status2.setRocketVelocity(status.getRocketVelocity().add(
+				d[D_ACCELERATION] * h, d[D_ACCELERATION + 1] * h, d[D_ACCELERATION + 2] * h));
+		rotate(state, ORIENTATION, d, D_ROTATION_VELOCITY, h, quaternion);
+		status2.setRocketOrientationQuaternion(new Quaternion(quaternion[0], quaternion[1], quaternion[2], quaternion[3]));
+		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(
+				d[D_ROTATION_ACCELERATION] * h, d[D_ROTATION_ACCELERATION + 1] * h, d[D_ROTATION_ACCELERATION + 2] * h));
+		return status2;
+	}
+	
+	
+	/**
+	 * Rotate the orientation quaternion <code>q</code> by the rotation vector <code>r*h</code>.
+	 * This computes <code>Quaternion.rotation(r*h).multiplyRight(q)</code> into <code>result</code>
+	 * without allocating intermediate objects.
+	 */
+	private static void rotate(double[] q, int qOffset, double[] r, int rOffset, double h, double[] result) {
+		double rx = r[rOffset] * h;
+		double ry = r[rOffset + 1] * h;
+		double rz = r[rOffset + 2] * h;
+		
+		double a, b, c, d;
+		double length = MathUtil.safeSqrt(rx * rx + ry * ry + rz * rz);
+		if (length < 0.000001) {
+			a = 1;
+			b = 0;
+			c = 0;
+			d = 0;
+		} else {
+			double sin = Math.sin(length / 2);
+			a = Math.cos(length / 2);
+			b = sin * rx / length;
+			c = sin * ry / length;
+			d = sin * rz / length;
+		}
+		
+		double w = q[qOffset];
+		double x = q[qOffset + 1];
+		double y = q[qOffset + 2];
+		double z = q[qOffset + 3];
+		result[0] = (a * w - b * x - c * y - d * z);
+		result[1] = (a * x + b * w + c * z - d * y);
+		result[2] = (a * y + c * w + d * x - b * z);
+		result[3] = (a * z + d * w + b * y - c * x);
+	}
+	
+	
+	/**
+	 * Select the time step to use after the first RK4 position has been computed,
+	 * and compute the correct thrust for the selected time step.  The result is
+	 * stored in the data store.
+	 * 
+	 * @param status		the current simulation status.
+	 * @param store			the data store containing the results of the first position.
+	 * @param dt			a buffer of length 8 for the time step limits.
+	 * @param maxTimeStep	the maximum time step to take.
+	 * @return				whether the thrust estimate was off and the first position needs to be recomputed.
+	 */
+	private boolean selectTimeStep(RK4SimulationStatus status, DataStore store, double[] dt, double maxTimeStep)
+			throws SimulationException {
+		
+		/*
+		 * Select the actual time step to use.  It is the minimum of the following:
+		 *  dt[0]:  the user-specified time step (or 1/5th of it if still on the launch rod)
+		 *  dt[1]:  the value of maxTimeStep
+		 *  dt[2]:  the maximum pitch step angle limit
+		 *  dt[3]:  the maximum roll step angle limit
+		 *  dt[4]:  the maximum roll rate change limit
+		 *  dt[5]:  the maximum pitch change limit
+		 *  dt[6]:  1/10th of the launch rod length if still on the launch rod
+		 *  dt[7]:  1.50 times the previous time step
+		 * 
+		 * The limits #5 and #6 are required since near the steady-state roll rate the roll rate
+		 * may oscillate significantly even between the sub-steps of the RK4 integration.
+		 * 
+		 * The step is still at least 1/20th of the user-selected time step.
+		 */
+		Arrays.fill(dt, Double.MAX_VALUE);
+
+		// If the user selected a really small timestep, use MIN_TIME_STEP instead.
+		dt[0] = MathUtil.max(status.getSimulationConditions().getTimeStep(),MIN_TIME_STEP);
+		dt[1] = maxTimeStep;
+		dt[2] = status.getSimulationConditions().getMaximumAngleStep() / store.lateralPitchRate;
+		dt[3] = Math.abs(MAX_ROLL_STEP_ANGLE / store.flightConditions.getRollRate());
+		dt[4] = Math.abs(MAX_ROLL_RATE_CHANGE / store.rollAcceleration);
+		dt[5] = Math.abs(MAX_PITCH_CHANGE / store.lateralPitchAcceleration);
+		if (!status.isLaunchRodCleared()) {
+			dt[0] /= 5.0;
+			dt[6] = status.getSimulationConditions().getLaunchRodLength() / status.getRocketVelocity().length() / 10;
+		}
+		dt[7] = 1.5 * status.getPreviousTimeStep();
+		
+		store.timestep = Double.MAX_VALUE;
+		int limitingValue = -1;
+		for (int i = 0; i < dt.length; i++) {
+			if (dt[i] < store.timestep) {
+				store.timestep = dt[i];
+				limitingValue = i;
+			}
+		}
+
+		double minTimeStep = status.getSimulationConditions().getTimeStep() / 20;
+		if (store.timestep < minTimeStep) {
+			log.trace("Too small time step " + store.timestep + " (limiting factor " + limitingValue + "), using " +
+					minTimeStep + " instead.");
+			store.timestep = minTimeStep;
+		} else {
+			log.trace("Selected time step " + store.timestep + " (limiting factor " + limitingValue + ")");
+		}
+		checkNaN(store.timestep);
+		
+		/*
+		 * Compute the correct thrust for this time step.  If the original thrust estimate differs more
+		 * than 10% from the true value then recompute the RK4 step 1.  The 10% error in step 1 is
+		 * diminished by it affecting only 1/6th of the total, so it's an acceptable error.
+		 */
+		double thrustEstimate = store.thrustForce;
+		store.thrustForce = calculateThrust(status, store.timestep, store.longitudinalAcceleration,
+				store.atmosphericConditions, true);
+		double thrustDiff = Math.abs(store.thrustForce - thrustEstimate);
+		// Log if difference over 1%, recompute if over 10%
+		if (thrustDiff > 0.01 * thrustEstimate) {
+			if (thrustDiff > 0.1 * thrustEstimate + 0.001) {
+				log.debug("Thrust estimate differs from correct value by " +
+						(Math.rint(1000 * (thrustDiff + 0.000001) / thrustEstimate) / 10.0) + "%," +
+						" estimate=" + thrustEstimate +
+						" correct=" + store.thrustForce +
+						" timestep=" + store.timestep +
+						", recomputing k1 parameters");
+				return true;
+			} else {
+				log.trace("Thrust estimate differs from correct value by " +
+						(Math.rint(1000 * (thrustDiff + 0.000001) / thrustEstimate) / 10.0) + "%," +
+						" estimate=" + thrustEstimate +
+						" correct=" + store.thrustForce +
+						" timestep=" + store.timestep +
+						", error acceptable");
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Compute the RK4 derivatives at the given status into a primitive buffer.
+	 */
+	void computeParameters(RK4SimulationStatus status, DataStore dataStore, double[] d)
+			throws SimulationException {
+		
+		calculateAcceleration(status, dataStore);
+		Coordinate a = dataStore.linearAcceleration;
+		Coordinate ra = dataStore.angularAcceleration;
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		
+		checkNaN(a);
+		checkNaN(ra);
+		checkNaN(v);
+		checkNaN(rv);
+		
+		d[D_ACCELERATION] = a.x;
+		d[D_ACCELERATION + 1] = a.y;
+		d[D_ACCELERATION + 2] = a.z;
+		d[D_VELOCITY] = v.x;
+		d[D_VELOCITY + 1] = v.y;
+		d[D_VELOCITY + 2] = v.z;
+		d[D_ROTATION_ACCELERATION] = ra.x;
+		d[D_ROTATION_ACCELERATION + 1] = ra.y;
+		d[D_ROTATION_ACCELERATION + 2] = ra.z;
+		d[D_ROTATION_VELOCITY] = rv.x;
+		d[D_ROTATION_VELOCITY + 1] = rv.y;
+		d[D_ROTATION_VELOCITY + 2] = rv.z;
+	}
+	
+	
 	private RK4Parameters computeParameters(RK4SimulationStatus status, DataStore dataStore)
 			throws SimulationException {
 		RK4Parameters params = new RK4Parameters();
@@ -440,8 +770,10 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 
 		// Calculate aerodynamic forces
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.AERODYNAMICS);
 		store.forces = status.getSimulationConditions().getAerodynamicCalculator()
 				.getAerodynamicForces(status.getConfiguration(), store.flightConditions, warnings);
+		SimulationProfile.exit(profile);
 		
 
 		// Add very small randomization to yaw & pitch moments to prevent over-perfect flight
@@ -478,8 +810,10 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 
 
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.FLIGHT_CONDITIONS);
+		
 		//// Atmospheric conditions
-		AtmosphericConditions atmosphere = modelAtmosphericConditions(status);
+		AtmosphericConditions atmosphere = modelAtmosphericConditions(status, scratchAtmosphere);
 		store.flightConditions = new FlightConditions(status.getConfiguration());
 		store.flightConditions.setAtmosphericConditions(atmosphere);
 		
@@ -527,6 +861,8 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 			store.lateralPitchRate = MathUtil.hypot(rot.x, rot.y);
 		}
 		
+		SimulationProfile.exit(profile);
+		
 
 		// Call post listeners
 		FlightConditions c = SimulationListenerHelper.firePostFlightConditions(
@@ -542,8 +878,9 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 	
 
-	private void storeData(RK4SimulationStatus status, DataStore store) {
+	void storeData(RK4SimulationStatus status, DataStore store) {
 		
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.DATA_STORAGE);
 		FlightDataBranch data = status.getFlightData();
 		boolean extra = status.getSimulationConditions().isCalculateExtras();
 		
@@ -678,6 +1015,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		data.setValue(FlightDataType.TYPE_TIME_STEP, store.timestep);
 		data.setValue(FlightDataType.TYPE_COMPUTATION_TIME,
 				(System.nanoTime() - status.getSimulationStartWallTime()) / 1000000000.0);
+		SimulationProfile.exit(profile);
 	}
 	
 	
@@ -694,7 +1032,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		public Coordinate rv;
 	}
 	
-	private static class DataStore {
+	static class DataStore {
 		public double timestep = Double.NaN;
 		
 		public AccelerationData accelerationData;
@@ -725,6 +1063,30 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		
 		public Rotation2D thetaRotation;
 		
+		/**
+		 * Reset all values to their initial state so the object can be reused for a new step.
+		 */
+		public void reset() {
+			timestep = Double.NaN;
+			accelerationData = null;
+			atmosphericConditions = null;
+			flightConditions = null;
+			longitudinalAcceleration = Double.NaN;
+			massData = null;
+			coriolisAcceleration = null;
+			linearAcceleration = null;
+			angularAcceleration = null;
+			forces = null;
+			windSpeed = Double.NaN;
+			gravity = Double.NaN;
+			thrustForce = Double.NaN;
+			dragForce = Double.NaN;
+			lateralPitchRate = Double.NaN;
+			rollAcceleration = Double.NaN;
+			lateralPitchAcceleration = Double.NaN;
+			thetaRotation = null;
+		}
+		
 	}
 	
 }
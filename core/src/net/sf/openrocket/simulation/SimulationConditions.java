@@ -2,6 +2,7 @@ package net.sf.openrocket.simulation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
 import net.sf.openrocket.document.Simulation;
@@ -64,12 +65,24 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	/* Whether to calculate additional data or only primary simulation figures */
 	private boolean calculateExtras = true;
 	
+	/* Whether the RK4 stepper integrates using its reusable state vector and scratch buffers */
+	private boolean reuseIntegrationBuffers = false;
+	
+	/* The stepper used for the free flight phase */
+	private Class<? extends SimulationStepper> simulationStepperClass = RK4SimulationStepper.class;
+	
+	/* Executor simulating the branches of separated boosters, or null to simulate them in sequence */
+	private Executor branchExecutor = null;
+	
 	
 	private List<SimulationListener> simulationListeners = new ArrayList<SimulationListener>();
 	
 	
 	private int randomSeed = 0;
 	
+	/** Profile of the simulation run, or null if not profiling */
+	private SimulationProfile profile = null;
+	
 	private int modID = 0;
 	private int modIDadd = 0;
 	
@@ -281,6 +294,74 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	
 	
 	
+	/**
+	 * Return whether the flight is integrated using a reusable primitive state vector
+	 * and scratch buffers owned by the stepper instead of allocating new intermediate
+	 * status objects on every step.
+	 * 
+	 * @return	whether to integrate using reusable buffers.
+	 * @see RK4SimulationStepper#RK4SimulationStepper(boolean)
+	 */
+	public boolean isReuseIntegrationBuffers() {
+		return reuseIntegrationBuffers;
+	}
+	
+	
+	public void setReuseIntegrationBuffers(boolean reuseIntegrationBuffers) {
+		this.reuseIntegrationBuffers = reuseIntegrationBuffers;
+		this.modID++;
+	}
+	
+	
+	/**
+	 * Return the class of the simulation stepper used for the free flight phase.
+	 * The class must have a public no-argument constructor.
+	 * 
+	 * @return	the flight stepper class.
+	 */
+	public Class<? extends SimulationStepper> getSimulationStepperClass() {
+		return simulationStepperClass;
+	}
+	
+	
+	public void setSimulationStepperClass(Class<? extends SimulationStepper> simulationStepperClass) {
+		this.simulationStepperClass = simulationStepperClass;
+		this.modID++;
+	}
+	
+	
+	
+	/**
+	 * Return the executor on which the branches of separated boosters are simulated,
+	 * or <code>null</code> if the branches are simulated in sequence after the main branch.
+	 * 
+	 * @return	the executor for the booster branches, or <code>null</code>.
+	 */
+	public Executor getBranchExecutor() {
+		return branchExecutor;
+	}
+	
+	
+	/**
+	 * Set the executor on which the branches of separated boosters are simulated.
+	 * Each booster is simulated on an independent copy of the rocket as soon as it
+	 * separates, concurrently with the rest of the flight.  The resulting branches are
+	 * stored in the flight data in the same order as when simulated in sequence.  Branches
+	 * that have not been started by the executor when they are needed are simulated in
+	 * the calling thread, so the executor may be shared with the simulations themselves.
+	 * If any simulation listener is not a system listener the branches are simulated in
+	 * sequence, since such listeners may share state between their clones.
+	 * 
+	 * @param branchExecutor	the executor for the booster branches, or <code>null</code>
+	 * 							to simulate the branches in sequence.
+	 */
+	public void setBranchExecutor(Executor branchExecutor) {
+		this.branchExecutor = branchExecutor;
+		this.modID++;
+	}
+	
+	
+	
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -291,6 +372,28 @@ public class SimulationConditions implements Monitorable, Cloneable {
 		this.modID++;
 	}
 	
+	/**
+	 * Return the profile recording the execution statistics of the simulation run,
+	 * or <code>null</code> if the run is not profiled.
+	 * 
+	 * @return	the simulation profile, or <code>null</code>.
+	 */
+	public SimulationProfile getProfile() {
+		return profile;
+	}
+	
+	
+	/**
+	 * Set the profile used to record the execution statistics of the simulation run.
+	 * The profile is started and stopped by the simulation engine.
+	 * 
+	 * @param profile	the profile to record to, or <code>null</code> to disable profiling.
+	 */
+	public void setProfile(SimulationProfile profile) {
+		this.profile = profile;
+	}
+	
+	
 	public void setSimulation(Simulation sim) {
 		this.simulation = sim;
 	}
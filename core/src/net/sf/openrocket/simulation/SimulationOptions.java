@@ -11,9 +11,11 @@ import net.sf.openrocket.formatting.MotorDescriptionSubstitutor;
 import net.sf.openrocket.masscalc.BasicMassCalculator;
 import net.sf.openrocket.models.atmosphere.AtmosphericModel;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
 import net.sf.openrocket.models.gravity.GravityModel;
 import net.sf.openrocket.models.gravity.WGSGravityModel;
 import net.sf.openrocket.models.wind.PinkNoiseWindModel;
+import net.sf.openrocket.models.wind.WindProfile;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.startup.Preferences;
@@ -66,6 +68,7 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	
 	private double windAverage = preferences.getDouble(Preferences.WIND_AVERAGE, 2.0);
 	private double windTurbulence = preferences.getDouble(Preferences.WIND_TURBULANCE, 0.1);
+	private WindProfile windProfile = null;
 	
 	/*
 	 * SimulationOptions maintains the launch site parameters as separate double values,
@@ -80,6 +83,7 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	private boolean useISA = preferences.getBoolean(Preferences.LAUNCH_USE_ISA, true);
 	private double launchTemperature = preferences.getDouble(Preferences.LAUNCH_TEMPERATURE, ExtendedISAModel.STANDARD_TEMPERATURE);
 	private double launchPressure = preferences.getDouble(Preferences.LAUNCH_PRESSURE, ExtendedISAModel.STANDARD_PRESSURE);
+	private SoundingAtmosphericModel soundingAtmosphere = null;
 	
 	private double timeStep = preferences.getDouble(Preferences.SIMULATION_TIME_STEP, RK4SimulationStepper.RECOMMENDED_TIME_STEP);
 	private double maximumAngle = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
@@ -240,6 +244,30 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		
 	}
 	
+	
+	/**
+	 * Return the altitude profile of the average wind, or <code>null</code> if the
+	 * average wind speed and direction are used at all altitudes.
+	 */
+	public WindProfile getWindProfile() {
+		return windProfile;
+	}
+	
+	/**
+	 * Set the altitude profile of the average wind.  When a profile is set, the average
+	 * wind speed and direction are taken from the profile, and the turbulence intensity
+	 * is applied to the profile speed.
+	 * 
+	 * @param profile	the wind profile, or <code>null</code> to use the average wind
+	 * 					speed and direction at all altitudes.
+	 */
+	public void setWindProfile(WindProfile profile) {
+		if (Utils.equals(this.windProfile, profile))
+			return;
+		this.windProfile = profile;
+		fireChangeEvent();
+	}
+	
 	public double getLaunchAltitude() {
 		return launchAltitude;
 	}
@@ -333,6 +361,28 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	}
 	
 	
+	/**
+	 * Return the measured sounding used as the atmospheric model, or <code>null</code>
+	 * if the atmosphere is defined by the ISA settings.
+	 */
+	public SoundingAtmosphericModel getSoundingAtmosphere() {
+		return soundingAtmosphere;
+	}
+	
+	/**
+	 * Set the measured sounding to use as the atmospheric model.  A sounding takes
+	 * precedence over the ISA settings.
+	 * 
+	 * @param sounding	the sounding, or <code>null</code> to use the ISA settings.
+	 */
+	public void setSoundingAtmosphere(SoundingAtmosphericModel sounding) {
+		if (Utils.equals(this.soundingAtmosphere, sounding))
+			return;
+		this.soundingAtmosphere = sounding;
+		fireChangeEvent();
+	}
+	
+	
 	/**
 	 * Returns an atmospheric model corresponding to the launch conditions.  The
 	 * atmospheric models may be shared between different calls.
@@ -340,6 +390,9 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	 * @return	an AtmosphericModel object.
 	 */
 	private AtmosphericModel getAtmosphericModel() {
+		if (soundingAtmosphere != null) {
+			return soundingAtmosphere;
+		}
 		if (useISA) {
 			return ISA_ATMOSPHERIC_MODEL;
 		}
@@ -468,11 +521,13 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		this.launchRodDirection = src.launchRodDirection;
 		this.launchRodLength = src.launchRodLength;
 		this.launchTemperature = src.launchTemperature;
+		this.soundingAtmosphere = src.soundingAtmosphere;
 		this.maximumAngle = src.maximumAngle;
 		this.timeStep = src.timeStep;
 		this.windAverage = src.windAverage;
 		this.windTurbulence = src.windTurbulence;
 		this.windDirection = src.windDirection;
+		this.windProfile = src.windProfile;
 		this.calculateExtras = src.calculateExtras;
 		this.randomSeed = src.randomSeed;
 		
@@ -515,6 +570,10 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.launchTemperature = src.launchTemperature;
 		}
+		if (!Utils.equals(this.soundingAtmosphere, src.soundingAtmosphere)) {
+			isChanged = true;
+			this.soundingAtmosphere = src.soundingAtmosphere;
+		}
 		if (this.maximumAngle != src.maximumAngle) {
 			isChanged = true;
 			this.maximumAngle = src.maximumAngle;
@@ -536,6 +595,10 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.windTurbulence = src.windTurbulence;
 		}
+		if (!Utils.equals(this.windProfile, src.windProfile)) {
+			isChanged = true;
+			this.windProfile = src.windProfile;
+		}
 		if (this.calculateExtras != src.calculateExtras) {
 			isChanged = true;
 			this.calculateExtras = src.calculateExtras;
@@ -569,11 +632,13 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 				MathUtil.equals(this.launchRodDirection, o.launchRodDirection) &&
 				MathUtil.equals(this.launchRodLength, o.launchRodLength) &&
 				MathUtil.equals(this.launchTemperature, o.launchTemperature) &&
+				Utils.equals(this.soundingAtmosphere, o.soundingAtmosphere) &&
 				MathUtil.equals(this.maximumAngle, o.maximumAngle) &&
 				MathUtil.equals(this.timeStep, o.timeStep) &&
 				MathUtil.equals(this.windAverage, o.windAverage) &&
 				MathUtil.equals(this.windTurbulence, o.windTurbulence) &&
 				MathUtil.equals(this.windDirection, o.windDirection) &&
+				Utils.equals(this.windProfile, o.windProfile) &&
 				this.calculateExtras == o.calculateExtras && this.randomSeed == o.randomSeed);
 	}
 	
@@ -628,6 +693,7 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		windModel.setAverage(getWindSpeedAverage());
 		windModel.setStandardDeviation(getWindSpeedDeviation());
 		windModel.setDirection(windDirection);
+		windModel.setProfile(windProfile);
 		
 		conditions.setWindModel(windModel);
 		
@@ -0,0 +1,285 @@
+package net.sf.openrocket.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import net.sf.openrocket.util.BugException;
+
+/**
+ * Per-phase execution statistics of a single simulation run.
+ * <p>
+ * The profile records for each {@link Phase} the cumulative wall-clock time,
+ * the number of times the phase was entered and an estimate of the bytes allocated
+ * by the simulation thread within it.  Phases may nest, for example listener calls
+ * within the atmospheric model, and each phase is charged only the time spent
+ * directly in it, so the values of all phases add up to the total run time.
+ * Anything not covered by a more specific phase, such as the integration itself
+ * and the recovery steppers, is charged to {@link Phase#OTHER}.
+ * <p>
+ * Profiling is enabled by setting a profile to the simulation conditions before the
+ * simulation is run, see {@link SimulationConditions#setProfile(SimulationProfile)} and
+ * {@link net.sf.openrocket.document.Simulation#setProfiling(boolean)}.  When no profile
+ * is set, the instrumentation points only perform a <code>null</code> check.
+ * The completed profile is available from {@link FlightData#getProfile()}.
+ * <p>
+ * The values are only meaningful for simulations that completed normally.
+ * This class is not thread-safe.
+ */
+public class SimulationProfile {
+	
+	/**
+	 * The phases of a simulation step that are measured separately.
+	 */
+	public enum Phase {
+		/** Atmospheric model */
+		ATMOSPHERE("Atmosphere"),
+		/** Wind model */
+		WIND("Wind"),
+		/** Gravity model */
+		GRAVITY("Gravity"),
+		/** Flight conditions, excluding the atmosphere and wind models */
+		FLIGHT_CONDITIONS("Flight conditions"),
+		/** Aerodynamic calculator */
+		AERODYNAMICS("Aerodynamics"),
+		/** Mass calculator */
+		MASS("Mass"),
+		/** Motor thrust */
+		THRUST("Thrust"),
+		/** Simulation listeners, including the listeners of simulation extensions */
+		LISTENERS("Listeners"),
+		/** Storing the flight data points */
+		DATA_STORAGE("Data storage"),
+		/** Flight event handling */
+		EVENTS("Events"),
+		/** Integration and anything not included in the other phases */
+		OTHER("Other");
+		
+		private final String name;
+		
+		private Phase(String name) {
+			this.name = name;
+		}
+		
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+	
+	private static final Phase[] PHASES = Phase.values();
+	
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN;
+	static {
+		com.sun.management.ThreadMXBean bean = null;
+		try {
+			java.lang.management.ThreadMXBean b = ManagementFactory.getThreadMXBean();
+			if (b instanceof com.sun.management.ThreadMXBean) {
+				bean = (com.sun.management.ThreadMXBean) b;
+				if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+					bean = null;
+				}
+			}
+		} catch (Throwable e) {
+			// Not available on this platform
+			bean = null;
+		}
+		THREAD_BEAN = bean;
+	}
+	
+	
+	private final long[] times = new long[PHASES.length];
+	private final long[] counts = new long[PHASES.length];
+	private final long[] allocations = new long[PHASES.length];
+	
+	private Phase[] stack = new Phase[8];
+	private int depth = 0;
+	
+	private long lastTime;
+	private long lastAllocation;
+	private long startTime;
+	private long totalTime = 0;
+	private boolean running = false;
+	
+	
+	/**
+	 * Start measuring.  All time until the first phase is entered is charged to
+	 * {@link Phase#OTHER}.
+	 */
+	public void start() {
+		if (running) {
+			throw new BugException("Profile already started");
+		}
+		running = true;
+		depth = 0;
+		stack[depth++] = Phase.OTHER;
+		counts[Phase.OTHER.ordinal()]++;
+		startTime = System.nanoTime();
+		lastTime = startTime;
+		lastAllocation = allocatedBytes();
+	}
+	
+	
+	/**
+	 * Stop measuring.  Any phases that have not been exited, for example due to an
+	 * exception, are closed.
+	 */
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		mark();
+		totalTime += lastTime - startTime;
+		depth = 0;
+		running = false;
+	}
+	
+	
+	/**
+	 * Enter a phase.  Each call must be matched by a call to {@link #exit()}.
+	 *
+	 * @param phase		the phase being entered.
+	 */
+	public void enter(Phase phase) {
+		if (!running) {
+			return;
+		}
+		mark();
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = phase;
+		counts[phase.ordinal()]++;
+	}
+	
+	
+	/**
+	 * Exit the phase entered last.
+	 */
+	public void exit() {
+		if (!running) {
+			return;
+		}
+		if (depth <= 1) {
+			throw new BugException("Profile phase exited without entering");
+		}
+		mark();
+		depth--;
+	}
+	
+	
+	/**
+	 * Exit all phases that have been entered, for example when an exception has
+	 * interrupted the simulation step.
+	 */
+	void unwind() {
+		if (!running) {
+			return;
+		}
+		mark();
+		depth = 1;
+	}
+	
+	
+	/**
+	 * Charge the time and memory since the last mark to the current phase.
+	 */
+	private void mark() {
+		long time = System.nanoTime();
+		long allocation = allocatedBytes();
+		int phase = stack[depth - 1].ordinal();
+		times[phase] += time - lastTime;
+		allocations[phase] += allocation - lastAllocation;
+		lastTime = time;
+		lastAllocation = allocation;
+	}
+	
+	
+	private static long allocatedBytes() {
+		if (THREAD_BEAN == null) {
+			return 0;
+		}
+		return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	
+	/**
+	 * Enter a phase if profiling is enabled in the simulation conditions of the status.
+	 *
+	 * @param status	the simulation status.
+	 * @param phase		the phase being entered.
+	 * @return			the profile that must be passed to {@link #exit(SimulationProfile)},
+	 * 					or <code>null</code> if profiling is not enabled.
+	 */
+	public static SimulationProfile enter(SimulationStatus status, Phase phase) {
+		SimulationProfile profile = status.getSimulationConditions().getProfile();
+		if (profile != null) {
+			profile.enter(phase);
+		}
+		return profile;
+	}
+	
+	
+	/**
+	 * Exit the phase entered by {@link #enter(SimulationStatus, Phase)}.
+	 *
+	 * @param profile	the profile returned by the enter method, may be <code>null</code>.
+	 */
+	public static void exit(SimulationProfile profile) {
+		if (profile != null) {
+			profile.exit();
+		}
+	}
+	
+	
+	
+	/**
+	 * Return the total time measured, in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+	
+	/**
+	 * Return the time spent in a phase, excluding nested phases, in nanoseconds.
+	 */
+	public long getTime(Phase phase) {
+		return times[phase.ordinal()];
+	}
+	
+	/**
+	 * Return the number of times a phase was entered.
+	 */
+	public long getCount(Phase phase) {
+		return counts[phase.ordinal()];
+	}
+	
+	/**
+	 * Return an estimate of the number of bytes allocated in a phase, excluding nested
+	 * phases, or -1 if allocation measurement is not supported by the JVM.
+	 */
+	public long getAllocatedBytes(Phase phase) {
+		if (!isAllocationSupported()) {
+			return -1;
+		}
+		return allocations[phase.ordinal()];
+	}
+	
+	/**
+	 * Return whether the JVM supports measuring the memory allocated by a thread.
+	 */
+	public static boolean isAllocationSupported() {
+		return THREAD_BEAN != null;
+	}
+	
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("SimulationProfile[total=" + (totalTime / 1000000) + "ms");
+		for (Phase phase : PHASES) {
+			sb.append(", ").append(phase).append("=").append(times[phase.ordinal()] / 1000000).append("ms/")
+					.append(counts[phase.ordinal()]);
+		}
+		sb.append("]");
+		return sb.toString();
+	}
+}
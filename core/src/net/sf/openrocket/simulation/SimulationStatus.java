@@ -1,17 +1,22 @@
 package net.sf.openrocket.simulation;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import net.sf.openrocket.aerodynamics.FlightConditions;
 import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.masscalc.AbstractMassCalculator;
 import net.sf.openrocket.motor.MotorId;
 import net.sf.openrocket.motor.MotorInstanceConfiguration;
 import net.sf.openrocket.rocketcomponent.Configuration;
 import net.sf.openrocket.rocketcomponent.LaunchLug;
+import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.rocketcomponent.RecoveryDevice;
+import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Coordinate;
@@ -199,6 +204,93 @@ public class SimulationStatus implements Monitorable {
 		this.modIDadd = orig.modIDadd;
 	}
 	
+	/**
+	 * Return an independent copy of this status from which the simulation can be
+	 * continued separately, for example to find out what would happen if a flight
+	 * event were handled differently.  In addition to the objects copied by the copy
+	 * constructor, the fork has its own copy of the flight data branch, the warnings and
+	 * the burnt out motors, and it retains the maximum altitude.  The simulation listeners
+	 * are cloned, but the models are shared as in {@link SimulationConditions#clone()}.
+	 * <p>
+	 * The fork can be continued using
+	 * {@link BasicEventSimulationEngine#simulateFork(SimulationStatus)}.  Subclasses
+	 * with additional state must override this method.
+	 * 
+	 * @return	a fork of this status.
+	 */
+	public SimulationStatus fork() {
+		SimulationStatus fork = new SimulationStatus(this);
+		fork.initFork(this);
+		return fork;
+	}
+	
+	/**
+	 * Copy the state which the copy constructor shares or resets from the status being forked.
+	 * 
+	 * @param orig	the status being forked.
+	 */
+	protected void initFork(SimulationStatus orig) {
+		if (orig.flightData != null) {
+			this.flightData = orig.flightData.copy();
+		}
+		this.warnings = orig.warnings.clone();
+		this.motorBurntOut = new HashSet<MotorId>(orig.motorBurntOut);
+		this.maxAlt = orig.maxAlt;
+		this.maxAltTime = orig.maxAltTime;
+	}
+	
+	/**
+	 * Move this status to an independent copy of the rocket, so that it can be simulated
+	 * concurrently with the status it was copied from.  The configuration, the motor mounts,
+	 * the deployed recovery devices and the sources of the queued events are replaced by
+	 * the corresponding components of the copy.  The simulation conditions are given their
+	 * own calculators and wind model and are not profiled, and the burnt out motors are no
+	 * longer shared.  The simulation listeners are the clones made by the copy constructor,
+	 * which must be started again before the branch is simulated.
+	 */
+	void detachRocket() {
+		Rocket rocket = configuration.getRocket().copyWithOriginalID();
+		Configuration config = configuration.copyFor(rocket);
+		configuration.release();
+		configuration = config;
+		
+		for (MotorId id : motorConfiguration.getMotorIDs()) {
+			RocketComponent mount = (RocketComponent) motorConfiguration.getMotorMount(id);
+			motorConfiguration.setMotorMount(id, (MotorMount) findCopy(rocket, mount));
+		}
+		
+		List<RecoveryDevice> devices = new ArrayList<RecoveryDevice>(deployedRecoveryDevices);
+		deployedRecoveryDevices.clear();
+		for (RecoveryDevice device : devices) {
+			deployedRecoveryDevices.add((RecoveryDevice) findCopy(rocket, device));
+		}
+		
+		List<FlightEvent> events = new ArrayList<FlightEvent>(eventQueue);
+		eventQueue.clear();
+		for (FlightEvent event : events) {
+			RocketComponent source = (event.getSource() != null) ? findCopy(rocket, event.getSource()) : null;
+			eventQueue.add(new FlightEvent(event.getType(), event.getTime(), source, event.getData()));
+		}
+		
+		simulationConditions.setRocket(rocket);
+		simulationConditions.setAerodynamicCalculator(simulationConditions.getAerodynamicCalculator().newInstance());
+		simulationConditions.setMassCalculator(AbstractMassCalculator.newInstance(simulationConditions.getMassCalculator()));
+		simulationConditions.setWindModel(simulationConditions.getWindModel().newInstance());
+		simulationConditions.setProfile(null);
+		
+		this.motorBurntOut = new HashSet<MotorId>(this.motorBurntOut);
+		this.modID++;
+	}
+	
+	private static RocketComponent findCopy(Rocket rocket, RocketComponent component) {
+		RocketComponent copy = rocket.findComponent(component.getID());
+		if (copy == null) {
+			throw new BugException("Component " + component + " not found in the rocket copy");
+		}
+		return copy;
+	}
+	
+	
 	public void setSimulationTime(double time) {
 		this.time = time;
 		this.modID++;
@@ -486,6 +578,50 @@ public class SimulationStatus implements Monitorable {
 	}
 	
 	
+	/**
+	 * Copy the state of another status object into this object without allocating.
+	 * After the call this object refers to the same objects as a {@link #clone()} of
+	 * the other status would.  This allows a single intermediate copy to be reused
+	 * for all step computations instead of cloning for each one.
+	 * <p>
+	 * This object must have been created as a clone of <code>other</code>, as the
+	 * event queue and extra data are shared and cannot be reassigned.
+	 *
+	 * @param other		the status from which to copy the state.
+	 * @throws BugException	if this object is not a clone of <code>other</code>.
+	 */
+	protected void copyFrom(SimulationStatus other) {
+		if (this.eventQueue != other.eventQueue || this.extraData != other.extraData) {
+			throw new BugException("Status can only copy the state of the status it was cloned from");
+		}
+		this.simulationConditions = other.simulationConditions;
+		this.configuration = other.configuration;
+		this.motorConfiguration = other.motorConfiguration;
+		this.flightData = other.flightData;
+		this.time = other.time;
+		this.previousTimeStep = other.previousTimeStep;
+		this.position = other.position;
+		this.worldPosition = other.worldPosition;
+		this.velocity = other.velocity;
+		this.orientation = other.orientation;
+		this.rotationVelocity = other.rotationVelocity;
+		this.effectiveLaunchRodLength = other.effectiveLaunchRodLength;
+		this.motorBurntOut = other.motorBurntOut;
+		this.simulationStartWallTime = other.simulationStartWallTime;
+		this.motorIgnited = other.motorIgnited;
+		this.liftoff = other.liftoff;
+		this.launchRodCleared = other.launchRodCleared;
+		this.apogeeReached = other.apogeeReached;
+		this.tumbling = other.tumbling;
+		this.deployedRecoveryDevices = other.deployedRecoveryDevices;
+		this.warnings = other.warnings;
+		this.maxAlt = other.maxAlt;
+		this.maxAltTime = other.maxAltTime;
+		this.modID = other.modID;
+		this.modIDadd = other.modIDadd;
+	}
+
+
 	@Override
 	public int getModID() {
 		return (modID + modIDadd + simulationConditions.getModID() + configuration.getModID() +
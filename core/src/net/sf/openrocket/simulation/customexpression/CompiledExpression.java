@@ -0,0 +1,390 @@
+package net.sf.openrocket.simulation.customexpression;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+
+/*
+ * A custom expression compiled into a postfix program for repeated evaluation during
+ * a simulation.  Variables are bound to the column indexes of the flight data branch,
+ * so evaluating the program does not look up types or allocate memory.
+ *
+ * The program is compiled from the postfix form produced by exp4j.  Only double valued
+ * expressions are supported; expressions using range sub-expressions or custom
+ * functions cannot be compiled and must be evaluated with exp4j.
+ *
+ * The evaluation stack and column bindings are reused between evaluations, so a compiled
+ * expression must only be evaluated by one simulation at a time.
+ */
+final class CompiledExpression {
+
+	// Instructions
+	private static final int CONSTANT = 0;
+	private static final int VARIABLE = 1;
+	private static final int SUBEXPRESSION = 2;
+	private static final int ADD = 3;
+	private static final int SUBTRACT = 4;
+	private static final int MULTIPLY = 5;
+	private static final int DIVIDE = 6;
+	private static final int MODULO = 7;
+	private static final int POWER = 8;
+	private static final int NEGATE = 9;
+	private static final int FUNCTION = 10;
+
+	// Built-in exp4j functions, as operands of FUNCTION
+	private static final String[] FUNCTIONS = { "ABS", "ACOS", "ASIN", "ATAN", "CBRT", "CEIL", "COS",
+			"COSH", "EXP", "EXPM1", "FLOOR", "ROUND", "RANDOM", "LOG", "SIN", "SINH", "SQRT", "TAN", "TANH",
+			"LOG10" };
+
+	private final int[] instructions;
+	private final int[] operands;
+	private final double[] constants;
+	private final double[] stack;
+
+	private final FlightDataType[] variables;
+	private final int[] columns;
+	private FlightDataBranch branch = null;
+
+	private final CompiledExpression[] subExpressions;
+	private final double[] subValues;
+
+	// The interpolated type of an index expression, null for other expressions
+	private final FlightDataType indexType;
+	private int indexColumn;
+	private int timeColumn;
+
+
+	private CompiledExpression(int[] instructions, int[] operands, double[] constants, int stackSize,
+			FlightDataType[] variables, CompiledExpression[] subExpressions, FlightDataType indexType) {
+		this.instructions = instructions;
+		this.operands = operands;
+		this.constants = constants;
+		this.stack = new double[stackSize];
+		this.variables = variables;
+		this.columns = new int[variables.length];
+		this.subExpressions = subExpressions;
+		this.subValues = new double[subExpressions.length];
+		this.indexType = indexType;
+	}
+
+
+	/*
+	 * Compiles an expression from its exp4j postfix form.  Returns null if the expression
+	 * contains tokens that cannot be compiled.
+	 *
+	 * @param postfix			the space-separated postfix expression.
+	 * @param types				the flight data types available as variables, by symbol.
+	 * @param subExpressions	the compiled sub-expressions, by hash.
+	 * @param indexType			the type interpolated by an index expression, or null.
+	 */
+	static CompiledExpression compile(String postfix, Map<String, FlightDataType> types,
+			Map<String, CompiledExpression> subExpressions, FlightDataType indexType) {
+		String[] tokens = postfix.trim().split("\\s+");
+		int[] instructions = new int[tokens.length];
+		int[] operands = new int[tokens.length];
+		List<Double> constants = new ArrayList<Double>();
+		List<FlightDataType> variables = new ArrayList<FlightDataType>();
+		List<CompiledExpression> subs = new ArrayList<CompiledExpression>();
+		List<String> subHashes = new ArrayList<String>();
+
+		int depth = 0;
+		int maxDepth = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			String token = tokens[i];
+			int pop, push = 1;
+
+			if (token.length() == 1 && "+-*/%^#".indexOf(token.charAt(0)) >= 0) {
+				instructions[i] = operator(token.charAt(0));
+				pop = (instructions[i] == NEGATE) ? 1 : 2;
+			} else if (subExpressions.containsKey(token)) {
+				int index = subHashes.indexOf(token);
+				if (index < 0) {
+					index = subHashes.size();
+					subHashes.add(token);
+					subs.add(subExpressions.get(token));
+				}
+				instructions[i] = SUBEXPRESSION;
+				operands[i] = index;
+				pop = 0;
+			} else if (types.containsKey(token)) {
+				FlightDataType type = types.get(token);
+				int index = variables.indexOf(type);
+				if (index < 0) {
+					index = variables.size();
+					variables.add(type);
+				}
+				instructions[i] = VARIABLE;
+				operands[i] = index;
+				pop = 0;
+			} else if (Character.isDigit(token.charAt(0)) || token.charAt(0) == '.') {
+				try {
+					constants.add(Double.parseDouble(token));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+				instructions[i] = CONSTANT;
+				operands[i] = constants.size() - 1;
+				pop = 0;
+			} else {
+				int function = indexOf(FUNCTIONS, token.toUpperCase());
+				if (function < 0) {
+					// Custom function or unknown token
+					return null;
+				}
+				instructions[i] = FUNCTION;
+				operands[i] = function;
+				pop = 1;
+			}
+
+			if (depth < pop) {
+				return null;
+			}
+			depth += push - pop;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+		if (depth != 1) {
+			return null;
+		}
+
+		double[] constantArray = new double[constants.size()];
+		for (int i = 0; i < constantArray.length; i++) {
+			constantArray[i] = constants.get(i);
+		}
+		return new CompiledExpression(instructions, operands, constantArray, maxDepth,
+				variables.toArray(new FlightDataType[0]), subs.toArray(new CompiledExpression[0]), indexType);
+	}
+
+	private static int operator(char c) {
+		switch (c) {
+		case '+':
+			return ADD;
+		case '-':
+			return SUBTRACT;
+		case '*':
+			return MULTIPLY;
+		case '/':
+			return DIVIDE;
+		case '%':
+			return MODULO;
+		case '^':
+			return POWER;
+		default:
+			return NEGATE;
+		}
+	}
+
+	private static int indexOf(String[] array, String value) {
+		for (int i = 0; i < array.length; i++) {
+			if (array[i].equals(value))
+				return i;
+		}
+		return -1;
+	}
+
+
+	/*
+	 * Returns the flight data types read by this expression and its sub-expressions.
+	 */
+	Set<FlightDataType> getVariables() {
+		Set<FlightDataType> set = new LinkedHashSet<FlightDataType>();
+		for (FlightDataType type : variables) {
+			set.add(type);
+		}
+		for (CompiledExpression sub : subExpressions) {
+			set.addAll(sub.getVariables());
+			if (sub.indexType != null) {
+				set.add(sub.indexType);
+			}
+		}
+		return set;
+	}
+
+
+	/*
+	 * Evaluates the expression using the last values of the flight data branch.
+	 * Returns NaN for variables that are not available in the branch.
+	 */
+	double evaluate(FlightDataBranch data) {
+		bind(data);
+
+		// Sub-expressions are evaluated once, before the program
+		for (int i = 0; i < subExpressions.length; i++) {
+			subValues[i] = subExpressions[i].evaluate(data);
+		}
+
+		int last = data.getLength() - 1;
+		int sp = 0;
+		for (int i = 0; i < instructions.length; i++) {
+			switch (instructions[i]) {
+			case CONSTANT:
+				stack[sp++] = constants[operands[i]];
+				break;
+			case VARIABLE:
+				stack[sp++] = getValue(data, operands[i], last);
+				break;
+			case SUBEXPRESSION:
+				stack[sp++] = subValues[operands[i]];
+				break;
+			case ADD:
+				sp--;
+				stack[sp - 1] = stack[sp - 1] + stack[sp];
+				break;
+			case SUBTRACT:
+				sp--;
+				stack[sp - 1] = stack[sp - 1] - stack[sp];
+				break;
+			case MULTIPLY:
+				sp--;
+				stack[sp - 1] = stack[sp - 1] * stack[sp];
+				break;
+			case DIVIDE:
+				sp--;
+				stack[sp - 1] = stack[sp - 1] / stack[sp];
+				break;
+			case MODULO:
+				sp--;
+				stack[sp - 1] = stack[sp - 1] % stack[sp];
+				break;
+			case POWER:
+				sp--;
+				stack[sp - 1] = Math.pow(stack[sp - 1], stack[sp]);
+				break;
+			case NEGATE:
+				stack[sp - 1] = -stack[sp - 1];
+				break;
+			default:
+				stack[sp - 1] = applyFunction(operands[i], stack[sp - 1]);
+				break;
+			}
+		}
+		double result = stack[0];
+
+		if (indexType != null) {
+			result = interpolate(data, result);
+		}
+		return result;
+	}
+
+
+	private void bind(FlightDataBranch data) {
+		if (data == branch) {
+			return;
+		}
+		branch = data;
+		for (int i = 0; i < variables.length; i++) {
+			columns[i] = data.getColumnIndex(variables[i]);
+		}
+		if (indexType != null) {
+			indexColumn = data.getColumnIndex(indexType);
+			timeColumn = data.getColumnIndex(FlightDataType.TYPE_TIME);
+		}
+	}
+
+	private double getValue(FlightDataBranch data, int variable, int index) {
+		if (columns[variable] < 0) {
+			// The type may have been added to the branch after binding
+			columns[variable] = data.getColumnIndex(variables[variable]);
+			if (columns[variable] < 0) {
+				return Double.NaN;
+			}
+		}
+		if (index < 0) {
+			return Double.NaN;
+		}
+		return data.getDouble(columns[variable], index);
+	}
+
+	/*
+	 * Interpolates the value of the index type at the given time, using the end values
+	 * outside the time range of the branch.
+	 */
+	private double interpolate(FlightDataBranch data, double time) {
+		if (indexColumn < 0) {
+			indexColumn = data.getColumnIndex(indexType);
+		}
+		if (timeColumn < 0) {
+			timeColumn = data.getColumnIndex(FlightDataType.TYPE_TIME);
+		}
+		int length = data.getLength();
+		if (indexColumn < 0 || timeColumn < 0 || length == 0 || Double.isNaN(time)) {
+			return Double.NaN;
+		}
+
+		// Find the last point at or before the time
+		int low = 0;
+		int high = length - 1;
+		if (time < data.getDouble(timeColumn, 0)) {
+			return data.getDouble(indexColumn, 0);
+		}
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (data.getDouble(timeColumn, mid) <= time) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		double t1 = data.getDouble(timeColumn, low);
+		double y1 = data.getDouble(indexColumn, low);
+		if (t1 == time || low == length - 1) {
+			return y1;
+		}
+		double t2 = data.getDouble(timeColumn, low + 1);
+		double y2 = data.getDouble(indexColumn, low + 1);
+		return (time - t1) / (t2 - t1) * (y2 - y1) + y1;
+	}
+
+
+	private static double applyFunction(int function, double x) {
+		switch (function) {
+		case 0:
+			return Math.abs(x);
+		case 1:
+			return Math.acos(x);
+		case 2:
+			return Math.asin(x);
+		case 3:
+			return Math.atan(x);
+		case 4:
+			return Math.cbrt(x);
+		case 5:
+			return Math.ceil(x);
+		case 6:
+			return Math.cos(x);
+		case 7:
+			return Math.cosh(x);
+		case 8:
+			return Math.exp(x);
+		case 9:
+			return Math.expm1(x);
+		case 10:
+			return Math.floor(x);
+		case 11:
+			return Math.round(x);
+		case 12:
+			return Math.random() * x;
+		case 13:
+			return Math.log(x);
+		case 14:
+			return Math.sin(x);
+		case 15:
+			return Math.sinh(x);
+		case 16:
+			return Math.sqrt(x);
+		case 17:
+			return Math.tan(x);
+		case 18:
+			return Math.tanh(x);
+		case 19:
+			return Math.log10(x);
+		default:
+			return Double.NaN;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -437,6 +439,38 @@ public class CustomExpression implements Cloneable {
 		return new Variable(name, result);
 	}
 	
+	/*
+	 * Compiles this expression for repeated evaluation during a simulation. Returns null if
+	 * the expression cannot be compiled, in which case it must be evaluated using evaluate().
+	 */
+	CompiledExpression compile() {
+		Map<String, CompiledExpression> subs = new HashMap<String, CompiledExpression>();
+		for (CustomExpression expr : this.subExpressions) {
+			CompiledExpression sub = expr.compile();
+			if (sub == null) {
+				return null;
+			}
+			subs.put(expr.hash(), sub);
+		}
+		
+		Calculable calc = buildExpression();
+		if (calc == null) {
+			return null;
+		}
+		return CompiledExpression.compile(calc.getExpression(), getSymbolTypes(), subs, null);
+	}
+	
+	/*
+	 * Returns all the available flight data types by symbol
+	 */
+	protected Map<String, FlightDataType> getSymbolTypes() {
+		Map<String, FlightDataType> types = new HashMap<String, FlightDataType>();
+		for (FlightDataType type : doc.getFlightDataTypes()) {
+			types.put(type.getSymbol(), type);
+		}
+		return types;
+	}
+	
 	/*
 	 * Returns the new flight data type corresponding to this calculated data
 	 * If the unit matches a SI unit string then the datatype will have the corresponding unitgroup.
@@ -1,8 +1,11 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
@@ -15,28 +18,117 @@ public class CustomExpressionSimulationListener extends AbstractSimulationListen
 	private static final Logger log = LoggerFactory.getLogger(CustomExpressionSimulationListener.class);
 	private final List<CustomExpression> expressions;
 	
+	// The expressions in evaluation order, compiled at the start of the simulation.
+	// Compiled expressions are not thread-safe and are never shared between clones.
+	private CustomExpression[] ordered = null;
+	private CompiledExpression[] compiled = null;
+	private FlightDataType[] types = null;
+	
 	public CustomExpressionSimulationListener(List<CustomExpression> expressions) {
 		super();
 		this.expressions = expressions;
 	}
 	
+	@Override
+	public void startSimulation(SimulationStatus status) throws SimulationException {
+		ordered = null;
+		if (expressions != null && expressions.size() > 0) {
+			compile();
+		}
+	}
+	
 	@Override
 	public void postStep(SimulationStatus status) throws SimulationException {
 		if (expressions == null || expressions.size() == 0) {
 			return;
 		}
+		if (ordered == null) {
+			compile();
+		}
+		
 		// Calculate values for custom expressions
 		FlightDataBranch data = status.getFlightData();
-		for (CustomExpression expression : expressions) {
-			double value = expression.evaluateDouble(status);
-			//log.debug("Setting value of custom expression "+expression.toString()+" = "+value);
-			data.setValue(expression.getType(), value);
+		for (int i = 0; i < ordered.length; i++) {
+			double value;
+			if (compiled[i] != null) {
+				value = compiled[i].evaluate(data);
+				if (value == Double.NEGATIVE_INFINITY || value == Double.POSITIVE_INFINITY)
+					value = Double.NaN;
+			} else {
+				value = ordered[i].evaluateDouble(status);
+			}
+			//log.debug("Setting value of custom expression "+ordered[i].toString()+" = "+value);
+			data.setValue(types[i], value);
 		}
 	}
 	
+	/*
+	 * Compile the expressions and order them so that each expression is evaluated after
+	 * the expressions whose values it uses.
+	 */
+	private void compile() {
+		int n = expressions.size();
+		CompiledExpression[] programs = new CompiledExpression[n];
+		FlightDataType[] outputs = new FlightDataType[n];
+		for (int i = 0; i < n; i++) {
+			CustomExpression expression = expressions.get(i);
+			programs[i] = expression.compile();
+			outputs[i] = expression.getType();
+			if (programs[i] == null) {
+				log.debug("Custom expression " + expression + " cannot be compiled, evaluating with exp4j");
+			}
+		}
+		
+		List<Integer> order = new ArrayList<Integer>(n);
+		boolean[] visited = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			visit(i, programs, outputs, visited, order);
+		}
+		
+		ordered = new CustomExpression[n];
+		compiled = new CompiledExpression[n];
+		types = new FlightDataType[n];
+		for (int i = 0; i < n; i++) {
+			int index = order.get(i);
+			ordered[i] = expressions.get(index);
+			compiled[i] = programs[index];
+			types[i] = outputs[index];
+		}
+	}
+	
+	private void visit(int i, CompiledExpression[] programs, FlightDataType[] outputs, boolean[] visited,
+			List<Integer> order) {
+		if (visited[i]) {
+			return;
+		}
+		visited[i] = true;
+		if (programs[i] != null) {
+			Set<FlightDataType> used = programs[i].getVariables();
+			for (int j = 0; j < outputs.length; j++) {
+				if (j != i && used.contains(outputs[j])) {
+					visit(j, programs, outputs, visited, order);
+				}
+			}
+		}
+		order.add(i);
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
 	}
 	
+	/*
+	 * The compiled expressions hold the evaluation state of a single simulation, so the
+	 * clone compiles its own copies instead of sharing them with this listener.
+	 */
+	@Override
+	public CustomExpressionSimulationListener clone() {
+		CustomExpressionSimulationListener clone = (CustomExpressionSimulationListener) super.clone();
+		clone.ordered = null;
+		clone.compiled = null;
+		clone.types = null;
+		return clone;
+	}
+	
 }
@@ -1,5 +1,6 @@
 package net.sf.openrocket.simulation.customexpression;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -28,6 +29,17 @@ public class IndexExpression extends CustomExpression {
 		this.setSymbol(typeText);
 	}
 	
+	@Override
+	CompiledExpression compile() {
+		Calculable calc = buildExpression();
+		if (calc == null){
+			return null;
+		}
+		FlightDataType myType = FlightDataType.getType(null, getSymbol(), null);
+		return CompiledExpression.compile(calc.getExpression(), getSymbolTypes(),
+				Collections.<String, CompiledExpression> emptyMap(), myType);
+	}
+	
 	@Override
 	public Variable evaluate(SimulationStatus status){
 		Calculable calc = buildExpression();
@@ -58,6 +58,14 @@ public class RangeExpression extends CustomExpression {
 		}
 	}
 	
+	/*
+	 * Range expressions are array valued and are always evaluated using exp4j
+	 */
+	@Override
+	CompiledExpression compile() {
+		return null;
+	}
+	
 	@Override
 	public Variable evaluate(SimulationStatus status){
 		
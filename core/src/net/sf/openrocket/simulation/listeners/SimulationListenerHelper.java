@@ -15,6 +15,7 @@ import net.sf.openrocket.rocketcomponent.RecoveryDevice;
 import net.sf.openrocket.simulation.AccelerationData;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.MassData;
+import net.sf.openrocket.simulation.SimulationProfile;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.util.Coordinate;
@@ -37,6 +38,7 @@ public class SimulationListenerHelper {
 	 */
 	public static void fireStartSimulation(SimulationStatus status)
 			throws SimulationException {
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -46,6 +48,7 @@ public class SimulationListenerHelper {
 				modID = status.getModID();
 			}
 		}
+		SimulationProfile.exit(profile);
 	}
 	
 	
@@ -53,6 +56,7 @@ public class SimulationListenerHelper {
 	 * Fire endSimulation event.
 	 */
 	public static void fireEndSimulation(SimulationStatus status, SimulationException exception) {
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -62,6 +66,7 @@ public class SimulationListenerHelper {
 				modID = status.getModID();
 			}
 		}
+		SimulationProfile.exit(profile);
 	}
 	
 	
@@ -75,6 +80,7 @@ public class SimulationListenerHelper {
 	public static boolean firePreStep(SimulationStatus status)
 			throws SimulationException {
 		boolean b;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -85,9 +91,11 @@ public class SimulationListenerHelper {
 			}
 			if (b == false) {
 				warn(status, l);
+				SimulationProfile.exit(profile);
 				return false;
 			}
 		}
+		SimulationProfile.exit(profile);
 		return true;
 	}
 	
@@ -97,6 +105,7 @@ public class SimulationListenerHelper {
 	 */
 	public static void firePostStep(SimulationStatus status)
 			throws SimulationException {
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -106,6 +115,7 @@ public class SimulationListenerHelper {
 				modID = status.getModID();
 			}
 		}
+		SimulationProfile.exit(profile);
 	}
 	
 	
@@ -119,6 +129,7 @@ public class SimulationListenerHelper {
 	 */
 	public static boolean fireAddFlightEvent(SimulationStatus status, FlightEvent event) throws SimulationException {
 		boolean b;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -130,10 +141,12 @@ public class SimulationListenerHelper {
 				}
 				if (b == false) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return false;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return true;
 	}
 	
@@ -144,6 +157,7 @@ public class SimulationListenerHelper {
 	 */
 	public static boolean fireHandleFlightEvent(SimulationStatus status, FlightEvent event) throws SimulationException {
 		boolean b;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -155,10 +169,12 @@ public class SimulationListenerHelper {
 				}
 				if (b == false) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return false;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return true;
 	}
 	
@@ -170,6 +186,7 @@ public class SimulationListenerHelper {
 	public static boolean fireMotorIgnition(SimulationStatus status, MotorId motorId, MotorMount mount,
 			MotorInstance instance) throws SimulationException {
 		boolean b;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID(); // Contains also motor instance
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -181,10 +198,12 @@ public class SimulationListenerHelper {
 				}
 				if (b == false) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return false;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return true;
 	}
 	
@@ -197,6 +216,7 @@ public class SimulationListenerHelper {
 	public static boolean fireRecoveryDeviceDeployment(SimulationStatus status, RecoveryDevice device)
 			throws SimulationException {
 		boolean b;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID(); // Contains also motor instance
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -208,10 +228,12 @@ public class SimulationListenerHelper {
 				}
 				if (b == false) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return false;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return true;
 	}
 	
@@ -226,6 +248,7 @@ public class SimulationListenerHelper {
 	public static AtmosphericConditions firePreAtmosphericModel(SimulationStatus status)
 			throws SimulationException {
 		AtmosphericConditions conditions;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -237,10 +260,12 @@ public class SimulationListenerHelper {
 				}
 				if (conditions != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return conditions;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -253,6 +278,7 @@ public class SimulationListenerHelper {
 			throws SimulationException {
 		AtmosphericConditions c;
 		AtmosphericConditions clone = conditions.clone();
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -269,6 +295,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return conditions;
 	}
 	
@@ -282,6 +309,7 @@ public class SimulationListenerHelper {
 	public static Coordinate firePreWindModel(SimulationStatus status)
 			throws SimulationException {
 		Coordinate wind;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -293,10 +321,12 @@ public class SimulationListenerHelper {
 				}
 				if (wind != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return wind;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -307,6 +337,7 @@ public class SimulationListenerHelper {
 	 */
 	public static Coordinate firePostWindModel(SimulationStatus status, Coordinate wind) throws SimulationException {
 		Coordinate w;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -322,6 +353,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return wind;
 	}
 	
@@ -335,6 +367,7 @@ public class SimulationListenerHelper {
 	public static double firePreGravityModel(SimulationStatus status)
 			throws SimulationException {
 		double gravity;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -346,10 +379,12 @@ public class SimulationListenerHelper {
 				}
 				if (!Double.isNaN(gravity)) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return gravity;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return Double.NaN;
 	}
 	
@@ -360,6 +395,7 @@ public class SimulationListenerHelper {
 	 */
 	public static double firePostGravityModel(SimulationStatus status, double gravity) throws SimulationException {
 		double g;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -375,6 +411,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return gravity;
 	}
 	
@@ -389,6 +426,7 @@ public class SimulationListenerHelper {
 	public static FlightConditions firePreFlightConditions(SimulationStatus status)
 			throws SimulationException {
 		FlightConditions conditions;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -400,10 +438,12 @@ public class SimulationListenerHelper {
 				}
 				if (conditions != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return conditions;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -417,6 +457,7 @@ public class SimulationListenerHelper {
 			throws SimulationException {
 		FlightConditions c;
 		FlightConditions clone = conditions.clone();
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -433,6 +474,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return conditions;
 	}
 	
@@ -447,6 +489,7 @@ public class SimulationListenerHelper {
 	public static AerodynamicForces firePreAerodynamicCalculation(SimulationStatus status)
 			throws SimulationException {
 		AerodynamicForces forces;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -458,10 +501,12 @@ public class SimulationListenerHelper {
 				}
 				if (forces != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return forces;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -474,6 +519,7 @@ public class SimulationListenerHelper {
 			throws SimulationException {
 		AerodynamicForces f;
 		AerodynamicForces clone = forces.clone();
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -490,6 +536,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return forces;
 	}
 	
@@ -505,6 +552,7 @@ public class SimulationListenerHelper {
 	public static MassData firePreMassCalculation(SimulationStatus status)
 			throws SimulationException {
 		MassData mass;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -516,10 +564,12 @@ public class SimulationListenerHelper {
 				}
 				if (mass != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return mass;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -530,6 +580,7 @@ public class SimulationListenerHelper {
 	 */
 	public static MassData firePostMassCalculation(SimulationStatus status, MassData mass) throws SimulationException {
 		MassData m;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -545,6 +596,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return mass;
 	}
 	
@@ -559,6 +611,7 @@ public class SimulationListenerHelper {
 	public static double firePreThrustCalculation(SimulationStatus status)
 			throws SimulationException {
 		double thrust;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -570,10 +623,12 @@ public class SimulationListenerHelper {
 				}
 				if (!Double.isNaN(thrust)) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return thrust;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return Double.NaN;
 	}
 	
@@ -584,6 +639,7 @@ public class SimulationListenerHelper {
 	 */
 	public static double firePostThrustCalculation(SimulationStatus status, double thrust) throws SimulationException {
 		double t;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -599,6 +655,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return thrust;
 	}
 	
@@ -613,6 +670,7 @@ public class SimulationListenerHelper {
 	 */
 	public static AccelerationData firePreAccelerationCalculation(SimulationStatus status) throws SimulationException {
 		AccelerationData acceleration;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -624,10 +682,12 @@ public class SimulationListenerHelper {
 				}
 				if (acceleration != null) {
 					warn(status, l);
+					SimulationProfile.exit(profile);
 					return acceleration;
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return null;
 	}
 	
@@ -639,6 +699,7 @@ public class SimulationListenerHelper {
 	public static AccelerationData firePostAccelerationCalculation(SimulationStatus status,
 			AccelerationData acceleration) throws SimulationException {
 		AccelerationData a;
+		SimulationProfile profile = SimulationProfile.enter(status, SimulationProfile.Phase.LISTENERS);
 		int modID = status.getModID();
 		
 		for (SimulationListener l : status.getSimulationConditions().getSimulationListenerList()) {
@@ -654,6 +715,7 @@ public class SimulationListenerHelper {
 				}
 			}
 		}
+		SimulationProfile.exit(profile);
 		return acceleration;
 	}
 	
@@ -0,0 +1,131 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import java.util.Random;
+
+import net.sf.openrocket.models.wind.PinkNoiseWindModel;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * A definition of the random dispersion applied to each run of a Monte Carlo simulation.
+ * All values are standard deviations of normally distributed variations about the
+ * nominal values of the simulation conditions.  Angles are in radians, wind speed in m/s,
+ * and the impulse, drag and mass deviations are relative to the nominal value
+ * (for example 0.05 for 5%).
+ */
+public class Dispersion {
+	
+	/** Random value with which to XOR the random seed value */
+	private static final int SEED_RANDOMIZATION = 0x5C3A92E1;
+	
+	/** The smallest mass factor, to avoid zero or negative masses. */
+	private static final double MIN_MASS_FACTOR = 0.01;
+	
+	private double windSpeedDeviation = 0;
+	private double windDirectionDeviation = 0;
+	private double launchRodAngleDeviation = 0;
+	private double launchRodDirectionDeviation = 0;
+	private double impulseDeviation = 0;
+	private double dragDeviation = 0;
+	private double massDeviation = 0;
+	
+	
+	public double getWindSpeedDeviation() {
+		return windSpeedDeviation;
+	}
+	
+	public void setWindSpeedDeviation(double windSpeedDeviation) {
+		this.windSpeedDeviation = Math.max(windSpeedDeviation, 0);
+	}
+	
+	public double getWindDirectionDeviation() {
+		return windDirectionDeviation;
+	}
+	
+	public void setWindDirectionDeviation(double windDirectionDeviation) {
+		this.windDirectionDeviation = Math.max(windDirectionDeviation, 0);
+	}
+	
+	public double getLaunchRodAngleDeviation() {
+		return launchRodAngleDeviation;
+	}
+	
+	public void setLaunchRodAngleDeviation(double launchRodAngleDeviation) {
+		this.launchRodAngleDeviation = Math.max(launchRodAngleDeviation, 0);
+	}
+	
+	public double getLaunchRodDirectionDeviation() {
+		return launchRodDirectionDeviation;
+	}
+	
+	public void setLaunchRodDirectionDeviation(double launchRodDirectionDeviation) {
+		this.launchRodDirectionDeviation = Math.max(launchRodDirectionDeviation, 0);
+	}
+	
+	public double getImpulseDeviation() {
+		return impulseDeviation;
+	}
+	
+	public void setImpulseDeviation(double impulseDeviation) {
+		this.impulseDeviation = Math.max(impulseDeviation, 0);
+	}
+	
+	public double getDragDeviation() {
+		return dragDeviation;
+	}
+	
+	public void setDragDeviation(double dragDeviation) {
+		this.dragDeviation = Math.max(dragDeviation, 0);
+	}
+	
+	public double getMassDeviation() {
+		return massDeviation;
+	}
+	
+	public void setMassDeviation(double massDeviation) {
+		this.massDeviation = Math.max(massDeviation, 0);
+	}
+	
+	
+	/**
+	 * Apply a random dispersion to the simulation conditions of a single run.  The
+	 * conditions must be a private copy for the run, and the wind model must be a
+	 * {@link PinkNoiseWindModel}, which is replaced by a new dispersed model.
+	 * The dispersed values depend only on the seed.
+	 * 
+	 * @param conditions	the conditions to modify.
+	 * @param seed			the random seed of the run.
+	 */
+	void apply(SimulationConditions conditions, int seed) {
+		Random random = new Random(seed ^ SEED_RANDOMIZATION);
+		
+		// All values are always drawn in the same order
+		double windSpeed = windSpeedDeviation * random.nextGaussian();
+		double windDirection = windDirectionDeviation * random.nextGaussian();
+		double rodAngle = launchRodAngleDeviation * random.nextGaussian();
+		double rodDirection = launchRodDirectionDeviation * random.nextGaussian();
+		double impulse = 1 + impulseDeviation * random.nextGaussian();
+		double drag = 1 + dragDeviation * random.nextGaussian();
+		double mass = 1 + massDeviation * random.nextGaussian();
+		
+		PinkNoiseWindModel nominal = (PinkNoiseWindModel) conditions.getWindModel();
+		PinkNoiseWindModel wind = new PinkNoiseWindModel(seed);
+		wind.setAverage(nominal.getAverage() + windSpeed);
+		wind.setTurbulenceIntensity(nominal.getTurbulenceIntensity());
+		wind.setDirection(MathUtil.reduce360(nominal.getDirection() + windDirection));
+		if (nominal.getProfile() != null) {
+			wind.setProfile(nominal.getProfile().offset(windSpeed, windDirection));
+		}
+		conditions.setWindModel(wind);
+		
+		conditions.setLaunchRodAngle(MathUtil.clamp(conditions.getLaunchRodAngle() + rodAngle,
+				-SimulationOptions.MAX_LAUNCH_ROD_ANGLE, SimulationOptions.MAX_LAUNCH_ROD_ANGLE));
+		conditions.setLaunchRodDirection(MathUtil.reduce360(conditions.getLaunchRodDirection() + rodDirection));
+		
+		if (impulseDeviation > 0 || dragDeviation > 0 || massDeviation > 0) {
+			conditions.getSimulationListenerList().add(new DispersionListener(
+					Math.max(impulse, 0), Math.max(drag, 0), Math.max(mass, MIN_MASS_FACTOR)));
+		}
+	}
+}
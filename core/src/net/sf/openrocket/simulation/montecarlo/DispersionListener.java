@@ -0,0 +1,54 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.simulation.MassData;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * A simulation listener that scales the thrust, drag and mass of the rocket by
+ * constant factors, used for dispersing a single Monte Carlo run.
+ */
+class DispersionListener extends AbstractSimulationListener {
+	
+	private final double thrustFactor;
+	private final double dragFactor;
+	private final double massFactor;
+	
+	public DispersionListener(double thrustFactor, double dragFactor, double massFactor) {
+		this.thrustFactor = thrustFactor;
+		this.dragFactor = dragFactor;
+		this.massFactor = massFactor;
+	}
+	
+	@Override
+	public double postSimpleThrustCalculation(SimulationStatus status, double thrust) {
+		return thrust * thrustFactor;
+	}
+	
+	@Override
+	public AerodynamicForces postAerodynamicCalculation(SimulationStatus status, AerodynamicForces forces) {
+		forces.setCaxial(forces.getCaxial() * dragFactor);
+		forces.setCD(forces.getCD() * dragFactor);
+		forces.setPressureCD(forces.getPressureCD() * dragFactor);
+		forces.setBaseCD(forces.getBaseCD() * dragFactor);
+		forces.setFrictionCD(forces.getFrictionCD() * dragFactor);
+		return forces;
+	}
+	
+	@Override
+	public MassData postMassCalculation(SimulationStatus status, MassData massData) {
+		Coordinate cg = massData.getCG();
+		return new MassData(cg.setWeight(cg.weight * massFactor),
+				massData.getLongitudinalInertia() * massFactor,
+				massData.getRotationalInertia() * massFactor,
+				massData.getPropellantMass() * massFactor);
+	}
+	
+	@Override
+	public boolean isSystemListener() {
+		return true;
+	}
+	
+}
@@ -0,0 +1,80 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+/**
+ * The summary values of a single Monte Carlo simulation run.  This class is immutable.
+ */
+public class FlightSummary {
+	
+	private final int run;
+	private final int seed;
+	private final double apogee;
+	private final double maxVelocity;
+	private final double groundHitVelocity;
+	private final double flightTime;
+	private final double landingX;
+	private final double landingY;
+	
+	public FlightSummary(int run, int seed, double apogee, double maxVelocity, double groundHitVelocity,
+			double flightTime, double landingX, double landingY) {
+		this.run = run;
+		this.seed = seed;
+		this.apogee = apogee;
+		this.maxVelocity = maxVelocity;
+		this.groundHitVelocity = groundHitVelocity;
+		this.flightTime = flightTime;
+		this.landingX = landingX;
+		this.landingY = landingY;
+	}
+	
+	/**
+	 * Return the index of the run, starting from zero.
+	 */
+	public int getRun() {
+		return run;
+	}
+	
+	/**
+	 * Return the random seed used for the run.
+	 */
+	public int getSeed() {
+		return seed;
+	}
+	
+	public double getApogee() {
+		return apogee;
+	}
+	
+	public double getMaxVelocity() {
+		return maxVelocity;
+	}
+	
+	public double getGroundHitVelocity() {
+		return groundHitVelocity;
+	}
+	
+	public double getFlightTime() {
+		return flightTime;
+	}
+	
+	/**
+	 * Return the landing position along the x axis relative to the launch site (m).
+	 */
+	public double getLandingX() {
+		return landingX;
+	}
+	
+	/**
+	 * Return the landing position along the y axis relative to the launch site (m).
+	 */
+	public double getLandingY() {
+		return landingY;
+	}
+	
+	@Override
+	public String toString() {
+		return "FlightSummary[run=" + run + ",seed=" + seed + ",apogee=" + apogee +
+				",maxVelocity=" + maxVelocity + ",groundHitVelocity=" + groundHitVelocity +
+				",flightTime=" + flightTime + ",landing=(" + landingX + "," + landingY + ")]";
+	}
+	
+}
@@ -0,0 +1,103 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * A scatter of landing points of Monte Carlo simulation runs.  The points are stored
+ * in primitive arrays, so that a scatter of tens of thousands of runs is small.
+ */
+public class LandingScatter {
+	
+	private double[] x = new double[64];
+	private double[] y = new double[64];
+	private int size = 0;
+	
+	private final RunningStatistics xStatistics = new RunningStatistics();
+	private final RunningStatistics yStatistics = new RunningStatistics();
+	
+	
+	/**
+	 * Add a landing point to the scatter.  Points with NaN coordinates are ignored.
+	 */
+	public void add(double px, double py) {
+		if (Double.isNaN(px) || Double.isNaN(py)) {
+			return;
+		}
+		
+		if (size == x.length) {
+			x = Arrays.copyOf(x, 2 * size);
+			y = Arrays.copyOf(y, 2 * size);
+		}
+		x[size] = px;
+		y[size] = py;
+		size++;
+		
+		xStatistics.add(px);
+		yStatistics.add(py);
+	}
+	
+	/**
+	 * Return the number of landing points.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public double getX(int index) {
+		checkIndex(index);
+		return x[index];
+	}
+	
+	public double getY(int index) {
+		checkIndex(index);
+		return y[index];
+	}
+	
+	/**
+	 * Return the statistics of the x coordinates of the landing points.
+	 */
+	public RunningStatistics getXStatistics() {
+		return xStatistics;
+	}
+	
+	/**
+	 * Return the statistics of the y coordinates of the landing points.
+	 */
+	public RunningStatistics getYStatistics() {
+		return yStatistics;
+	}
+	
+	/**
+	 * Return the radius of the circle centered at the mean landing point that contains
+	 * the specified fraction of the landing points.  For example a fraction of 0.5 returns
+	 * the circular error probable.
+	 * 
+	 * @param fraction	the fraction of points within the circle, from 0 to 1.
+	 * @return			the radius of the circle, or NaN if the scatter is empty.
+	 */
+	public double getRadius(double fraction) {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		
+		double cx = xStatistics.getMean();
+		double cy = yStatistics.getMean();
+		double[] distances = new double[size];
+		for (int i = 0; i < size; i++) {
+			distances[i] = MathUtil.hypot(x[i] - cx, y[i] - cy);
+		}
+		Arrays.sort(distances);
+		
+		int index = (int) Math.ceil(MathUtil.clamp(fraction, 0, 1) * size) - 1;
+		return distances[Math.max(index, 0)];
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+	
+}
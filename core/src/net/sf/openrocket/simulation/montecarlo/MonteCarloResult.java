@@ -0,0 +1,74 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+/**
+ * The aggregated result of a Monte Carlo simulation.  The per-run summaries are
+ * accumulated in run order, so that the result depends only on the simulation
+ * conditions, the dispersion and the number of runs, not on thread scheduling.
+ */
+public class MonteCarloResult {
+	
+	private final RunningStatistics apogee = new RunningStatistics();
+	private final RunningStatistics maxVelocity = new RunningStatistics();
+	private final RunningStatistics groundHitVelocity = new RunningStatistics();
+	private final RunningStatistics flightTime = new RunningStatistics();
+	private final LandingScatter landingScatter = new LandingScatter();
+	
+	private int runCount = 0;
+	private int failedRunCount = 0;
+	
+	
+	/**
+	 * Add the summary of a successful run.
+	 */
+	void add(FlightSummary summary) {
+		runCount++;
+		apogee.add(summary.getApogee());
+		maxVelocity.add(summary.getMaxVelocity());
+		groundHitVelocity.add(summary.getGroundHitVelocity());
+		flightTime.add(summary.getFlightTime());
+		landingScatter.add(summary.getLandingX(), summary.getLandingY());
+	}
+	
+	/**
+	 * Record a run that failed with a simulation exception.
+	 */
+	void addFailure() {
+		runCount++;
+		failedRunCount++;
+	}
+	
+	/**
+	 * Return the total number of runs, including failed runs.
+	 */
+	public int getRunCount() {
+		return runCount;
+	}
+	
+	/**
+	 * Return the number of runs that failed with a simulation exception.
+	 */
+	public int getFailedRunCount() {
+		return failedRunCount;
+	}
+	
+	public RunningStatistics getApogee() {
+		return apogee;
+	}
+	
+	public RunningStatistics getMaxVelocity() {
+		return maxVelocity;
+	}
+	
+	public RunningStatistics getGroundHitVelocity() {
+		return groundHitVelocity;
+	}
+	
+	public RunningStatistics getFlightTime() {
+		return flightTime;
+	}
+	
+	public LandingScatter getLandingScatter() {
+		return landingScatter;
+	}
+	
+}
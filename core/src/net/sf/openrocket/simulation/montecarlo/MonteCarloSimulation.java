@@ -0,0 +1,237 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sf.openrocket.masscalc.AbstractMassCalculator;
+import net.sf.openrocket.models.wind.PinkNoiseWindModel;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.BasicEventSimulationEngine;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.exception.SimulationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Monte Carlo simulation that runs a number of randomly dispersed simulations in
+ * parallel on a work-stealing thread pool.
+ * <p>
+ * Each run simulates a private copy of the base simulation conditions with its own
+ * rocket copy, aerodynamic calculator and mass calculator.  The rocket is copied once
+ * when the simulation starts, and the runs copy their rockets from that snapshot.  The random seed of each run
+ * is derived from the random seed of the base conditions and the run index, so the
+ * result is reproducible regardless of the number of threads.  Only a small summary
+ * of each run is retained, the full flight data is discarded after the run.
+ * <p>
+ * The atmospheric and gravity models and the simulation listeners of the base
+ * conditions are shared between the runs and must be thread-safe.  Listeners are
+ * cloned for each run as in {@link SimulationConditions#clone()}.
+ */
+public class MonteCarloSimulation {
+	
+	private static final Logger log = LoggerFactory.getLogger(MonteCarloSimulation.class);
+	
+	private final SimulationConditions conditions;
+	private final Dispersion dispersion;
+	
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	
+	
+	/**
+	 * Sole constructor.
+	 * 
+	 * @param conditions	the nominal simulation conditions, which must use a
+	 * 						{@link PinkNoiseWindModel}.
+	 * @param dispersion	the dispersion to apply to each run.
+	 */
+	public MonteCarloSimulation(SimulationConditions conditions, Dispersion dispersion) {
+		if (!(conditions.getWindModel() instanceof PinkNoiseWindModel)) {
+			throw new IllegalArgumentException("Unsupported wind model " + conditions.getWindModel());
+		}
+		this.conditions = conditions;
+		this.dispersion = dispersion;
+	}
+	
+	
+	public int getThreadCount() {
+		return threadCount;
+	}
+	
+	/**
+	 * Set the number of threads used for the simulation.  The default is the number of
+	 * available processors.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("threadCount=" + threadCount);
+		}
+		this.threadCount = threadCount;
+	}
+	
+	
+	/**
+	 * Run the Monte Carlo simulation.  Runs that fail with an exception are counted in
+	 * the result but otherwise ignored.
+	 * 
+	 * @param runs	the number of runs to simulate.
+	 * @return		the aggregated result of the runs.
+	 */
+	public MonteCarloResult simulate(int runs) {
+		if (runs < 0) {
+			throw new IllegalArgumentException("runs=" + runs);
+		}
+		
+		log.info("Starting Monte Carlo simulation of " + runs + " runs using " + threadCount + " threads");
+		long t0 = System.currentTimeMillis();
+		
+		Collector collector = new Collector();
+		Rocket snapshot = (Rocket) conditions.getRocket().copy();
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			pool.invoke(new RunRange(collector, snapshot, 0, runs));
+		} finally {
+			pool.shutdown();
+		}
+		
+		MonteCarloResult result = collector.result;
+		log.info("Monte Carlo simulation finished in " + (System.currentTimeMillis() - t0) + " ms, " +
+				result.getFailedRunCount() + " failed runs");
+		return result;
+	}
+	
+	
+	/**
+	 * Simulate a single run of the Monte Carlo simulation.
+	 * 
+	 * @param run	the index of the run.
+	 * @return		the summary of the run.
+	 * @throws SimulationException	if the simulation fails.
+	 */
+	public FlightSummary simulateRun(int run) throws SimulationException {
+		return simulateRun(run, (Rocket) conditions.getRocket().copy());
+	}
+	
+	private FlightSummary simulateRun(int run, Rocket rocket) throws SimulationException {
+		int seed = getRunSeed(run);
+		SimulationConditions runConditions = createRunConditions(rocket, seed);
+		
+		FlightData data = new BasicEventSimulationEngine().simulate(runConditions);
+		
+		FlightDataBranch branch = data.getBranch(0);
+		return new FlightSummary(run, seed, data.getMaxAltitude(), data.getMaxVelocity(),
+				data.getGroundHitVelocity(), data.getFlightTime(),
+				branch.getLast(FlightDataType.TYPE_POSITION_X), branch.getLast(FlightDataType.TYPE_POSITION_Y));
+	}
+	
+	
+	/**
+	 * Return the random seed of a specific run.  The seed is computed by mixing the random
+	 * seed of the base conditions and the run index.
+	 * 
+	 * @param run	the index of the run.
+	 * @return		the random seed of the run.
+	 */
+	public int getRunSeed(int run) {
+		long z = (((long) conditions.getRandomSeed()) << 32) | (run & 0xFFFFFFFFL);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (int) (z ^ (z >>> 32));
+	}
+	
+	
+	private SimulationConditions createRunConditions(Rocket rocket, int seed) {
+		SimulationConditions runConditions = conditions.clone();
+		runConditions.setRocket(rocket);
+		runConditions.setAerodynamicCalculator(conditions.getAerodynamicCalculator().newInstance());
+		runConditions.setMassCalculator(AbstractMassCalculator.newInstance(conditions.getMassCalculator()));
+		runConditions.setRandomSeed(seed);
+		// A profile records a single run and is not thread-safe, so the runs are not profiled
+		runConditions.setProfile(null);
+		
+		dispersion.apply(runConditions, seed);
+		return runConditions;
+	}
+	
+	
+	/**
+	 * Collects the run summaries into the result in run order.
+	 */
+	private static class Collector {
+		private final MonteCarloResult result = new MonteCarloResult();
+		private final Map<Integer, FlightSummary> pending = new HashMap<Integer, FlightSummary>();
+		private int next = 0;
+		
+		/**
+		 * Add the summary of a run, or null if the run failed.
+		 */
+		public synchronized void add(int run, FlightSummary summary) {
+			pending.put(run, summary);
+			while (pending.containsKey(next)) {
+				FlightSummary s = pending.remove(next);
+				if (s != null) {
+					result.add(s);
+				} else {
+					result.addFailure();
+				}
+				next++;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Simulates a range of runs, splitting the range in half until single runs remain.
+	 */
+	private class RunRange extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final Collector collector;
+		private final Rocket snapshot;
+		private final int start;
+		private final int end;
+		
+		public RunRange(Collector collector, Rocket snapshot, int start, int end) {
+			this.collector = collector;
+			this.snapshot = snapshot;
+			this.start = start;
+			this.end = end;
+		}
+		
+		@Override
+		protected void compute() {
+			if (end - start > 1) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new RunRange(collector, snapshot, start, middle),
+						new RunRange(collector, snapshot, middle, end));
+				return;
+			}
+			
+			for (int run = start; run < end; run++) {
+				FlightSummary summary;
+				try {
+					// The snapshot is private to this simulation, its mutex allows one copy at a time
+					Rocket rocket;
+					synchronized (snapshot) {
+						rocket = (Rocket) snapshot.copy();
+					}
+					summary = simulateRun(run, rocket);
+				} catch (SimulationException e) {
+					log.info("Monte Carlo run " + run + " failed: " + e.getMessage());
+					summary = null;
+				} catch (RuntimeException e) {
+					log.warn("Monte Carlo run " + run + " failed", e);
+					summary = null;
+				}
+				collector.add(run, summary);
+			}
+		}
+	}
+	
+}
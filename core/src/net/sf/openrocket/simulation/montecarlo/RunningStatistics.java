@@ -0,0 +1,85 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+/**
+ * Running statistics of a stream of values, computed without storing the values
+ * using Welford's algorithm.  NaN values are ignored.
+ */
+public class RunningStatistics {
+	
+	private int count = 0;
+	private double mean = 0;
+	private double m2 = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+	
+	
+	/**
+	 * Add a value to the statistics.
+	 * 
+	 * @param value		the value to add, NaN values are ignored.
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		
+		if (count == 1 || value < min) {
+			min = value;
+		}
+		if (count == 1 || value > max) {
+			max = value;
+		}
+	}
+	
+	/**
+	 * Return the number of values added.
+	 */
+	public int getCount() {
+		return count;
+	}
+	
+	/**
+	 * Return the mean of the values, or NaN if no values have been added.
+	 */
+	public double getMean() {
+		if (count == 0)
+			return Double.NaN;
+		return mean;
+	}
+	
+	/**
+	 * Return the sample standard deviation of the values, or NaN if less than
+	 * two values have been added.
+	 */
+	public double getStandardDeviation() {
+		if (count < 2)
+			return Double.NaN;
+		return Math.sqrt(m2 / (count - 1));
+	}
+	
+	/**
+	 * Return the smallest value, or NaN if no values have been added.
+	 */
+	public double getMinimum() {
+		return min;
+	}
+	
+	/**
+	 * Return the largest value, or NaN if no values have been added.
+	 */
+	public double getMaximum() {
+		return max;
+	}
+	
+	@Override
+	public String toString() {
+		return "RunningStatistics[count=" + count + ",mean=" + getMean() + ",stddev=" +
+				getStandardDeviation() + ",min=" + min + ",max=" + max + "]";
+	}
+	
+}
@@ -0,0 +1,552 @@
+package net.sf.openrocket.startup;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.CSVExport;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
+import net.sf.openrocket.models.wind.WindProfile;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationProfile;
+import net.sf.openrocket.unit.Unit;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * A command line application for running the simulations of OpenRocket documents
+ * without a user interface.  The documents are loaded and the simulations run
+ * concurrently on a fixed number of threads, and a summary of each simulation is
+ * written to standard output in the order of the command line.
+ * <p>
+ * The exit code is {@link #EXIT_SUCCESS} if all simulations completed without warnings,
+ * {@link #EXIT_WARNINGS} if some simulation produced warnings, {@link #EXIT_FAILURE} if
+ * a document could not be loaded or a simulation failed, and {@link #EXIT_USAGE} for
+ * invalid command line arguments.
+ */
+public class BatchSimulationRunner {
+	
+	public static final int EXIT_SUCCESS = 0;
+	public static final int EXIT_WARNINGS = 1;
+	public static final int EXIT_FAILURE = 2;
+	public static final int EXIT_USAGE = 3;
+	
+	private static final String FIELD_SEPARATOR = "\t";
+	private static final String CSV_FIELD_SEPARATOR = ",";
+	private static final String CSV_COMMENT = "#";
+	
+	
+	private final List<File> files;
+	private final Set<String> simulationNames;
+	private final File csvDirectory;
+	private final boolean profile;
+	private final int threads;
+	private final SoundingAtmosphericModel sounding;
+	private final WindProfile windProfile;
+	
+	private final PrintStream out;
+	private final PrintStream err;
+	
+	
+	/**
+	 * Sole constructor.  The Application injector must be set before running the simulations.
+	 *
+	 * @param files				the documents to load.
+	 * @param simulationNames	the names of the simulations to run, or an empty set to run all.
+	 * @param csvDirectory		the directory to write the CSV files to, or <code>null</code>.
+	 * @param profile			whether to profile the simulations and write the profiles to the
+	 * 							CSV directory.
+	 * @param threads			the number of threads to use.
+	 * @param sounding			the sounding to use as the atmosphere of all simulations, or
+	 * 							<code>null</code> to use the atmosphere of each simulation.
+	 * @param windProfile		the wind profile to use in all simulations, or <code>null</code>
+	 * 							to use the wind of each simulation.
+	 * @param out				the stream to write the summary to.
+	 * @param err				the stream to write errors and warnings to.
+	 */
+	public BatchSimulationRunner(List<File> files, Set<String> simulationNames, File csvDirectory,
+			boolean profile, int threads, SoundingAtmosphericModel sounding, WindProfile windProfile,
+			PrintStream out, PrintStream err) {
+		this.files = new ArrayList<File>(files);
+		this.simulationNames = new HashSet<String>(simulationNames);
+		this.csvDirectory = csvDirectory;
+		this.profile = profile;
+		this.threads = threads;
+		this.sounding = sounding;
+		this.windProfile = windProfile;
+		this.out = out;
+		this.err = err;
+	}
+	
+	
+	/**
+	 * Load the documents and run the selected simulations.
+	 *
+	 * @return	the exit code describing the outcome.
+	 */
+	public int run() {
+		long t0 = System.currentTimeMillis();
+		int exitCode = EXIT_SUCCESS;
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+		try {
+			
+			// Load all documents concurrently
+			List<Future<OpenRocketDocument>> documents = new ArrayList<Future<OpenRocketDocument>>();
+			for (File file : files) {
+				documents.add(executor.submit(new LoadTask(file)));
+			}
+			
+			// Queue the simulations in command line order as each document becomes available
+			List<SimulationTask> tasks = new ArrayList<SimulationTask>();
+			List<Future<Exception>> results = new ArrayList<Future<Exception>>();
+			Set<String> matchedNames = new HashSet<String>();
+			for (int i = 0; i < files.size(); i++) {
+				OpenRocketDocument document;
+				try {
+					document = documents.get(i).get();
+				} catch (ExecutionException e) {
+					err.println("Unable to load " + files.get(i) + ": " + e.getCause().getMessage());
+					exitCode = EXIT_FAILURE;
+					continue;
+				}
+				
+				// Select before submitting, as the simulations share the rocket
+				List<Simulation> simulations = document.getSimulations();
+				List<SimulationTask> selected = new ArrayList<SimulationTask>();
+				for (int n = 0; n < simulations.size(); n++) {
+					Simulation simulation = simulations.get(n);
+					if (isSelected(simulation)) {
+						matchedNames.add(simulation.getName());
+						if (sounding != null) {
+							simulation.getOptions().setSoundingAtmosphere(sounding);
+						}
+						if (windProfile != null) {
+							simulation.getOptions().setWindProfile(windProfile);
+						}
+						selected.add(new SimulationTask(files.get(i), n, simulation));
+					}
+				}
+				for (SimulationTask task : selected) {
+					tasks.add(task);
+					results.add(executor.submit(task));
+				}
+			}
+			
+			for (String name : simulationNames) {
+				if (!matchedNames.contains(name)) {
+					err.println("No simulation named '" + name + "' found");
+					exitCode = EXIT_FAILURE;
+				}
+			}
+			
+			// Write the summaries as the simulations complete
+			out.println(join("File", "Simulation", "Status", "Apogee (m)", "Max velocity (m/s)",
+					"Time to apogee (s)", "Flight time (s)", "Ground hit velocity (m/s)", "Warnings"));
+			int failures = 0;
+			int warnings = 0;
+			for (int i = 0; i < tasks.size(); i++) {
+				SimulationTask task = tasks.get(i);
+				Exception exception;
+				try {
+					exception = results.get(i).get();
+				} catch (ExecutionException e) {
+					exception = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				}
+				
+				if (exception != null) {
+					failures++;
+					exitCode = EXIT_FAILURE;
+					out.println(join(task.file.getPath(), task.simulation.getName(), "FAILED",
+							"", "", "", "", "", String.valueOf(exception.getMessage())));
+				} else {
+					WarningSet warningSet = task.simulation.getSimulatedWarnings();
+					if (!warningSet.isEmpty()) {
+						warnings++;
+						exitCode = Math.max(exitCode, EXIT_WARNINGS);
+					}
+					out.println(summarize(task.file, task.simulation, warningSet));
+				}
+			}
+			out.flush();
+			
+			err.println(String.format(Locale.ENGLISH, "Ran %d simulations on %d threads in %.1f s, " +
+					"%d failed, %d with warnings", tasks.size(), threads,
+					(System.currentTimeMillis() - t0) / 1000.0, failures, warnings));
+		
+		} catch (InterruptedException e) {
+			err.println("Interrupted");
+			exitCode = EXIT_FAILURE;
+		} finally {
+			executor.shutdownNow();
+		}
+		return exitCode;
+	}
+	
+	
+	private boolean isSelected(Simulation simulation) {
+		if (simulationNames.isEmpty()) {
+			// Imported simulation data cannot be rerun
+			return simulation.getStatus() != Simulation.Status.EXTERNAL;
+		}
+		return simulationNames.contains(simulation.getName());
+	}
+	
+	
+	private String summarize(File file, Simulation simulation, WarningSet warningSet) {
+		FlightData data = simulation.getSimulatedData();
+		StringBuilder warnings = new StringBuilder();
+		for (Warning w : warningSet) {
+			if (warnings.length() > 0) {
+				warnings.append("; ");
+			}
+			warnings.append(w.toString());
+		}
+		return join(file.getPath(), simulation.getName(), warningSet.isEmpty() ? "OK" : "WARNINGS",
+				format(data.getMaxAltitude()), format(data.getMaxVelocity()),
+				format(data.getTimeToApogee()), format(data.getFlightTime()),
+				format(data.getGroundHitVelocity()), warnings.toString());
+	}
+	
+	
+	private static String format(double value) {
+		if (Double.isNaN(value)) {
+			return "";
+		}
+		return String.format(Locale.ENGLISH, "%.3f", value);
+	}
+	
+	
+	private static String join(String... fields) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				sb.append(FIELD_SEPARATOR);
+			}
+			// Keep one summary per line
+			sb.append(fields[i].replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+		}
+		return sb.toString();
+	}
+	
+	
+	/**
+	 * Export the main branch of a simulation in SI units.
+	 */
+	private void exportCSV(File file, int index, Simulation simulation) throws IOException {
+		FlightDataBranch branch = simulation.getSimulatedData().getBranch(0);
+		FlightDataType[] types = branch.getTypes();
+		Unit[] units = new Unit[types.length];
+		for (int i = 0; i < types.length; i++) {
+			units[i] = types[i].getUnitGroup().getSIUnit();
+		}
+		
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(getCSVFile(file, index, simulation, "")));
+		try {
+			CSVExport.exportCSV(os, simulation, branch, types, units, CSV_FIELD_SEPARATOR, CSV_COMMENT,
+					true, true, true);
+		} finally {
+			os.close();
+		}
+	}
+	
+	
+	/**
+	 * Export the execution profile of a simulation.
+	 */
+	private void exportProfile(File file, int index, Simulation simulation) throws IOException {
+		SimulationProfile p = simulation.getSimulatedData().getProfile();
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(getCSVFile(file, index, simulation, "-profile")));
+		try {
+			CSVExport.exportProfile(os, simulation, p, CSV_FIELD_SEPARATOR, CSV_COMMENT);
+		} finally {
+			os.close();
+		}
+	}
+	
+	
+	private File getCSVFile(File file, int index, Simulation simulation, String suffix) {
+		String base = file.getName().replaceFirst("(\\.[^.]*)+$", "");
+		String name = simulation.getName().replaceAll("[^A-Za-z0-9._-]+", "_");
+		return new File(csvDirectory, base + "-" + (index + 1) + "-" + name + suffix + ".csv");
+	}
+	
+	
+	private class LoadTask implements Callable<OpenRocketDocument> {
+		private final File file;
+		
+		public LoadTask(File file) {
+			this.file = file;
+		}
+		
+		@Override
+		public OpenRocketDocument call() throws Exception {
+			GeneralRocketLoader loader = new GeneralRocketLoader(file);
+			OpenRocketDocument document = loader.load();
+			for (Warning w : loader.getWarnings()) {
+				err.println(file + ": " + w);
+			}
+			return document;
+		}
+	}
+	
+	
+	/**
+	 * Runs a single simulation, returning the exception that caused it to fail or
+	 * <code>null</code> if it completed.
+	 */
+	private class SimulationTask implements Callable<Exception> {
+		private final File file;
+		private final int index;
+		private final Simulation simulation;
+		
+		public SimulationTask(File file, int index, Simulation simulation) {
+			this.file = file;
+			this.index = index;
+			this.simulation = simulation;
+		}
+		
+		@Override
+		public Exception call() {
+			try {
+				simulation.setProfiling(profile);
+				simulation.simulate();
+				if (csvDirectory != null) {
+					exportCSV(file, index, simulation);
+					if (profile) {
+						exportProfile(file, index, simulation);
+					}
+				}
+				return null;
+			} catch (Exception e) {
+				return e;
+			}
+		}
+	}
+	
+	
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "BatchSimulation-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+	
+	
+	private static void printUsage(PrintStream stream) {
+		stream.println("Usage: java " + BatchSimulationRunner.class.getCanonicalName() + " [options] <file>...");
+		stream.println();
+		stream.println("Runs the simulations of OpenRocket documents without a user interface.");
+		stream.println();
+		stream.println("Options:");
+		stream.println("  -s, --simulation <name>   run only the simulations with this name (repeatable)");
+		stream.println("  -t, --threads <count>     number of threads (default: number of processors)");
+		stream.println("  -c, --csv <directory>     write the main flight data branch of each simulation");
+		stream.println("                            as a CSV file in SI units to the directory");
+		stream.println("  -p, --profile             write the time, call count and allocations of each");
+		stream.println("                            simulation phase to the CSV directory");
+		stream.println("  -m, --motors <path>       load additional thrust curves from a file or directory");
+		stream.println("                            (repeatable)");
+		stream.println("  -a, --atmosphere <file>   use a measured sounding of altitude (m), pressure (Pa)");
+		stream.println("                            and temperature (K) as the atmosphere of all simulations");
+		stream.println("  -w, --wind <file>         use a profile of altitude (m), average wind speed (m/s)");
+		stream.println("                            and direction (degrees) as the wind of all simulations");
+		stream.println("  -h, --help                show this help");
+		stream.println();
+		stream.println("Exit codes: " + EXIT_SUCCESS + " success, " + EXIT_WARNINGS + " simulation warnings, " +
+				EXIT_FAILURE + " load or simulation failures, " + EXIT_USAGE + " invalid arguments");
+	}
+	
+	
+	public static void main(String[] args) {
+		Arguments arguments;
+		try {
+			arguments = parseArguments(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			printUsage(System.err);
+			System.exit(EXIT_USAGE);
+			return;
+		}
+		if (arguments.help) {
+			printUsage(System.out);
+			System.exit(EXIT_SUCCESS);
+		}
+		
+		BatchSimulationRunner runner;
+		try {
+			runner = createRunner(arguments, System.out, System.err);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(EXIT_FAILURE);
+			return;
+		}
+		
+		HeadlessModule module = new HeadlessModule(arguments.motorFiles);
+		Injector injector = Guice.createInjector(module, new PluginModule());
+		Application.setInjector(injector);
+		module.startLoader();
+		
+		System.exit(runner.run());
+	}
+	
+	
+	/**
+	 * The parsed command line arguments.
+	 */
+	static class Arguments {
+		final List<File> files = new ArrayList<File>();
+		final Set<String> names = new HashSet<String>();
+		final List<File> motorFiles = new ArrayList<File>();
+		File csvDirectory = null;
+		File soundingFile = null;
+		File windFile = null;
+		boolean profile = false;
+		boolean help = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+	}
+	
+	
+	/**
+	 * Parse the command line arguments.  Parsing stops at the help option, in which case
+	 * the other arguments are not validated.
+	 *
+	 * @param args	the command line arguments.
+	 * @return		the parsed arguments.
+	 * @throws IllegalArgumentException	if the arguments are invalid.
+	 */
+	static Arguments parseArguments(String[] args) {
+		Arguments arguments = new Arguments();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-h") || arg.equals("--help")) {
+				arguments.help = true;
+				return arguments;
+			} else if (arg.equals("-s") || arg.equals("--simulation")) {
+				arguments.names.add(value(args, ++i, arg));
+			} else if (arg.equals("-t") || arg.equals("--threads")) {
+				String count = value(args, ++i, arg);
+				try {
+					arguments.threads = Integer.parseInt(count);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid thread count " + count);
+				}
+				if (arguments.threads < 1) {
+					throw new IllegalArgumentException("Thread count must be positive");
+				}
+			} else if (arg.equals("-c") || arg.equals("--csv")) {
+				arguments.csvDirectory = new File(value(args, ++i, arg));
+				if (!arguments.csvDirectory.isDirectory()) {
+					throw new IllegalArgumentException("Not a directory: " + arguments.csvDirectory);
+				}
+			} else if (arg.equals("-p") || arg.equals("--profile")) {
+				arguments.profile = true;
+			} else if (arg.equals("-m") || arg.equals("--motors")) {
+				arguments.motorFiles.add(new File(value(args, ++i, arg)));
+			} else if (arg.equals("-a") || arg.equals("--atmosphere")) {
+				arguments.soundingFile = new File(value(args, ++i, arg));
+			} else if (arg.equals("-w") || arg.equals("--wind")) {
+				arguments.windFile = new File(value(args, ++i, arg));
+			} else if (arg.startsWith("-")) {
+				throw new IllegalArgumentException("Unknown option " + arg);
+			} else {
+				arguments.files.add(new File(arg));
+			}
+		}
+		if (arguments.files.isEmpty()) {
+			throw new IllegalArgumentException("No files specified");
+		}
+		if (arguments.profile && arguments.csvDirectory == null) {
+			throw new IllegalArgumentException("Profiling requires a CSV directory");
+		}
+		return arguments;
+	}
+	
+	
+	/**
+	 * Create a runner for parsed command line arguments, loading the sounding and wind
+	 * profile files.
+	 *
+	 * @param arguments		the parsed arguments.
+	 * @param out			the stream to write the summary to.
+	 * @param err			the stream to write errors and warnings to.
+	 * @return				the runner.
+	 * @throws IOException	if the sounding or wind profile cannot be loaded.
+	 */
+	static BatchSimulationRunner createRunner(Arguments arguments, PrintStream out, PrintStream err)
+			throws IOException {
+		SoundingAtmosphericModel sounding = null;
+		if (arguments.soundingFile != null) {
+			InputStream is = open(arguments.soundingFile);
+			try {
+				sounding = SoundingAtmosphericModel.load(is);
+			} catch (IOException e) {
+				throw new IOException("Unable to load " + arguments.soundingFile + ": " + e.getMessage(), e);
+			} finally {
+				is.close();
+			}
+		}
+		
+		WindProfile windProfile = null;
+		if (arguments.windFile != null) {
+			InputStream is = open(arguments.windFile);
+			try {
+				windProfile = WindProfile.load(is);
+			} catch (IOException e) {
+				throw new IOException("Unable to load " + arguments.windFile + ": " + e.getMessage(), e);
+			} finally {
+				is.close();
+			}
+		}
+		
+		return new BatchSimulationRunner(arguments.files, arguments.names, arguments.csvDirectory,
+				arguments.profile, arguments.threads, sounding, windProfile, out, err);
+	}
+	
+	private static InputStream open(File file) throws IOException {
+		try {
+			return new FileInputStream(file);
+		} catch (IOException e) {
+			throw new IOException("Unable to load " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	private static String value(String[] args, int index, String option) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + option);
+		}
+		return args[index];
+	}
+
+}
@@ -0,0 +1,75 @@
+package net.sf.openrocket.startup;
+
+import java.io.File;
+import java.util.List;
+
+import net.sf.openrocket.database.ComponentPresetDao;
+import net.sf.openrocket.database.ComponentPresetDatabase;
+import net.sf.openrocket.database.ThrustCurveDatabaseLoader;
+import net.sf.openrocket.database.motor.MotorDatabase;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.formatting.RocketDescriptor;
+import net.sf.openrocket.formatting.RocketDescriptorImpl;
+import net.sf.openrocket.l10n.ResourceBundleTranslator;
+import net.sf.openrocket.l10n.Translator;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+/**
+ * HeadlessModule is the Guice Module for running OpenRocket without a user interface.
+ * It does not reference any Swing or OpenGL classes.
+ * <p>
+ * The motor database is loaded in the background, and requesting it blocks until
+ * loading has completed.  Component presets are not loaded; documents referring to
+ * presets keep the component values stored in the file.
+ *
+ * <code>
+ * HeadlessModule module = new HeadlessModule(userMotorFiles);
+ * Application.setInjector(Guice.createInjector(module, new PluginModule()));
+ * module.startLoader();
+ * </code>
+ */
+public class HeadlessModule extends AbstractModule {
+	
+	private final ThrustCurveDatabaseLoader motorLoader;
+	
+	
+	/**
+	 * Sole constructor.
+	 *
+	 * @param userMotorFiles	additional thrust curve files and directories to load.
+	 */
+	public HeadlessModule(List<File> userMotorFiles) {
+		this.motorLoader = new ThrustCurveDatabaseLoader(userMotorFiles);
+	}
+	
+	@Override
+	protected void configure() {
+		
+		bind(Preferences.class).to(HeadlessPreferences.class).in(Scopes.SINGLETON);
+		bind(Translator.class).toInstance(new ResourceBundleTranslator("l10n.messages"));
+		bind(RocketDescriptor.class).to(RocketDescriptorImpl.class).in(Scopes.SINGLETON);
+		bind(ComponentPresetDao.class).to(ComponentPresetDatabase.class).in(Scopes.SINGLETON);
+		
+		Provider<ThrustCurveMotorSetDatabase> motorDatabaseProvider = new Provider<ThrustCurveMotorSetDatabase>() {
+			@Override
+			public ThrustCurveMotorSetDatabase get() {
+				return motorLoader.getDatabase();
+			}
+		};
+		bind(ThrustCurveMotorSetDatabase.class).toProvider(motorDatabaseProvider).in(Scopes.SINGLETON);
+		bind(MotorDatabase.class).toProvider(motorDatabaseProvider).in(Scopes.SINGLETON);
+	
+	}
+	
+	/**
+	 * startLoader must be called after the Injector created with this module is registered
+	 * in the Application object.
+	 */
+	public void startLoader() {
+		motorLoader.startLoading();
+	}
+
+}
@@ -0,0 +1,119 @@
+package net.sf.openrocket.startup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.preset.ComponentPreset;
+
+/**
+ * Preferences for running OpenRocket without a user interface.
+ * <p>
+ * All values start from their defaults and are kept in memory only, so that the
+ * results do not depend on the settings of the desktop application on the machine.
+ * The only exception are the named nodes returned by {@link #getNode(String)}, which
+ * are read from the desktop application's preferences so that e.g. scripts trusted
+ * by the user remain trusted.
+ */
+public class HeadlessPreferences extends Preferences {
+	
+	private static final String NODENAME = "OpenRocket";
+	
+	private final Map<String, String> values = new ConcurrentHashMap<String, String>();
+	private final Set<Material> userMaterials = Collections.synchronizedSet(new HashSet<Material>());
+	
+	
+	@Override
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = values.get(key);
+		return (value == null) ? defaultValue : Boolean.parseBoolean(value);
+	}
+	
+	@Override
+	public void putBoolean(String key, boolean value) {
+		values.put(key, Boolean.toString(value));
+	}
+	
+	@Override
+	public int getInt(String key, int defaultValue) {
+		String value = values.get(key);
+		return (value == null) ? defaultValue : Integer.parseInt(value);
+	}
+	
+	@Override
+	public void putInt(String key, int value) {
+		values.put(key, Integer.toString(value));
+	}
+	
+	@Override
+	public double getDouble(String key, double defaultValue) {
+		String value = values.get(key);
+		return (value == null) ? defaultValue : Double.parseDouble(value);
+	}
+	
+	@Override
+	public void putDouble(String key, double value) {
+		values.put(key, Double.toString(value));
+	}
+	
+	@Override
+	public String getString(String key, String defaultValue) {
+		String value = values.get(key);
+		return (value == null) ? defaultValue : value;
+	}
+	
+	@Override
+	public void putString(String key, String value) {
+		if (value == null) {
+			values.remove(key);
+		} else {
+			values.put(key, value);
+		}
+	}
+	
+	@Override
+	public String getString(String directory, String key, String defaultValue) {
+		return getString(directory + "/" + key, defaultValue);
+	}
+	
+	@Override
+	public void putString(String directory, String key, String value) {
+		putString(directory + "/" + key, value);
+	}
+	
+	@Override
+	public java.util.prefs.Preferences getNode(String nodeName) {
+		return java.util.prefs.Preferences.userRoot().node(NODENAME).node(nodeName);
+	}
+	
+	@Override
+	public void addUserMaterial(Material m) {
+		userMaterials.add(m);
+	}
+	
+	@Override
+	public Set<Material> getUserMaterials() {
+		synchronized (userMaterials) {
+			return new HashSet<Material>(userMaterials);
+		}
+	}
+	
+	@Override
+	public void removeUserMaterial(Material m) {
+		userMaterials.remove(m);
+	}
+	
+	@Override
+	public void setComponentFavorite(ComponentPreset preset, ComponentPreset.Type type, boolean favorite) {
+		// Favorites are only used in the user interface
+	}
+	
+	@Override
+	public Set<String> getComponentFavorites(ComponentPreset.Type type) {
+		return Collections.emptySet();
+	}
+
+}
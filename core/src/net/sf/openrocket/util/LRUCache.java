@@ -0,0 +1,47 @@
+package net.sf.openrocket.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map retaining a limited number of the most recently accessed entries.  Accessing
+ * an entry with {@link #get(Object)} or {@link #put(Object, Object)} makes it the most
+ * recently used, and the least recently used entry is removed when the size limit is
+ * exceeded.
+ * <p>
+ * The map is not synchronized.
+ *
+ * @param <K>	the key type.
+ * @param <V>	the value type.
+ */
+public class LRUCache<K, V> extends LinkedHashMap<K, V> {
+	private static final long serialVersionUID = 1L;
+	
+	private final int maxSize;
+	
+	/**
+	 * Sole constructor.
+	 *
+	 * @param maxSize	the maximum number of entries retained.
+	 */
+	public LRUCache(int maxSize) {
+		super(16, 0.75f, true);
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+	
+	/**
+	 * Return the maximum number of entries retained.
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+	
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+		return size() > maxSize;
+	}
+	
+}
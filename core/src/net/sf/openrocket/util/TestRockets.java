@@ -9,6 +9,8 @@ import net.sf.openrocket.document.OpenRocketDocumentFactory;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.material.Material;
 import net.sf.openrocket.material.Material.Type;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
+import net.sf.openrocket.models.wind.WindProfile;
 import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
@@ -929,6 +931,32 @@ public class TestRockets {
 		return document;
 	}
 	
+	public static OpenRocketDocument makeTestRocket_v108_withSoundingAtmosphere() {
+		Rocket rocket = makeSmallFlyable();
+		rocket.setName("v108_withSoundingAtmosphere");
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setSoundingAtmosphere(new SoundingAtmosphericModel(
+				new double[] { 0, 1000, 3000 },
+				new double[] { 290.15, 282.5, 270.35 },
+				new double[] { 101325, 89876, 70108 }));
+		document.addSimulation(sim);
+		return document;
+	}
+	
+	public static OpenRocketDocument makeTestRocket_v108_withWindProfile() {
+		Rocket rocket = makeSmallFlyable();
+		rocket.setName("v108_withWindProfile");
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setWindProfile(new WindProfile(
+				new double[] { 0, 500, 2000 },
+				new double[] { 3, 6, 10 },
+				new double[] { 0.2, 6.1, 0.5 }));
+		document.addSimulation(sim);
+		return document;
+	}
+	
 	/*
 	 * Create a new test rocket for testing OpenRocketSaver.estimateFileSize()
 	 */
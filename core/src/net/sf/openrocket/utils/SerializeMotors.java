@@ -1,19 +1,27 @@
 package net.sf.openrocket.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.file.motor.MotorCatalog;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.util.Pair;
 
+/**
+ * Preprocess the thrust curve files into the binary motor catalog read at startup.
+ * 
+ * @see MotorCatalog
+ */
 public class SerializeMotors {
 	
 	public static void main(String[] args) throws Exception {
@@ -30,10 +38,7 @@ public class SerializeMotors {
 		
 		File outFile = new File(outputFile);
 		
-		FileOutputStream ofs = new FileOutputStream(outFile);
-		final ObjectOutputStream oos = new ObjectOutputStream(ofs);
-		
-		final List<Motor> allMotors = new ArrayList<Motor>();
+		final List<ThrustCurveMotor> allMotors = new ArrayList<ThrustCurveMotor>();
 		
 		
 		GeneralMotorLoader loader = new GeneralMotorLoader();
@@ -49,15 +54,18 @@ public class SerializeMotors {
 				
 				List<Motor> motors = loader.load(is, fileName);
 				
-				allMotors.addAll(motors);
+				for (Motor m : motors) {
+					allMotors.add((ThrustCurveMotor) m);
+				}
 			}
 		}
 		
-		oos.writeObject(allMotors);
-		
-		oos.flush();
-		ofs.flush();
-		ofs.close();
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(outFile));
+		try {
+			MotorCatalog.write(allMotors, os);
+		} finally {
+			os.close();
+		}
 	}
 	
 }
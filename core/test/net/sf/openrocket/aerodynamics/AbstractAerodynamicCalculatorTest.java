@@ -0,0 +1,119 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class AbstractAerodynamicCalculatorTest extends BaseTestCase {
+	
+	@Test
+	public void testWorstCPMatchesFullSearch() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		FinSet fins = getFinSet(rocket);
+		
+		// A second, rotated fin set on the same body tube
+		TrapezoidFinSet canards = new TrapezoidFinSet(2, 0.02, 0.01, 0.005, 0.015);
+		canards.setBaseRotation(0.5);
+		fins.getParent().addChild(canards);
+		
+		for (int count = 1; count <= 4; count++) {
+			for (int canardCount : new int[] { 1, 2, 4 }) {
+				fins.setFinCount(count);
+				fins.setBaseRotation(0.3 * count);
+				canards.setFinCount(canardCount);
+				
+				for (double aoa : new double[] { 0, 0.1, 0.3 }) {
+					FlightConditions conditions = new FlightConditions(configuration);
+					conditions.setMach(0.5);
+					conditions.setAOA(aoa);
+					
+					BarrowmanCalculator calculator = new BarrowmanCalculator();
+					Coordinate expected = fullSearch(calculator, configuration, conditions);
+					Coordinate actual = calculator.getWorstCP(configuration, conditions, null);
+					
+					String msg = "fins=" + count + " canards=" + canardCount + " aoa=" + aoa;
+					assertTrue(msg, actual.x <= expected.x + 1e-9);
+					assertEquals(msg, expected.x, actual.x, 1e-4);
+					assertEquals(msg, expected.weight, actual.weight, 0.01);
+					
+					// The returned theta must produce the worst CP
+					Coordinate cp = calculator.getCP(configuration, conditions, null);
+					assertEquals(msg, actual.x, cp.x, 1e-9);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testWorstCPCache() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		FinSet fins = getFinSet(rocket);
+		fins.setFinCount(2);
+		
+		BarrowmanCalculator calculator = new BarrowmanCalculator();
+		FlightConditions conditions = new FlightConditions(configuration);
+		conditions.setAOA(0.1);
+		
+		WarningSet warnings = new WarningSet();
+		Coordinate first = calculator.getWorstCP(configuration, conditions, warnings);
+		double theta = conditions.getTheta();
+		
+		conditions.setTheta(1.0);
+		WarningSet cachedWarnings = new WarningSet();
+		Coordinate second = calculator.getWorstCP(configuration, conditions, cachedWarnings);
+		assertTrue(first == second);
+		assertEquals(theta, conditions.getTheta(), 0);
+		assertEquals(warnings.size(), cachedWarnings.size());
+		
+		// Different flight conditions
+		conditions.setAOA(0.2);
+		assertFalse(first == calculator.getWorstCP(configuration, conditions, null));
+		
+		// Changes in the rocket void the cache
+		conditions.setAOA(0.1);
+		fins.setFinCount(3);
+		Coordinate changed = calculator.getWorstCP(configuration, conditions, null);
+		assertTrue(changed.x != first.x);
+		assertEquals(fullSearch(new BarrowmanCalculator(), configuration, conditions).x, changed.x, 1e-4);
+	}
+	
+	
+	/**
+	 * The original exhaustive search at one degree intervals.
+	 */
+	private static Coordinate fullSearch(AerodynamicCalculator calculator, Configuration configuration,
+			FlightConditions conditions) {
+		FlightConditions cond = conditions.clone();
+		Coordinate worst = new Coordinate(Double.MAX_VALUE);
+		for (int i = 0; i < AbstractAerodynamicCalculator.DIVISIONS; i++) {
+			cond.setTheta(2 * Math.PI * i / AbstractAerodynamicCalculator.DIVISIONS);
+			Coordinate cp = calculator.getCP(configuration, cond, null);
+			if (cp.x < worst.x) {
+				worst = cp;
+			}
+		}
+		return worst;
+	}
+	
+	private static FinSet getFinSet(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof FinSet && c.getParent() instanceof BodyTube) {
+				return (FinSet) c;
+			}
+		}
+		throw new AssertionError("No fin set");
+	}
+}
@@ -0,0 +1,155 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class BarrowmanModelTest extends BaseTestCase {
+	
+	@Test
+	public void testModelSharing() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		
+		BarrowmanModel model = new BarrowmanCalculator().getModel(configuration);
+		assertTrue(model == new BarrowmanCalculator().getModel(configuration));
+		assertTrue(model == new BarrowmanCalculator().newInstance().getModel(configuration));
+		
+		// Unmodified copies share the model
+		Rocket copy = (Rocket) rocket.copy();
+		assertTrue(model == new BarrowmanCalculator().getModel(new Configuration(copy)));
+		
+		// Modifying the copy does not affect the original
+		getFinSet(copy).setFinCount(4);
+		BarrowmanModel changed = new BarrowmanCalculator().getModel(new Configuration(copy));
+		assertFalse(model == changed);
+		assertTrue(model == new BarrowmanCalculator().getModel(configuration));
+		
+		// An existing calculator notices the change
+		BarrowmanCalculator calculator = new BarrowmanCalculator();
+		calculator.getModel(configuration);
+		getFinSet(rocket).setFinCount(5);
+		assertFalse(model == calculator.getModel(configuration));
+	}
+	
+	@Test
+	public void testConcurrentResults() throws Exception {
+		final Rocket rocket = TestRockets.makeSmallFlyable();
+		final FlightConditions conditions = new FlightConditions(rocket.getDefaultConfiguration());
+		conditions.setMach(0.6);
+		conditions.setAOA(0.1);
+		conditions.setPitchRate(0.5);
+		
+		final AerodynamicForces expected = new BarrowmanCalculator().getAerodynamicForces(
+				rocket.getDefaultConfiguration(), conditions, null);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<AerodynamicForces>> results = new ArrayList<Future<AerodynamicForces>>();
+			for (int i = 0; i < 16; i++) {
+				final Rocket copy = (Rocket) rocket.copy();
+				results.add(executor.submit(new Callable<AerodynamicForces>() {
+					@Override
+					public AerodynamicForces call() {
+						Configuration configuration = new Configuration(copy);
+						BarrowmanCalculator calculator = new BarrowmanCalculator();
+						AerodynamicForces forces = null;
+						for (int j = 0; j < 100; j++) {
+							forces = calculator.getAerodynamicForces(configuration, conditions.clone(), null);
+						}
+						return forces;
+					}
+				}));
+			}
+			
+			for (Future<AerodynamicForces> f : results) {
+				AerodynamicForces forces = f.get();
+				assertEquals(expected.getCD(), forces.getCD(), 0);
+				assertEquals(expected.getCN(), forces.getCN(), 0);
+				assertEquals(expected.getCm(), forces.getCm(), 0);
+				assertEquals(expected.getCP().x, forces.getCP().x, 0);
+				assertEquals(expected.getPitchDampingMoment(), forces.getPitchDampingMoment(), 0);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	@Test
+	public void testFlattenedModel() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		BarrowmanModel model = new BarrowmanCalculator().getModel(configuration);
+		RocketComponent[] components = model.getComponents(configuration);
+		assertEquals(model.getComponentCount(), components.length);
+		assertFalse(model.isDiscontinuous());
+		
+		int fins = 0;
+		for (int i = 0; i < components.length; i++) {
+			RocketComponent c = components[i];
+			assertTrue(c.isAerodynamic());
+			assertEquals(c instanceof SymmetricComponent, model.isSymmetric(i));
+			assertEquals(c instanceof FinSet, model.isFin(i));
+			
+			Coordinate cp = new Coordinate(0.01, 0.02, 0.03);
+			Coordinate expected = c.toAbsolute(cp)[0];
+			Coordinate actual = model.toAbsolute(i, cp);
+			assertEquals(expected.x, actual.x, 1e-12);
+			assertEquals(expected.y, actual.y, 1e-12);
+			assertEquals(expected.z, actual.z, 1e-12);
+			
+			if (c instanceof SymmetricComponent) {
+				SymmetricComponent s = (SymmetricComponent) c;
+				assertEquals(s.getForeRadius(), model.getForeRadius(i), 0);
+				assertEquals(s.getAftRadius(), model.getAftRadius(i), 0);
+				assertEquals(s.getComponentWetArea(), model.getFrictionArea(i), 0);
+			}
+			if (c instanceof FinSet) {
+				FinSet f = (FinSet) c;
+				assertEquals(0.6 * Math.min(f.getFinCount(), 4) * f.getFinArea(),
+						model.getFinDampingArea(i), 0);
+				assertTrue(model.getFinMidchordX(i) > c.toAbsolute(Coordinate.NUL)[0].x);
+				fins++;
+			}
+		}
+		assertEquals(1, fins);
+		
+		// A change of the configuration is detected
+		rocket.getChild(0).addChild(new BodyTube());
+		try {
+			model.getComponents(configuration);
+			fail();
+		} catch (BugException expected) {
+		}
+	}
+	
+	
+	private static FinSet getFinSet(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof FinSet) {
+				return (FinSet) c;
+			}
+		}
+		throw new AssertionError("No fin set");
+	}
+}
@@ -0,0 +1,100 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class TabulatedBarrowmanCalculatorTest extends BaseTestCase {
+	
+	@Test
+	public void testMatchesDirectCalculation() {
+		Configuration configuration = TestRockets.makeSmallFlyable().getDefaultConfiguration();
+		BarrowmanCalculator direct = new BarrowmanCalculator();
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+		Random random = new Random(1);
+		
+		for (int i = 0; i < 2000; i++) {
+			FlightConditions conditions = new FlightConditions(configuration);
+			conditions.setMach(random.nextDouble() * 1.5);
+			conditions.setVelocity(conditions.getMach() * 340);
+			conditions.setAOA(random.nextDouble() * (i % 2 == 0 ? 0.2 : Math.PI));
+			conditions.setPitchRate(random.nextDouble() - 0.5);
+			conditions.setPitchCenter(new Coordinate(configuration.getLength() / 2));
+			
+			AerodynamicForces expected = direct.getAerodynamicForces(configuration, conditions, null);
+			AerodynamicForces actual = tabulated.getAerodynamicForces(configuration, conditions, null);
+			
+			assertClose(expected.getCN(), actual.getCN());
+			assertClose(expected.getCm(), actual.getCm());
+			assertClose(expected.getCD(), actual.getCD());
+			assertClose(expected.getCaxial(), actual.getCaxial());
+			assertClose(expected.getCP().x, actual.getCP().x);
+			assertEquals(expected.getFrictionCD(), actual.getFrictionCD(), 0);
+			assertEquals(expected.getPitchDampingMoment(), actual.getPitchDampingMoment(), 0);
+		}
+	}
+	
+	@Test
+	public void testFallbackOutsideTable() {
+		Configuration configuration = TestRockets.makeSmallFlyable().getDefaultConfiguration();
+		BarrowmanCalculator direct = new BarrowmanCalculator();
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+		
+		FlightConditions conditions = new FlightConditions(configuration);
+		conditions.setMach(0.3);
+		conditions.setVelocity(100);
+		conditions.setAOA(0.05);
+		conditions.setRollRate(5);
+		assertForcesEqual(direct.getAerodynamicForces(configuration, conditions, null),
+				tabulated.getAerodynamicForces(configuration, conditions, null));
+		
+		conditions.setRollRate(0);
+		conditions.setMach(TabulatedBarrowmanCalculator.MAX_MACH + 0.5);
+		assertForcesEqual(direct.getAerodynamicForces(configuration, conditions, null),
+				tabulated.getAerodynamicForces(configuration, conditions, null));
+	}
+	
+	@Test
+	public void testWarnings() {
+		Configuration configuration = TestRockets.makeSmallFlyable().getDefaultConfiguration();
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+		FlightConditions conditions = new FlightConditions(configuration);
+		conditions.setVelocity(100);
+		
+		WarningSet warnings = new WarningSet();
+		conditions.setAOA(0.05);
+		tabulated.getAerodynamicForces(configuration, conditions, warnings);
+		assertFalse(warnings.toString(), warnings.contains(new Warning.LargeAOA(0)));
+		
+		conditions.setAOA(0.5);
+		tabulated.getAerodynamicForces(configuration, conditions, warnings);
+		assertTrue(warnings.contains(new Warning.LargeAOA(0)));
+		
+		conditions.setMach(1.5);
+		tabulated.getAerodynamicForces(configuration, conditions, warnings);
+		assertTrue(warnings.contains(Warning.SUPERSONIC));
+	}
+	
+	
+	private static void assertClose(double expected, double actual) {
+		assertEquals(expected, actual, 0.002 + 0.03 * Math.abs(expected));
+	}
+	
+	private static void assertForcesEqual(AerodynamicForces expected, AerodynamicForces actual) {
+		assertEquals(expected.getCN(), actual.getCN(), 0);
+		assertEquals(expected.getCm(), actual.getCm(), 0);
+		assertEquals(expected.getCroll(), actual.getCroll(), 0);
+		assertEquals(expected.getCD(), actual.getCD(), 0);
+		assertEquals(expected.getCP(), actual.getCP());
+	}
+	
+}
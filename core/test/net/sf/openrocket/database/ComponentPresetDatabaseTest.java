@@ -0,0 +1,175 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.preset.ComponentPreset;
+import net.sf.openrocket.preset.ComponentPreset.Type;
+import net.sf.openrocket.preset.ComponentPresetFactory;
+import net.sf.openrocket.preset.TypedPropertyMap;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.Preferences;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+
+public class ComponentPresetDatabaseTest {
+	
+	private static final Type[] TYPES = { Type.BODY_TUBE, Type.LAUNCH_LUG };
+	
+	private final FavoritePreferences preferences = new FavoritePreferences();
+	private final Random rnd = new Random(1);
+	
+	@Before
+	public void setup() {
+		Application.setInjector(Guice.createInjector(Modules.override(new ServicesForTesting()).with(
+				new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(Preferences.class).toInstance(preferences);
+					}
+				}), new PluginModule()));
+	}
+	
+	
+	@Test
+	public void testQueries() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		assertEquals(Collections.emptyList(), db.listForType(Type.BODY_TUBE));
+		assertEquals(Collections.emptyList(), db.listForType(null));
+		
+		for (int i = 0; i < 300; i++) {
+			db.insert(createPreset());
+		}
+		checkQueries(db);
+		
+		// Favorites are updated by setFavorite
+		List<ComponentPreset> tubes = db.listForType(Type.BODY_TUBE);
+		db.setFavorite(tubes.get(3), Type.BODY_TUBE, true);
+		db.setFavorite(tubes.get(7), Type.BODY_TUBE, true);
+		db.setFavorite(tubes.get(9), Type.BODY_TUBE, true);
+		db.setFavorite(tubes.get(7), Type.BODY_TUBE, false);
+		List<ComponentPreset> favorites = db.listForType(Type.BODY_TUBE, true);
+		assertTrue(favorites.contains(tubes.get(3)));
+		assertTrue(favorites.contains(tubes.get(9)));
+		assertTrue(favorites.size() < tubes.size());
+		assertEquals(Collections.emptyList(), db.listForType(Type.LAUNCH_LUG, true));
+		checkQueries(db);
+		
+		// Sorted insertion and removal rebuild the indexes
+		for (int i = 0; i < 100; i++) {
+			db.add(createPreset());
+		}
+		checkQueries(db);
+		for (int i = 0; i < 100; i++) {
+			db.insert(createPreset());
+		}
+		checkQueries(db);
+		Iterator<ComponentPreset> iterator = db.iterator();
+		while (iterator.hasNext()) {
+			iterator.next();
+			if (rnd.nextInt(3) == 0) {
+				iterator.remove();
+			}
+		}
+		checkQueries(db);
+	}
+	
+	
+	private void checkQueries(ComponentPresetDatabase db) {
+		List<ComponentPreset> all = new ArrayList<ComponentPreset>(db.listAll());
+		
+		for (Type type : Type.values()) {
+			List<ComponentPreset> expected = new ArrayList<ComponentPreset>();
+			List<ComponentPreset> expectedFavorites = new ArrayList<ComponentPreset>();
+			for (ComponentPreset p : all) {
+				if (p.getType() == type) {
+					expected.add(p);
+					if (preferences.getComponentFavorites(type).contains(p.preferenceKey())) {
+						expectedFavorites.add(p);
+					}
+				}
+			}
+			assertEquals(expected, db.listForType(type));
+			assertEquals(expected, db.listForType(type, false));
+			assertEquals(expectedFavorites, db.listForType(type, true));
+		}
+		
+		List<ComponentPreset> expected = new ArrayList<ComponentPreset>();
+		for (ComponentPreset p : all) {
+			if (p.getType() == Type.BODY_TUBE || p.getType() == Type.LAUNCH_LUG) {
+				expected.add(p);
+			}
+		}
+		assertEquals(expected, db.listForTypes(Type.LAUNCH_LUG, Type.NOSE_CONE, Type.BODY_TUBE, Type.LAUNCH_LUG));
+		assertEquals(expected, db.listForTypes(Arrays.asList(Type.BODY_TUBE, Type.LAUNCH_LUG)));
+		assertEquals(Collections.emptyList(), db.listForTypes());
+		
+		for (String manufacturer : new String[] { "A", "B", "C" }) {
+			for (int n = 0; n < 30; n++) {
+				String partNo = "P" + n;
+				List<ComponentPreset> found = new ArrayList<ComponentPreset>();
+				for (ComponentPreset p : all) {
+					if (p.getManufacturer().getSimpleName().equals(manufacturer) && p.getPartNo().equals(partNo)) {
+						found.add(p);
+					}
+				}
+				assertEquals(found, db.find(manufacturer, partNo));
+			}
+		}
+		assertTrue(db.find("A", null).isEmpty());
+	}
+	
+	private ComponentPreset createPreset() throws Exception {
+		TypedPropertyMap presetspec = new TypedPropertyMap();
+		presetspec.put(ComponentPreset.TYPE, TYPES[rnd.nextInt(TYPES.length)]);
+		presetspec.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer(rnd.nextBoolean() ? "A" : "B"));
+		presetspec.put(ComponentPreset.PARTNO, "P" + rnd.nextInt(30));
+		presetspec.put(ComponentPreset.LENGTH, 1.0 + rnd.nextInt(10));
+		presetspec.put(ComponentPreset.OUTER_DIAMETER, 2.0);
+		presetspec.put(ComponentPreset.INNER_DIAMETER, 1.0);
+		return ComponentPresetFactory.create(presetspec);
+	}
+	
+	
+	private static class FavoritePreferences extends ServicesForTesting.PreferencesForTesting {
+		private final Set<String> favorites = new HashSet<String>();
+		
+		@Override
+		public void setComponentFavorite(ComponentPreset preset, Type type, boolean favorite) {
+			if (favorite) {
+				favorites.add(type.name() + "|" + preset.preferenceKey());
+			} else {
+				favorites.remove(type.name() + "|" + preset.preferenceKey());
+			}
+		}
+		
+		@Override
+		public Set<String> getComponentFavorites(Type type) {
+			Set<String> keys = new HashSet<String>();
+			for (String s : favorites) {
+				if (s.startsWith(type.name() + "|")) {
+					keys.add(s.substring(type.name().length() + 1));
+				}
+			}
+			return keys;
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.openrocket.motor.ThrustCurveMotor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThrustCurveFileLoaderTest {
+	
+	private File dir;
+	private File cache;
+	
+	@Before
+	public void setup() throws IOException {
+		dir = File.createTempFile("thrustcurves", "");
+		dir.delete();
+		dir.mkdir();
+		new File(dir, "sub").mkdir();
+		new File(dir, ".hidden").mkdir();
+		
+		copy("test1.eng", new File(dir, "a.eng"));
+		copy("test2.rse", new File(dir, "b.RSE"));
+		copy("test.zip", new File(dir, "sub/c.zip"));
+		copy("test3.rse", new File(dir, "sub/d.rse"));
+		copy("test1.eng", new File(dir, ".hidden/e.eng"));
+		copy("test.txt", new File(dir, "f.txt"));
+		
+		cache = new File(dir, "cache/motors.cache");
+	}
+	
+	@After
+	public void cleanup() {
+		delete(dir);
+	}
+	
+	
+	@Test
+	public void testLoad() {
+		List<ThrustCurveMotor> motors = new ThrustCurveFileLoader(null).load(Arrays.asList(dir));
+		assertEquals(Arrays.asList("6a41f0f10b7283793eb0e6b389753729", "6a41f0f10b7283793eb0e6b389753729",
+				"e3164a735f9a50500f2725f0a33d246b", "e523030bc96d5e63313b5723aaea267d",
+				"e523030bc96d5e63313b5723aaea267d"), digests(motors));
+		assertFalse(cache.exists());
+		
+		// Files are loaded in the order given
+		File a = new File(dir, "a.eng");
+		File d = new File(dir, "sub/d.rse");
+		motors = new ThrustCurveFileLoader(null).load(Arrays.asList(d, new File(dir, "missing.eng"), a));
+		assertEquals(2, motors.size());
+		assertEquals("e3164a735f9a50500f2725f0a33d246b", motors.get(0).getDigest());
+		assertEquals("e523030bc96d5e63313b5723aaea267d", motors.get(1).getDigest());
+	}
+	
+	
+	@Test
+	public void testCache() throws IOException {
+		List<ThrustCurveMotor> original = new ThrustCurveFileLoader(cache).load(Arrays.asList(dir));
+		assertTrue(cache.isFile());
+		assertEquals(5, original.size());
+		
+		// Overwrite a file keeping its size and modification time, the cached motors are used
+		File a = new File(dir, "a.eng");
+		long lastModified = a.lastModified();
+		byte[] garbage = new byte[(int) a.length()];
+		Arrays.fill(garbage, (byte) 'x');
+		write(garbage, a);
+		assertTrue(a.setLastModified(lastModified));
+		
+		List<ThrustCurveMotor> cached = new ThrustCurveFileLoader(cache).load(Arrays.asList(dir));
+		assertEquals(digests(original), digests(cached));
+		for (int i = 0; i < original.size(); i++) {
+			ThrustCurveMotor m1 = original.get(i);
+			ThrustCurveMotor m2 = cached.get(i);
+			assertEquals(m1.getDesignation(), m2.getDesignation());
+			assertEquals(m1.getManufacturer(), m2.getManufacturer());
+			assertEquals(m1.getTotalImpulseEstimate(), m2.getTotalImpulseEstimate(), 0);
+			assertTrue(Arrays.equals(m1.getTimePoints(), m2.getTimePoints()));
+			assertTrue(Arrays.equals(m1.getThrustPoints(), m2.getThrustPoints()));
+			assertTrue(Arrays.equals(m1.getCGPoints(), m2.getCGPoints()));
+		}
+		
+		// Changing the modification time causes the file to be parsed again
+		assertTrue(a.setLastModified(lastModified - 10000));
+		assertEquals(4, new ThrustCurveFileLoader(cache).load(Arrays.asList(dir)).size());
+		
+		// Removed files are dropped from the cache
+		delete(new File(dir, "sub"));
+		assertEquals(1, new ThrustCurveFileLoader(cache).load(Arrays.asList(dir)).size());
+		
+		// An invalid cache is ignored
+		write(new byte[] { 1, 2, 3 }, cache);
+		assertEquals(1, new ThrustCurveFileLoader(cache).load(Arrays.asList(dir)).size());
+		assertTrue(cache.length() > 3);
+	}
+	
+	
+	private static List<String> digests(List<ThrustCurveMotor> motors) {
+		List<String> digests = new ArrayList<String>();
+		for (ThrustCurveMotor m : motors) {
+			digests.add(m.getDigest());
+		}
+		Collections.sort(digests);
+		return digests;
+	}
+	
+	private void copy(String resource, File file) throws IOException {
+		InputStream is = getClass().getResourceAsStream("/net/sf/openrocket/file/motor/" + resource);
+		try {
+			OutputStream os = new FileOutputStream(file);
+			try {
+				byte[] buf = new byte[4096];
+				int n;
+				while ((n = is.read(buf)) >= 0) {
+					os.write(buf, 0, n);
+				}
+			} finally {
+				os.close();
+			}
+		} finally {
+			is.close();
+		}
+	}
+	
+	private static void write(byte[] bytes, File file) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(bytes);
+		} finally {
+			os.close();
+		}
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+
+}
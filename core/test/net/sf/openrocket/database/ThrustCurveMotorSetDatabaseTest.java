@@ -0,0 +1,176 @@
+package net.sf.openrocket.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.sf.openrocket.database.motor.ThrustCurveMotorSet;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.util.Coordinate;
+
+import org.junit.Test;
+
+public class ThrustCurveMotorSetDatabaseTest {
+	
+	private static final String[] MANUFACTURERS = { "A", "B" };
+	private static final String[] DESIGNATIONS = { "F12", "F12J", "f12j", "G40", "G40-7W", "H128", "Micro Maxx" };
+	private static final Motor.Type[] TYPES = { Motor.Type.UNKNOWN, Motor.Type.SINGLE, Motor.Type.RELOAD };
+	private static final double[] DIAMETERS = { 0.018, 0.024, 0.029, 0.0295 };
+	private static final double[] LENGTHS = { 0.07, 0.1, 0.124 };
+	
+	
+	private static List<ThrustCurveMotor> createMotors(int count) {
+		Random rnd = new Random(42);
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		for (int i = 0; i < count; i++) {
+			double thrust = 5 + rnd.nextInt(20);
+			motors.add(new ThrustCurveMotor(
+					Manufacturer.getManufacturer(MANUFACTURERS[rnd.nextInt(MANUFACTURERS.length)]),
+					DESIGNATIONS[rnd.nextInt(DESIGNATIONS.length)], "Desc " + rnd.nextInt(3),
+					TYPES[rnd.nextInt(TYPES.length)], new double[] { rnd.nextInt(3) * 2 },
+					DIAMETERS[rnd.nextInt(DIAMETERS.length)], LENGTHS[rnd.nextInt(LENGTHS.length)],
+					new double[] { 0, 0.5, 1 + rnd.nextInt(3) }, new double[] { 0, thrust, 0 },
+					new Coordinate[] { Coordinate.NUL, Coordinate.NUL, Coordinate.NUL },
+					"digest" + rnd.nextInt(count)));
+		}
+		return motors;
+	}
+	
+	
+	@Test
+	public void testMotorSets() {
+		List<ThrustCurveMotor> motors = createMotors(500);
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		
+		// Reference grouping by scanning all sets
+		List<ThrustCurveMotorSet> expected = new ArrayList<ThrustCurveMotorSet>();
+		for (ThrustCurveMotor m : motors) {
+			db.addMotor(m);
+			
+			ThrustCurveMotorSet found = null;
+			for (int i = expected.size() - 1; i >= 0; i--) {
+				if (expected.get(i).matches(m)) {
+					found = expected.get(i);
+					break;
+				}
+			}
+			if (found == null) {
+				found = new ThrustCurveMotorSet();
+				expected.add(found);
+			}
+			found.addMotor(m);
+		}
+		
+		List<ThrustCurveMotorSet> sets = db.getMotorSets();
+		assertEquals(expected.size(), sets.size());
+		for (int i = 0; i < sets.size(); i++) {
+			assertEquals(expected.get(i).getMotors(), sets.get(i).getMotors());
+		}
+	}
+	
+	
+	@Test
+	public void testFindMotors() {
+		List<ThrustCurveMotor> motors = createMotors(500);
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotor m : motors.subList(0, 250)) {
+			db.addMotor(m);
+		}
+		int before = db.findMotors(null, null, "F12", Double.NaN, Double.NaN).size();
+		
+		// The index must be rebuilt after adding motors
+		for (ThrustCurveMotor m : motors.subList(250, motors.size())) {
+			db.addMotor(m);
+		}
+		assertTrue(db.findMotors(null, null, "F12", Double.NaN, Double.NaN).size() > before);
+		
+		String[] manufacturers = { null, "A", "B", "C" };
+		String[] designations = { null, "F12", "F12J", "F12j", "Micro Maxx", "X1" };
+		Motor.Type[] types = { null, Motor.Type.SINGLE, Motor.Type.RELOAD, Motor.Type.HYBRID };
+		double[] dimensions = { Double.NaN, 0.018, 0.0245, 0.029, 0.07, 0.1, 0.124 };
+		
+		for (String manufacturer : manufacturers) {
+			for (String designation : designations) {
+				for (Motor.Type type : types) {
+					for (double diameter : dimensions) {
+						for (double length : dimensions) {
+							List<ThrustCurveMotor> expected = findByScan(db, type, manufacturer,
+									designation, diameter, length);
+							List<ThrustCurveMotor> result = db.findMotors(type, manufacturer,
+									designation, diameter, length);
+							assertEquals(expected, result);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	
+	@Test
+	public void testFindMotorsInRange() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotor m : createMotors(300)) {
+			db.addMotor(m);
+		}
+		
+		List<ThrustCurveMotor> all = db.findMotors(null, null, null, Double.NaN, Double.NaN);
+		assertEquals(all, db.findMotors(Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+				Double.NaN, Double.NaN));
+		
+		double[][] ranges = {
+				{ 0.024, 0.029, Double.NaN, Double.NaN, Double.NaN, Double.NaN },
+				{ Double.NaN, 0.024, 0.1, Double.NaN, 10, 20 },
+				{ 0.029, 0.029, 0.07, 0.07, Double.NaN, 15 },
+				{ Double.NaN, Double.NaN, Double.NaN, Double.NaN, 30, Double.NaN },
+				{ 0.03, 0.02, Double.NaN, Double.NaN, Double.NaN, Double.NaN },
+		};
+		for (double[] r : ranges) {
+			List<ThrustCurveMotor> expected = new ArrayList<ThrustCurveMotor>();
+			for (ThrustCurveMotor m : all) {
+				if (inRange(m.getDiameter(), r[0], r[1]) && inRange(m.getLength(), r[2], r[3]) &&
+						inRange(m.getTotalImpulseEstimate(), r[4], r[5])) {
+					expected.add(m);
+				}
+			}
+			List<ThrustCurveMotor> result = db.findMotors(r[0], r[1], r[2], r[3], r[4], r[5]);
+			assertEquals(expected, result);
+		}
+	}
+	
+	
+	private static boolean inRange(double value, double min, double max) {
+		return (Double.isNaN(min) || value >= min) && (Double.isNaN(max) || value <= max);
+	}
+	
+	/**
+	 * The linear search of all motors sets and motors.
+	 */
+	private static List<ThrustCurveMotor> findByScan(ThrustCurveMotorSetDatabase db, Motor.Type type,
+			String manufacturer, String designation, double diameter, double length) {
+		List<ThrustCurveMotor> results = new ArrayList<ThrustCurveMotor>();
+		for (ThrustCurveMotorSet set : db.getMotorSets()) {
+			for (ThrustCurveMotor m : set.getMotors()) {
+				if (type != null && type != set.getType())
+					continue;
+				if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
+					continue;
+				if (designation != null && !designation.equalsIgnoreCase(m.getDesignation()))
+					continue;
+				if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.0015))
+					continue;
+				if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.0015))
+					continue;
+				results.add(m);
+			}
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,143 @@
+package net.sf.openrocket.file.motor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.MotorDigest;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+
+import org.junit.Test;
+
+public class MotorCatalogTest {
+	
+	@Test
+	public void testStreamRoundTrip() throws IOException {
+		List<ThrustCurveMotor> motors = loadTestMotors();
+		byte[] bytes = write(motors);
+		
+		List<ThrustCurveMotor> read = MotorCatalog.read(new ByteArrayInputStream(bytes));
+		assertMotors(motors, read);
+	}
+	
+	@Test
+	public void testMappedFile() throws IOException {
+		List<ThrustCurveMotor> motors = loadTestMotors();
+		File file = File.createTempFile("motors", ".catalog");
+		try {
+			FileOutputStream os = new FileOutputStream(file);
+			try {
+				os.write(write(motors));
+			} finally {
+				os.close();
+			}
+			assertMotors(motors, MotorCatalog.open(file));
+		} finally {
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void testLazyCurve() throws Exception {
+		List<ThrustCurveMotor> motors = loadTestMotors();
+		ThrustCurveMotor original = motors.get(0);
+		ThrustCurveMotor lazy = MotorCatalog.read(new ByteArrayInputStream(write(motors))).get(0);
+		
+		// Statistics are available without the curve
+		assertEquals(original.getDataPointCount(), lazy.getDataPointCount());
+		assertEquals(original.getTotalImpulseEstimate(), lazy.getTotalImpulseEstimate(), 0);
+		assertEquals(original.getAverageThrustEstimate(), lazy.getAverageThrustEstimate(), 0);
+		assertEquals(original.getBurnTimeEstimate(), lazy.getBurnTimeEstimate(), 0);
+		assertEquals(original.getMaxThrustEstimate(), lazy.getMaxThrustEstimate(), 0);
+		
+		// A serialized lazy motor contains its curve
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(lazy);
+		oos.close();
+		ThrustCurveMotor copy = (ThrustCurveMotor) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertArrayEquals(original.getThrustPoints(), copy.getThrustPoints(), 0);
+		assertEquals(original.getDataPointCount(), copy.getDataPointCount());
+		assertEquals(MotorDigest.digestMotor(original), MotorDigest.digestMotor(copy));
+	}
+	
+	@Test
+	public void testInvalidCatalog() throws IOException {
+		byte[] bytes = write(loadTestMotors());
+		
+		byte[] magic = bytes.clone();
+		magic[0] = 'X';
+		assertInvalid(magic);
+		
+		byte[] version = bytes.clone();
+		version[7] = 99;
+		assertInvalid(version);
+		
+		assertInvalid(Arrays.copyOf(bytes, 100));
+		assertInvalid(Arrays.copyOf(bytes, bytes.length - 8));
+	}
+	
+	
+	private static void assertInvalid(byte[] bytes) {
+		try {
+			MotorCatalog.read(new ByteArrayInputStream(bytes));
+			fail("Read invalid catalog");
+		} catch (IOException expected) {
+		}
+	}
+	
+	private static void assertMotors(List<ThrustCurveMotor> expected, List<ThrustCurveMotor> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			ThrustCurveMotor e = expected.get(i);
+			ThrustCurveMotor a = actual.get(i);
+			assertEquals(e.getManufacturer(), a.getManufacturer());
+			assertEquals(e.getDesignation(), a.getDesignation());
+			assertEquals(e.getDescription(), a.getDescription());
+			assertEquals(e.getDigest(), a.getDigest());
+			assertEquals(e.getMotorType(), a.getMotorType());
+			assertArrayEquals(e.getStandardDelays(), a.getStandardDelays(), 0);
+			assertEquals(e.getDiameter(), a.getDiameter(), 0);
+			assertEquals(e.getLength(), a.getLength(), 0);
+			assertArrayEquals(e.getTimePoints(), a.getTimePoints(), 0);
+			assertArrayEquals(e.getThrustPoints(), a.getThrustPoints(), 0);
+			assertArrayEquals(e.getCGPoints(), a.getCGPoints());
+			assertEquals(MotorDigest.digestMotor(e), MotorDigest.digestMotor(a));
+		}
+	}
+	
+	private static byte[] write(List<ThrustCurveMotor> motors) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MotorCatalog.write(motors, bytes);
+		return bytes.toByteArray();
+	}
+	
+	private List<ThrustCurveMotor> loadTestMotors() throws IOException {
+		List<ThrustCurveMotor> motors = new ArrayList<ThrustCurveMotor>();
+		for (String file : new String[] { "test1.eng", "test2.rse", "test3.rse" }) {
+			InputStream is = MotorCatalogTest.class.getResourceAsStream(file);
+			try {
+				for (Motor m : new GeneralMotorLoader().load(is, file)) {
+					motors.add((ThrustCurveMotor) m);
+				}
+			} finally {
+				is.close();
+			}
+		}
+		return motors;
+	}
+}
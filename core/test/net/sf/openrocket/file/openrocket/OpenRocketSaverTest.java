@@ -25,6 +25,8 @@ import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
 import net.sf.openrocket.l10n.DebugTranslator;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
+import net.sf.openrocket.models.wind.WindProfile;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.plugin.PluginModule;
@@ -129,6 +131,8 @@ public class OpenRocketSaverTest {
 		rocketDocs.add(TestRockets.makeTestRocket_v106_withRecoveryDeviceDeploymentConfig());
 		rocketDocs.add(TestRockets.makeTestRocket_v106_withStageSeparationConfig());
 		rocketDocs.add(TestRockets.makeTestRocket_v107_withSimulationExtension(SIMULATION_EXTENSION_SCRIPT));
+		rocketDocs.add(TestRockets.makeTestRocket_v108_withSoundingAtmosphere());
+		rocketDocs.add(TestRockets.makeTestRocket_v108_withWindProfile());
 		rocketDocs.add(TestRockets.makeTestRocket_for_estimateFileSize());
 		
 		StorageOptions options = new StorageOptions();
@@ -171,6 +175,34 @@ public class OpenRocketSaverTest {
 	}
 	
 	
+	@Test
+	public void testSoundingAtmosphereSaveLoad() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v108_withSoundingAtmosphere();
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertEquals(1, rocketDocLoaded.getSimulations().size());
+		SoundingAtmosphericModel expected = rocketDoc.getSimulations().get(0).getOptions().getSoundingAtmosphere();
+		SoundingAtmosphericModel loaded = rocketDocLoaded.getSimulations().get(0).getOptions().getSoundingAtmosphere();
+		assertEquals(expected, loaded);
+	}
+	
+	@Test
+	public void testWindProfileSaveLoad() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v108_withWindProfile();
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertEquals(1, rocketDocLoaded.getSimulations().size());
+		WindProfile expected = rocketDoc.getSimulations().get(0).getOptions().getWindProfile();
+		WindProfile loaded = rocketDocLoaded.getSimulations().get(0).getOptions().getWindProfile();
+		assertEquals(expected.getLayerCount(), loaded.getLayerCount());
+		for (int i = 0; i < expected.getLayerCount(); i++) {
+			assertEquals(expected.getAltitude(i), loaded.getAltitude(i), 0);
+			assertEquals(expected.getSpeed(i), loaded.getSpeed(i), 0);
+			assertEquals(expected.getDirection(i), loaded.getDirection(i), 1e-12);
+		}
+	}
+	
+	
 	/*
 	 * Test how accurate estimatedFileSize is.
 	 * 
@@ -304,6 +336,22 @@ public class OpenRocketSaverTest {
 		assertEquals(107, getCalculatedFileVersion(rocketDoc));
 	}
 	
+	////////////////////////////////
+	// Tests for File Version 1.8 // 
+	////////////////////////////////
+	
+	@Test
+	public void testFileVersion108_withSoundingAtmosphere() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v108_withSoundingAtmosphere();
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+	}
+	
+	@Test
+	public void testFileVersion108_withWindProfile() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v108_withWindProfile();
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+	}
+	
 	
 	/*
 	 * Utility Functions
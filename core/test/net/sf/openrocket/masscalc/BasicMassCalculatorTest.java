@@ -0,0 +1,87 @@
+package net.sf.openrocket.masscalc;
+
+import static org.junit.Assert.assertEquals;
+import static net.sf.openrocket.util.MathUtil.pow2;
+import net.sf.openrocket.masscalc.MassCalculator.MassCalcType;
+import net.sf.openrocket.motor.MotorInstanceConfiguration;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Configuration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.Stage;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+
+import org.junit.Test;
+
+public class BasicMassCalculatorTest extends BaseTestCase {
+	
+	@Test
+	public void testStructureCacheCounters() {
+		Rocket rocket = makeTwoStageRocket();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		BasicMassCalculator calc = new BasicMassCalculator();
+		
+		Coordinate cg = calc.getCG(configuration, (MotorInstanceConfiguration) null);
+		assertEquals(1, calc.getStructureCacheMisses());
+		assertEquals(0, calc.getStructureCacheHits());
+		
+		for (int i = 0; i < 10; i++) {
+			assertEquals(cg, calc.getCG(configuration, (MotorInstanceConfiguration) null));
+		}
+		assertEquals(1, calc.getStructureCacheMisses());
+		assertEquals(10, calc.getStructureCacheHits());
+		
+		configuration.setOnlyStage(0);
+		calc.getCG(configuration, MassCalcType.NO_MOTORS);
+		assertEquals(2, calc.getStructureCacheMisses());
+		
+		// Changing the mass voids the cache
+		((BodyTube) rocket.getChild(0).getChild(0)).setLength(0.5);
+		Coordinate changed = calc.getCG(configuration, MassCalcType.NO_MOTORS);
+		assertEquals(3, calc.getStructureCacheMisses());
+		assertEquals(new BasicMassCalculator().getCG(configuration, MassCalcType.NO_MOTORS), changed);
+	}
+	
+	@Test
+	public void testActiveStages() {
+		Rocket rocket = makeTwoStageRocket();
+		Configuration configuration = rocket.getDefaultConfiguration();
+		BasicMassCalculator calc = new BasicMassCalculator();
+		
+		configuration.setOnlyStage(0);
+		Coordinate cg0 = calc.getCG(configuration, MassCalcType.NO_MOTORS);
+		double longitudinal0 = calc.getLongitudinalInertia(configuration, null);
+		double rotational0 = calc.getRotationalInertia(configuration, null);
+		
+		configuration.setOnlyStage(1);
+		Coordinate cg1 = calc.getCG(configuration, MassCalcType.NO_MOTORS);
+		double longitudinal1 = calc.getLongitudinalInertia(configuration, null);
+		double rotational1 = calc.getRotationalInertia(configuration, null);
+		assertEquals(0.4 * cg0.weight, cg1.weight, 1e-10);
+		
+		configuration.setAllStages();
+		Coordinate cg = calc.getCG(configuration, MassCalcType.NO_MOTORS);
+		assertEquals(cg0.average(cg1), cg);
+		
+		double longitudinal = longitudinal0 + cg0.weight * pow2(cg0.x - cg.x) +
+				longitudinal1 + cg1.weight * pow2(cg1.x - cg.x);
+		assertEquals(longitudinal, calc.getLongitudinalInertia(configuration, null), 1e-10);
+		assertEquals(rotational0 + rotational1, calc.getRotationalInertia(configuration, null), 1e-10);
+	}
+	
+	
+	private static Rocket makeTwoStageRocket() {
+		Rocket rocket = new Rocket();
+		
+		Stage sustainer = new Stage();
+		rocket.addChild(sustainer);
+		sustainer.addChild(new BodyTube(1.0, 0.02, 0.001));
+		
+		Stage booster = new Stage();
+		rocket.addChild(booster);
+		booster.addChild(new BodyTube(0.4, 0.02, 0.001));
+		
+		return rocket;
+	}
+	
+}
@@ -0,0 +1,98 @@
+package net.sf.openrocket.models.atmosphere;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class SoundingAtmosphericModelTest {
+	
+	private static final String SOUNDING =
+			"# altitude pressure temperature\n" +
+					"1000, 89876, 281.65\n" +
+					"\n" +
+					"3000 70121 268.65\n" +
+					"2000;79501;275.15\n";
+	
+	@Test
+	public void testLoad() throws IOException {
+		SoundingAtmosphericModel model = SoundingAtmosphericModel.load(new StringReader(SOUNDING));
+		
+		// Measurements are reproduced
+		assertEquals(281.65, model.getTemperature(1000), 1e-9);
+		assertEquals(89876, model.getPressure(1000), 1e-6);
+		assertEquals(275.15, model.getTemperature(2000), 1e-9);
+		assertEquals(79501, model.getPressure(2000), 1e-6);
+		assertEquals(268.65, model.getTemperature(3000), 1e-9);
+		assertEquals(70121, model.getPressure(3000), 1e-6);
+		
+		// Interpolated between measurements
+		assertEquals((281.65 + 275.15) / 2, model.getTemperature(1500), 1e-9);
+		assertEquals(Math.sqrt(89876.0 * 79501.0), model.getPressure(1500), 1e-6);
+		
+		// Clamped outside the sounding
+		assertEquals(281.65, model.getTemperature(0), 0);
+		assertEquals(70121, model.getPressure(10000), 1e-6);
+	}
+	
+	@Test
+	public void testPrimitiveValues() throws IOException {
+		SoundingAtmosphericModel model = SoundingAtmosphericModel.load(new StringReader(SOUNDING));
+		ExtendedISAModel isa = new ExtendedISAModel();
+		AtmosphericConditions conditions = new AtmosphericConditions();
+		
+		for (double alt = -100; alt < 12000; alt += 123.4) {
+			for (AtmosphericModel m : new AtmosphericModel[] { model, isa }) {
+				AtmosphericConditions expected = m.getConditions(alt);
+				m.getConditions(alt, conditions);
+				assertEquals(expected, conditions);
+				assertEquals(expected.getTemperature(), m.getTemperature(alt), 0);
+				assertEquals(expected.getPressure(), m.getPressure(alt), 0);
+				assertEquals(expected.getDensity(), m.getDensity(alt), 0);
+				assertEquals(expected.getMachSpeed(), m.getMachSpeed(alt), 0);
+			}
+		}
+	}
+	
+	@Test
+	public void testMeasurements() throws IOException {
+		SoundingAtmosphericModel model = SoundingAtmosphericModel.load(new StringReader(SOUNDING));
+		
+		// Measurements are sorted by altitude
+		assertEquals(3, model.getMeasurementCount());
+		assertEquals(2000, model.getMeasurementAltitude(1), 0);
+		assertEquals(275.15, model.getMeasurementTemperature(1), 0);
+		assertEquals(79501, model.getMeasurementPressure(1), 0);
+		
+		double[] altitude = { 1000, 2000, 3000 };
+		double[] temperature = { 281.65, 275.15, 268.65 };
+		double[] pressure = { 89876, 79501, 70121 };
+		assertEquals(model, new SoundingAtmosphericModel(altitude, temperature, pressure));
+		assertEquals(model.hashCode(), new SoundingAtmosphericModel(altitude, temperature, pressure).hashCode());
+		assertFalse(model.equals(new SoundingAtmosphericModel(altitude, temperature, pressure, 100)));
+		pressure[2] = 70000;
+		assertFalse(model.equals(new SoundingAtmosphericModel(altitude, temperature, pressure)));
+	}
+	
+	@Test
+	public void testInvalidSounding() {
+		String[] invalid = {
+				"1000 89876 281.65\n",
+				"1000 89876 281.65\n1000 89000 281.00\n",
+				"1000 89876 281.65\n2000 79501\n",
+				"1000 89876 281.65\n2000 79501 foo\n",
+				"1000 89876 281.65\n2000 -1 275.15\n",
+		};
+		for (String s : invalid) {
+			try {
+				SoundingAtmosphericModel.load(new StringReader(s));
+				fail("Loaded invalid sounding: " + s);
+			} catch (IOException expected) {
+			}
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package net.sf.openrocket.models.wind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.PinkNoise;
+
+import org.junit.Test;
+
+public class PinkNoiseWindModelTest {
+	
+	@Test
+	public void testStoredNoise() {
+		PinkNoiseWindModel model = new PinkNoiseWindModel(1234);
+		model.setAverage(5);
+		model.setStandardDeviation(1);
+		model.setDirection(0);
+		
+		// The stored series equals the directly generated pink noise
+		PinkNoise noise = new PinkNoise(5.0 / 3.0, 2, new Random(1234 ^ 0x7343AA03));
+		double value1 = noise.nextValue();
+		double value2 = noise.nextValue();
+		for (int i = 0; i < 3000; i++) {
+			double time = i * 0.05 + 0.02;
+			double expected = 5 + (value1 * 0.6 + value2 * 0.4) / 2.252;
+			Coordinate wind = model.getWindVelocity(time, 0);
+			assertEquals(expected, wind.y, 1e-9);
+			assertEquals(0, wind.x, 0);
+			value1 = value2;
+			value2 = noise.nextValue();
+		}
+		
+		// Models with the same seed produce the same wind in any order
+		PinkNoiseWindModel copy = model.newInstance();
+		PinkNoiseWindModel other = new PinkNoiseWindModel(1234);
+		other.setAverage(5);
+		other.setStandardDeviation(1);
+		other.setDirection(0);
+		for (double time = 200; time >= 0; time -= 0.37) {
+			assertEquals(model.getWindVelocity(time, 0).y, copy.getWindVelocity(time, 0).y, 0);
+			assertEquals(model.getWindVelocity(time, 0).y, other.getWindVelocity(time, 0).y, 0);
+		}
+	}
+	
+	@Test
+	public void testProfile() {
+		WindProfile profile = new WindProfile(
+				new double[] { 0, 1000, 2000 },
+				new double[] { 2, 6, 10 },
+				new double[] { Math.toRadians(350), Math.toRadians(10), Math.toRadians(90) });
+		PinkNoiseWindModel model = new PinkNoiseWindModel(1);
+		model.setProfile(profile);
+		
+		// No turbulence
+		assertWind(model.getWindVelocity(1, -100), 2, Math.toRadians(350));
+		assertWind(model.getWindVelocity(1, 0), 2, Math.toRadians(350));
+		assertWind(model.getWindVelocity(1, 500), 4, 0);
+		assertWind(model.getWindVelocity(1, 1500), 8, Math.toRadians(50));
+		assertWind(model.getWindVelocity(1, 3000), 10, Math.toRadians(90));
+		assertEquals(Math.toRadians(350), profile.getDirection(0), 1e-12);
+		
+		// Turbulence proportional to the layer speed
+		model.setAverage(1);
+		model.setTurbulenceIntensity(0.2);
+		double low = model.getWindVelocity(3, 0).length();
+		double high = model.getWindVelocity(3, 2000).length();
+		assertEquals(5 * low, high, 1e-9);
+		assertTrue(Math.abs(low - 2) > 1e-6);
+		
+		// Offset profile
+		WindProfile offset = profile.offset(-3, Math.toRadians(20));
+		assertEquals(0, offset.getSpeed(0), 0);
+		assertEquals(3, offset.getSpeed(1), 0);
+		assertEquals(Math.toRadians(10), offset.getDirection(0), 1e-12);
+	}
+	
+	private static void assertWind(Coordinate wind, double speed, double direction) {
+		assertEquals(speed * Math.sin(direction), wind.x, 1e-9);
+		assertEquals(speed * Math.cos(direction), wind.y, 1e-9);
+		assertEquals(0, wind.z, 0);
+	}
+}
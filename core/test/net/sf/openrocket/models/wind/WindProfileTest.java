@@ -0,0 +1,57 @@
+package net.sf.openrocket.models.wind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class WindProfileTest {
+	
+	private static final String PROFILE =
+			"# altitude speed direction\n" +
+					"1000, 8, 90\n" +
+					"\n" +
+					"0 4 350\n" +
+					"3000;12;100\n";
+	
+	@Test
+	public void testLoad() throws IOException {
+		WindProfile profile = WindProfile.load(new StringReader(PROFILE));
+		
+		// Layers are sorted by altitude and directions converted to radians
+		assertEquals(3, profile.getLayerCount());
+		assertEquals(0, profile.getAltitude(0), 0);
+		assertEquals(4, profile.getSpeed(0), 0);
+		assertEquals(Math.toRadians(350), profile.getDirection(0), 1e-12);
+		assertEquals(1000, profile.getAltitude(1), 0);
+		assertEquals(Math.toRadians(90), profile.getDirection(1), 1e-12);
+		assertEquals(12, profile.getSpeed(2), 0);
+		
+		assertEquals(6, profile.getSpeedAt(500), 1e-12);
+		assertEquals(profile, new WindProfile(new double[] { 0, 1000, 3000 }, new double[] { 4, 8, 12 },
+				new double[] { Math.toRadians(350), Math.toRadians(90), Math.toRadians(100) }));
+		assertFalse(profile.equals(profile.offset(1, 0)));
+	}
+	
+	@Test
+	public void testInvalidProfile() {
+		String[] invalid = {
+				"",
+				"1000 8 90\n1000 9 90\n",
+				"1000 8 90\n2000 9\n",
+				"1000 8 90\n2000 9 east\n",
+				"1000 -1 90\n",
+		};
+		for (String s : invalid) {
+			try {
+				WindProfile.load(new StringReader(s));
+				fail("Loaded invalid profile: " + s);
+			} catch (IOException expected) {
+			}
+		}
+	}
+}
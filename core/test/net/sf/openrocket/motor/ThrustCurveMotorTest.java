@@ -62,6 +62,33 @@ public class ThrustCurveMotorTest {
 		verify(instance, 0, 0.03, 0.03);
 	}
 	
+	@Test
+	public void testIntegratedCurve() {
+		assertEquals(0, motor.getThrust(-1), 0);
+		assertEquals(0, motor.getThrust(0), 0);
+		assertEquals(1, motor.getThrust(0.5), EPS);
+		assertEquals(2.5, motor.getThrust(2), EPS);
+		assertEquals(1.5, motor.getThrust(3.5), EPS);
+		assertEquals(0, motor.getThrust(4), 0);
+		assertEquals(0, motor.getThrust(10), 0);
+		
+		assertEquals(0, motor.getImpulse(0), 0);
+		assertEquals(0.25, motor.getImpulse(0.5), EPS);
+		assertEquals(1, motor.getImpulse(1), EPS);
+		assertEquals(6, motor.getImpulse(3), EPS);
+		assertEquals(7.5, motor.getImpulse(4), EPS);
+		assertEquals(motor.getTotalImpulseEstimate(), motor.getImpulse(10), EPS);
+		
+		assertEquals((2.125 + 2.875) / 2, motor.getAverageThrust(1.5, 2.5), EPS);
+		assertEquals(7.5 / 5, motor.getAverageThrust(0, 5), EPS);
+		assertEquals(1.5, motor.getAverageThrust(3.5, 3.5), EPS);
+		
+		// Stepping over several time points at once
+		MotorInstance instance = motor.getInstance();
+		instance.step(3.5, 0, null);
+		verify(instance, (1 + 5 + 1.125) / 3.5, (0.05 + 0.04) / 2, (0.02 + 0.025) / 2);
+	}
+	
 	private void verify(MotorInstance instance, double thrust, double mass, double cgx) {
 		assertEquals("Testing thrust", thrust, instance.getThrust(), EPS);
 		assertEquals("Testing mass", mass, instance.getCG().weight, EPS);
@@ -1,5 +1,6 @@
 package net.sf.openrocket.rocketcomponent;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -61,6 +62,37 @@ public class ConfigurationTest extends BaseTestCase {
 	}
 	
 	
+	/**
+	 * Test that masked listeners are notified of configuration changes and of matching
+	 * rocket changes only
+	 */
+	@Test
+	public void testMaskedChangeListener() {
+		Rocket r1 = makeSingleStageTestRocket();
+		Configuration config = r1.getDefaultConfiguration();
+		final int[] count = new int[1];
+		StateChangeListener listener = new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
+				count[0]++;
+			}
+		};
+		config.addChangeListener(listener, ComponentChangeEvent.MASS_CHANGE);
+		
+		r1.setName("Name");
+		assertEquals(0, count[0]);
+		((NoseCone) r1.getChild(0).getChild(0)).setLength(0.2);
+		assertEquals(1, count[0]);
+		config.setAllStages();
+		assertEquals(2, count[0]);
+		
+		config.removeChangeListener(listener);
+		((NoseCone) r1.getChild(0).getChild(0)).setLength(0.3);
+		assertEquals(2, count[0]);
+		config.release();
+	}
+	
+	
 	/**
 	 * Test configuration rocket component and motor iterators
 	 */
@@ -0,0 +1,102 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class RocketSnapshotTest extends BaseTestCase {
+	
+	@Test
+	public void testSharedNodes() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		BodyTube body = find(rocket, BodyTube.class);
+		FinSet fins = find(rocket, FinSet.class);
+		
+		RocketSnapshot.of(rocket);
+		RocketSnapshot.Node bodyNode = body.getSnapshot();
+		RocketSnapshot.Node finNode = fins.getSnapshot();
+		assertNotNull(bodyNode);
+		assertNotNull(finNode);
+		
+		// Only the changed component and its ancestors get new nodes
+		fins.setFinCount(4);
+		assertTrue(fins.getSnapshot() == null);
+		RocketSnapshot.of(rocket);
+		assertFalse(finNode == fins.getSnapshot());
+		assertFalse(bodyNode == body.getSnapshot());
+		NoseCone nose = find(rocket, NoseCone.class);
+		RocketSnapshot.Node noseNode = nose.getSnapshot();
+		
+		body.setLength(body.getLength() * 2);
+		RocketSnapshot.of(rocket);
+		assertTrue(noseNode == nose.getSnapshot());
+		
+		// Copies with new ID's do not share the nodes
+		assertTrue(nose.getSnapshot() == ((Rocket) rocket.copyWithOriginalID()).getChild(0).getChild(0).getSnapshot());
+		assertTrue(rocket.copy().getChild(0).getChild(0).getSnapshot() == null);
+	}
+	
+	@Test
+	public void testRestore() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Rocket original = rocket.copyWithOriginalID();
+		RocketSnapshot snapshot = RocketSnapshot.of(rocket);
+		
+		find(rocket, FinSet.class).setFinCount(5);
+		find(rocket, BodyTube.class).setLength(0.5);
+		find(rocket, NoseCone.class).setName("Changed");
+		RocketSnapshot.of(rocket);
+		
+		Rocket restored = snapshot.restore();
+		assertEquals(original.getModID(), snapshot.getModID());
+		ComponentCompare.assertDeepEquality(original, restored);
+		assertFalse(restored.getChild(0) == original.getChild(0));
+	}
+	
+	@Test
+	public void testDocumentUndoRedo() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		double length = find(rocket, BodyTube.class).getLength();
+		
+		for (int i = 1; i <= 3; i++) {
+			document.addUndoPosition("Change " + i);
+			find(rocket, BodyTube.class).setLength(length + i);
+		}
+		
+		document.undo();
+		document.undo();
+		assertEquals(length + 1, find(rocket, BodyTube.class).getLength(), 0);
+		document.redo();
+		assertEquals(length + 2, find(rocket, BodyTube.class).getLength(), 0);
+		document.undo();
+		document.undo();
+		assertEquals(length, find(rocket, BodyTube.class).getLength(), 0);
+		assertFalse(document.isUndoAvailable());
+		
+		// A restored rocket can be modified and undone again
+		document.redo();
+		document.addUndoPosition("Change 4");
+		find(rocket, FinSet.class).setFinCount(6);
+		document.undo();
+		assertEquals(3, find(rocket, FinSet.class).getFinCount());
+		assertEquals(length + 1, find(rocket, BodyTube.class).getLength(), 0);
+	}
+	
+	
+	private static <T extends RocketComponent> T find(Rocket rocket, Class<T> type) {
+		for (RocketComponent c : rocket) {
+			if (type.isInstance(c)) {
+				return type.cast(c);
+			}
+		}
+		throw new AssertionError("No " + type.getSimpleName());
+	}
+}
@@ -1,6 +1,12 @@
 package net.sf.openrocket.rocketcomponent;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
 
 import org.junit.Test;
 
@@ -20,4 +26,78 @@ public class RocketTest extends BaseTestCase {
 		ComponentCompare.assertDeepEquality(r1, r2);
 	}
 	
+	@Test
+	public void testNestedFreeze() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		RecordingListener listener = new RecordingListener();
+		rocket.addComponentChangeListener(listener);
+		
+		rocket.freeze();
+		rocket.setName("Frozen");
+		rocket.freeze();
+		((NoseCone) rocket.getChild(0).getChild(0)).setLength(0.2);
+		rocket.thaw();
+		assertEquals(0, listener.events.size());
+		rocket.thaw();
+		
+		assertEquals(1, listener.events.size());
+		ComponentChangeEvent e = listener.events.get(0);
+		assertEquals(ComponentChangeEvent.NONFUNCTIONAL_CHANGE | ComponentChangeEvent.BOTH_CHANGE, e.getType());
+	}
+	
+	@Test
+	public void testCoalescedListenerEvents() {
+		final Rocket rocket = TestRockets.makeSmallFlyable();
+		final BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		
+		// A listener that modifies the rocket twice during the dispatch
+		rocket.addComponentChangeListener(new ComponentChangeListener() {
+			@Override
+			public void componentChanged(ComponentChangeEvent e) {
+				if (e.getSource() == rocket) {
+					body.setName("Body");
+					body.setLength(0.3);
+				}
+			}
+		});
+		RecordingListener listener = new RecordingListener();
+		rocket.addComponentChangeListener(listener);
+		
+		rocket.setName("Name");
+		
+		// The events fired by the listener follow as a single event
+		assertEquals(2, listener.events.size());
+		assertEquals(rocket, listener.events.get(0).getSource());
+		assertEquals(body, listener.events.get(1).getSource());
+		assertEquals(ComponentChangeEvent.NONFUNCTIONAL_CHANGE | ComponentChangeEvent.BOTH_CHANGE,
+				listener.events.get(1).getType());
+	}
+	
+	@Test
+	public void testMaskedListener() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		RecordingListener listener = new RecordingListener();
+		rocket.addComponentChangeListener(listener, ComponentChangeEvent.MASS_CHANGE | ComponentChangeEvent.TREE_CHANGE);
+		
+		rocket.setName("Name");
+		assertEquals(0, listener.events.size());
+		((NoseCone) rocket.getChild(0).getChild(0)).setLength(0.2);
+		assertEquals(1, listener.events.size());
+		rocket.getChild(0).getChild(1).addChild(new LaunchLug());
+		assertEquals(2, listener.events.size());
+		
+		rocket.removeComponentChangeListener(listener);
+		((NoseCone) rocket.getChild(0).getChild(0)).setLength(0.3);
+		assertEquals(2, listener.events.size());
+	}
+	
+	
+	private static class RecordingListener implements ComponentChangeListener {
+		private final List<ComponentChangeEvent> events = new ArrayList<ComponentChangeEvent>();
+		
+		@Override
+		public void componentChanged(ComponentChangeEvent e) {
+			events.add(e);
+		}
+	}
 }
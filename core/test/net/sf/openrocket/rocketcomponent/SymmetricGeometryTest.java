@@ -0,0 +1,77 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class SymmetricGeometryTest extends BaseTestCase {
+	
+	@Test
+	public void testSharedGeometry() {
+		NoseCone nc = newNoseCone(Transition.Shape.OGIVE);
+		SymmetricGeometry geometry = SymmetricGeometry.get(nc);
+		
+		// Equal components and copies share the geometry
+		assertTrue(geometry == SymmetricGeometry.get(newNoseCone(Transition.Shape.OGIVE)));
+		assertTrue(geometry == SymmetricGeometry.get((NoseCone) nc.copy()));
+		
+		// A different shape or a transition of the same shape does not
+		assertFalse(geometry == SymmetricGeometry.get(newNoseCone(Transition.Shape.ELLIPSOID)));
+		Transition transition = new Transition();
+		transition.setType(Transition.Shape.OGIVE);
+		transition.setLength(nc.getLength());
+		transition.setForeRadius(0);
+		transition.setAftRadius(nc.getAftRadius());
+		transition.setThickness(nc.getThickness());
+		assertFalse(geometry == SymmetricGeometry.get(transition));
+		
+		// A change is noticed by a component attached to a rocket
+		Rocket rocket = new Rocket();
+		Stage stage = new Stage();
+		rocket.addChild(stage);
+		stage.addChild(nc);
+		double volume = nc.getComponentVolume();
+		nc.setLength(0.2);
+		assertTrue(nc.getComponentVolume() > 1.5 * volume);
+		assertFalse(geometry == SymmetricGeometry.get(nc));
+	}
+	
+	@Test
+	public void testFilledEllipsoid() {
+		NoseCone nc = newNoseCone(Transition.Shape.ELLIPSOID);
+		nc.setFilled(true);
+		
+		// Half ellipsoid, CG at 3/8 of the length from the base
+		double r = nc.getAftRadius();
+		double l = nc.getLength();
+		double volume = 2 * Math.PI * r * r * l / 3;
+		assertEquals(volume, nc.getComponentVolume(), 1e-4 * volume);
+		assertEquals(5 * l / 8, nc.getComponentCG().x, 1e-4 * l);
+		assertEquals(2 * r * r / 5, nc.getRotationalUnitInertia(), 1e-4 * r * r);
+	}
+	
+	@Test
+	public void testHollowCone() {
+		NoseCone nc = newNoseCone(Transition.Shape.CONICAL);
+		
+		double r = nc.getAftRadius();
+		double l = nc.getLength();
+		double wetArea = Math.PI * r * Math.hypot(r, l);
+		assertEquals(wetArea, nc.getComponentWetArea(), 1e-9 * wetArea);
+		assertEquals(r * l, nc.getComponentPlanformArea(), 1e-9 * r * l);
+		assertEquals(2 * l / 3, nc.getComponentPlanformCenter(), 1e-6 * l);
+	}
+	
+	
+	private static NoseCone newNoseCone(Transition.Shape shape) {
+		NoseCone nc = new NoseCone();
+		nc.setType(shape);
+		nc.setLength(0.1);
+		nc.setAftRadius(0.02);
+		nc.setThickness(0.002);
+		return nc;
+	}
+}
@@ -0,0 +1,179 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.MotorConfiguration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.Stage;
+import net.sf.openrocket.rocketcomponent.StageSeparationConfiguration;
+import net.sf.openrocket.rocketcomponent.StageSeparationConfiguration.SeparationEvent;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.simulation.customexpression.CustomExpression;
+import net.sf.openrocket.simulation.customexpression.CustomExpressionSimulationListener;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class BasicEventSimulationEngineTest extends BaseTestCase {
+	
+	@Test
+	public void testConcurrentBranches() throws Exception {
+		Rocket rocket = makeThreeStage();
+		FlightData sequential = simulate(rocket, null);
+		assertEquals(3, sequential.getBranchCount());
+		
+		for (int threads = 1; threads <= 3; threads++) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				FlightData concurrent = simulate(rocket, executor);
+				assertSameData(sequential, concurrent);
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+	
+	@Test
+	public void testBranchesInCallingThread() throws Exception {
+		Rocket rocket = makeThreeStage();
+		FlightData sequential = simulate(rocket, null);
+		
+		// An executor that never runs the tasks
+		FlightData concurrent = simulate(rocket, new Executor() {
+			@Override
+			public void execute(Runnable command) {
+			}
+		});
+		assertSameData(sequential, concurrent);
+	}
+	
+	@Test
+	public void testCustomExpressionBranches() throws Exception {
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createNewRocket();
+		CustomExpression energy = new CustomExpression(doc, "Energy", "Ek", "J", ".5*m*Vt^2");
+		CustomExpression delta = new CustomExpression(doc, "Delta", "dh", "m", "h - h[t-0.5]");
+		List<CustomExpression> expressions = Arrays.asList(energy, delta);
+		
+		Rocket rocket = makeThreeStage();
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		conditions.getSimulationListenerList().add(new CustomExpressionSimulationListener(expressions));
+		FlightData sequential = new BasicEventSimulationEngine().simulate(conditions.clone());
+		
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (int i = 0; i < 5; i++) {
+				SimulationConditions c = conditions.clone();
+				c.setBranchExecutor(executor);
+				FlightData concurrent = new BasicEventSimulationEngine().simulate(c);
+				assertSameData(sequential, concurrent);
+				assertSameValues(sequential, concurrent, energy.getType(), delta.getType());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testUserListenerBranchesInSequence() throws Exception {
+		Rocket rocket = makeThreeStage();
+		FlightData sequential = simulate(rocket, null);
+		
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener());
+		conditions.setBranchExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				fail("Branch with a user listener executed concurrently");
+			}
+		});
+		assertSameData(sequential, new BasicEventSimulationEngine().simulate(conditions));
+	}
+	
+	
+	private static void assertSameValues(FlightData expected, FlightData actual, FlightDataType... types) {
+		for (int i = 0; i < expected.getBranchCount(); i++) {
+			FlightDataBranch e = expected.getBranch(i);
+			FlightDataBranch a = actual.getBranch(i);
+			for (FlightDataType type : types) {
+				for (int n = 0; n < e.getLength(); n++) {
+					assertEquals(e.getDouble(type, n), a.getDouble(type, n), 0);
+				}
+			}
+		}
+	}
+	
+	private static void assertSameData(FlightData expected, FlightData actual) {
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		for (int i = 0; i < expected.getBranchCount(); i++) {
+			FlightDataBranch e = expected.getBranch(i);
+			FlightDataBranch a = actual.getBranch(i);
+			assertEquals(e.getBranchName(), a.getBranchName());
+			assertEquals(e.getLength(), a.getLength());
+			assertEquals(e.getEvents().size(), a.getEvents().size());
+			for (FlightDataType type : new FlightDataType[] { FlightDataType.TYPE_TIME,
+					FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_VELOCITY_TOTAL }) {
+				for (int n = 0; n < e.getLength(); n++) {
+					assertEquals(e.getDouble(type, n), a.getDouble(type, n), 0);
+				}
+			}
+		}
+		assertEquals(expected.getWarningSet().size(), actual.getWarningSet().size());
+	}
+	
+	private static FlightData simulate(Rocket rocket, Executor executor) throws Exception {
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		conditions.setBranchExecutor(executor);
+		return new BasicEventSimulationEngine().simulate(conditions);
+	}
+	
+	/**
+	 * Add two boosters with the motor of the sustainer to the small flyable rocket.
+	 */
+	private static Rocket makeThreeStage() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		String id = rocket.getDefaultConfiguration().getFlightConfigurationID();
+		MotorConfiguration sustainerMotor = null;
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				sustainerMotor = ((BodyTube) c).getMotorConfiguration().get(id);
+			}
+		}
+		
+		for (int i = 2; i <= 3; i++) {
+			Stage stage = new Stage();
+			stage.setName("Stage" + i);
+			BodyTube tube = new BodyTube(0.10, 0.01, 0.001);
+			tube.addChild(new TrapezoidFinSet(3, 0.04, 0.05, 0.01, 0.03));
+			tube.setMotorMount(true);
+			MotorConfiguration motorConfig = new MotorConfiguration();
+			motorConfig.setMotor(sustainerMotor.getMotor());
+			// Ignite the upper stage at burnout
+			motorConfig.setEjectionDelay(0);
+			tube.getMotorConfiguration().set(id, motorConfig);
+			stage.addChild(tube);
+			rocket.addChild(stage);
+			
+			if (i == 2) {
+				// Drop the middle stage while it is burning
+				StageSeparationConfiguration separation = stage.getStageSeparationConfiguration().getDefault();
+				separation.setSeparationEvent(SeparationEvent.IGNITION);
+				separation.setSeparationDelay(0.5);
+			}
+		}
+		rocket.getDefaultConfiguration().setAllStages();
+		return rocket;
+	}
+}
@@ -0,0 +1,104 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.motor.Motor;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.rocketcomponent.ExternalComponent;
+import net.sf.openrocket.rocketcomponent.MotorMount;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class DormandPrinceSimulationStepperTest extends BaseTestCase {
+	
+	/**
+	 * The adaptive stepper must reach the same apogee as the RK4 stepper using fewer
+	 * aerodynamic force evaluations.
+	 */
+	@Test
+	public void testFewerEvaluationsAtEqualApogee() throws Exception {
+		Rocket rocket = makeHighFlyingRocket();
+		
+		EvaluationCounter rk4Counter = new EvaluationCounter();
+		FlightData rk4 = simulate(rocket, RK4SimulationStepper.class, rk4Counter);
+		EvaluationCounter dpCounter = new EvaluationCounter();
+		FlightData dp = simulate(rocket, DormandPrinceSimulationStepper.class, dpCounter);
+		
+		assertTrue(rk4.getMaxAltitude() > 500);
+		assertEquals(rk4.getMaxAltitude(), dp.getMaxAltitude(), 0.5);
+		assertEquals(rk4.getMaxVelocity(), dp.getMaxVelocity(), 0.1);
+		assertEquals(rk4.getTimeToApogee(), dp.getTimeToApogee(), 0.05);
+		
+		assertTrue("RK4 evaluations " + rk4Counter.count[0] + ", Dormand-Prince evaluations " + dpCounter.count[0],
+				dpCounter.count[0] < rk4Counter.count[0]);
+		assertTrue(dp.getBranch(0).getLength() < rk4.getBranch(0).getLength());
+	}
+	
+	@Test
+	public void testSmallRocket() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		
+		FlightData rk4 = simulate(rocket, RK4SimulationStepper.class, new EvaluationCounter());
+		FlightData dp = simulate(rocket, DormandPrinceSimulationStepper.class, new EvaluationCounter());
+		
+		assertEquals(rk4.getMaxAltitude(), dp.getMaxAltitude(), 0.05);
+		assertEquals(rk4.getFlightTime(), dp.getFlightTime(), 0.2);
+	}
+	
+	
+	private static FlightData simulate(Rocket rocket, Class<? extends SimulationStepper> stepperClass,
+			EvaluationCounter counter) throws Exception {
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		conditions.setSimulationStepperClass(stepperClass);
+		conditions.getSimulationListenerList().add(counter);
+		return new BasicEventSimulationEngine().simulate(conditions);
+	}
+	
+	/**
+	 * Return a variant of the small flyable rocket with a light structure and a larger
+	 * motor, which has a long coast phase.
+	 */
+	private static Rocket makeHighFlyingRocket() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		
+		Material material = Material.newMaterial(Material.Type.BULK, "Light", 600, false);
+		ThrustCurveMotor motor = new ThrustCurveMotor(Manufacturer.getManufacturer("A"), "F30", "Desc",
+				Motor.Type.SINGLE, new double[] { 5 }, 0.018, 0.07,
+				new double[] { 0, 0.1, 1.5, 1.6 }, new double[] { 0, 30, 20, 0 },
+				new Coordinate[] { new Coordinate(0.035, 0, 0, 0.04), new Coordinate(0.035, 0, 0, 0.039),
+						new Coordinate(0.035, 0, 0, 0.021), new Coordinate(0.035, 0, 0, 0.02) }, "digest");
+		
+		String id = rocket.getDefaultConfiguration().getFlightConfigurationID();
+		for (RocketComponent c : rocket) {
+			if (c instanceof ExternalComponent) {
+				((ExternalComponent) c).setMaterial(material);
+			}
+			if (c instanceof MotorMount && ((MotorMount) c).isMotorMount()) {
+				((MotorMount) c).getMotorConfiguration().get(id).setMotor(motor);
+			}
+		}
+		return rocket;
+	}
+	
+	
+	private static class EvaluationCounter extends AbstractSimulationListener {
+		// Shared between clones
+		private final int[] count = new int[1];
+		
+		@Override
+		public AerodynamicForces preAerodynamicCalculation(SimulationStatus status) {
+			count[0]++;
+			return null;
+		}
+	}
+	
+}
@@ -0,0 +1,110 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class FlightDataBranchTest extends BaseTestCase {
+	
+	@Test
+	public void testValuesAndNewTypes() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		
+		int n = 1000;
+		for (int i = 0; i < n; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i * 0.5);
+			if (i >= 10) {
+				branch.setValue(FlightDataType.TYPE_ALTITUDE, 100 - i);
+			}
+		}
+		
+		assertEquals(n, branch.getLength());
+		assertEquals(2, branch.getTypes().length);
+		
+		assertEquals(0.5 * 17, branch.getDouble(FlightDataType.TYPE_TIME, 17), 0);
+		assertTrue(Double.isNaN(branch.getDouble(FlightDataType.TYPE_ALTITUDE, 9)));
+		assertEquals(90, branch.getDouble(FlightDataType.TYPE_ALTITUDE, 10), 0);
+		assertTrue(Double.isNaN(branch.getDouble(FlightDataType.TYPE_VELOCITY_Z, 0)));
+		
+		assertEquals(0, branch.getMinimum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(0.5 * (n - 1), branch.getMaximum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(0.5 * (n - 1), branch.getLast(FlightDataType.TYPE_TIME), 0);
+		assertEquals(100 - (n - 1), branch.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(90, branch.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertTrue(Double.isNaN(branch.getLast(FlightDataType.TYPE_VELOCITY_Z)));
+		
+		double[] column = branch.column(FlightDataType.TYPE_TIME);
+		List<Double> list = branch.get(FlightDataType.TYPE_TIME);
+		assertEquals(n, column.length);
+		assertEquals(n, list.size());
+		for (int i = 0; i < n; i++) {
+			assertEquals(column[i], list.get(i), 0);
+		}
+		
+		assertNull(branch.get(FlightDataType.TYPE_VELOCITY_Z));
+		assertNull(branch.column(FlightDataType.TYPE_VELOCITY_Z));
+	}
+	
+	@Test
+	public void testListView() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 1);
+		
+		List<Double> list = branch.get(FlightDataType.TYPE_TIME);
+		try {
+			list.set(0, 2.0);
+			fail("List view was modifiable");
+		} catch (UnsupportedOperationException e) {
+		}
+		
+		// The view keeps its size when new points are added
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 2);
+		assertEquals(1, list.size());
+		assertEquals(2, branch.get(FlightDataType.TYPE_TIME).size());
+		
+		double[] column = branch.column(FlightDataType.TYPE_TIME);
+		column[0] = 5;
+		assertArrayEquals(new double[] { 1, 2 }, branch.column(FlightDataType.TYPE_TIME), 0);
+	}
+	
+	@Test
+	public void testRedefinedType() {
+		FlightDataType custom = FlightDataType.getType("Branch test value", "BTV", UnitGroup.UNITS_NONE);
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, custom);
+		branch.addPoint();
+		branch.setValue(custom, 3);
+		
+		FlightDataType redefined = FlightDataType.getType("Branch test value", "BTV", UnitGroup.UNITS_LENGTH);
+		assertTrue(redefined != custom);
+		assertEquals(3, branch.getLast(redefined), 0);
+		branch.setValue(redefined, 4);
+		assertEquals(2, branch.getTypes().length);
+		assertEquals(4, branch.getLast(custom), 0);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateTypes() {
+		new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_TIME);
+	}
+	
+	@Test
+	public void testEmptyBranch() {
+		FlightDataBranch branch = new FlightDataBranch();
+		assertEquals(0, branch.getLength());
+		assertEquals(0, branch.get(FlightDataType.TYPE_TIME).size());
+		assertTrue(Double.isNaN(branch.getMaximum(FlightDataType.TYPE_ALTITUDE)));
+	}
+	
+}
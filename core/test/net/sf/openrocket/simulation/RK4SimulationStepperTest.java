@@ -0,0 +1,68 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class RK4SimulationStepperTest extends BaseTestCase {
+
+	/**
+	 * The buffer-reusing integration mode must produce exactly the same flight data
+	 * as the default mode.
+	 */
+	@Test
+	public void testReusedBuffersMatchDefault() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+
+		FlightData expected = simulate(rocket, false);
+		FlightData actual = simulate(rocket, true);
+
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		for (int b = 0; b < expected.getBranchCount(); b++) {
+			FlightDataBranch e = expected.getBranch(b);
+			FlightDataBranch a = actual.getBranch(b);
+			assertTrue(e.getLength() > 10);
+			assertEquals(e.getLength(), a.getLength());
+
+			for (FlightDataType type : e.getTypes()) {
+				if (type == FlightDataType.TYPE_COMPUTATION_TIME) {
+					continue;
+				}
+				List<Double> ev = e.get(type);
+				List<Double> av = a.get(type);
+				assertEquals(type.getName(), ev, av);
+			}
+			assertEquals(e.getEvents().size(), a.getEvents().size());
+		}
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 0);
+	}
+
+
+	static FlightData simulate(Rocket rocket, boolean reuseBuffers) throws Exception {
+		SimulationConditions conditions = createOptions(rocket).toSimulationConditions();
+		conditions.setReuseIntegrationBuffers(reuseBuffers);
+		return new BasicEventSimulationEngine().simulate(conditions);
+	}
+
+	static SimulationOptions createOptions(Rocket rocket) {
+		SimulationOptions options = new SimulationOptions(rocket);
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setISAAtmosphere(true);
+		options.setLaunchRodLength(1);
+		options.setLaunchRodAngle(0.05);
+		options.setLaunchLatitude(28.61);
+		options.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+		options.setWindSpeedAverage(2);
+		options.setWindTurbulenceIntensity(0.1);
+		options.setRandomSeed(42);
+		return options;
+	}
+
+}
@@ -0,0 +1,87 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationProfile.Phase;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class SimulationProfileTest extends BaseTestCase {
+	
+	@Test
+	public void testProfiledSimulation() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		
+		FlightData plain = simulate(rocket, null);
+		assertNull(plain.getProfile());
+		
+		SimulationProfile profile = new SimulationProfile();
+		FlightData profiled = simulate(rocket, profile);
+		assertTrue(profile == profiled.getProfile());
+		
+		// Profiling must not affect the results
+		assertEquals(plain.getMaxAltitude(), profiled.getMaxAltitude(), 0);
+		assertEquals(plain.getFlightTime(), profiled.getFlightTime(), 0);
+		
+		long sum = 0;
+		for (Phase phase : Phase.values()) {
+			assertTrue(phase + " not entered", profile.getCount(phase) > 0);
+			assertTrue(profile.getTime(phase) >= 0);
+			sum += profile.getTime(phase);
+		}
+		assertEquals(profile.getTotalTime(), sum);
+		
+		// Every stored point is counted once
+		int points = 0;
+		for (int i = 0; i < profiled.getBranchCount(); i++) {
+			points += profiled.getBranch(i).getLength();
+		}
+		assertEquals(points, profile.getCount(Phase.DATA_STORAGE));
+		
+		if (SimulationProfile.isAllocationSupported()) {
+			assertTrue(profile.getAllocatedBytes(Phase.DATA_STORAGE) > 0);
+		} else {
+			assertEquals(-1, profile.getAllocatedBytes(Phase.DATA_STORAGE));
+		}
+	}
+	
+	@Test
+	public void testNesting() {
+		SimulationProfile profile = new SimulationProfile();
+		profile.enter(Phase.MASS);
+		profile.exit();
+		assertEquals(0, profile.getCount(Phase.MASS));
+		
+		profile.start();
+		profile.enter(Phase.ATMOSPHERE);
+		profile.enter(Phase.LISTENERS);
+		profile.exit();
+		profile.exit();
+		profile.enter(Phase.MASS);
+		profile.unwind();
+		profile.stop();
+		
+		assertEquals(1, profile.getCount(Phase.ATMOSPHERE));
+		assertEquals(1, profile.getCount(Phase.LISTENERS));
+		assertEquals(1, profile.getCount(Phase.MASS));
+		assertEquals(0, profile.getCount(Phase.WIND));
+		long sum = 0;
+		for (Phase phase : Phase.values()) {
+			sum += profile.getTime(phase);
+		}
+		assertEquals(profile.getTotalTime(), sum);
+	}
+	
+	
+	private static FlightData simulate(Rocket rocket, SimulationProfile profile) throws Exception {
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener());
+		conditions.setProfile(profile);
+		return new BasicEventSimulationEngine().simulate(conditions);
+	}
+}
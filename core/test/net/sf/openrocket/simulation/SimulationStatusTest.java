@@ -0,0 +1,113 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.DeploymentConfiguration;
+import net.sf.openrocket.rocketcomponent.DeploymentConfiguration.DeployEvent;
+import net.sf.openrocket.rocketcomponent.Parachute;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class SimulationStatusTest extends BaseTestCase {
+	
+	@Test
+	public void testFork() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		SimulationConditions conditions = RK4SimulationStepperTest.createOptions(rocket).toSimulationConditions();
+		ForkListener listener = new ForkListener(1.0);
+		conditions.getSimulationListenerList().add(listener);
+		
+		FlightData data = new BasicEventSimulationEngine().simulate(conditions);
+		FlightDataBranch branch = data.getBranch(0);
+		int length = branch.getLength();
+		SimulationStatus fork = listener.fork;
+		assertNotNull(fork);
+		assertTrue(fork instanceof RK4SimulationStatus);
+		assertFalse(fork.getFlightData() == branch);
+		int forkLength = fork.getFlightData().getLength();
+		
+		SimulationStatus end = new BasicEventSimulationEngine().simulateFork(fork);
+		
+		// The original is not affected by the fork
+		assertEquals(length, branch.getLength());
+		
+		// The fork continues the original flight data
+		FlightDataBranch forkData = end.getFlightData();
+		assertTrue(forkData.getLength() > forkLength);
+		for (int i = 0; i < forkLength; i++) {
+			assertEquals(branch.getDouble(FlightDataType.TYPE_ALTITUDE, i),
+					forkData.getDouble(FlightDataType.TYPE_ALTITUDE, i), 0);
+		}
+		assertTrue(end.isApogeeReached());
+		assertEquals(data.getMaxAltitude(), forkData.getMaximum(FlightDataType.TYPE_ALTITUDE),
+				0.01 * data.getMaxAltitude());
+		assertEquals(data.getFlightTime(), end.getSimulationTime(), 0.1);
+	}
+	
+	@Test
+	public void testOptimumAltitude() throws Exception {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		Parachute parachute = new Parachute();
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				c.addChild(parachute);
+				break;
+			}
+		}
+		DeploymentConfiguration deployment = parachute.getDeploymentConfiguration().getDefault();
+		
+		// Flight without deployment
+		deployment.setDeployEvent(DeployEvent.NEVER);
+		FlightData coast = simulate(rocket);
+		
+		// Deployment half way to apogee
+		deployment.setDeployEvent(DeployEvent.LAUNCH);
+		deployment.setDeployDelay(coast.getTimeToApogee() / 2);
+		FlightData deployed = simulate(rocket);
+		
+		FlightDataBranch branch = deployed.getBranch(0);
+		assertTrue(deployed.getMaxAltitude() < 0.9 * coast.getMaxAltitude());
+		assertEquals(coast.getMaxAltitude(), branch.getOptimumAltitude(), 0.01 * coast.getMaxAltitude());
+		assertEquals(coast.getTimeToApogee(), branch.getTimeToOptimumAltitude(), 0.1);
+	}
+	
+	
+	private static FlightData simulate(Rocket rocket) throws Exception {
+		SimulationOptions options = RK4SimulationStepperTest.createOptions(rocket);
+		options.setCalculateExtras(true);
+		return new BasicEventSimulationEngine().simulate(options.toSimulationConditions());
+	}
+	
+	/**
+	 * Forks the simulation once at the first step after the given time.
+	 */
+	private static class ForkListener extends AbstractSimulationListener {
+		private final double time;
+		private SimulationStatus fork = null;
+		
+		public ForkListener(double time) {
+			this.time = time;
+		}
+		
+		@Override
+		public void postStep(SimulationStatus status) {
+			if (fork == null && status.getSimulationTime() >= time) {
+				fork = status.fork();
+			}
+		}
+		
+		@Override
+		public ForkListener clone() {
+			// Share the listener with the simulation conditions cloned for the stepper
+			return this;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package net.sf.openrocket.simulation.customexpression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.BasicEventSimulationEngine;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.LinearInterpolator;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class CompiledExpressionTest extends BaseTestCase {
+	
+	@Test
+	public void testCompile() {
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createNewRocket();
+		
+		assertNotNull(new CustomExpression(doc, "Energy", "Ek", "J", ".5*m*Vt^2").compile());
+		assertNotNull(new CustomExpression(doc, "Test", "Tst", "", "-sqrt(abs(h)) + 2*cos(-t)").compile());
+		assertNotNull(new CustomExpression(doc, "Delta", "dh", "m", "h - h[t-0.5]").compile());
+		
+		// Range expressions are array valued and evaluated with exp4j
+		assertNull(new CustomExpression(doc, "Average mass", "Mavg", "kg", "mean(m[0:t])").compile());
+		assertNull(new CustomExpression(doc, "Invalid", "Inv", "", "h +").compile());
+	}
+	
+	@Test
+	public void testSimulationValues() throws Exception {
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createNewRocket();
+		
+		CustomExpression energy = new CustomExpression(doc, "Energy", "Ek", "J", ".5*m*Vt^2");
+		doc.addCustomExpression(energy);
+		CustomExpression twice = new CustomExpression(doc, "Twice energy", "Ek2", "J", "2*Ek");
+		CustomExpression delta = new CustomExpression(doc, "Delta", "dh", "m", "h - h[t-0.5]");
+		
+		// The dependent expression is listed first and must be evaluated after its dependency
+		List<CustomExpression> expressions = new ArrayList<CustomExpression>();
+		expressions.add(twice);
+		expressions.add(energy);
+		expressions.add(delta);
+		
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		SimulationOptions options = new SimulationOptions(rocket);
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setISAAtmosphere(true);
+		options.setLaunchRodLength(1);
+		options.setTimeStep(0.01);
+		SimulationConditions conditions = options.toSimulationConditions();
+		conditions.getSimulationListenerList().add(new CustomExpressionSimulationListener(expressions));
+		FlightData data = new BasicEventSimulationEngine().simulate(conditions);
+		
+		FlightDataBranch branch = data.getBranch(0);
+		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		LinearInterpolator altitude = new LinearInterpolator(time, branch.get(FlightDataType.TYPE_ALTITUDE));
+		
+		for (int i = 1; i < branch.getLength(); i++) {
+			double m = branch.getDouble(FlightDataType.TYPE_MASS, i);
+			double v = branch.getDouble(FlightDataType.TYPE_VELOCITY_TOTAL, i);
+			double h = branch.getDouble(FlightDataType.TYPE_ALTITUDE, i);
+			double t = time.get(i);
+			
+			double ek = branch.getDouble(energy.getType(), i);
+			assertEquals(0.5 * m * v * v, ek, 1e-9 * Math.max(1, ek));
+			assertEquals(2 * ek, branch.getDouble(twice.getType(), i), 1e-9 * Math.max(1, ek));
+			assertEquals(h - altitude.getValue(t - 0.5), branch.getDouble(delta.getType(), i), 1e-9);
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+package net.sf.openrocket.simulation.montecarlo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.RK4SimulationStepper;
+import net.sf.openrocket.simulation.SimulationConditions;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationProfile;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.Test;
+
+public class MonteCarloSimulationTest extends BaseTestCase {
+	
+	private static final int RUNS = 8;
+	
+	@Test
+	public void testDeterministicAcrossThreadCounts() {
+		MonteCarloSimulation simulation = new MonteCarloSimulation(createConditions(), createDispersion());
+		
+		simulation.setThreadCount(1);
+		MonteCarloResult serial = simulation.simulate(RUNS);
+		simulation.setThreadCount(4);
+		MonteCarloResult parallel = simulation.simulate(RUNS);
+		
+		assertEquals(RUNS, serial.getRunCount());
+		assertEquals(0, serial.getFailedRunCount());
+		assertEquals(RUNS, serial.getApogee().getCount());
+		assertEquals(RUNS, serial.getLandingScatter().size());
+		
+		assertEquals(serial.getRunCount(), parallel.getRunCount());
+		assertEquals(serial.getApogee().getMean(), parallel.getApogee().getMean(), 0);
+		assertEquals(serial.getApogee().getStandardDeviation(), parallel.getApogee().getStandardDeviation(), 0);
+		assertEquals(serial.getMaxVelocity().getMean(), parallel.getMaxVelocity().getMean(), 0);
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(serial.getLandingScatter().getX(i), parallel.getLandingScatter().getX(i), 0);
+			assertEquals(serial.getLandingScatter().getY(i), parallel.getLandingScatter().getY(i), 0);
+		}
+		
+		// The dispersion must actually vary the flights
+		assertTrue(serial.getApogee().getStandardDeviation() > 0);
+		assertTrue(serial.getApogee().getMinimum() < serial.getApogee().getMaximum());
+		assertTrue(serial.getLandingScatter().getRadius(0.5) > 0);
+	}
+	
+	@Test
+	public void testProfiledConditions() {
+		SimulationConditions conditions = createConditions();
+		SimulationProfile profile = new SimulationProfile();
+		conditions.setProfile(profile);
+		MonteCarloSimulation simulation = new MonteCarloSimulation(conditions, createDispersion());
+		
+		// The runs must not share the profile of the base conditions
+		simulation.setThreadCount(4);
+		MonteCarloResult result = simulation.simulate(2 * RUNS);
+		assertEquals(2 * RUNS, result.getRunCount());
+		assertEquals(0, result.getFailedRunCount());
+		assertEquals(0, profile.getTotalTime());
+		assertTrue(profile == conditions.getProfile());
+	}
+	
+	@Test
+	public void testRunSeeds() throws Exception {
+		MonteCarloSimulation simulation = new MonteCarloSimulation(createConditions(), createDispersion());
+		
+		assertTrue(simulation.getRunSeed(0) != simulation.getRunSeed(1));
+		
+		FlightSummary first = simulation.simulateRun(3);
+		FlightSummary second = simulation.simulateRun(3);
+		assertEquals(3, first.getRun());
+		assertEquals(simulation.getRunSeed(3), first.getSeed());
+		assertEquals(first.getApogee(), second.getApogee(), 0);
+		assertEquals(first.getLandingX(), second.getLandingX(), 0);
+	}
+	
+	@Test
+	public void testFailedRuns() {
+		SimulationConditions conditions = createConditions();
+		final MonteCarloSimulation simulation = new MonteCarloSimulation(conditions, createDispersion());
+		conditions.getSimulationListenerList().add(new AbstractSimulationListener() {
+			@Override
+			public void startSimulation(SimulationStatus status) {
+				if (status.getSimulationConditions().getRandomSeed() == simulation.getRunSeed(2)) {
+					throw new IllegalStateException("Test failure");
+				}
+			}
+		});
+		
+		simulation.setThreadCount(4);
+		MonteCarloResult result = simulation.simulate(RUNS);
+		assertEquals(RUNS, result.getRunCount());
+		assertEquals(1, result.getFailedRunCount());
+		assertEquals(RUNS - 1, result.getApogee().getCount());
+	}
+	
+	@Test
+	public void testRunningStatistics() {
+		RunningStatistics statistics = new RunningStatistics();
+		assertTrue(Double.isNaN(statistics.getMean()));
+		
+		for (double d : new double[] { 2, 4, Double.NaN, 4, 4, 5, 5, 7, 9 }) {
+			statistics.add(d);
+		}
+		assertEquals(8, statistics.getCount());
+		assertEquals(5, statistics.getMean(), 1e-12);
+		assertEquals(Math.sqrt(32.0 / 7), statistics.getStandardDeviation(), 1e-12);
+		assertEquals(2, statistics.getMinimum(), 0);
+		assertEquals(9, statistics.getMaximum(), 0);
+	}
+	
+	
+	private static SimulationConditions createConditions() {
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		SimulationOptions options = new SimulationOptions(rocket);
+		options.setMotorConfigurationID(rocket.getDefaultConfiguration().getFlightConfigurationID());
+		options.setISAAtmosphere(true);
+		options.setLaunchRodLength(1);
+		options.setLaunchLatitude(28.61);
+		options.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+		options.setWindSpeedAverage(2);
+		options.setWindTurbulenceIntensity(0.1);
+		options.setRandomSeed(42);
+		return options.toSimulationConditions();
+	}
+	
+	private static Dispersion createDispersion() {
+		Dispersion dispersion = new Dispersion();
+		dispersion.setWindSpeedDeviation(1);
+		dispersion.setWindDirectionDeviation(0.2);
+		dispersion.setLaunchRodAngleDeviation(0.05);
+		dispersion.setImpulseDeviation(0.03);
+		dispersion.setDragDeviation(0.05);
+		dispersion.setMassDeviation(0.02);
+		return dispersion;
+	}
+	
+}
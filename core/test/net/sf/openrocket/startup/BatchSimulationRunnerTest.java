@@ -0,0 +1,320 @@
+package net.sf.openrocket.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.database.motor.MotorDatabase;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.motor.GeneralMotorLoader;
+import net.sf.openrocket.file.openrocket.OpenRocketSaver;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.RK4SimulationStepper;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.util.TestRockets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+
+public class BatchSimulationRunnerTest {
+	
+	private File dir;
+	
+	@Before
+	public void setup() throws IOException {
+		final ThrustCurveMotorSetDatabase motors = new ThrustCurveMotorSetDatabase();
+		motors.addMotor(readMotor());
+	
+		Application.setInjector(Guice.createInjector(Modules.override(new ServicesForTesting()).with(
+				new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(MotorDatabase.class).toInstance(motors);
+					}
+				}), new PluginModule()));
+	
+		dir = File.createTempFile("batch", "");
+		dir.delete();
+		dir.mkdir();
+	}
+	
+	@After
+	public void cleanup() {
+		if (dir != null) {
+			delete(dir);
+		}
+	}
+	
+	
+	@Test
+	public void testParseArguments() throws IOException {
+		File csv = new File(dir, "csv");
+		csv.mkdir();
+	
+		BatchSimulationRunner.Arguments arguments = BatchSimulationRunner.parseArguments(new String[] {
+				"-s", "Sim 1", "a.ork", "--simulation", "Sim 2", "-t", "3", "--csv", csv.getPath(), "-p",
+				"-m", "motors", "--motors", "more.eng", "-a", "sounding.txt", "-w", "wind.txt", "b.ork" });
+		assertFalse(arguments.help);
+		assertEquals(Arrays.asList(new File("a.ork"), new File("b.ork")), arguments.files);
+		assertEquals(new HashSet<String>(Arrays.asList("Sim 1", "Sim 2")), arguments.names);
+		assertEquals(Arrays.asList(new File("motors"), new File("more.eng")), arguments.motorFiles);
+		assertEquals(3, arguments.threads);
+		assertEquals(csv, arguments.csvDirectory);
+		assertTrue(arguments.profile);
+		assertEquals(new File("sounding.txt"), arguments.soundingFile);
+		assertEquals(new File("wind.txt"), arguments.windFile);
+	
+		// Defaults
+		arguments = BatchSimulationRunner.parseArguments(new String[] { "a.ork" });
+		assertEquals(Collections.singletonList(new File("a.ork")), arguments.files);
+		assertTrue(arguments.names.isEmpty());
+		assertTrue(arguments.motorFiles.isEmpty());
+		assertEquals(Runtime.getRuntime().availableProcessors(), arguments.threads);
+		assertNull(arguments.csvDirectory);
+		assertFalse(arguments.profile);
+		assertNull(arguments.soundingFile);
+		assertNull(arguments.windFile);
+	
+		// Help stops the parsing before the other arguments are validated
+		assertTrue(BatchSimulationRunner.parseArguments(new String[] { "-h" }).help);
+		assertTrue(BatchSimulationRunner.parseArguments(new String[] { "--help", "-x" }).help);
+	}
+	
+	
+	@Test
+	public void testInvalidArguments() throws IOException {
+		File notDirectory = new File(dir, "file.txt");
+		write("", notDirectory);
+	
+		assertInvalid("No files specified");
+		assertInvalid("No files specified", "-s", "Sim 1");
+		assertInvalid("Missing value for -s", "a.ork", "-s");
+		assertInvalid("Missing value for --threads", "a.ork", "--threads");
+		assertInvalid("Missing value for -c", "a.ork", "-c");
+		assertInvalid("Missing value for -m", "a.ork", "-m");
+		assertInvalid("Missing value for -a", "a.ork", "-a");
+		assertInvalid("Missing value for -w", "a.ork", "-w");
+		assertInvalid("Invalid thread count four", "-t", "four", "a.ork");
+		assertInvalid("Thread count must be positive", "-t", "0", "a.ork");
+		assertInvalid("Thread count must be positive", "-t", "-2", "a.ork");
+		assertInvalid("Not a directory: " + notDirectory, "-c", notDirectory.getPath(), "a.ork");
+		assertInvalid("Not a directory: " + new File(dir, "missing"), "-c", new File(dir, "missing").getPath(), "a.ork");
+		assertInvalid("Unknown option -x", "-x", "a.ork");
+		assertInvalid("Unknown option --csv-directory", "a.ork", "--csv-directory", dir.getPath());
+		assertInvalid("Profiling requires a CSV directory", "-p", "a.ork");
+	}
+	
+	
+	@Test
+	public void testCreateRunner() throws IOException {
+		File sounding = new File(dir, "sounding.txt");
+		File wind = new File(dir, "wind.txt");
+		write("0 101325 288.15\n1000 89875 281.65\n", sounding);
+		write("0 2 90\n1000 8 180\n", wind);
+	
+		BatchSimulationRunner.Arguments arguments = BatchSimulationRunner.parseArguments(new String[] {
+				"-a", sounding.getPath(), "-w", wind.getPath(), "a.ork" });
+		assertNotNull(BatchSimulationRunner.createRunner(arguments, System.out, System.err));
+	
+		// Files that are missing or invalid are reported with their name
+		write("0 101325\n", sounding);
+		assertLoadFails(sounding, "-a", sounding.getPath(), "a.ork");
+		File missing = new File(dir, "missing.txt");
+		assertLoadFails(missing, "-w", missing.getPath(), "a.ork");
+		write("0 2 90\nxyz\n", wind);
+		assertLoadFails(wind, "-w", wind.getPath(), "a.ork");
+	}
+	
+	
+	@Test
+	public void testRun() throws IOException {
+		File ork = new File(dir, "test.rocket.ork");
+		saveDocument(ork, "Test sim", "Second/run: #2");
+		File csv = new File(dir, "csv");
+		csv.mkdir();
+	
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int exitCode = run(Collections.singletonList(ork), Collections.<String> emptySet(), csv, true, out, err);
+	
+		String[] lines = lines(out);
+		assertEquals(3, lines.length);
+		assertEquals("File\tSimulation\tStatus\tApogee (m)\tMax velocity (m/s)\tTime to apogee (s)\t" +
+				"Flight time (s)\tGround hit velocity (m/s)\tWarnings", lines[0]);
+		boolean warnings = false;
+		String[] names = { "Test sim", "Second/run: #2" };
+		for (int i = 0; i < names.length; i++) {
+			String[] fields = lines[i + 1].split("\t", -1);
+			assertEquals(lines[i + 1], 9, fields.length);
+			assertEquals(ork.getPath(), fields[0]);
+			assertEquals(names[i], fields[1]);
+			if (fields[2].equals("WARNINGS")) {
+				warnings = true;
+				assertFalse(fields[8].isEmpty());
+			} else {
+				assertEquals(lines[i + 1], "OK", fields[2]);
+				assertEquals("", fields[8]);
+			}
+			assertTrue(Double.parseDouble(fields[3]) > 0);
+			assertTrue(Double.parseDouble(fields[4]) > 0);
+		}
+		assertEquals(warnings ? BatchSimulationRunner.EXIT_WARNINGS : BatchSimulationRunner.EXIT_SUCCESS, exitCode);
+		assertTrue(err.toString("UTF-8").contains("Ran 2 simulations on 2 threads"));
+	
+		// The CSV files are named by the document, position and sanitized simulation name
+		Set<String> files = new HashSet<String>(Arrays.asList(csv.list()));
+		assertEquals(new HashSet<String>(Arrays.asList("test-1-Test_sim.csv", "test-1-Test_sim-profile.csv",
+				"test-2-Second_run_2.csv", "test-2-Second_run_2-profile.csv")), files);
+		for (File f : csv.listFiles()) {
+			assertTrue(f.length() > 0);
+		}
+	
+		// Only the selected simulations are run, and no CSV is written without a directory
+		out.reset();
+		err.reset();
+		exitCode = run(Collections.singletonList(ork), Collections.singleton("Second/run: #2"), null, false, out, err);
+		lines = lines(out);
+		assertEquals(2, lines.length);
+		assertEquals("Second/run: #2", lines[1].split("\t")[1]);
+		assertTrue(exitCode == BatchSimulationRunner.EXIT_SUCCESS || exitCode == BatchSimulationRunner.EXIT_WARNINGS);
+		assertEquals(4, csv.list().length);
+	}
+	
+	
+	@Test
+	public void testRunFailures() throws IOException {
+		File ork = new File(dir, "test.ork");
+		saveDocument(ork, "Test sim");
+		File missing = new File(dir, "missing.ork");
+	
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int exitCode = run(Arrays.asList(missing, ork), Collections.singleton("Other sim"), null, false, out, err);
+		assertEquals(BatchSimulationRunner.EXIT_FAILURE, exitCode);
+	
+		// The header is written even if no simulations are run
+		assertEquals(1, lines(out).length);
+		String errors = err.toString("UTF-8");
+		assertTrue(errors, errors.contains("Unable to load " + missing + ": "));
+		assertTrue(errors, errors.contains("No simulation named 'Other sim' found"));
+		assertTrue(errors, errors.contains("Ran 0 simulations"));
+	}
+	
+	
+	private static void assertInvalid(String message, String... args) {
+		try {
+			BatchSimulationRunner.parseArguments(args);
+			fail("Parsing " + Arrays.toString(args) + " should fail");
+		} catch (IllegalArgumentException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+	
+	private static void assertLoadFails(File file, String... args) {
+		try {
+			BatchSimulationRunner.createRunner(BatchSimulationRunner.parseArguments(args), System.out, System.err);
+			fail("Loading " + Arrays.toString(args) + " should fail");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Unable to load " + file));
+		}
+	}
+	
+	private static int run(List<File> files, Set<String> names, File csvDirectory, boolean profile,
+			ByteArrayOutputStream out, ByteArrayOutputStream err) throws IOException {
+		PrintStream o = new PrintStream(out, true, "UTF-8");
+		PrintStream e = new PrintStream(err, true, "UTF-8");
+		return new BatchSimulationRunner(files, names, csvDirectory, profile, 2, null, null, o, e).run();
+	}
+	
+	private static String[] lines(ByteArrayOutputStream out) throws IOException {
+		return out.toString("UTF-8").split("\r?\n");
+	}
+	
+	private static void saveDocument(File file, String... simulationNames) throws IOException {
+		// The flyable rocket with a motor found in the motor database when loading
+		Rocket rocket = TestRockets.makeSmallFlyable();
+		BodyTube bodyTube = (BodyTube) rocket.getChild(0).getChild(1);
+		bodyTube.getMotorConfiguration().get(rocket.getDefaultConfiguration().getFlightConfigurationID())
+				.setMotor(readMotor());
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		for (String name : simulationNames) {
+			Simulation simulation = new Simulation(rocket);
+			simulation.setName(name);
+			// The test preferences do not provide usable launch conditions
+			SimulationOptions options = simulation.getOptions();
+			options.setISAAtmosphere(true);
+			options.setLaunchRodLength(1);
+			options.setLaunchRodAngle(0.05);
+			options.setLaunchLatitude(28.61);
+			options.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+			options.setWindSpeedAverage(2);
+			options.setWindTurbulenceIntensity(0.1);
+			document.addSimulation(simulation);
+		}
+	
+		OutputStream os = new FileOutputStream(file);
+		try {
+			new OpenRocketSaver().save(os, document, new StorageOptions());
+		} finally {
+			os.close();
+		}
+	}
+	
+	private static ThrustCurveMotor readMotor() throws IOException {
+		InputStream is = BatchSimulationRunnerTest.class.getResourceAsStream("/net/sf/openrocket/Estes_A8.rse");
+		try {
+			return (ThrustCurveMotor) new GeneralMotorLoader().load(is, "Estes_A8.rse").get(0);
+		} finally {
+			is.close();
+		}
+	}
+	
+	private static void write(String text, File file) throws IOException {
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(text.getBytes("UTF-8"));
+		} finally {
+			os.close();
+		}
+	}
+	
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+	
+}
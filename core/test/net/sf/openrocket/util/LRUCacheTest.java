@@ -0,0 +1,45 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class LRUCacheTest {
+	
+	@Test
+	public void testEviction() {
+		Map<Integer, String> cache = new LRUCache<Integer, String>(3);
+		cache.put(1, "a");
+		cache.put(2, "b");
+		cache.put(3, "c");
+	
+		// Accessing an entry makes it the most recently used
+		assertEquals("a", cache.get(1));
+		cache.put(4, "d");
+		assertEquals(3, cache.size());
+		assertFalse(cache.containsKey(2));
+		assertEquals(Arrays.asList(3, 1, 4), Arrays.asList(cache.keySet().toArray()));
+	
+		cache.put(3, "e");
+		cache.put(5, "f");
+		assertEquals(Arrays.asList(4, 3, 5), Arrays.asList(cache.keySet().toArray()));
+		assertTrue(cache.containsValue("e"));
+	}
+	
+	@Test
+	public void testInvalidSize() {
+		assertEquals(1, new LRUCache<String, String>(1).getMaxSize());
+		try {
+			new LRUCache<String, String>(0);
+			fail("Zero size should fail");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+}
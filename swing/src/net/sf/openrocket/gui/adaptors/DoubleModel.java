@@ -21,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.logging.Markers;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.BugException;
@@ -762,6 +764,12 @@ public class DoubleModel implements StateChangeListener, ChangeSource, Invalidat
 			return;
 		}
 		
+		// Combine the events fired by the setter of a component into a single event
+		Rocket rocket = null;
+		if (source instanceof RocketComponent && ((RocketComponent) source).getRoot() instanceof Rocket) {
+			rocket = (Rocket) ((RocketComponent) source).getRoot();
+			rocket.freeze();
+		}
 		try {
 			setMethod.invoke(source, v / multiplier);
 		} catch (IllegalArgumentException e) {
@@ -770,6 +778,10 @@ public class DoubleModel implements StateChangeListener, ChangeSource, Invalidat
 			throw new BugException("Unable to invoke setMethod of " + this, e);
 		} catch (InvocationTargetException e) {
 			throw Reflection.handleWrappedException(e);
+		} finally {
+			if (rocket != null) {
+				rocket.thaw();
+			}
 		}
 	}
 	
@@ -46,6 +46,9 @@ public class RocketActions {
 	public static final KeyStroke PASTE_KEY_STROKE = KeyStroke.getKeyStroke(KeyEvent.VK_V,
 			Toolkit.getDefaultToolkit().getMenuShortcutKeyMask());
 	
+	/** The rocket changes on which the actions are updated, decal image reloads cannot affect them */
+	private static final int ACTION_CHANGE = ComponentChangeEvent.ALL_CHANGE & ~ComponentChangeEvent.TEXTURE_CHANGE;
+	
 	private final OpenRocketDocument document;
 	private final Rocket rocket;
 	private final BasicFrame parentFrame;
@@ -100,7 +103,7 @@ public class RocketActions {
 			public void componentChanged(ComponentChangeEvent e) {
 				updateActions();
 			}
-		});
+		}, ACTION_CHANGE);
 	}
 
 	/**
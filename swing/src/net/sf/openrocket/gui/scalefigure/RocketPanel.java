@@ -152,6 +152,15 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	
 	private SimulationWorker backgroundSimulationWorker = null;
 	
+	/** The rocket changes that affect the CP, the CG and the background simulation */
+	private static final int EXTRAS_CHANGE = ComponentChangeEvent.MASS_CHANGE |
+			ComponentChangeEvent.AERODYNAMIC_CHANGE | ComponentChangeEvent.TREE_CHANGE |
+			ComponentChangeEvent.MOTOR_CHANGE | ComponentChangeEvent.EVENT_CHANGE |
+			ComponentChangeEvent.UNDO_CHANGE;
+	
+	/** The rocket changes that affect the figures, flight events are not drawn */
+	private static final int FIGURE_CHANGE = ComponentChangeEvent.ALL_CHANGE & ~ComponentChangeEvent.EVENT_CHANGE;
+	
 	private List<EventListener> listeners = new ArrayList<EventListener>();
 	
 	
@@ -212,23 +221,25 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 			@Override
 			public void stateChanged(EventObject e) {
 				updateExtras();
+			}
+		}, EXTRAS_CHANGE);
+		
+		configuration.addChangeListener(new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
 				updateFigures();
 			}
-		});
+		}, FIGURE_CHANGE);
 		
 		document.getRocket().addComponentChangeListener(new ComponentChangeListener() {
 			@Override
 			public void componentChanged(ComponentChangeEvent e) {
 				// System.out.println("Configuration changed, calling updateFigure");
 				if (is3d) {
-					if (e instanceof ComponentChangeEvent) {
-						if (((ComponentChangeEvent) e).isTextureChange()) {
-							figure3d.flushTextureCaches();
-						}
-					}
+					figure3d.flushTextureCaches();
 				}
 			}
-		});
+		}, ComponentChangeEvent.TEXTURE_CHANGE);
 		
 		figure3d.addComponentSelectionListener(new RocketFigure3d.ComponentSelectionListener() {
 			@Override
@@ -2,11 +2,18 @@ package net.sf.openrocket.gui.simulation;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EventObject;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSpinner;
 import javax.swing.event.ChangeEvent;
@@ -19,16 +26,24 @@ import net.sf.openrocket.gui.adaptors.BooleanModel;
 import net.sf.openrocket.gui.adaptors.DoubleModel;
 import net.sf.openrocket.gui.components.BasicSlider;
 import net.sf.openrocket.gui.components.UnitSelector;
+import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
+import net.sf.openrocket.models.wind.WindProfile;
 import net.sf.openrocket.simulation.DefaultSimulationOptionFactory;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.Chars;
+import net.sf.openrocket.util.StateChangeListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SimulationConditionsPanel extends JPanel {
 	private static final Translator trans = Application.getTranslator();
+	private static final Logger log = LoggerFactory.getLogger(SimulationConditionsPanel.class);
 	
 	
 	SimulationConditionsPanel(final Simulation simulation) {
@@ -165,6 +180,38 @@ public class SimulationConditionsPanel extends JPanel {
 		
 		
 		
+		// Wind profile:
+		label = new JLabel(trans.get("simedtdlg.lbl.Windprofile"));
+		//// An altitude profile of the average wind, used instead of the average speed and direction.
+		tip = trans.get("simedtdlg.lbl.ttip.Windprofile");
+		label.setToolTipText(tip);
+		sub.add(label);
+		
+		final JLabel windProfileLabel = new JLabel();
+		windProfileLabel.setToolTipText(tip);
+		sub.add(windProfileLabel, "spanx 2");
+		
+		JButton loadWindProfile = new JButton(trans.get("simedtdlg.but.Loadwindprofile"));
+		loadWindProfile.setToolTipText(tip);
+		loadWindProfile.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadWindProfile(conditions);
+			}
+		});
+		sub.add(loadWindProfile, "split 2, growx");
+		
+		JButton clearWindProfile = new JButton(trans.get("simedtdlg.but.Clearwindprofile"));
+		clearWindProfile.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				conditions.setWindProfile(null);
+			}
+		});
+		sub.add(clearWindProfile, "growx, wrap");
+		
+		
+		
 		
 		//// Temperature and pressure
 		sub = new JPanel(new MigLayout("fill, gap rel unrel",
@@ -243,6 +290,45 @@ public class SimulationConditionsPanel extends JPanel {
 		
 		
 		
+		// Sounding:
+		label = new JLabel(trans.get("simedtdlg.lbl.Sounding"));
+		//// A measured sounding, used instead of the settings above.
+		tip = trans.get("simedtdlg.lbl.ttip.Sounding");
+		label.setToolTipText(tip);
+		sub.add(label);
+		
+		final JLabel soundingLabel = new JLabel();
+		soundingLabel.setToolTipText(tip);
+		sub.add(soundingLabel, "spanx 2");
+		updateFileLabels(windProfileLabel, soundingLabel, conditions);
+		conditions.addChangeListener(new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
+				updateFileLabels(windProfileLabel, soundingLabel, conditions);
+			}
+		});
+		
+		JButton loadSounding = new JButton(trans.get("simedtdlg.but.Loadsounding"));
+		loadSounding.setToolTipText(tip);
+		loadSounding.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadSounding(conditions);
+			}
+		});
+		sub.add(loadSounding, "split 2, growx");
+		
+		JButton clearSounding = new JButton(trans.get("simedtdlg.but.Clearsounding"));
+		clearSounding.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				conditions.setSoundingAtmosphere(null);
+			}
+		});
+		sub.add(clearSounding, "growx, wrap");
+		
+		
+		
 		
 		
 		//// Launch site conditions
@@ -457,6 +543,81 @@ public class SimulationConditionsPanel extends JPanel {
 		
 	}
 	
+	private void updateFileLabels(JLabel windProfileLabel, JLabel soundingLabel, SimulationOptions conditions) {
+		WindProfile windProfile = conditions.getWindProfile();
+		if (windProfile == null) {
+			//// None
+			windProfileLabel.setText(trans.get("simedtdlg.lbl.Windprofile.None"));
+		} else {
+			//// {0} layers
+			windProfileLabel.setText(trans.get("simedtdlg.lbl.Windprofile.Layers").replace("{0}",
+					String.valueOf(windProfile.getLayerCount())));
+		}
+		
+		SoundingAtmosphericModel sounding = conditions.getSoundingAtmosphere();
+		if (sounding == null) {
+			//// None
+			soundingLabel.setText(trans.get("simedtdlg.lbl.Sounding.None"));
+		} else {
+			//// {0} measurements
+			soundingLabel.setText(trans.get("simedtdlg.lbl.Sounding.Measurements").replace("{0}",
+					String.valueOf(sounding.getMeasurementCount())));
+		}
+	}
+	
+	private void loadWindProfile(SimulationOptions conditions) {
+		File file = chooseFile();
+		if (file == null) {
+			return;
+		}
+		try {
+			InputStream is = new FileInputStream(file);
+			try {
+				conditions.setWindProfile(WindProfile.load(is));
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			log.warn("Error loading wind profile " + file, e);
+			JOptionPane.showMessageDialog(this, e.getLocalizedMessage(),
+					trans.get("simedtdlg.error.Windprofile"), JOptionPane.ERROR_MESSAGE);
+		}
+	}
+	
+	private void loadSounding(SimulationOptions conditions) {
+		File file = chooseFile();
+		if (file == null) {
+			return;
+		}
+		try {
+			InputStream is = new FileInputStream(file);
+			try {
+				conditions.setSoundingAtmosphere(SoundingAtmosphericModel.load(is));
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			log.warn("Error loading sounding " + file, e);
+			JOptionPane.showMessageDialog(this, e.getLocalizedMessage(),
+					trans.get("simedtdlg.error.Sounding"), JOptionPane.ERROR_MESSAGE);
+		}
+	}
+	
+	/**
+	 * Let the user choose a file to load, or return <code>null</code> if cancelled.
+	 */
+	private File chooseFile() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+		chooser.setCurrentDirectory(((SwingPreferences) Application.getPreferences()).getDefaultDirectory());
+		
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return null;
+		}
+		((SwingPreferences) Application.getPreferences()).setDefaultDirectory(chooser.getCurrentDirectory());
+		return chooser.getSelectedFile();
+	}
+	
 	private String getIntensityDescription(double i) {
 		if (i < 0.001)
 			//// None